@@ -1,8 +1,10 @@
 package com.animetui.adapter.tui;
 
+import com.animetui.application.DownloadEpisodesUseCase;
 import com.animetui.application.FetchCatalogUseCase;
 import com.animetui.application.FetchEpisodesUseCase;
 import com.animetui.application.PlayEpisodeUseCase;
+import com.animetui.application.PlayPlaylistUseCase;
 import com.animetui.application.SearchAnimeUseCase;
 import com.animetui.application.dto.AnimeDto;
 import com.animetui.application.dto.EpisodeDto;
@@ -13,29 +15,39 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Optional;
 
 /**
  * Terminal User Interface for the Anime TUI application.
  * Main driver that coordinates user interactions with application use-cases.
+ * Use-case calls go through the {@link EventLoop}, so they can be cancelled or left
+ * running in the background instead of freezing input.
  */
 public class AnimeTui {
     
     private final FetchCatalogUseCase fetchCatalog;
     private final FetchEpisodesUseCase fetchEpisodes;
     private final PlayEpisodeUseCase playEpisode;
+    private final PlayPlaylistUseCase playPlaylist;
+    private final DownloadEpisodesUseCase downloadEpisodes;
     private final SearchAnimeUseCase searchAnime;
-    private final Scanner scanner;
+    private final EventLoop loop;
     
     public AnimeTui(FetchCatalogUseCase fetchCatalog,
                     FetchEpisodesUseCase fetchEpisodes,
                     PlayEpisodeUseCase playEpisode,
+                    PlayPlaylistUseCase playPlaylist,
+                    DownloadEpisodesUseCase downloadEpisodes,
                     SearchAnimeUseCase searchAnime) {
         this.fetchCatalog = fetchCatalog;
         this.fetchEpisodes = fetchEpisodes;
         this.playEpisode = playEpisode;
+        this.playPlaylist = playPlaylist;
+        this.downloadEpisodes = downloadEpisodes;
         this.searchAnime = searchAnime;
-        this.scanner = new Scanner(System.in);
+        Terminal terminal = Terminal.open();
+        ViewHelpers.attach(terminal);
+        this.loop = new EventLoop(terminal);
     }
     
     /**
@@ -45,24 +57,31 @@ public class AnimeTui {
         ViewHelpers.printHeader("Welcome to Anime-TUI");
         ViewHelpers.printInfo("Your terminal-based anime streaming application");
         
-        while (true) {
-            try {
-                int choice = showMainMenu();
-                
-                switch (choice) {
-                    case 0 -> browsePopularAnime();
-                    case 1 -> browseCurrentSeason();
-                    case 2 -> searchForAnime();
-                    case 3 -> {
-                        ViewHelpers.printInfo("Thank you for using Anime-TUI!");
-                        return;
+        try {
+            while (true) {
+                try {
+                    loop.announceBackgroundResults();
+                    int choice = showMainMenu();
+                    
+                    switch (choice) {
+                        case 0 -> browsePopularAnime();
+                        case 1 -> browseCurrentSeason();
+                        case 2 -> searchForAnime();
+                        case 3, -1 -> {
+                            ViewHelpers.detach();
+                            ViewHelpers.printInfo("Thank you for using Anime-TUI!");
+                            return;
+                        }
+                        default -> ViewHelpers.printError("Invalid choice");
                     }
-                    default -> ViewHelpers.printError("Invalid choice");
+                } catch (Exception e) {
+                    ViewHelpers.printError("An error occurred: " + e.getMessage());
+                    ViewHelpers.waitForEnter(loop);
                 }
-            } catch (Exception e) {
-                ViewHelpers.printError("An error occurred: " + e.getMessage());
-                ViewHelpers.waitForEnter(scanner);
             }
+        } finally {
+            ViewHelpers.detach();
+            loop.close();
         }
     }
     
@@ -74,15 +93,17 @@ public class AnimeTui {
             "Exit"
         );
         
-        return ViewHelpers.showMenu("Main Menu", options, scanner);
+        return ViewHelpers.showMenu("Main Menu", options, loop);
     }
     
     private void browsePopularAnime() {
-        ViewHelpers.showLoading("Fetching popular anime");
-        
         try {
-            List<AnimeDto> animeList = fetchCatalog.execute(15);
-            ViewHelpers.clearLoading();
+            Optional<List<AnimeDto>> fetched = loop.await("popular", "Fetching popular anime",
+                    () -> fetchCatalog.execute(15));
+            if (fetched.isEmpty()) {
+                return;
+            }
+            List<AnimeDto> animeList = fetched.get();
             
             if (animeList.isEmpty()) {
                 ViewHelpers.printWarning("No anime found");
@@ -93,27 +114,28 @@ public class AnimeTui {
                 "Select an anime to view episodes:",
                 animeList,
                 this::formatAnimeDisplay,
-                scanner
+                loop
             );
             
             if (selectedIndex >= 0) {
                 showAnimeDetails(animeList.get(selectedIndex));
             }
-            
+        
         } catch (Exception e) {
-            ViewHelpers.clearLoading();
             ViewHelpers.printError("Failed to fetch popular anime: " + e.getMessage());
         }
         
-        ViewHelpers.waitForEnter(scanner);
+        ViewHelpers.waitForEnter(loop);
     }
     
     private void browseCurrentSeason() {
-        ViewHelpers.showLoading("Fetching current season anime");
-        
         try {
-            List<AnimeDto> animeList = fetchCatalog.executeCurrentSeason(15);
-            ViewHelpers.clearLoading();
+            Optional<List<AnimeDto>> fetched = loop.await("season", "Fetching current season anime",
+                    () -> fetchCatalog.executeCurrentSeason(15));
+            if (fetched.isEmpty()) {
+                return;
+            }
+            List<AnimeDto> animeList = fetched.get();
             
             if (animeList.isEmpty()) {
                 ViewHelpers.printWarning("No anime found for current season");
@@ -124,34 +146,38 @@ public class AnimeTui {
                 "Select an anime to view episodes:",
                 animeList,
                 this::formatAnimeDisplay,
-                scanner
+                loop
             );
             
             if (selectedIndex >= 0) {
                 showAnimeDetails(animeList.get(selectedIndex));
             }
-            
+        
         } catch (Exception e) {
-            ViewHelpers.clearLoading();
             ViewHelpers.printError("Failed to fetch current season anime: " + e.getMessage());
         }
         
-        ViewHelpers.waitForEnter(scanner);
+        ViewHelpers.waitForEnter(loop);
     }
     
     private void searchForAnime() {
-        String query = ViewHelpers.getInput("Enter search query:", scanner);
+        String query = ViewHelpers.getInput("Enter search query:", loop);
         
+        if (query == null) {
+            return;
+        }
         if (query.isEmpty()) {
             ViewHelpers.printWarning("Search query cannot be empty");
             return;
         }
         
-        ViewHelpers.showLoading("Searching for anime");
-        
         try {
-            List<AnimeDto> animeList = searchAnime.execute(query, 15);
-            ViewHelpers.clearLoading();
+            Optional<List<AnimeDto>> found = loop.await("search:" + query, "Searching for anime",
+                    () -> searchAnime.execute(query, 15));
+            if (found.isEmpty()) {
+                return;
+            }
+            List<AnimeDto> animeList = found.get();
             
             if (animeList.isEmpty()) {
                 ViewHelpers.printWarning("No anime found matching your search");
@@ -162,40 +188,39 @@ public class AnimeTui {
                 "Search Results - Select an anime:",
                 animeList,
                 this::formatAnimeDisplay,
-                scanner
+                loop
             );
             
             if (selectedIndex >= 0) {
                 showAnimeDetails(animeList.get(selectedIndex));
             }
-            
+        
         } catch (Exception e) {
-            ViewHelpers.clearLoading();
             ViewHelpers.printError("Search failed: " + e.getMessage());
         }
         
-        ViewHelpers.waitForEnter(scanner);
+        ViewHelpers.waitForEnter(loop);
     }
     
     private void showAnimeDetails(AnimeDto animeDto) {
         ViewHelpers.printHeader(animeDto.title());
         
-        System.out.println("Status: " + animeDto.status());
-        System.out.println("Episodes: " + (animeDto.episodeCount() > 0 ? animeDto.episodeCount() : "Unknown"));
+        ViewHelpers.printLine("Status: " + animeDto.status());
+        ViewHelpers.printLine("Episodes: " + (animeDto.episodeCount() > 0 ? animeDto.episodeCount() : "Unknown"));
         if (animeDto.airingDate() != null) {
-            System.out.println("Aired: " + animeDto.airingDate());
+            ViewHelpers.printLine("Aired: " + animeDto.airingDate());
         }
         if (!animeDto.genres().isEmpty()) {
-            System.out.println("Genres: " + String.join(", ", animeDto.genres()));
+            ViewHelpers.printLine("Genres: " + String.join(", ", animeDto.genres()));
         }
         
         if (animeDto.synopsis() != null && !animeDto.synopsis().isEmpty()) {
-            System.out.println("\nSynopsis:");
-            System.out.println(wrapText(animeDto.synopsis(), 80));
+            ViewHelpers.printLine("\nSynopsis:");
+            ViewHelpers.printLine(wrapText(animeDto.synopsis(), 80));
         }
         
-        System.out.println();
-        String choice = ViewHelpers.getInput("View episodes? (y/n):", scanner);
+        ViewHelpers.printLine("");
+        String choice = ViewHelpers.getInput("View episodes? (y/n):", loop);
         
         if ("y".equalsIgnoreCase(choice) || "yes".equalsIgnoreCase(choice)) {
             showEpisodes(animeDto);
@@ -203,11 +228,13 @@ public class AnimeTui {
     }
     
     private void showEpisodes(AnimeDto animeDto) {
-        ViewHelpers.showLoading("Fetching episodes");
-        
         try {
-            List<EpisodeDto> episodes = fetchEpisodes.execute(animeDto.id());
-            ViewHelpers.clearLoading();
+            Optional<List<EpisodeDto>> fetched = loop.await("episodes:" + animeDto.id(), "Fetching episodes",
+                    () -> fetchEpisodes.execute(animeDto.id()));
+            if (fetched.isEmpty()) {
+                return;
+            }
+            List<EpisodeDto> episodes = fetched.get();
             
             if (episodes.isEmpty()) {
                 ViewHelpers.printWarning("No episodes found for this anime");
@@ -218,32 +245,116 @@ public class AnimeTui {
                 "Select an episode to play:",
                 episodes,
                 this::formatEpisodeDisplay,
-                scanner
+                EpisodeDto::number,
+                loop
             );
             
-            if (selectedIndex >= 0) {
-                playSelectedEpisode(episodes.get(selectedIndex), animeDto.title());
+            if (selectedIndex < 0) {
+                return;
             }
             
+            int action = ViewHelpers.showMenu(formatEpisodeDisplay(episodes.get(selectedIndex)), List.of(
+                "Play",
+                "Binge from this episode to the last",
+                "Download from this episode to the last"
+            ), loop);
+            if (action < 0) {
+                return;
+            }
+            
+            switch (action) {
+                case 0 -> {
+                    // A new selection replaces whatever playlist is still being queued
+                    playPlaylist.cancel();
+                    playFrom(episodes, selectedIndex, animeDto.title());
+                }
+                case 1 -> {
+                    playPlaylist.cancel();
+                    if (playPlaylist.canQueue()) {
+                        bingeFrom(episodes, selectedIndex, animeDto.title());
+                    } else {
+                        ViewHelpers.printWarning("This player cannot queue episodes; you will be asked before each next one");
+                        playFrom(episodes, selectedIndex, animeDto.title());
+                    }
+                }
+                case 2 -> downloadFrom(episodes, selectedIndex, animeDto.title());
+                default -> ViewHelpers.printError("Invalid choice");
+            }
+        
         } catch (Exception e) {
-            ViewHelpers.clearLoading();
             ViewHelpers.printError("Failed to fetch episodes: " + e.getMessage());
         }
     }
     
-    private void playSelectedEpisode(EpisodeDto episodeDto, String animeTitle) {
+    private void playFrom(List<EpisodeDto> episodes, int index, String animeTitle) {
+        try {
+            while (playSelectedEpisode(episodes, index, animeTitle) && index + 1 < episodes.size()) {
+                String choice = ViewHelpers.getInput(
+                    "Play next episode (" + formatEpisodeDisplay(episodes.get(index + 1)) + ")? (y/n):", loop);
+                if (!"y".equalsIgnoreCase(choice) && !"yes".equalsIgnoreCase(choice)) {
+                    break;
+                }
+                index++;
+            }
+        } finally {
+            // Leaving the show: links prepared for its next episodes are no longer needed
+            playEpisode.leaveShow();
+        }
+    }
+    
+    private void bingeFrom(List<EpisodeDto> episodes, int index, String animeTitle) {
+        ViewHelpers.printInfo("Starting playlist from: " + formatEpisodeDisplay(episodes.get(index)));
+        
+        try {
+            List<Episode> playlist = episodes.subList(index, episodes.size()).stream()
+                    .map(dto -> convertToEpisode(dto, animeTitle))
+                    .toList();
+            Optional<Boolean> started = loop.await(null, "Resolving stream links", () -> {
+                playPlaylist.execute(playlist);
+                return true;
+            });
+            if (started.isEmpty()) {
+                return;
+            }
+            ViewHelpers.printSuccess("Playlist started! The next " + (playlist.size() - 1)
+                    + " episodes are queued as playback advances.");
+        
+        } catch (Exception e) {
+            ViewHelpers.printError("Failed to start playlist: " + e.getMessage());
+        }
+    }
+    
+    private void downloadFrom(List<EpisodeDto> episodes, int index, String animeTitle) {
+        List<Episode> queue = episodes.subList(index, episodes.size()).stream()
+                .map(dto -> convertToEpisode(dto, animeTitle))
+                .toList();
+        downloadEpisodes.execute(queue);
+        ViewHelpers.printSuccess("Queued " + queue.size()
+                + " episodes for download. They play from disk once finished.");
+    }
+    
+    private boolean playSelectedEpisode(List<EpisodeDto> episodes, int index, String animeTitle) {
+        EpisodeDto episodeDto = episodes.get(index);
         ViewHelpers.printInfo("Starting playback for: " + formatEpisodeDisplay(episodeDto));
-        ViewHelpers.showLoading("Resolving stream links");
         
         try {
             Episode episode = convertToEpisode(episodeDto, animeTitle);
-            playEpisode.execute(episode);
-            ViewHelpers.clearLoading();
+            List<Episode> upcoming = episodes.subList(index + 1, episodes.size()).stream()
+                    .map(dto -> convertToEpisode(dto, animeTitle))
+                    .toList();
+            Optional<Boolean> started = loop.await(null, "Resolving stream links", () -> {
+                playEpisode.execute(episode, upcoming);
+                return true;
+            });
+            if (started.isEmpty()) {
+                return false;
+            }
             ViewHelpers.printSuccess("Episode playback started!");
-            
+            return true;
+        
         } catch (Exception e) {
-            ViewHelpers.clearLoading();
             ViewHelpers.printError("Failed to play episode: " + e.getMessage());
+            return false;
         }
     }
     
@@ -0,0 +1,185 @@
+package com.animetui.adapter.tui;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drives the TUI from key events. Use-case calls run on virtual threads while the UI
+ * thread keeps animating a spinner and reading keys: Esc or Ctrl-C cancels the call by
+ * interrupting its thread, which aborts the HTTP exchange underneath, and b leaves it
+ * running in the background so the user can keep navigating. A backgrounded call is
+ * picked up again, finished or not, the next time the same screen asks for it.
+ */
+public class EventLoop implements AutoCloseable {
+    
+    private static final Duration FRAME_INTERVAL = Duration.ofMillis(100);
+    
+    private final Terminal terminal;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Background> background = new ConcurrentHashMap<>();
+    
+    private static final class Background {
+        final String message;
+        final Future<?> future;
+        boolean announced;
+        
+        Background(String message, Future<?> future) {
+            this.message = message;
+            this.future = future;
+        }
+    }
+    
+    public EventLoop(Terminal terminal) {
+        this.terminal = terminal;
+    }
+    
+    /**
+     * Whether keys arrive as they are pressed rather than a line at a time.
+     */
+    public boolean isRaw() {
+        return terminal.isRaw();
+    }
+    
+    /**
+     * Wait for the next key. An interrupted wait is reported as closed input.
+     */
+    public KeyEvent nextKey() {
+        try {
+            return terminal.read();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return KeyEvent.of(KeyEvent.Key.EOF);
+        }
+    }
+    
+    /**
+     * Read a line of text, showing it at the current prompt as it is typed.
+     *
+     * @return the trimmed line, or null if the user cancelled with Esc or Ctrl-C
+     */
+    public String readLine() {
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            KeyEvent key = nextKey();
+            switch (key.key()) {
+                case ENTER -> {
+                    return line.toString().trim();
+                }
+                case BACKSPACE -> {
+                    if (!line.isEmpty()) {
+                        line.setLength(line.length() - 1);
+                        ViewHelpers.showInput(line.toString());
+                    }
+                }
+                case CHARACTER -> {
+                    line.append(key.character());
+                    ViewHelpers.showInput(line.toString());
+                }
+                default -> {
+                    if (key.isCancel()) {
+                        return null;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Run a call on a virtual thread and animate a spinner until it finishes.
+     *
+     * @param backgroundKey identifies the call so a backgrounded run can be picked up
+     *                      again, or null if it may only be awaited or cancelled
+     * @param message what is being done, shown next to the spinner
+     * @param task the call
+     * @return the result, or empty if the user cancelled the call or sent it to the background
+     * @throws RuntimeException if the call failed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> await(String backgroundKey, String message, Callable<T> task) {
+        Background resumed = backgroundKey != null ? background.remove(backgroundKey) : null;
+        Future<T> future = resumed != null ? (Future<T>) resumed.future : executor.submit(task);
+        String hint = backgroundKey != null ? "(Esc to cancel, b to continue in the background)" : "(Esc to cancel)";
+        
+        for (int frame = 0; ; frame++) {
+            ViewHelpers.showLoading(message, frame, hint);
+            try {
+                T result = future.get(FRAME_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                ViewHelpers.clearLoading(message, "Done!");
+                return Optional.of(result);
+            } catch (TimeoutException e) {
+                // Still running: look at the keys, then draw the next frame
+            } catch (ExecutionException e) {
+                ViewHelpers.clearLoading(message, "Failed");
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (CancellationException e) {
+                ViewHelpers.clearLoading(message, "Cancelled");
+                return Optional.empty();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                ViewHelpers.clearLoading(message, "Cancelled");
+                return Optional.empty();
+            }
+            
+            KeyEvent key;
+            while ((key = pollKey()) != null) {
+                if (key.isCancel()) {
+                    future.cancel(true);
+                    ViewHelpers.clearLoading(message, "Cancelled");
+                    return Optional.empty();
+                }
+                if (backgroundKey != null && key.key() == KeyEvent.Key.CHARACTER
+                        && Character.toLowerCase(key.character()) == 'b') {
+                    background.put(backgroundKey, new Background(message, future));
+                    ViewHelpers.clearLoading(message, "Continuing in the background");
+                    return Optional.empty();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Tell the user about background calls that have finished since the last time.
+     */
+    public void announceBackgroundResults() {
+        for (Background call : background.values()) {
+            if (call.future.isDone() && !call.announced) {
+                call.announced = true;
+                ViewHelpers.printInfo(call.message + " finished in the background; open it again to see the results");
+            }
+        }
+    }
+    
+    /**
+     * Cancel whatever is still running in the background and give the terminal back.
+     */
+    @Override
+    public void close() {
+        background.values().forEach(call -> call.future.cancel(true));
+        background.clear();
+        executor.shutdownNow();
+        terminal.close();
+    }
+    
+    private KeyEvent pollKey() {
+        try {
+            return terminal.poll(Duration.ZERO);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
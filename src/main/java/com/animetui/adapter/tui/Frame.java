@@ -0,0 +1,223 @@
+package com.animetui.adapter.tui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Off-screen grid of character cells, one per terminal column. Frames are composed
+ * in memory and turned into output by diffing against the frame currently on the
+ * terminal, so only cells that changed are written.
+ */
+final class Frame {
+    
+    private static final char BLANK = ' ';
+    // Right half of a double-width character; never written itself
+    private static final char CONTINUATION = '\0';
+    private static final String CLEAR_SCREEN = "\u001B[H\u001B[2J";
+    private static final String HIDE_CURSOR = "\u001B[?25l";
+    private static final String SHOW_CURSOR = "\u001B[?25h";
+    private static final String CLEAR_TO_END_OF_LINE = "\u001B[K";
+    // A cursor move takes about this many bytes
+    private static final int MAX_BRIDGED_CELLS = 6;
+    
+    final int rows;
+    final int columns;
+    private final char[] chars;
+    private final Span.Style[] styles;
+    private int cursorRow = -1;
+    private int cursorColumn;
+    
+    Frame(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.chars = new char[rows * columns];
+        this.styles = new Span.Style[rows * columns];
+        Arrays.fill(chars, BLANK);
+        Arrays.fill(styles, Span.Style.PLAIN);
+    }
+    
+    /**
+     * Write spans into a row, cutting them off at the right edge.
+     *
+     * @return the column after the last character written
+     */
+    int draw(int row, List<Span> spans) {
+        int column = 0;
+        for (Span span : spans) {
+            String text = span.text();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isLowSurrogate(c)) {
+                    continue;
+                }
+                if (Character.isHighSurrogate(c) || Character.isISOControl(c)) {
+                    // Characters outside the BMP have no reliable width; controls would move the cursor
+                    c = '?';
+                }
+                int width = width(c);
+                if (column + width > columns) {
+                    return column;
+                }
+                int cell = row * columns + column;
+                chars[cell] = c;
+                styles[cell] = span.style();
+                if (width == 2) {
+                    chars[cell + 1] = CONTINUATION;
+                    styles[cell + 1] = span.style();
+                }
+                column += width;
+            }
+        }
+        return column;
+    }
+    
+    /**
+     * Split a line into rows of at most the given width, the way a terminal soft-wraps
+     * it. Widths are counted as {@link #draw} counts them, so no row gets cut off.
+     */
+    static List<List<Span>> wrap(List<Span> spans, int columns) {
+        List<List<Span>> rows = new ArrayList<>();
+        List<Span> row = new ArrayList<>();
+        int column = 0;
+        for (Span span : spans) {
+            String text = span.text();
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isLowSurrogate(c)) {
+                    continue;
+                }
+                int width = Character.isHighSurrogate(c) || Character.isISOControl(c) ? 1 : width(c);
+                if (column + width > columns && column > 0) {
+                    if (i > start) {
+                        row.add(new Span(text.substring(start, i), span.style()));
+                    }
+                    rows.add(row);
+                    row = new ArrayList<>();
+                    column = 0;
+                    start = i;
+                }
+                column += width;
+            }
+            if (start < text.length()) {
+                row.add(new Span(text.substring(start), span.style()));
+            }
+        }
+        rows.add(row);
+        return rows;
+    }
+    
+    /**
+     * Where to leave the cursor once the frame is drawn; without a position it is hidden.
+     */
+    void placeCursor(int row, int column) {
+        cursorRow = row;
+        cursorColumn = Math.min(column, columns - 1);
+    }
+    
+    /**
+     * Escape sequences that turn the terminal from showing the previous frame into
+     * showing this one. Without a previous frame of the same size, the screen is
+     * cleared and every non-blank cell written.
+     */
+    String diff(Frame previous) {
+        StringBuilder out = new StringBuilder();
+        Frame base = previous;
+        if (base == null || base.rows != rows || base.columns != columns) {
+            base = new Frame(rows, columns);
+            out.append(CLEAR_SCREEN);
+        }
+        out.append(HIDE_CURSOR);
+        
+        Span.Style current = null;
+        for (int row = 0; row < rows; row++) {
+            int blankFrom = blankFrom(row);
+            int column = nextChange(base, row, 0);
+            while (column < columns) {
+                int cell = row * columns + column;
+                if (chars[cell] == CONTINUATION && column > 0) {
+                    // Redraw the whole double-width character
+                    column--;
+                    cell--;
+                }
+                
+                out.append("\u001B[").append(row + 1).append(';').append(column + 1).append('H');
+                while (column < columns) {
+                    if (column >= blankFrom) {
+                        // The rest of the row is blank: erase it if anything there changed
+                        if (nextChange(base, row, column) < columns) {
+                            out.append(Span.Style.RESET).append(CLEAR_TO_END_OF_LINE);
+                            current = Span.Style.PLAIN;
+                        }
+                        column = columns;
+                        break;
+                    }
+                    if (sameCell(base, cell)) {
+                        // Rewriting a short unchanged stretch is cheaper than moving the cursor past it
+                        int next = nextChange(base, row, column);
+                        if (next == columns || next - column > MAX_BRIDGED_CELLS) {
+                            column = next;
+                            break;
+                        }
+                    }
+                    if (chars[cell] != CONTINUATION) {
+                        if (styles[cell] != current) {
+                            out.append(Span.Style.RESET).append(styles[cell].code);
+                            current = styles[cell];
+                        }
+                        out.append(chars[cell]);
+                    }
+                    column++;
+                    cell++;
+                }
+            }
+        }
+        
+        out.append(Span.Style.RESET);
+        if (cursorRow >= 0) {
+            out.append("\u001B[").append(cursorRow + 1).append(';').append(cursorColumn + 1).append('H')
+                    .append(SHOW_CURSOR);
+        }
+        return out.toString();
+    }
+    
+    private int blankFrom(int row) {
+        int column = columns;
+        while (column > 0 && chars[row * columns + column - 1] == BLANK
+                && styles[row * columns + column - 1] == Span.Style.PLAIN) {
+            column--;
+        }
+        return column;
+    }
+    
+    private int nextChange(Frame other, int row, int from) {
+        int column = from;
+        while (column < columns && sameCell(other, row * columns + column)) {
+            column++;
+        }
+        return column;
+    }
+    
+    private boolean sameCell(Frame other, int cell) {
+        return chars[cell] == other.chars[cell] && styles[cell] == other.styles[cell];
+    }
+    
+    /**
+     * Terminal columns taken by a character: two for East Asian wide and fullwidth
+     * forms, one otherwise.
+     */
+    static int width(char c) {
+        if (c < 0x1100) {
+            return 1;
+        }
+        boolean wide = c <= 0x115F
+                || (c >= 0x2E80 && c <= 0xA4CF && c != 0x303F)
+                || (c >= 0xAC00 && c <= 0xD7A3)
+                || (c >= 0xF900 && c <= 0xFAFF)
+                || (c >= 0xFE30 && c <= 0xFE4F)
+                || (c >= 0xFF00 && c <= 0xFF60)
+                || (c >= 0xFFE0 && c <= 0xFFE6);
+        return wide ? 2 : 1;
+    }
+}
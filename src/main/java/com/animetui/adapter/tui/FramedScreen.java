@@ -0,0 +1,103 @@
+package com.animetui.adapter.tui;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Screen that owns the terminal's alternate screen. Each render composes the tail
+ * of the page into a {@link Frame}, diffs it against the frame on the terminal and
+ * sends only the changed cells, in a single write. Typing at a prompt or a spinner
+ * frame thus costs a few bytes instead of a redraw. A new page is painted in full,
+ * which also wipes anything else that wrote to the terminal in between.
+ */
+final class FramedScreen extends Screen {
+    
+    private static final String ENTER_ALTERNATE_SCREEN = "\u001B[?1049h";
+    private static final String LEAVE_ALTERNATE_SCREEN = "\u001B[?25h\u001B[?1049l";
+    
+    private final Terminal terminal;
+    private final OutputStream out = new FileOutputStream(FileDescriptor.out);
+    private Frame shown;
+    private boolean entered;
+    
+    FramedScreen(Terminal terminal) {
+        this.terminal = terminal;
+    }
+    
+    @Override
+    int height() {
+        return terminal.size().rows();
+    }
+    
+    @Override
+    int lineCount() {
+        int columns = terminal.size().columns();
+        int rows = 0;
+        for (List<Span> line : lines) {
+            rows += Frame.wrap(line, columns).size();
+        }
+        return rows;
+    }
+    
+    @Override
+    void render() {
+        Terminal.Size size = terminal.size();
+        // Page text and the prompt continue on the next row; the view and status are laid out to fit
+        List<List<Span>> content = new ArrayList<>();
+        for (List<Span> line : lines) {
+            content.addAll(Frame.wrap(line, size.columns()));
+        }
+        content.addAll(view);
+        if (status != null) {
+            content.add(status);
+        }
+        if (prompt != null) {
+            content.addAll(Frame.wrap(promptLine(), size.columns()));
+        }
+        
+        // Like a scrolling terminal, the newest lines stay in view
+        Frame frame = new Frame(size.rows(), size.columns());
+        int first = Math.max(0, content.size() - size.rows());
+        int lastColumn = 0;
+        for (int row = 0; first + row < content.size(); row++) {
+            lastColumn = frame.draw(row, content.get(first + row));
+        }
+        if (prompt != null) {
+            frame.placeCursor(content.size() - 1 - first, lastColumn);
+        }
+        
+        StringBuilder output = new StringBuilder();
+        if (!entered) {
+            output.append(ENTER_ALTERNATE_SCREEN);
+            entered = true;
+        }
+        output.append(frame.diff(pageStarted ? null : shown));
+        write(output.toString());
+        shown = frame;
+        pageStarted = false;
+    }
+    
+    @Override
+    void close() {
+        if (entered) {
+            write(LEAVE_ALTERNATE_SCREEN);
+            entered = false;
+            shown = null;
+        }
+    }
+    
+    private void write(String text) {
+        // Whatever else went to System.out must land before the frame
+        System.out.flush();
+        try {
+            out.write(text.getBytes(System.out.charset()));
+            out.flush();
+        } catch (IOException e) {
+            // Nowhere left to report it
+        }
+    }
+}
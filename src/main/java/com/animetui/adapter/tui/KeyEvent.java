@@ -0,0 +1,35 @@
+package com.animetui.adapter.tui;
+
+/**
+ * A key press read from the terminal.
+ *
+ * @param key what was pressed
+ * @param character the typed character when key is CHARACTER
+ */
+public record KeyEvent(Key key, char character) {
+    
+    /**
+     * Keys the TUI distinguishes.
+     */
+    public enum Key {
+        CHARACTER, ENTER, BACKSPACE, ESCAPE, CTRL_C,
+        UP, DOWN, LEFT, RIGHT, PAGE_UP, PAGE_DOWN, HOME, END,
+        // Input closed
+        EOF
+    }
+    
+    public static KeyEvent of(Key key) {
+        return new KeyEvent(key, '\0');
+    }
+    
+    public static KeyEvent character(char character) {
+        return new KeyEvent(Key.CHARACTER, character);
+    }
+    
+    /**
+     * Whether the key asks to abandon what is going on: Esc, Ctrl-C or closed input.
+     */
+    public boolean isCancel() {
+        return key == Key.ESCAPE || key == Key.CTRL_C || key == Key.EOF;
+    }
+}
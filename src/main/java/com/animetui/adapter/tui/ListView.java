@@ -0,0 +1,151 @@
+package com.animetui.adapter.tui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Scrollable window onto a list with one highlighted item. Only the rows inside the
+ * viewport are formatted, each time they are drawn, so rendering cost and memory
+ * stay the same however long the list is.
+ */
+final class ListView<T> {
+    
+    private final List<T> items;
+    private final Function<T, String> displayFunction;
+    private final ToIntFunction<T> numbering;
+    private int height = 1;
+    private int top;
+    private int selected;
+    
+    /**
+     * @param items list to show; should support fast random access
+     * @param displayFunction formats an item as a row
+     * @param numbering number shown before an item and used to jump to it, such as
+     *                  the episode number; null to number items from 1
+     */
+    ListView(List<T> items, Function<T, String> displayFunction, ToIntFunction<T> numbering) {
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Items cannot be empty");
+        }
+        this.items = items;
+        this.displayFunction = displayFunction;
+        this.numbering = numbering;
+    }
+    
+    int selected() {
+        return selected;
+    }
+    
+    int top() {
+        return top;
+    }
+    
+    /**
+     * Set how many rows the viewport has.
+     */
+    void resize(int height) {
+        this.height = Math.max(1, height);
+        top = Math.min(top, Math.max(0, items.size() - this.height));
+        scrollToSelected();
+    }
+    
+    void moveBy(int delta) {
+        select(selected + delta);
+    }
+    
+    void pageDown() {
+        top = Math.min(Math.max(0, items.size() - height), top + height);
+        select(selected + height);
+    }
+    
+    void pageUp() {
+        top = Math.max(0, top - height);
+        select(selected - height);
+    }
+    
+    void home() {
+        select(0);
+    }
+    
+    void end() {
+        select(items.size() - 1);
+    }
+    
+    /**
+     * Highlight the item with the given number.
+     *
+     * @return false if no item has that number
+     */
+    boolean jumpTo(int number) {
+        if (numbering == null) {
+            if (number < 1 || number > items.size()) {
+                return false;
+            }
+            select(number - 1);
+            return true;
+        }
+        
+        // Numbers usually follow positions, so try that spot before scanning
+        int guess = number - 1;
+        if (guess >= 0 && guess < items.size() && numbering.applyAsInt(items.get(guess)) == number) {
+            select(guess);
+            return true;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (numbering.applyAsInt(items.get(i)) == number) {
+                select(i);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Rows of the viewport, the highlighted one marked.
+     */
+    List<List<Span>> render() {
+        int end = Math.min(items.size(), top + height);
+        int labelWidth = Integer.toString(items.size()).length();
+        for (int i = top; i < end; i++) {
+            labelWidth = Math.max(labelWidth, Integer.toString(numberOf(i)).length());
+        }
+        
+        List<List<Span>> rows = new ArrayList<>(end - top);
+        for (int i = top; i < end; i++) {
+            String label = String.format("%" + labelWidth + "d.", numberOf(i));
+            String text = displayFunction.apply(items.get(i));
+            if (i == selected) {
+                rows.add(List.of(Span.of("> " + label, Span.Style.CYAN), Span.of(" " + text, Span.Style.SELECTED)));
+            } else {
+                rows.add(List.of(Span.of("  " + label, Span.Style.CYAN), Span.plain(" " + text)));
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * Which rows are in view, e.g. "21-40 of 1000".
+     */
+    String position() {
+        return (top + 1) + "-" + Math.min(items.size(), top + height) + " of " + items.size();
+    }
+    
+    private int numberOf(int index) {
+        return numbering != null ? numbering.applyAsInt(items.get(index)) : index + 1;
+    }
+    
+    private void select(int index) {
+        selected = Math.max(0, Math.min(items.size() - 1, index));
+        scrollToSelected();
+    }
+    
+    private void scrollToSelected() {
+        if (selected < top) {
+            top = selected;
+        } else if (selected >= top + height) {
+            top = selected - height + 1;
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package com.animetui.adapter.tui;
 
+import com.animetui.application.DownloadEpisodesUseCase;
 import com.animetui.application.FetchCatalogUseCase;
 import com.animetui.application.FetchEpisodesUseCase;
+import com.animetui.application.NextEpisodePreResolver;
 import com.animetui.application.PlayEpisodeUseCase;
+import com.animetui.application.PlayPlaylistUseCase;
 import com.animetui.application.SearchAnimeUseCase;
+import com.animetui.domain.model.StreamLinkSelector;
 import com.animetui.domain.port.AnimeRepository;
 import com.animetui.domain.port.ConfigPort;
+import com.animetui.domain.port.EpisodeDownloader;
+import com.animetui.domain.port.LinkProbe;
 import com.animetui.domain.port.LinkResolver;
 import com.animetui.domain.port.MediaPlayerPort;
+import com.animetui.infrastructure.cache.CachingAnimeRepository;
+import com.animetui.infrastructure.cache.HttpResponseCache;
 import com.animetui.infrastructure.config.AppConfig;
+import com.animetui.infrastructure.download.DownloadManager;
+import com.animetui.infrastructure.http.HttpLinkProbe;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.animetui.infrastructure.http.RateLimiter;
 import com.animetui.infrastructure.player.MpvPlayerAdapter;
+import com.animetui.infrastructure.proxy.HlsPrefetchProxy;
+import com.animetui.infrastructure.proxy.ProxyingMediaPlayer;
 import com.animetui.infrastructure.scraper.JikanAnimeScraper;
 import com.animetui.infrastructure.scraper.LinkResolverFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -27,21 +44,34 @@ public class Main {
             // Load configuration
             ConfigPort config = AppConfig.load();
             
-            // Initialize infrastructure adapters
-            AnimeRepository animeRepository = createAnimeRepository(config);
-            LinkResolver linkResolver = createLinkResolver(config);
-            MediaPlayerPort mediaPlayer = createMediaPlayer(config);
+            // Initialize infrastructure adapters; all HTTP traffic shares one transport
+            HttpTransport transport = HttpTransport.fromConfig(config);
+            AnimeRepository animeRepository = createAnimeRepository(config, transport);
+            LinkResolver linkResolver = createLinkResolver(config, transport);
+            MediaPlayerPort mediaPlayer = createMediaPlayer(config, transport);
             
             // Initialize use cases
             FetchCatalogUseCase fetchCatalog = new FetchCatalogUseCase(animeRepository);
             FetchEpisodesUseCase fetchEpisodes = new FetchEpisodesUseCase(animeRepository);
             SearchAnimeUseCase searchAnime = new SearchAnimeUseCase(animeRepository);
-            PlayEpisodeUseCase playEpisode = new PlayEpisodeUseCase(linkResolver, mediaPlayer);
+            StreamLinkSelector selector = new StreamLinkSelector(config.getInt("player.maxBandwidthKbps", 0) * 1000L);
+            LinkProbe linkProbe = createLinkProbe(config, transport);
+            NextEpisodePreResolver preResolver = new NextEpisodePreResolver(linkResolver, linkProbe,
+                    config.getInt("player.preResolve.depth", 1),
+                    Duration.ofMillis(config.getInt("player.preResolve.delayMs", 5000)));
+            EpisodeDownloader downloader = createDownloader(config, transport);
+            PlayEpisodeUseCase playEpisode = new PlayEpisodeUseCase(linkResolver, mediaPlayer,
+                    selector, linkProbe, preResolver, downloader);
+            PlayPlaylistUseCase playPlaylist = new PlayPlaylistUseCase(linkResolver, mediaPlayer,
+                    selector, linkProbe, config.getInt("player.binge.lookahead", 2), downloader);
+            DownloadEpisodesUseCase downloadEpisodes = new DownloadEpisodesUseCase(linkResolver, selector,
+                    linkProbe, downloader);
             
             // Initialize and run TUI
-            AnimeTui tui = new AnimeTui(fetchCatalog, fetchEpisodes, playEpisode, searchAnime);
+            AnimeTui tui = new AnimeTui(fetchCatalog, fetchEpisodes, playEpisode, playPlaylist,
+                    downloadEpisodes, searchAnime);
             tui.run();
-            
+        
         } catch (Exception e) {
             System.err.println("Failed to start Anime-TUI: " + e.getMessage());
             e.printStackTrace();
@@ -49,16 +79,53 @@ public class Main {
         }
     }
     
-    private static AnimeRepository createAnimeRepository(ConfigPort config) {
+    private static EpisodeDownloader createDownloader(ConfigPort config, HttpTransport transport) {
+        if (!config.getBoolean("download.enabled", true)) {
+            return EpisodeDownloader.none();
+        }
+        return DownloadManager.fromConfig(config, transport);
+    }
+    
+    private static LinkProbe createLinkProbe(ConfigPort config, HttpTransport transport) {
+        if (!config.getBoolean("player.probe.enabled", true)) {
+            return LinkProbe.none();
+        }
+        return HttpLinkProbe.fromConfig(config, transport);
+    }
+    
+    private static AnimeRepository createAnimeRepository(ConfigPort config, HttpTransport transport) {
         String baseUrl = config.getString("scraper.baseUrl", "https://api.jikan.moe/v4");
-        return new JikanAnimeScraper(baseUrl);
+        
+        HttpResponseCache responseCache = null;
+        if (config.getBoolean("cache.enabled", false)) {
+            try {
+                responseCache = HttpResponseCache.fromConfig(config);
+            } catch (IOException e) {
+                System.err.println("Warning: Could not open response cache, continuing without it: " + e.getMessage());
+            }
+        }
+        
+        RateLimiter rateLimiter = RateLimiter.perSecondAndMinute(
+                config.getInt("scraper.rateLimit.perSecond", 3),
+                config.getInt("scraper.rateLimit.perMinute", 60));
+        int maxRetries = config.getInt("scraper.maxRetries", 3);
+        
+        JikanAnimeScraper scraper = new JikanAnimeScraper(baseUrl, transport, responseCache, rateLimiter, maxRetries);
+        Runtime.getRuntime().addShutdownHook(new Thread(scraper::logRateLimitStats, "rate-limit-stats"));
+        
+        AnimeRepository repository = scraper;
+        if (config.getBoolean("cache.enabled", false)) {
+            repository = CachingAnimeRepository.fromConfig(repository, config);
+        }
+        
+        return repository;
     }
     
-    private static LinkResolver createLinkResolver(ConfigPort config) {
-        return LinkResolverFactory.create(config);
+    private static LinkResolver createLinkResolver(ConfigPort config, HttpTransport transport) {
+        return LinkResolverFactory.create(config, transport);
     }
     
-    private static MediaPlayerPort createMediaPlayer(ConfigPort config) {
+    private static MediaPlayerPort createMediaPlayer(ConfigPort config, HttpTransport transport) {
         String playerCommand = config.getString("player.command", "mpv");
         String argsString = config.getString("player.args", "--no-terminal");
         
@@ -66,7 +133,17 @@ public class Main {
                 .filter(arg -> !arg.trim().isEmpty())
                 .toList();
         
-        MediaPlayerPort player = new MpvPlayerAdapter(playerCommand, args);
+        // Keep one mpv running and drive it over JSON IPC where Unix sockets are available
+        Path ipcSocket = null;
+        boolean windows = System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+        if (config.getBoolean("player.ipc.enabled", true) && !windows) {
+            String socket = config.getString("player.ipc.socket", "");
+            ipcSocket = socket.isBlank()
+                    ? Path.of(System.getProperty("java.io.tmpdir"), "animetui-mpv-" + ProcessHandle.current().pid() + ".sock")
+                    : Path.of(socket);
+        }
+        
+        MediaPlayerPort player = new MpvPlayerAdapter(playerCommand, args, ipcSocket);
         
         // Check if player is available
         if (!player.isAvailable()) {
@@ -74,6 +151,11 @@ public class Main {
             System.err.println("Please install " + playerCommand + " or configure a different player in application.properties");
         }
         
+        // Serve HLS streams to the player from a local prefetch buffer
+        if (config.getBoolean("player.proxy.enabled", true)) {
+            player = new ProxyingMediaPlayer(player, HlsPrefetchProxy.fromConfig(config, transport));
+        }
+        
         return player;
     }
 }
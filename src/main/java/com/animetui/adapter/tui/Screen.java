@@ -0,0 +1,111 @@
+package com.animetui.adapter.tui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What the TUI shows, as ViewHelpers builds it up: the lines of the current page, a
+ * view that is redrawn in place below them (such as the visible part of a list), a
+ * transient status line such as a spinner, and the prompt being typed at. Changes
+ * are collected and only reach the terminal on {@link #render()}.
+ */
+abstract class Screen {
+    
+    protected final List<List<Span>> lines = new ArrayList<>();
+    protected List<List<Span>> view = List.of();
+    // Bumped whenever the view is replaced
+    protected int viewVersion;
+    protected List<Span> status;
+    protected List<Span> prompt;
+    protected String input = "";
+    // Set by newPage until the next render
+    protected boolean pageStarted = true;
+    
+    /**
+     * Start a new page, dropping everything shown so far.
+     */
+    void newPage() {
+        lines.clear();
+        view = List.of();
+        status = null;
+        prompt = null;
+        input = "";
+        pageStarted = true;
+    }
+    
+    void append(List<Span> line) {
+        lines.add(List.copyOf(line));
+    }
+    
+    /**
+     * Rows taken by the lines on the page so far, not counting the view, status or prompt.
+     */
+    int lineCount() {
+        return lines.size();
+    }
+    
+    /**
+     * Rows the screen can show at once.
+     */
+    abstract int height();
+    
+    void setView(List<List<Span>> view) {
+        this.view = List.copyOf(view);
+        viewVersion++;
+    }
+    
+    void clearView() {
+        view = List.of();
+        viewVersion++;
+    }
+    
+    void setStatus(List<Span> status) {
+        this.status = List.copyOf(status);
+    }
+    
+    void clearStatus() {
+        status = null;
+    }
+    
+    /**
+     * Show a prompt on the last line; any previous prompt becomes part of the page.
+     */
+    void prompt(List<Span> prompt) {
+        endPrompt();
+        this.prompt = List.copyOf(prompt);
+        this.input = "";
+    }
+    
+    void setInput(String input) {
+        this.input = input;
+    }
+    
+    /**
+     * Keep the prompt and what was typed at it as a line of the page.
+     */
+    void endPrompt() {
+        if (prompt == null) {
+            return;
+        }
+        lines.add(promptLine());
+        prompt = null;
+        input = "";
+    }
+    
+    protected List<Span> promptLine() {
+        List<Span> line = new ArrayList<>(prompt);
+        line.add(Span.plain(input));
+        return line;
+    }
+    
+    /**
+     * Bring the terminal up to date.
+     */
+    abstract void render();
+    
+    /**
+     * Give the terminal back.
+     */
+    void close() {
+    }
+}
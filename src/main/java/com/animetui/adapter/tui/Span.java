@@ -0,0 +1,42 @@
+package com.animetui.adapter.tui;
+
+/**
+ * A run of text in one style, the unit screens are composed of.
+ */
+record Span(String text, Style style) {
+    
+    /**
+     * Text styles the TUI uses, with their ANSI escape sequences.
+     */
+    enum Style {
+        PLAIN(""),
+        BOLD("\u001B[1m"),
+        HEADER("\u001B[1m\u001B[36m"),
+        CYAN("\u001B[36m"),
+        GREEN("\u001B[32m"),
+        YELLOW("\u001B[33m"),
+        RED("\u001B[31m"),
+        BLUE("\u001B[34m"),
+        SELECTED("\u001B[7m");
+        
+        static final String RESET = "\u001B[0m";
+        
+        final String code;
+        
+        Style(String code) {
+            this.code = code;
+        }
+    }
+    
+    Span {
+        text = text != null ? text : "";
+    }
+    
+    static Span plain(String text) {
+        return new Span(text, Style.PLAIN);
+    }
+    
+    static Span of(String text, Style style) {
+        return new Span(text, style);
+    }
+}
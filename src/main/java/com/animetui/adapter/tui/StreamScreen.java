@@ -0,0 +1,95 @@
+package com.animetui.adapter.tui;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Screen for terminals the TUI cannot address, such as line-buffered input or
+ * redirected output: new lines are appended to the stream, a replaced view is
+ * printed again below them, and the status line is redrawn in place with a carriage
+ * return. The terminal echoes typed input itself.
+ */
+final class StreamScreen extends Screen {
+    
+    private static final String CLEAR_LINE = "\u001B[K";
+    // The classic terminal height, as there is no way to ask
+    private static final int HEIGHT = 24;
+    
+    private final PrintStream out;
+    private int printed;
+    private int printedViewVersion;
+    private boolean statusShown;
+    private boolean promptShown;
+    
+    StreamScreen(PrintStream out) {
+        this.out = out;
+    }
+    
+    @Override
+    void newPage() {
+        super.newPage();
+        printed = 0;
+    }
+    
+    @Override
+    void endPrompt() {
+        boolean echoed = prompt != null && promptShown;
+        super.endPrompt();
+        promptShown = false;
+        if (echoed) {
+            // The prompt is on screen and the terminal echoed the input after it
+            printed = lines.size();
+        }
+    }
+    
+    @Override
+    int height() {
+        return HEIGHT;
+    }
+    
+    @Override
+    void render() {
+        StringBuilder text = new StringBuilder();
+        boolean viewChanged = printedViewVersion != viewVersion && !view.isEmpty();
+        if (statusShown && (status == null || printed < lines.size() || viewChanged)) {
+            text.append('\r').append(CLEAR_LINE);
+            statusShown = false;
+        }
+        for (; printed < lines.size(); printed++) {
+            appendSpans(text, lines.get(printed));
+            text.append(System.lineSeparator());
+        }
+        if (viewChanged) {
+            for (List<Span> line : view) {
+                appendSpans(text, line);
+                text.append(System.lineSeparator());
+            }
+            // The prompt scrolled away above the view
+            promptShown = false;
+        }
+        printedViewVersion = viewVersion;
+        if (status != null) {
+            text.append('\r');
+            appendSpans(text, status);
+            text.append(CLEAR_LINE);
+            statusShown = true;
+        }
+        if (prompt != null && !promptShown) {
+            appendSpans(text, prompt);
+            promptShown = true;
+        }
+        pageStarted = false;
+        out.print(text);
+        out.flush();
+    }
+    
+    private static void appendSpans(StringBuilder text, List<Span> spans) {
+        for (Span span : spans) {
+            if (span.style() == Span.Style.PLAIN) {
+                text.append(span.text());
+            } else {
+                text.append(span.style().code).append(span.text()).append(Span.Style.RESET);
+            }
+        }
+    }
+}
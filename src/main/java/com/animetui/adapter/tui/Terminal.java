@@ -0,0 +1,248 @@
+package com.animetui.adapter.tui;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyboard input for the TUI, delivered as {@link KeyEvent}s from a background
+ * reader thread so callers can wait for keys with a timeout.
+ * On Unix terminals, stty switches the terminal to unbuffered, no-echo input with
+ * signals disabled, so single keys such as Esc and Ctrl-C arrive as they are pressed;
+ * output processing is left alone. Where that is not possible (Windows, redirected
+ * input) input is read a line at a time and echoed by the terminal as before.
+ */
+public class Terminal implements AutoCloseable {
+    
+    // Time to wait after Esc for the rest of an escape sequence
+    private static final long ESCAPE_SEQUENCE_MILLIS = 30;
+    // Resizes are noticed this late; asking stty on every frame would cost a process each time
+    private static final long SIZE_REFRESH_MILLIS = 1000;
+    private static final Size DEFAULT_SIZE = new Size(24, 80);
+    
+    private final BlockingQueue<KeyEvent> keys = new LinkedBlockingQueue<>();
+    private final String savedMode;
+    private Size size;
+    private long sizeCheckedAt;
+    
+    /**
+     * Terminal dimensions in character cells.
+     */
+    public record Size(int rows, int columns) {
+    }
+    
+    private Terminal(String savedMode) {
+        this.savedMode = savedMode;
+    }
+    
+    /**
+     * Take over the terminal for key-at-a-time input. The previous mode is restored
+     * on close and on JVM exit.
+     */
+    public static Terminal open() {
+        String savedMode = enterRawMode();
+        Terminal terminal = new Terminal(savedMode);
+        Thread reader = savedMode != null
+                ? new Thread(() -> terminal.readKeys(System.in), "tui-input")
+                : new Thread(() -> terminal.readLines(System.in), "tui-input");
+        reader.setDaemon(true);
+        reader.start();
+        if (savedMode != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(terminal::close, "tui-restore"));
+        }
+        return terminal;
+    }
+    
+    /**
+     * Terminal that decodes keys from the given stream and leaves the real one alone.
+     */
+    static Terminal reading(InputStream in) {
+        Terminal terminal = new Terminal(null);
+        Thread reader = new Thread(() -> terminal.readKeys(in), "tui-input");
+        reader.setDaemon(true);
+        reader.start();
+        return terminal;
+    }
+    
+    /**
+     * Whether keys arrive one at a time and are not echoed by the terminal.
+     */
+    public boolean isRaw() {
+        return savedMode != null;
+    }
+    
+    /**
+     * Wait for the next key.
+     */
+    public KeyEvent read() throws InterruptedException {
+        return keys.take();
+    }
+    
+    /**
+     * Wait up to the timeout for the next key.
+     *
+     * @return the key, or null if none was pressed in time
+     */
+    public KeyEvent poll(Duration timeout) throws InterruptedException {
+        return keys.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Current terminal dimensions, or 24x80 if they cannot be determined.
+     */
+    public synchronized Size size() {
+        long now = System.currentTimeMillis();
+        if (size == null || now - sizeCheckedAt >= SIZE_REFRESH_MILLIS) {
+            size = querySize();
+            sizeCheckedAt = now;
+        }
+        return size;
+    }
+    
+    private static Size querySize() {
+        String output = stty("size");
+        if (output != null) {
+            String[] parts = output.trim().split("\\s+");
+            try {
+                int rows = Integer.parseInt(parts[0]);
+                int columns = Integer.parseInt(parts[1]);
+                if (rows > 0 && columns > 0) {
+                    return new Size(rows, columns);
+                }
+            } catch (RuntimeException e) {
+                // Fall through to the default
+            }
+        }
+        return DEFAULT_SIZE;
+    }
+    
+    /**
+     * Give the terminal back in the mode it was found in.
+     */
+    @Override
+    public synchronized void close() {
+        if (savedMode != null) {
+            stty(savedMode);
+        }
+    }
+    
+    private static String enterRawMode() {
+        if (System.console() == null || System.getProperty("os.name", "").toLowerCase().startsWith("windows")) {
+            return null;
+        }
+        String saved = stty("-g");
+        if (saved == null || saved.isBlank()) {
+            return null;
+        }
+        return stty("-icanon -echo -isig min 1 time 0") != null ? saved.trim() : null;
+    }
+    
+    private static String stty(String arguments) {
+        try {
+            Process process = new ProcessBuilder("sh", "-c", "stty " + arguments + " < /dev/tty")
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            return process.waitFor() == 0 ? output : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+    
+    private void readKeys(InputStream in) {
+        try {
+            int b;
+            while ((b = in.read()) != -1) {
+                keys.add(decode(b, in));
+            }
+        } catch (IOException e) {
+            // Input closed
+        }
+        keys.add(KeyEvent.of(KeyEvent.Key.EOF));
+    }
+    
+    private static KeyEvent decode(int b, InputStream in) throws IOException {
+        return switch (b) {
+            case '\n', '\r' -> KeyEvent.of(KeyEvent.Key.ENTER);
+            case 127, '\b' -> KeyEvent.of(KeyEvent.Key.BACKSPACE);
+            case 3 -> KeyEvent.of(KeyEvent.Key.CTRL_C);
+            case 27 -> decodeEscape(in);
+            default -> b < 0x80 ? KeyEvent.character((char) b) : decodeUtf8(b, in);
+        };
+    }
+    
+    private static KeyEvent decodeEscape(InputStream in) throws IOException {
+        try {
+            Thread.sleep(ESCAPE_SEQUENCE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (in.available() == 0) {
+            return KeyEvent.of(KeyEvent.Key.ESCAPE);
+        }
+        
+        int introducer = in.read();
+        if (introducer != '[' && introducer != 'O') {
+            return KeyEvent.of(KeyEvent.Key.ESCAPE);
+        }
+        StringBuilder sequence = new StringBuilder();
+        int b;
+        // Parameters and intermediates up to the final byte
+        while ((b = in.read()) != -1) {
+            sequence.append((char) b);
+            if (b >= 0x40 && b <= 0x7E) {
+                break;
+            }
+        }
+        return switch (sequence.toString()) {
+            case "A" -> KeyEvent.of(KeyEvent.Key.UP);
+            case "B" -> KeyEvent.of(KeyEvent.Key.DOWN);
+            case "C" -> KeyEvent.of(KeyEvent.Key.RIGHT);
+            case "D" -> KeyEvent.of(KeyEvent.Key.LEFT);
+            case "H", "1~", "7~" -> KeyEvent.of(KeyEvent.Key.HOME);
+            case "F", "4~", "8~" -> KeyEvent.of(KeyEvent.Key.END);
+            case "5~" -> KeyEvent.of(KeyEvent.Key.PAGE_UP);
+            case "6~" -> KeyEvent.of(KeyEvent.Key.PAGE_DOWN);
+            default -> KeyEvent.of(KeyEvent.Key.ESCAPE);
+        };
+    }
+    
+    private static KeyEvent decodeUtf8(int lead, InputStream in) throws IOException {
+        int continuation = lead >= 0xF0 ? 3 : lead >= 0xE0 ? 2 : 1;
+        byte[] bytes = new byte[continuation + 1];
+        bytes[0] = (byte) lead;
+        for (int i = 1; i <= continuation; i++) {
+            int b = in.read();
+            if (b == -1) {
+                break;
+            }
+            bytes[i] = (byte) b;
+        }
+        String decoded = new String(bytes, StandardCharsets.UTF_8);
+        return KeyEvent.character(decoded.isEmpty() ? '?' : decoded.charAt(0));
+    }
+    
+    private void readLines(InputStream in) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                for (char c : line.toCharArray()) {
+                    keys.add(KeyEvent.character(c));
+                }
+                keys.add(KeyEvent.of(KeyEvent.Key.ENTER));
+            }
+        } catch (IOException e) {
+            // Input closed
+        }
+        keys.add(KeyEvent.of(KeyEvent.Key.EOF));
+    }
+}
@@ -1,60 +1,95 @@
 package com.animetui.adapter.tui;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 /**
  * Utility class for TUI view operations.
  * Provides common formatting and user interaction helpers.
+ * Output is composed on a {@link Screen} and rendered once per change: on a terminal
+ * taken over with {@link #attach(Terminal)} only the changed cells are redrawn,
+ * otherwise lines are appended to standard output.
  */
 public class ViewHelpers {
     
-    private static final String ANSI_RESET = "\u001B[0m";
-    private static final String ANSI_BOLD = "\u001B[1m";
-    private static final String ANSI_CYAN = "\u001B[36m";
-    private static final String ANSI_GREEN = "\u001B[32m";
-    private static final String ANSI_YELLOW = "\u001B[33m";
-    private static final String ANSI_RED = "\u001B[31m";
-    private static final String ANSI_BLUE = "\u001B[34m";
+    private static final String[] SPINNER_FRAMES = { "|", "/", "-", "\\" };
+    // Rows a list needs besides its items: a blank line, the position line and the prompt
+    private static final int LIST_CHROME_ROWS = 3;
+    
+    private static Screen screen = new StreamScreen(System.out);
+    
+    /**
+     * Draw on the given terminal from now on, full-screen if it delivers raw keys.
+     */
+    public static synchronized void attach(Terminal terminal) {
+        screen.close();
+        screen = terminal.isRaw() ? new FramedScreen(terminal) : new StreamScreen(System.out);
+    }
+    
+    /**
+     * Give the terminal back and return to appending to standard output.
+     */
+    public static synchronized void detach() {
+        screen.close();
+        screen = new StreamScreen(System.out);
+    }
     
     /**
-     * Display a header with styling.
+     * Display a header with styling. The header starts a new page.
      */
-    public static void printHeader(String title) {
-        System.out.println();
-        System.out.println(ANSI_BOLD + ANSI_CYAN + "=".repeat(50) + ANSI_RESET);
-        System.out.println(ANSI_BOLD + ANSI_CYAN + centerText(title, 50) + ANSI_RESET);
-        System.out.println(ANSI_BOLD + ANSI_CYAN + "=".repeat(50) + ANSI_RESET);
-        System.out.println();
+    public static synchronized void printHeader(String title) {
+        screen.newPage();
+        screen.append(List.of());
+        screen.append(List.of(Span.of("=".repeat(50), Span.Style.HEADER)));
+        screen.append(List.of(Span.of(centerText(title, 50), Span.Style.HEADER)));
+        screen.append(List.of(Span.of("=".repeat(50), Span.Style.HEADER)));
+        screen.append(List.of());
+        screen.render();
     }
     
     /**
      * Display an error message with styling.
      */
     public static void printError(String message) {
-        System.out.println(ANSI_RED + "ERROR: " + message + ANSI_RESET);
+        print(Span.of("ERROR: " + message, Span.Style.RED));
     }
     
     /**
      * Display a success message with styling.
      */
     public static void printSuccess(String message) {
-        System.out.println(ANSI_GREEN + "SUCCESS: " + message + ANSI_RESET);
+        print(Span.of("SUCCESS: " + message, Span.Style.GREEN));
     }
     
     /**
      * Display a warning message with styling.
      */
     public static void printWarning(String message) {
-        System.out.println(ANSI_YELLOW + "WARNING: " + message + ANSI_RESET);
+        print(Span.of("WARNING: " + message, Span.Style.YELLOW));
     }
     
     /**
      * Display an info message with styling.
      */
     public static void printInfo(String message) {
-        System.out.println(ANSI_BLUE + "INFO: " + message + ANSI_RESET);
+        print(Span.of("INFO: " + message, Span.Style.BLUE));
+    }
+    
+    /**
+     * Display plain text; embedded line breaks start new lines.
+     */
+    public static synchronized void printLine(String text) {
+        for (String line : text.split("\n", -1)) {
+            screen.append(List.of(Span.plain(line)));
+        }
+        screen.render();
+    }
+    
+    private static synchronized void print(Span span) {
+        screen.append(List.of(span));
+        screen.render();
     }
     
     /**
@@ -70,105 +105,245 @@ public class ViewHelpers {
     
     /**
      * Display a numbered list and let user pick an item.
+     *
+     * @return the picked index, or -1 if there was nothing to pick or the user cancelled
      */
-    public static <T> int pickFromList(String prompt, List<T> items, Function<T, String> displayFunction, Scanner scanner) {
+    public static <T> int pickFromList(String prompt, List<T> items, Function<T, String> displayFunction, EventLoop loop) {
+        return pickFromList(prompt, items, displayFunction, null, loop);
+    }
+    
+    /**
+     * Display a scrollable list and let user pick an item. Only the rows that fit on
+     * the screen are shown and formatted. The highlighted row moves with the arrow,
+     * page and Home/End keys (n and p page on line-mode terminals), typing a number
+     * jumps to that item, and Enter picks the highlighted one.
+     *
+     * @param numbering number the user types to reach an item, such as the episode
+     *                  number; null to number items from 1
+     * @return the picked index, or -1 if there was nothing to pick or the user cancelled
+     */
+    public static <T> int pickFromList(String prompt, List<T> items, Function<T, String> displayFunction,
+                                       ToIntFunction<T> numbering, EventLoop loop) {
         if (items.isEmpty()) {
             printWarning("No items available to select from.");
             return -1;
         }
         
-        System.out.println(ANSI_BOLD + prompt + ANSI_RESET);
-        System.out.println();
-        
-        for (int i = 0; i < items.size(); i++) {
-            String displayText = displayFunction.apply(items.get(i));
-            System.out.printf("%s%2d.%s %s%n", ANSI_CYAN, i + 1, ANSI_RESET, displayText);
+        ListView<T> list = new ListView<>(items, displayFunction, numbering);
+        String help = loop.isRaw()
+                ? "Up/Down PgUp/PgDn Home/End to move, type a number to jump, Enter to pick, Esc to go back"
+                : "n/p for the next/previous page, a number to pick that item, Enter for the highlighted one";
+        synchronized (ViewHelpers.class) {
+            screen.append(List.of(Span.of(prompt, Span.Style.BOLD)));
+            screen.append(List.of());
+            screen.prompt(List.of(Span.plain("Enter your choice: ")));
         }
         
-        System.out.println();
-        System.out.print("Enter your choice (1-" + items.size() + "): ");
-        
-        while (true) {
-            try {
-                String input = scanner.nextLine().trim();
-                if (input.isEmpty()) {
-                    System.out.print("Please enter a number: ");
-                    continue;
+        StringBuilder number = new StringBuilder();
+        String notice = null;
+        // Line-mode terminals send Enter after every command; only a bare Enter picks
+        boolean navigated = false;
+        try {
+            while (true) {
+                synchronized (ViewHelpers.class) {
+                    list.resize(screen.height() - screen.lineCount() - LIST_CHROME_ROWS);
+                    List<List<Span>> rows = new ArrayList<>(list.render());
+                    rows.add(List.of());
+                    rows.add(List.of(Span.of(list.position(), Span.Style.CYAN),
+                            notice != null ? Span.of("  " + notice, Span.Style.YELLOW) : Span.plain("  " + help)));
+                    screen.setView(rows);
+                    screen.setInput(number.toString());
+                    screen.render();
                 }
+                notice = null;
                 
-                int choice = Integer.parseInt(input);
-                if (choice >= 1 && choice <= items.size()) {
-                    return choice - 1; // Convert to 0-based index
-                } else {
-                    System.out.print("Please enter a number between 1 and " + items.size() + ": ");
+                KeyEvent key = loop.nextKey();
+                switch (key.key()) {
+                    case UP -> list.moveBy(-1);
+                    case DOWN -> list.moveBy(1);
+                    case PAGE_UP -> list.pageUp();
+                    case PAGE_DOWN -> list.pageDown();
+                    case HOME -> list.home();
+                    case END -> list.end();
+                    case BACKSPACE -> {
+                        if (!number.isEmpty()) {
+                            number.setLength(number.length() - 1);
+                        }
+                    }
+                    case CHARACTER -> {
+                        char c = key.character();
+                        if (Character.isDigit(c) && number.length() < 9) {
+                            number.append(c);
+                            // Follow the number as it is typed
+                            list.jumpTo(Integer.parseInt(number.toString()));
+                        } else {
+                            navigated |= navigate(list, c);
+                        }
+                    }
+                    case ENTER -> {
+                        if (!number.isEmpty()) {
+                            int target = Integer.parseInt(number.toString());
+                            number.setLength(0);
+                            if (list.jumpTo(target)) {
+                                return list.selected();
+                            }
+                            notice = "There is no item " + target;
+                        } else if (loop.isRaw() || !navigated) {
+                            return list.selected();
+                        }
+                        navigated = false;
+                    }
+                    default -> {
+                        if (key.isCancel()) {
+                            return -1;
+                        }
+                    }
                 }
-            } catch (NumberFormatException e) {
-                System.out.print("Please enter a valid number: ");
+            }
+        } finally {
+            synchronized (ViewHelpers.class) {
+                screen.clearView();
+                screen.endPrompt();
+                screen.render();
+            }
+        }
+    }
+    
+    /**
+     * Letter commands for moving through a list, for terminals without arrow keys.
+     *
+     * @return whether the character was a command
+     */
+    private static boolean navigate(ListView<?> list, char command) {
+        switch (command) {
+            case 'n', ' ' -> list.pageDown();
+            case 'p' -> list.pageUp();
+            case 'j' -> list.moveBy(1);
+            case 'k' -> list.moveBy(-1);
+            case 'g' -> list.home();
+            case 'G' -> list.end();
+            default -> {
+                return false;
             }
         }
+        return true;
     }
     
     /**
      * Display a simple menu and get user choice.
+     *
+     * @return the chosen index, or -1 if the user cancelled
      */
-    public static int showMenu(String title, List<String> options, Scanner scanner) {
+    public static int showMenu(String title, List<String> options, EventLoop loop) {
         printHeader(title);
         
-        for (int i = 0; i < options.size(); i++) {
-            System.out.printf("%s%2d.%s %s%n", ANSI_CYAN, i + 1, ANSI_RESET, options.get(i));
+        synchronized (ViewHelpers.class) {
+            for (int i = 0; i < options.size(); i++) {
+                appendNumbered(i, options.get(i));
+            }
+            screen.append(List.of());
         }
         
-        System.out.println();
-        System.out.print("Enter your choice (1-" + options.size() + "): ");
+        return readChoice(options.size(), loop);
+    }
+    
+    private static void appendNumbered(int index, String text) {
+        screen.append(List.of(Span.of(String.format("%2d.", index + 1), Span.Style.CYAN), Span.plain(" " + text)));
+    }
+    
+    private static int readChoice(int count, EventLoop loop) {
+        String prompt = "Enter your choice (1-" + count + "): ";
         
         while (true) {
+            String input = readAt(List.of(Span.plain(prompt)), loop);
+            if (input == null) {
+                return -1;
+            }
+            if (input.isEmpty()) {
+                prompt = "Please enter a number: ";
+                continue;
+            }
+            
             try {
-                String input = scanner.nextLine().trim();
-                if (input.isEmpty()) {
-                    System.out.print("Please enter a number: ");
-                    continue;
-                }
-                
                 int choice = Integer.parseInt(input);
-                if (choice >= 1 && choice <= options.size()) {
+                if (choice >= 1 && choice <= count) {
                     return choice - 1; // Convert to 0-based index
-                } else {
-                    System.out.print("Please enter a number between 1 and " + options.size() + ": ");
                 }
+                prompt = "Please enter a number between 1 and " + count + ": ";
             } catch (NumberFormatException e) {
-                System.out.print("Please enter a valid number: ");
+                prompt = "Please enter a valid number: ";
             }
         }
     }
     
     /**
      * Get user input with a prompt.
+     *
+     * @return the input, or null if the user cancelled
      */
-    public static String getInput(String prompt, Scanner scanner) {
-        System.out.print(ANSI_BOLD + prompt + ANSI_RESET + " ");
-        return scanner.nextLine().trim();
+    public static String getInput(String prompt, EventLoop loop) {
+        return readAt(List.of(Span.of(prompt, Span.Style.BOLD), Span.plain(" ")), loop);
+    }
+    
+    private static String readAt(List<Span> prompt, EventLoop loop) {
+        synchronized (ViewHelpers.class) {
+            screen.prompt(prompt);
+            screen.render();
+        }
+        String input = loop.readLine();
+        synchronized (ViewHelpers.class) {
+            screen.endPrompt();
+            screen.render();
+        }
+        return input;
     }
     
     /**
-     * Display a loading message.
+     * Show what has been typed at the current prompt so far.
      */
-    public static void showLoading(String message) {
-        System.out.print(ANSI_YELLOW + message + "..." + ANSI_RESET);
-        System.out.flush();
+    static synchronized void showInput(String input) {
+        screen.setInput(input);
+        screen.render();
     }
     
     /**
-     * Clear the loading message and show completion.
+     * Draw one frame of a loading spinner in place.
      */
-    public static void clearLoading() {
-        System.out.println(" " + ANSI_GREEN + "Done!" + ANSI_RESET);
+    public static synchronized void showLoading(String message, int frame, String hint) {
+        screen.setStatus(List.of(
+                Span.of(SPINNER_FRAMES[frame % SPINNER_FRAMES.length] + " " + message + "...", Span.Style.YELLOW),
+                Span.plain(" " + hint)));
+        screen.render();
+    }
+    
+    /**
+     * Replace the spinner with the outcome of the wait.
+     */
+    public static synchronized void clearLoading(String message, String outcome) {
+        screen.clearStatus();
+        screen.append(List.of(
+                Span.of(message + "...", Span.Style.YELLOW),
+                Span.plain(" "),
+                Span.of(outcome, "Done!".equals(outcome) ? Span.Style.GREEN : Span.Style.YELLOW)));
+        screen.render();
     }
     
     /**
      * Wait for user to press Enter.
      */
-    public static void waitForEnter(Scanner scanner) {
-        System.out.print("\nPress Enter to continue...");
-        scanner.nextLine();
+    public static void waitForEnter(EventLoop loop) {
+        synchronized (ViewHelpers.class) {
+            screen.append(List.of());
+            screen.prompt(List.of(Span.plain("Press Enter to continue...")));
+            screen.render();
+        }
+        KeyEvent key;
+        do {
+            key = loop.nextKey();
+        } while (key.key() != KeyEvent.Key.ENTER && !key.isCancel());
+        synchronized (ViewHelpers.class) {
+            screen.endPrompt();
+            screen.render();
+        }
     }
 }
@@ -0,0 +1,72 @@
+package com.animetui.application;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
+import com.animetui.domain.port.EpisodeDownloader;
+import com.animetui.domain.port.LinkProbe;
+import com.animetui.domain.port.LinkResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Use case for downloading episodes for offline playback.
+ * Episodes are queued and downloaded one after another in the background, each
+ * from the stream that would be picked for playback; episodes already on disk
+ * are skipped. A failed episode is left for a later attempt, which resumes it.
+ */
+public class DownloadEpisodesUseCase {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DownloadEpisodesUseCase.class);
+    
+    private final LinkResolver linkResolver;
+    private final StreamLinkSelector selector;
+    private final LinkProbe linkProbe;
+    private final EpisodeDownloader downloader;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("episode-downloader").factory());
+    
+    public DownloadEpisodesUseCase(LinkResolver linkResolver, StreamLinkSelector selector,
+                                   LinkProbe linkProbe, EpisodeDownloader downloader) {
+        this.linkResolver = linkResolver;
+        this.selector = selector;
+        this.linkProbe = linkProbe;
+        this.downloader = downloader;
+    }
+    
+    /**
+     * Queue episodes for download. Returns immediately.
+     * 
+     * @param episodes episodes to download, in order
+     */
+    public void execute(List<Episode> episodes) {
+        if (episodes == null || episodes.isEmpty()) {
+            throw new IllegalArgumentException("Episodes cannot be null or empty");
+        }
+        episodes.forEach(episode -> worker.submit(() -> download(episode)));
+    }
+    
+    private void download(Episode episode) {
+        if (downloader.localCopy(episode).isPresent()) {
+            return;
+        }
+        
+        try {
+            // Links are resolved just before each download, so they have not expired yet
+            StreamLink link = selector.select(linkProbe.rank(linkResolver.resolve(episode)))
+                    .orElseThrow(() -> new RuntimeException("No stream links available"));
+            downloader.download(episode, link).join();
+        } catch (CompletionException e) {
+            logger.warn("Download of episode {} failed: {}", episode.getDisplayTitle(), e.getCause().getMessage());
+            linkResolver.invalidate(episode);
+        } catch (RuntimeException e) {
+            logger.warn("Download of episode {} failed: {}", episode.getDisplayTitle(), e.getMessage());
+            linkResolver.invalidate(episode);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.animetui.application;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.LinkProbe;
+import com.animetui.domain.port.LinkResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves and probes the links of the next episodes while the current one plays.
+ * Work runs on a single background virtual thread, one episode at a time and only
+ * after a start delay, so it neither competes with the stream that just started nor
+ * bursts past the resolvers' rate limits. Everything prepared for a show is dropped
+ * when the viewer moves to another show or leaves it.
+ */
+public class NextEpisodePreResolver {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NextEpisodePreResolver.class);
+    
+    // Probe rankings go stale; older results are resolved again at play time
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+    
+    private final LinkResolver linkResolver;
+    private final LinkProbe linkProbe;
+    private final int depth;
+    private final Duration startDelay;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("episode-pre-resolver").factory());
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private volatile String runningEpisodeId;
+    private volatile Instant notBefore = Instant.MIN;
+    private String animeId;
+    
+    private record Pending(CompletableFuture<Resolved> links, Future<?> task) {
+        void cancel() {
+            task.cancel(true);
+            links.cancel(false);
+        }
+    }
+    
+    private record Resolved(List<StreamLink> links, Instant resolvedAt) {
+    }
+    
+    /**
+     * @param linkResolver resolver used for playback, so its caches and rate limits apply
+     * @param linkProbe probe used for playback
+     * @param depth how many upcoming episodes to prepare, 0 to disable
+     * @param startDelay how long to leave the starting stream alone before preparing the next ones
+     */
+    public NextEpisodePreResolver(LinkResolver linkResolver, LinkProbe linkProbe, int depth, Duration startDelay) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth cannot be negative");
+        }
+        this.linkResolver = linkResolver;
+        this.linkProbe = linkProbe;
+        this.depth = depth;
+        this.startDelay = startDelay;
+    }
+    
+    /**
+     * Start preparing the episodes that follow the one just started.
+     *
+     * @param upcoming following episodes of the same show, next one first
+     */
+    public synchronized void preResolve(List<Episode> upcoming) {
+        if (depth == 0 || upcoming == null || upcoming.isEmpty()) {
+            return;
+        }
+        
+        String show = upcoming.get(0).animeId();
+        if (!show.equals(animeId)) {
+            cancel();
+            animeId = show;
+        }
+        notBefore = Instant.now().plus(startDelay);
+        
+        List<Episode> targets = upcoming.stream().limit(depth).toList();
+        Set<String> wanted = targets.stream().map(Episode::id).collect(Collectors.toSet());
+        // Episodes no longer ahead of the viewer are not worth finishing
+        pending.entrySet().removeIf(entry -> {
+            if (wanted.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().cancel();
+            return true;
+        });
+        
+        for (Episode episode : targets) {
+            pending.computeIfAbsent(episode.id(), id -> submit(episode));
+        }
+    }
+    
+    /**
+     * Take the prepared links of an episode. Waits if the episode is being resolved
+     * right now; returns empty if it was not prepared, failed, is stale or is still
+     * queued, in which case the caller should resolve it itself.
+     *
+     * @return live links ranked by the probe
+     */
+    public Optional<List<StreamLink>> take(Episode episode) {
+        Pending prepared = pending.remove(episode.id());
+        if (prepared == null) {
+            return Optional.empty();
+        }
+        if (!prepared.links().isDone() && !episode.id().equals(runningEpisodeId)) {
+            // Still queued: resolving directly is faster than waiting for its turn
+            prepared.cancel();
+            return Optional.empty();
+        }
+        
+        try {
+            Resolved resolved = prepared.links().get();
+            if (resolved.links().isEmpty() || resolved.resolvedAt().plus(MAX_AGE).isBefore(Instant.now())) {
+                return Optional.empty();
+            }
+            logger.info("Using pre-resolved links for episode: {}", episode.getDisplayTitle());
+            return Optional.of(resolved.links());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException | CancellationException e) {
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Drop everything prepared or in progress, e.g. when the viewer leaves the show.
+     */
+    public synchronized void cancel() {
+        pending.values().forEach(Pending::cancel);
+        pending.clear();
+        animeId = null;
+    }
+    
+    private Pending submit(Episode episode) {
+        CompletableFuture<Resolved> links = new CompletableFuture<>();
+        Future<?> task = worker.submit(() -> {
+            try {
+                Duration wait = Duration.between(Instant.now(), notBefore);
+                if (!wait.isNegative()) {
+                    Thread.sleep(wait);
+                }
+                
+                runningEpisodeId = episode.id();
+                logger.debug("Pre-resolving links for episode: {}", episode.getDisplayTitle());
+                List<StreamLink> ranked = linkProbe.rank(linkResolver.resolve(episode));
+                links.complete(new Resolved(ranked, Instant.now()));
+            } catch (InterruptedException e) {
+                links.cancel(false);
+            } catch (RuntimeException e) {
+                logger.debug("Pre-resolving episode {} failed: {}", episode.getDisplayTitle(), e.getMessage());
+                links.completeExceptionally(e);
+            } finally {
+                runningEpisodeId = null;
+            }
+        });
+        return new Pending(links, task);
+    }
+}
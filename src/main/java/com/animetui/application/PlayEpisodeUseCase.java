@@ -2,9 +2,17 @@ package com.animetui.application;
 
 import com.animetui.domain.model.Episode;
 import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
+import com.animetui.domain.port.EpisodeDownloader;
+import com.animetui.domain.port.LinkProbe;
 import com.animetui.domain.port.LinkResolver;
 import com.animetui.domain.port.MediaPlayerPort;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Use case for playing an episode.
  * Orchestrates link resolution and media player to fulfill playback requests.
@@ -13,10 +21,43 @@ public class PlayEpisodeUseCase {
     
     private final LinkResolver linkResolver;
     private final MediaPlayerPort mediaPlayer;
+    private final StreamLinkSelector selector;
+    private final LinkProbe linkProbe;
+    private final NextEpisodePreResolver preResolver;
+    private final EpisodeDownloader downloader;
+    // Episode behind each stream handed to the player, until it stops playing
+    private final Map<String, Episode> playing = new ConcurrentHashMap<>();
     
-    public PlayEpisodeUseCase(LinkResolver linkResolver, MediaPlayerPort mediaPlayer) {
+    public PlayEpisodeUseCase(LinkResolver linkResolver, MediaPlayerPort mediaPlayer,
+                              StreamLinkSelector selector, LinkProbe linkProbe,
+                              NextEpisodePreResolver preResolver, EpisodeDownloader downloader) {
         this.linkResolver = linkResolver;
         this.mediaPlayer = mediaPlayer;
+        this.selector = selector;
+        this.linkProbe = linkProbe;
+        this.preResolver = preResolver;
+        this.downloader = downloader;
+        mediaPlayer.addPlaybackListener(this::playbackEnded);
+    }
+    
+    public PlayEpisodeUseCase(LinkResolver linkResolver, MediaPlayerPort mediaPlayer,
+                              StreamLinkSelector selector, LinkProbe linkProbe,
+                              NextEpisodePreResolver preResolver) {
+        this(linkResolver, mediaPlayer, selector, linkProbe, preResolver, EpisodeDownloader.none());
+    }
+    
+    public PlayEpisodeUseCase(LinkResolver linkResolver, MediaPlayerPort mediaPlayer,
+                              StreamLinkSelector selector, LinkProbe linkProbe) {
+        this(linkResolver, mediaPlayer, selector, linkProbe,
+                new NextEpisodePreResolver(linkResolver, linkProbe, 0, Duration.ZERO));
+    }
+    
+    public PlayEpisodeUseCase(LinkResolver linkResolver, MediaPlayerPort mediaPlayer, StreamLinkSelector selector) {
+        this(linkResolver, mediaPlayer, selector, LinkProbe.none());
+    }
+    
+    public PlayEpisodeUseCase(LinkResolver linkResolver, MediaPlayerPort mediaPlayer) {
+        this(linkResolver, mediaPlayer, StreamLinkSelector.unlimited());
     }
     
     /**
@@ -31,14 +72,34 @@ public class PlayEpisodeUseCase {
             throw new RuntimeException("Media player is not available on this system");
         }
         
+        // A downloaded copy plays without depending on the network
+        var localCopy = downloader.localCopy(episode);
+        if (localCopy.isPresent()) {
+            play(episode, localCopy.get());
+            return;
+        }
+        
         try {
-            StreamLink link = linkResolver.resolveBest(episode);
-            mediaPlayer.play(link);
+            StreamLink link = selectBest(episode, resolveRanked(episode));
+            play(episode, link);
         } catch (Exception e) {
+            // Don't serve the same dead links again on retry
+            linkResolver.invalidate(episode);
             throw new RuntimeException("Failed to play episode: " + episode.getDisplayTitle(), e);
         }
     }
     
+    /**
+     * Play the given episode and prepare the links of the ones after it in the
+     * background, so that playing the next episode starts without delay.
+     * 
+     * @param upcoming following episodes of the same show, next one first
+     */
+    public void execute(Episode episode, List<Episode> upcoming) {
+        execute(episode);
+        preResolver.preResolve(upcoming);
+    }
+    
     /**
      * Play the episode with a specific stream link quality preference.
      */
@@ -55,18 +116,65 @@ public class PlayEpisodeUseCase {
         }
         
         try {
-            var links = linkResolver.resolve(episode);
+            var links = resolveRanked(episode);
             StreamLink selectedLink = links.stream()
                     .filter(link -> link.quality().equalsIgnoreCase(preferredQuality))
                     .findFirst()
-                    .orElse(linkResolver.resolveBest(episode)); // Fallback to best quality
+                    .orElseGet(() -> selectBest(episode, links)); // Fallback to best quality
                     
-            mediaPlayer.play(selectedLink);
+            play(episode, selectedLink);
         } catch (Exception e) {
+            linkResolver.invalidate(episode);
             throw new RuntimeException("Failed to play episode: " + episode.getDisplayTitle(), e);
         }
     }
     
+    private void play(Episode episode, StreamLink link) {
+        // The player drops whatever it was playing
+        playing.clear();
+        playing.put(link.url(), episode);
+        mediaPlayer.play(link);
+    }
+    
+    /**
+     * The player only finds out a link is dead once it tries to open it, after play
+     * has returned. Likewise an episode only counts as watched once it played to the end.
+     */
+    private void playbackEnded(String url, MediaPlayerPort.PlaybackEnd end) {
+        Episode episode = playing.remove(url);
+        if (episode == null) {
+            return;
+        }
+        if (end == MediaPlayerPort.PlaybackEnd.FAILED) {
+            // Don't serve the same dead links again on retry
+            linkResolver.invalidate(episode);
+        } else if (end == MediaPlayerPort.PlaybackEnd.FINISHED) {
+            downloader.markWatched(episode);
+        }
+    }
+    
+    /**
+     * Links of an episode ranked by the probe: dead links are dropped and the fastest
+     * CDN comes first among equal qualities. Uses the pre-resolved links if ready.
+     */
+    private List<StreamLink> resolveRanked(Episode episode) {
+        return preResolver.take(episode)
+                .orElseGet(() -> linkProbe.rank(linkResolver.resolve(episode)));
+    }
+    
+    private StreamLink selectBest(Episode episode, List<StreamLink> links) {
+        return selector.select(links)
+                .orElseThrow(() -> new RuntimeException(
+                        "No stream links available for episode: " + episode.getDisplayTitle()));
+    }
+    
+    /**
+     * The viewer left the show: drop links prepared for its next episodes.
+     */
+    public void leaveShow() {
+        preResolver.cancel();
+    }
+    
     /**
      * Stop the currently playing episode.
      */
@@ -87,4 +195,11 @@ public class PlayEpisodeUseCase {
     public void resume() {
         mediaPlayer.resume();
     }
+    
+    /**
+     * Seek relative to the current position of the playing episode.
+     */
+    public void seek(double offsetSeconds) {
+        mediaPlayer.seek(offsetSeconds);
+    }
 }
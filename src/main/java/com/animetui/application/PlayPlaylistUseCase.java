@@ -0,0 +1,211 @@
+package com.animetui.application;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
+import com.animetui.domain.port.EpisodeDownloader;
+import com.animetui.domain.port.LinkProbe;
+import com.animetui.domain.port.LinkResolver;
+import com.animetui.domain.port.MediaPlayerPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Use case for binge-watching a range of episodes.
+ * The first episode is played right away; the rest are fed into the player's
+ * playlist by a background worker that resolves them one by one, never more than
+ * a few entries ahead of the one playing, so transitions are gapless without
+ * resolving the whole range up front.
+ */
+public class PlayPlaylistUseCase {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PlayPlaylistUseCase.class);
+    
+    private final LinkResolver linkResolver;
+    private final MediaPlayerPort mediaPlayer;
+    private final StreamLinkSelector selector;
+    private final LinkProbe linkProbe;
+    private final int lookahead;
+    private final EpisodeDownloader downloader;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private Future<?> session;
+    // Episode behind each stream handed to the player, until it stops playing
+    private final Map<String, Episode> queued = new ConcurrentHashMap<>();
+    // Entries of the current playlist that have stopped playing; the feeder waits on it
+    private final Object playhead = new Object();
+    private int entriesEnded;
+    
+    /**
+     * @param lookahead how many entries may be queued beyond the one playing
+     */
+    public PlayPlaylistUseCase(LinkResolver linkResolver, MediaPlayerPort mediaPlayer,
+                               StreamLinkSelector selector, LinkProbe linkProbe, int lookahead) {
+        this(linkResolver, mediaPlayer, selector, linkProbe, lookahead, EpisodeDownloader.none());
+    }
+    
+    /**
+     * @param lookahead how many entries may be queued beyond the one playing
+     * @param downloader local copies, preferred over streaming
+     */
+    public PlayPlaylistUseCase(LinkResolver linkResolver, MediaPlayerPort mediaPlayer,
+                               StreamLinkSelector selector, LinkProbe linkProbe, int lookahead,
+                               EpisodeDownloader downloader) {
+        if (lookahead < 1) {
+            throw new IllegalArgumentException("Lookahead must be at least 1");
+        }
+        this.linkResolver = linkResolver;
+        this.mediaPlayer = mediaPlayer;
+        this.selector = selector;
+        this.linkProbe = linkProbe;
+        this.lookahead = lookahead;
+        this.downloader = downloader;
+        mediaPlayer.addPlaybackListener(this::playbackEnded);
+    }
+    
+    /**
+     * Check if the player can take a playlist. Without one, only the first episode
+     * of a range would play.
+     */
+    public boolean canQueue() {
+        return mediaPlayer.canQueue();
+    }
+    
+    /**
+     * Play the episodes in order. Returns once the first episode is playing; the
+     * others are queued in the background as playback advances.
+     *
+     * @param episodes episodes to play, in order
+     */
+    public synchronized void execute(List<Episode> episodes) {
+        if (episodes == null || episodes.isEmpty()) {
+            throw new IllegalArgumentException("Episodes cannot be null or empty");
+        }
+        
+        if (!mediaPlayer.isAvailable()) {
+            throw new RuntimeException("Media player is not available on this system");
+        }
+        
+        cancel();
+        
+        Episode first = episodes.get(0);
+        try {
+            StreamLink link = resolveBest(first);
+            // The player drops whatever it was playing
+            queued.clear();
+            synchronized (playhead) {
+                entriesEnded = 0;
+            }
+            queued.put(link.url(), first);
+            mediaPlayer.play(link);
+        } catch (Exception e) {
+            linkResolver.invalidate(first);
+            throw new RuntimeException("Failed to play episode: " + first.getDisplayTitle(), e);
+        }
+        
+        List<Episode> rest = List.copyOf(episodes.subList(1, episodes.size()));
+        if (!rest.isEmpty()) {
+            session = executor.submit(() -> feed(rest));
+        }
+    }
+    
+    /**
+     * Stop queueing further episodes. What is already in the player's playlist stays.
+     */
+    public synchronized void cancel() {
+        if (session != null) {
+            session.cancel(true);
+            session = null;
+        }
+    }
+    
+    private void feed(List<Episode> episodes) {
+        // Playlist index the next queued episode will get
+        int index = 1;
+        for (Episode episode : episodes) {
+            try {
+                if (!awaitPlayhead(index)) {
+                    logger.info("Playback stopped, no longer queueing episodes");
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            
+            try {
+                StreamLink link = resolveBest(episode);
+                queued.put(link.url(), episode);
+                mediaPlayer.enqueue(link);
+                index++;
+            } catch (UnsupportedOperationException e) {
+                logger.warn("Player cannot queue episodes: {}", e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                // One missing episode should not end the binge
+                logger.warn("Skipping episode {} in playlist: {}", episode.getDisplayTitle(), e.getMessage());
+                linkResolver.invalidate(episode);
+            }
+        }
+    }
+    
+    private void playbackEnded(String url, MediaPlayerPort.PlaybackEnd end) {
+        Episode episode = queued.remove(url);
+        if (episode == null) {
+            return;
+        }
+        synchronized (playhead) {
+            // Entries play in order, so the player has moved on to the next one
+            entriesEnded++;
+            playhead.notifyAll();
+        }
+        if (end == MediaPlayerPort.PlaybackEnd.FAILED) {
+            // Its links were dead by the time the player got to it
+            logger.warn("Player could not open episode {}", episode.getDisplayTitle());
+            linkResolver.invalidate(episode);
+        } else if (end == MediaPlayerPort.PlaybackEnd.FINISHED) {
+            // Queued episodes must stay on disk until they have actually been seen
+            downloader.markWatched(episode);
+        }
+    }
+    
+    /**
+     * Wait until the playlist entry at the given index is within the lookahead.
+     * Woken by the player's end-of-stream events rather than by polling it.
+     *
+     * @return false if the player stopped playing the playlist
+     */
+    private boolean awaitPlayhead(int index) throws InterruptedException {
+        synchronized (playhead) {
+            while (true) {
+                int position = mediaPlayer.playlistPosition();
+                if (position < 0) {
+                    return false;
+                }
+                // The reported position can trail the end event that woke us
+                if (index - Math.max(position, entriesEnded) <= lookahead) {
+                    return true;
+                }
+                playhead.wait();
+            }
+        }
+    }
+    
+    private StreamLink resolveBest(Episode episode) {
+        var localCopy = downloader.localCopy(episode);
+        if (localCopy.isPresent()) {
+            return localCopy.get();
+        }
+        return selector.select(linkProbe.rank(linkResolver.resolve(episode)))
+                .orElseThrow(() -> new RuntimeException(
+                        "No stream links available for episode: " + episode.getDisplayTitle()));
+    }
+}
@@ -3,13 +3,19 @@ package com.animetui.domain.model;
 /**
  * Domain model representing a streamable video link for an episode.
  * Immutable record following domain-driven design principles.
+ * Bandwidth, resolution and codecs are known for links taken from an HLS master
+ * playlist; they are 0 / null when the source does not advertise them.
  */
 public record StreamLink(
     String url,
     String quality,
     String format,
     String source,
-    boolean isDirectLink
+    boolean isDirectLink,
+    long bandwidth,      // Peak bits per second
+    int width,
+    int height,
+    String codecs
 ) {
     public StreamLink {
         if (url == null || url.isBlank()) {
@@ -24,12 +30,32 @@ public record StreamLink(
         if (source == null || source.isBlank()) {
             throw new IllegalArgumentException("Source cannot be null or blank");
         }
+        if (bandwidth < 0 || width < 0 || height < 0) {
+            throw new IllegalArgumentException("Bandwidth and resolution cannot be negative");
+        }
+    }
+    
+    /**
+     * Create a link without variant metadata.
+     */
+    public StreamLink(String url, String quality, String format, String source, boolean isDirectLink) {
+        this(url, quality, format, source, isDirectLink, 0, 0, 0, null);
+    }
+    
+    /**
+     * Check if the link's bandwidth is known.
+     */
+    public boolean hasBandwidth() {
+        return bandwidth > 0;
     }
     
     /**
      * Get a display string for the stream link.
      */
     public String getDisplayString() {
+        if (hasBandwidth()) {
+            return String.format("%s (%s, %d kbps) - %s", quality, format, bandwidth / 1000, source);
+        }
         return String.format("%s (%s) - %s", quality, format, source);
     }
     
@@ -37,6 +63,9 @@ public record StreamLink(
      * Check if this is a high-quality stream (720p or higher).
      */
     public boolean isHighQuality() {
+        if (height > 0) {
+            return height >= 720;
+        }
         return quality.contains("720p") || quality.contains("1080p") || 
                quality.contains("1440p") || quality.contains("4K");
     }
@@ -0,0 +1,73 @@
+package com.animetui.domain.model;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Policy for picking the stream to play out of the links resolved for an episode.
+ * Links with a known bandwidth are compared by their real numbers: the richest
+ * variant that fits the bandwidth budget wins, and if none fits, the leanest one.
+ * Links without metadata fall back to the quality label (720p, then 480p, then the
+ * first link).
+ */
+public final class StreamLinkSelector {
+    
+    private static final StreamLinkSelector UNLIMITED = new StreamLinkSelector(0);
+    
+    private final long maxBandwidth;
+    
+    /**
+     * @param maxBandwidth bandwidth budget in bits per second, 0 for no limit
+     */
+    public StreamLinkSelector(long maxBandwidth) {
+        if (maxBandwidth < 0) {
+            throw new IllegalArgumentException("Bandwidth budget cannot be negative");
+        }
+        this.maxBandwidth = maxBandwidth;
+    }
+    
+    /**
+     * Selector without a bandwidth budget.
+     */
+    public static StreamLinkSelector unlimited() {
+        return UNLIMITED;
+    }
+    
+    /**
+     * Pick the best link.
+     * 
+     * @param links candidate links
+     * @return the selected link, empty if there are no candidates
+     */
+    public Optional<StreamLink> select(List<StreamLink> links) {
+        if (links == null || links.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        List<StreamLink> measured = links.stream()
+                .filter(StreamLink::hasBandwidth)
+                .toList();
+        if (!measured.isEmpty()) {
+            Comparator<StreamLink> byRichness = Comparator.comparingLong(StreamLink::bandwidth)
+                    .thenComparingInt(StreamLink::height);
+            Optional<StreamLink> withinBudget = measured.stream()
+                    .filter(link -> maxBandwidth == 0 || link.bandwidth() <= maxBandwidth)
+                    .max(byRichness);
+            if (withinBudget.isPresent()) {
+                return withinBudget;
+            }
+            // Nothing fits the budget: the leanest variant rebuffers least
+            return measured.stream().min(byRichness);
+        }
+        
+        // Prefer higher quality links (720p > 480p > 360p)
+        return Optional.of(links.stream()
+                .filter(link -> "720p".equals(link.quality()))
+                .findFirst()
+                .orElse(links.stream()
+                        .filter(link -> "480p".equals(link.quality()))
+                        .findFirst()
+                        .orElse(links.get(0))));
+    }
+}
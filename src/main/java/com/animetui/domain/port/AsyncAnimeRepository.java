@@ -0,0 +1,100 @@
+package com.animetui.domain.port;
+
+import com.animetui.domain.model.Anime;
+import com.animetui.domain.model.Episode;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-blocking counterpart of {@link AnimeRepository}.
+ * Every method returns immediately; the result is delivered through the returned future,
+ * so callers can issue several lookups concurrently.
+ */
+public interface AsyncAnimeRepository {
+    
+    /**
+     * Retrieve a list of popular anime with a specified limit.
+     *
+     * @param limit maximum number of anime to return
+     * @return future list of popular anime
+     */
+    CompletableFuture<List<Anime>> listPopularAsync(int limit);
+    
+    /**
+     * Search for anime by title or keywords.
+     *
+     * @param query search query string
+     * @param limit maximum number of results to return
+     * @return future list of matching anime
+     */
+    CompletableFuture<List<Anime>> searchAsync(String query, int limit);
+    
+    /**
+     * Get detailed information about a specific anime by ID.
+     *
+     * @param animeId unique identifier for the anime
+     * @return future anime details, empty if not found
+     */
+    CompletableFuture<Optional<Anime>> findByIdAsync(String animeId);
+    
+    /**
+     * Get episodes for a specific anime by ID.
+     *
+     * @param animeId unique identifier for the anime
+     * @return future list of episodes in order
+     */
+    CompletableFuture<List<Episode>> episodesByIdAsync(String animeId);
+    
+    /**
+     * Get currently airing anime for the current season.
+     *
+     * @param limit maximum number of anime to return
+     * @return future list of currently airing anime
+     */
+    CompletableFuture<List<Anime>> getCurrentSeasonAsync(int limit);
+    
+    /**
+     * View a repository through the async API. Repositories that are already
+     * asynchronous are returned as-is; blocking ones run each call on a virtual thread.
+     *
+     * @param repository the repository to adapt
+     * @return an asynchronous view of the repository
+     */
+    static AsyncAnimeRepository of(AnimeRepository repository) {
+        if (repository instanceof AsyncAnimeRepository async) {
+            return async;
+        }
+        
+        Executor executor = Executors.newVirtualThreadPerTaskExecutor();
+        return new AsyncAnimeRepository() {
+            @Override
+            public CompletableFuture<List<Anime>> listPopularAsync(int limit) {
+                return CompletableFuture.supplyAsync(() -> repository.listPopular(limit), executor);
+            }
+            
+            @Override
+            public CompletableFuture<List<Anime>> searchAsync(String query, int limit) {
+                return CompletableFuture.supplyAsync(() -> repository.search(query, limit), executor);
+            }
+            
+            @Override
+            public CompletableFuture<Optional<Anime>> findByIdAsync(String animeId) {
+                return CompletableFuture.supplyAsync(() -> repository.findById(animeId), executor);
+            }
+            
+            @Override
+            public CompletableFuture<List<Episode>> episodesByIdAsync(String animeId) {
+                return CompletableFuture.supplyAsync(() -> repository.episodesById(animeId), executor);
+            }
+            
+            @Override
+            public CompletableFuture<List<Anime>> getCurrentSeasonAsync(int limit) {
+                return CompletableFuture.supplyAsync(() -> repository.getCurrentSeason(limit), executor);
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.animetui.domain.port;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Port for keeping episodes on local disk for offline playback.
+ */
+public interface EpisodeDownloader {
+    
+    /**
+     * Download an episode's stream, resuming an earlier partial download if there is one.
+     * 
+     * @param episode the episode being downloaded
+     * @param streamLink the stream to download
+     * @return future completed once the local copy is ready
+     */
+    CompletableFuture<Void> download(Episode episode, StreamLink streamLink);
+    
+    /**
+     * Find the completed local copy of an episode.
+     * 
+     * @param episode the episode to look up
+     * @return a link to the local file, empty if the episode is not fully downloaded
+     */
+    Optional<StreamLink> localCopy(Episode episode);
+    
+    /**
+     * Record that the local copy of an episode was played, making it a candidate
+     * for eviction when disk space runs short.
+     * 
+     * @param episode the episode that was played
+     */
+    void markWatched(Episode episode);
+    
+    /**
+     * Downloader that keeps nothing.
+     */
+    static EpisodeDownloader none() {
+        return new EpisodeDownloader() {
+            @Override
+            public CompletableFuture<Void> download(Episode episode, StreamLink streamLink) {
+                return CompletableFuture.failedFuture(new UnsupportedOperationException("Downloads are disabled"));
+            }
+            
+            @Override
+            public Optional<StreamLink> localCopy(Episode episode) {
+                return Optional.empty();
+            }
+            
+            @Override
+            public void markWatched(Episode episode) {
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.animetui.domain.port;
+
+import com.animetui.domain.model.StreamLink;
+
+import java.util.List;
+
+/**
+ * Port for checking stream links before playback.
+ * Implementations drop duplicate and dead links and order the rest so the link
+ * expected to start playing fastest comes first.
+ */
+public interface LinkProbe {
+    
+    /**
+     * Check the candidate links and rank the live ones.
+     * 
+     * @param candidates resolved stream links
+     * @return live links, fastest first; links of the same quality keep this order
+     */
+    List<StreamLink> rank(List<StreamLink> candidates);
+    
+    /**
+     * Probe that keeps the candidates as they are.
+     */
+    static LinkProbe none() {
+        return candidates -> candidates;
+    }
+}
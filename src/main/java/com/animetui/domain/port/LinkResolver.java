@@ -35,4 +35,13 @@ public interface LinkResolver {
      * @return true if this resolver can handle the episode
      */
     boolean canResolve(Episode episode);
+    
+    /**
+     * Report that links resolved earlier for the episode failed to play, so any
+     * copies kept by the resolver are dropped. Does nothing by default.
+     * 
+     * @param episode the episode whose links failed
+     */
+    default void invalidate(Episode episode) {
+    }
 }
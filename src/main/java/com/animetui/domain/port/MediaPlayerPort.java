@@ -8,6 +8,32 @@ import com.animetui.domain.model.StreamLink;
  */
 public interface MediaPlayerPort {
     
+    /**
+     * How playback of a stream ended.
+     */
+    enum PlaybackEnd {
+        /** Played to its end. */
+        FINISHED,
+        /** Could not be opened, or broke off with an error. */
+        FAILED,
+        /** Stopped, replaced or quit before its end. */
+        STOPPED
+    }
+    
+    /**
+     * Told when a stream stops playing. Called on the player's own thread, so
+     * listeners should return quickly.
+     */
+    @FunctionalInterface
+    interface PlaybackListener {
+        
+        /**
+         * @param url the URL the stream was played or queued with
+         * @param end how it ended
+         */
+        void ended(String url, PlaybackEnd end);
+    }
+    
     /**
      * Play a video from the given URL.
      * 
@@ -22,6 +48,44 @@ public interface MediaPlayerPort {
      */
     void play(StreamLink streamLink);
     
+    /**
+     * Append a stream to the player's playlist, to play once everything before it
+     * has finished, or right away if nothing is playing.
+     * 
+     * @param streamLink the stream link to queue
+     * @throws UnsupportedOperationException if the player has no playlist
+     */
+    default void enqueue(StreamLink streamLink) {
+        throw new UnsupportedOperationException("This player cannot queue streams");
+    }
+    
+    /**
+     * Check if {@link #enqueue} is supported by this player as it is set up.
+     * 
+     * @return true if streams can be queued
+     */
+    default boolean canQueue() {
+        return false;
+    }
+    
+    /**
+     * Index of the playlist entry being played; the stream passed to play is entry 0.
+     * 
+     * @return the playing entry, or -1 if nothing is playing or the player has no playlist
+     */
+    default int playlistPosition() {
+        return -1;
+    }
+    
+    /**
+     * Register a listener for streams that stop playing. Players that cannot tell
+     * when a stream ends never call it.
+     * 
+     * @param listener the listener to add
+     */
+    default void addPlaybackListener(PlaybackListener listener) {
+    }
+    
     /**
      * Pause the currently playing video.
      */
@@ -32,6 +96,14 @@ public interface MediaPlayerPort {
      */
     void resume();
     
+    /**
+     * Seek relative to the current playback position. Does nothing by default.
+     * 
+     * @param offsetSeconds seconds to jump, negative to go back
+     */
+    default void seek(double offsetSeconds) {
+    }
+    
     /**
      * Stop playback and close the player.
      */
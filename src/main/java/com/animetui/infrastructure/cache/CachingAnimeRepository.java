@@ -0,0 +1,210 @@
+package com.animetui.infrastructure.cache;
+
+import com.animetui.domain.model.Anime;
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.port.AnimeRepository;
+import com.animetui.domain.port.AsyncAnimeRepository;
+import com.animetui.domain.port.ConfigPort;
+import com.animetui.infrastructure.http.Futures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * AnimeRepository decorator that keeps recent results in memory.
+ * Entries older than the soft TTL are still returned immediately while a
+ * background refresh replaces them; entries older than the hard TTL are
+ * reloaded before returning. Eviction is W-TinyLFU, weighted by result size.
+ * Both the blocking and the async API share the same cache.
+ */
+public class CachingAnimeRepository implements AnimeRepository, AsyncAnimeRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CachingAnimeRepository.class);
+    
+    // A page of results or a season's episode list
+    private static final int TYPICAL_WEIGHT = 100;
+    
+    private final AnimeRepository delegate;
+    private final AsyncAnimeRepository asyncDelegate;
+    private final WTinyLfuCache<String, Cached> cache;
+    private final Duration softTtl;
+    private final Duration hardTtl;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    
+    private record Cached(Object value, int weight, Instant loadedAt) {
+        Duration age() {
+            return Duration.between(loadedAt, Instant.now());
+        }
+    }
+    
+    public CachingAnimeRepository(AnimeRepository delegate, long maximumWeight,
+                                  Duration softTtl, Duration hardTtl) {
+        if (softTtl.compareTo(hardTtl) > 0) {
+            throw new IllegalArgumentException("Soft TTL cannot exceed hard TTL");
+        }
+        this.delegate = delegate;
+        this.asyncDelegate = AsyncAnimeRepository.of(delegate);
+        this.cache = new WTinyLfuCache<>(maximumWeight, TYPICAL_WEIGHT, Cached::weight);
+        this.softTtl = softTtl;
+        this.hardTtl = hardTtl;
+    }
+    
+    /**
+     * Wrap a repository using the cache.memory.* configuration keys.
+     */
+    public static CachingAnimeRepository fromConfig(AnimeRepository delegate, ConfigPort config) {
+        return new CachingAnimeRepository(
+            delegate,
+            config.getInt("cache.memory.maxWeight", 5000),
+            Duration.ofSeconds(config.getInt("cache.memory.softTtlSeconds", 300)),
+            Duration.ofSeconds(config.getInt("cache.memory.hardTtlSeconds", 3600))
+        );
+    }
+    
+    @Override
+    public List<Anime> listPopular(int limit) {
+        return cached("popular:" + limit, () -> delegate.listPopular(limit),
+                () -> asyncDelegate.listPopularAsync(limit), List::size);
+    }
+    
+    @Override
+    public List<Anime> search(String query, int limit) {
+        String key = "search:" + limit + ":" + query.trim().toLowerCase();
+        return cached(key, () -> delegate.search(query, limit),
+                () -> asyncDelegate.searchAsync(query, limit), List::size);
+    }
+    
+    @Override
+    public Optional<Anime> findById(String animeId) {
+        Anime anime = cached("anime:" + animeId, () -> delegate.findById(animeId).orElse(null),
+                () -> findAnimeAsync(animeId), a -> 1);
+        return Optional.ofNullable(anime);
+    }
+    
+    @Override
+    public List<Episode> episodesOf(Anime anime) {
+        return episodesById(anime.id());
+    }
+    
+    @Override
+    public List<Episode> episodesById(String animeId) {
+        return cached("episodes:" + animeId, () -> delegate.episodesById(animeId),
+                () -> asyncDelegate.episodesByIdAsync(animeId), List::size);
+    }
+    
+    @Override
+    public List<Anime> getCurrentSeason(int limit) {
+        return cached("season:" + limit, () -> delegate.getCurrentSeason(limit),
+                () -> asyncDelegate.getCurrentSeasonAsync(limit), List::size);
+    }
+    
+    @Override
+    public CompletableFuture<List<Anime>> listPopularAsync(int limit) {
+        return cachedAsync("popular:" + limit, () -> asyncDelegate.listPopularAsync(limit), List::size);
+    }
+    
+    @Override
+    public CompletableFuture<List<Anime>> searchAsync(String query, int limit) {
+        String key = "search:" + limit + ":" + query.trim().toLowerCase();
+        return cachedAsync(key, () -> asyncDelegate.searchAsync(query, limit), List::size);
+    }
+    
+    @Override
+    public CompletableFuture<Optional<Anime>> findByIdAsync(String animeId) {
+        CompletableFuture<Anime> anime = cachedAsync("anime:" + animeId, () -> findAnimeAsync(animeId), a -> 1);
+        return Futures.cancelling(anime.thenApply(Optional::ofNullable), anime);
+    }
+    
+    @Override
+    public CompletableFuture<List<Episode>> episodesByIdAsync(String animeId) {
+        return cachedAsync("episodes:" + animeId, () -> asyncDelegate.episodesByIdAsync(animeId), List::size);
+    }
+    
+    @Override
+    public CompletableFuture<List<Anime>> getCurrentSeasonAsync(int limit) {
+        return cachedAsync("season:" + limit, () -> asyncDelegate.getCurrentSeasonAsync(limit), List::size);
+    }
+    
+    /**
+     * Drop every cached result.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+    
+    private CompletableFuture<Anime> findAnimeAsync(String animeId) {
+        CompletableFuture<Optional<Anime>> anime = asyncDelegate.findByIdAsync(animeId);
+        return Futures.cancelling(anime.thenApply(found -> found.orElse(null)), anime);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, Supplier<T> loader, Supplier<CompletableFuture<T>> refresher,
+                         ToIntFunction<T> weigher) {
+        Cached entry = lookup(key, refresher, weigher);
+        if (entry != null) {
+            return (T) entry.value();
+        }
+        
+        T value = loader.get();
+        store(key, value, weigher);
+        return value;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> cachedAsync(String key, Supplier<CompletableFuture<T>> loader,
+                                                 ToIntFunction<T> weigher) {
+        Cached entry = lookup(key, loader, weigher);
+        if (entry != null) {
+            return CompletableFuture.completedFuture((T) entry.value());
+        }
+        
+        CompletableFuture<T> load = loader.get();
+        return Futures.cancelling(load.thenApply(value -> {
+            store(key, value, weigher);
+            return value;
+        }), load);
+    }
+    
+    /**
+     * Return a usable entry, scheduling a refresh if it is past the soft TTL.
+     * Returns null when the entry is missing or past the hard TTL.
+     */
+    private <T> Cached lookup(String key, Supplier<CompletableFuture<T>> refresher, ToIntFunction<T> weigher) {
+        Cached entry = cache.get(key);
+        if (entry == null || entry.age().compareTo(hardTtl) >= 0) {
+            return null;
+        }
+        
+        if (entry.age().compareTo(softTtl) >= 0 && refreshing.add(key)) {
+            logger.debug("Refreshing stale cache entry: {}", key);
+            refresher.get().whenComplete((value, error) -> {
+                refreshing.remove(key);
+                if (error == null) {
+                    store(key, value, weigher);
+                } else {
+                    // Keep serving the stale value until the hard TTL expires
+                    logger.debug("Background refresh failed for {}: {}", key, error.getMessage());
+                }
+            });
+        }
+        return entry;
+    }
+    
+    private <T> void store(String key, T value, ToIntFunction<T> weigher) {
+        if (value == null) {
+            cache.invalidate(key);
+            return;
+        }
+        int weight = Math.max(1, weigher.applyAsInt(value));
+        cache.put(key, new Cached(value, weight, Instant.now()));
+    }
+}
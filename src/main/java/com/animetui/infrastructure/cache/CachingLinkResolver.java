@@ -0,0 +1,179 @@
+package com.animetui.infrastructure.cache;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
+import com.animetui.domain.port.ConfigPort;
+import com.animetui.domain.port.LinkResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * LinkResolver decorator that remembers resolved links per episode until they expire.
+ * Signed stream URLs usually carry their own expiry (expires=, exp=, X-Amz-Expires,
+ * ...); an entry lives until the earliest of its links expires, minus a safety
+ * margin, and never longer than the default TTL. Entries are dropped as soon as a
+ * link is reported as unplayable.
+ */
+public class CachingLinkResolver implements LinkResolver {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CachingLinkResolver.class);
+    
+    private static final Duration SAFETY_MARGIN = Duration.ofSeconds(30);
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    
+    private final LinkResolver delegate;
+    private final WTinyLfuCache<String, Cached> cache;
+    private final Duration defaultTtl;
+    private final StreamLinkSelector selector;
+    
+    private record Cached(List<StreamLink> links, Instant expiresAt) {
+        boolean isExpired() {
+            return !Instant.now().isBefore(expiresAt);
+        }
+    }
+    
+    /**
+     * @param delegate resolver whose results are cached
+     * @param maxEpisodes maximum number of episodes kept
+     * @param defaultTtl lifetime of links that carry no expiry of their own
+     * @param selector picks the link returned by resolveBest
+     */
+    public CachingLinkResolver(LinkResolver delegate, int maxEpisodes, Duration defaultTtl, StreamLinkSelector selector) {
+        this.delegate = delegate;
+        this.cache = new WTinyLfuCache<>(maxEpisodes, entry -> 1);
+        this.defaultTtl = defaultTtl;
+        this.selector = selector;
+    }
+    
+    public CachingLinkResolver(LinkResolver delegate, int maxEpisodes, Duration defaultTtl) {
+        this(delegate, maxEpisodes, defaultTtl, StreamLinkSelector.unlimited());
+    }
+    
+    /**
+     * Wrap a resolver using the linkresolver.cache.* configuration keys.
+     */
+    public static CachingLinkResolver fromConfig(LinkResolver delegate, ConfigPort config) {
+        return new CachingLinkResolver(
+            delegate,
+            config.getInt("linkresolver.cache.maxEpisodes", 200),
+            Duration.ofSeconds(config.getInt("linkresolver.cache.ttlSeconds", 600)),
+            new StreamLinkSelector(config.getInt("player.maxBandwidthKbps", 0) * 1000L)
+        );
+    }
+    
+    @Override
+    public List<StreamLink> resolve(Episode episode) {
+        Cached entry = cache.get(episode.id());
+        if (entry != null && !entry.isExpired()) {
+            logger.debug("Serving cached links for episode: {}", episode.getDisplayTitle());
+            return entry.links();
+        }
+        
+        List<StreamLink> links = delegate.resolve(episode);
+        if (links.isEmpty()) {
+            cache.invalidate(episode.id());
+            return links;
+        }
+        
+        Instant expiresAt = expiresAt(links);
+        if (expiresAt.isAfter(Instant.now())) {
+            cache.put(episode.id(), new Cached(List.copyOf(links), expiresAt));
+        }
+        return links;
+    }
+    
+    @Override
+    public StreamLink resolveBest(Episode episode) {
+        return selector.select(resolve(episode))
+                .orElseThrow(() -> new RuntimeException(
+                        "No stream links available for episode: " + episode.getDisplayTitle()));
+    }
+    
+    @Override
+    public boolean canResolve(Episode episode) {
+        return delegate.canResolve(episode);
+    }
+    
+    @Override
+    public void invalidate(Episode episode) {
+        logger.debug("Dropping cached links for episode: {}", episode.getDisplayTitle());
+        cache.invalidate(episode.id());
+        delegate.invalidate(episode);
+    }
+    
+    private Instant expiresAt(List<StreamLink> links) {
+        Instant expiresAt = Instant.now().plus(defaultTtl);
+        for (StreamLink link : links) {
+            Optional<Instant> linkExpiry = linkExpiry(link.url());
+            if (linkExpiry.isPresent()) {
+                Instant usableUntil = linkExpiry.get().minus(SAFETY_MARGIN);
+                if (usableUntil.isBefore(expiresAt)) {
+                    expiresAt = usableUntil;
+                }
+            }
+        }
+        return expiresAt;
+    }
+    
+    /**
+     * Read the expiry a signed URL carries in its query string, if any.
+     */
+    static Optional<Instant> linkExpiry(String url) {
+        String query;
+        try {
+            query = URI.create(url).getRawQuery();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (query == null) {
+            return Optional.empty();
+        }
+        
+        Map<String, String> params = new HashMap<>();
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq).toLowerCase(Locale.ROOT), pair.substring(eq + 1));
+            }
+        }
+        
+        // AWS SigV4 presigned URLs: validity in seconds from the signing time
+        if (params.containsKey("x-amz-date") && params.containsKey("x-amz-expires")) {
+            try {
+                Instant signedAt = LocalDateTime.parse(params.get("x-amz-date"), AMZ_DATE).toInstant(ZoneOffset.UTC);
+                return Optional.of(signedAt.plusSeconds(Long.parseLong(params.get("x-amz-expires"))));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                return Optional.empty();
+            }
+        }
+        
+        // CDN token schemes: absolute epoch timestamp, seconds or milliseconds
+        for (String key : List.of("expires", "expire", "expiry", "exp", "deadline")) {
+            String value = params.get(key);
+            if (value == null) {
+                continue;
+            }
+            try {
+                long epoch = Long.parseLong(value);
+                return Optional.of(epoch > 100_000_000_000L ? Instant.ofEpochMilli(epoch) : Instant.ofEpochSecond(epoch));
+            } catch (NumberFormatException e) {
+                // Not a timestamp, try the next convention
+            }
+        }
+        return Optional.empty();
+    }
+}
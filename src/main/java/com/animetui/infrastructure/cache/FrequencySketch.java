@@ -0,0 +1,79 @@
+package com.animetui.infrastructure.cache;
+
+/**
+ * Count-Min sketch of 4-bit counters used to estimate how often a key was seen.
+ * Counters are periodically halved so that the estimate favours recent popularity.
+ */
+class FrequencySketch {
+    
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xc2b2ae35, 0x85ebca6b, 0x27d4eb2f};
+    
+    private final byte[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+    
+    /**
+     * @param expectedEntries approximate number of distinct keys held by the cache
+     */
+    FrequencySketch(long expectedEntries) {
+        int width = Integer.highestOneBit((int) Math.max(16, Math.min(expectedEntries, 1 << 24)) - 1) << 1;
+        this.table = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+    
+    /**
+     * Record one access to the key.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            if (table[row][index] < MAX_COUNT) {
+                table[row][index]++;
+                added = true;
+            }
+        }
+        
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+    
+    /**
+     * Estimated number of recent accesses to the key, capped at 15.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, table[row][indexOf(hash, row)]);
+        }
+        return frequency;
+    }
+    
+    private void reset() {
+        for (byte[] row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (byte) (row[i] >>> 1);
+            }
+        }
+        additions /= 2;
+    }
+    
+    private int indexOf(int hash, int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 17;
+        return h & mask;
+    }
+    
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        return hash ^ (hash >>> 16);
+    }
+}
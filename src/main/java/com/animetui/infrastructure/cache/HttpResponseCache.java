@@ -0,0 +1,400 @@
+package com.animetui.infrastructure.cache;
+
+import com.animetui.domain.port.ConfigPort;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed cache for raw HTTP response bodies, keyed by request URL.
+ * Each entry is a single file holding a small JSON metadata header (the
+ * validators ETag / Last-Modified and the freshness lifetime) followed by the
+ * body, so a reader always sees a matching header and body. The total size
+ * of stored bodies is bounded; the least recently used entries are evicted first.
+ */
+public class HttpResponseCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpResponseCache.class);
+    
+    private static final String ENTRY_SUFFIX = ".entry";
+    private static final String TMP_SUFFIX = ".tmp";
+    
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final ObjectMapper objectMapper;
+    
+    // Access-ordered index of cache key -> stored slot, oldest first
+    private final LinkedHashMap<String, Slot> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentSizeBytes;
+    private long nextGeneration;
+    
+    /**
+     * Body size of an indexed entry and the write that produced it, so a reader
+     * can tell whether the entry it failed to read has since been replaced.
+     */
+    private record Slot(long size, long generation) {
+    }
+    
+    /**
+     * A cached response body together with its revalidation metadata.
+     */
+    public record Entry(
+        byte[] body,
+        String etag,
+        String lastModified,
+        Instant storedAt,
+        Duration ttl
+    ) {
+        /**
+         * Check if the entry can be served without contacting the origin.
+         */
+        public boolean isFresh() {
+            return Instant.now().isBefore(storedAt.plus(ttl));
+        }
+        
+        /**
+         * Check if the entry carries a validator for a conditional request.
+         */
+        public boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+    }
+    
+    public HttpResponseCache(Path directory, long maxSizeBytes) throws IOException {
+        if (maxSizeBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+        this.objectMapper = new ObjectMapper();
+        
+        Files.createDirectories(directory);
+        loadIndex();
+    }
+    
+    /**
+     * Create a response cache from the cache.* configuration keys.
+     * Entries are stored in an "http" sub-directory of cache.directory.
+     */
+    public static HttpResponseCache fromConfig(ConfigPort config) throws IOException {
+        Path root = Path.of(config.getString("cache.directory", ".animetui-cache"));
+        long maxSizeMb = config.getInt("cache.http.maxSizeMb", 64);
+        return new HttpResponseCache(root.resolve("http"), maxSizeMb * 1024 * 1024);
+    }
+    
+    /**
+     * Look up the cached response for a URL, fresh or not. The file is read
+     * without holding the cache lock, so a slow disk only delays this lookup.
+     */
+    public Optional<Entry> get(String url) {
+        String key = keyFor(url);
+        long generation;
+        synchronized (this) {
+            // Also marks the entry as recently used
+            Slot slot = index.get(key);
+            if (slot == null) {
+                return Optional.empty();
+            }
+            generation = slot.generation();
+        }
+        
+        try {
+            // Entries are replaced by rename, so one read sees one complete version
+            byte[] content = Files.readAllBytes(entryPath(key));
+            Files.setLastModifiedTime(entryPath(key), FileTime.from(Instant.now()));
+            return Optional.of(decode(content));
+        } catch (NoSuchFileException e) {
+            // Evicted or replaced while it was being read
+            return Optional.empty();
+        } catch (Exception e) {
+            logger.debug("Dropping unreadable cache entry for {}", url, e);
+            synchronized (this) {
+                // Leave it alone if a newer write has replaced what was read
+                Slot current = index.get(key);
+                if (current != null && current.generation() == generation) {
+                    remove(key);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Store a response body, replacing any previous entry for the URL. The file
+     * is written without holding the cache lock; if a later put for the same URL
+     * lands first, this one is dropped.
+     */
+    public void put(String url, byte[] body, String etag, String lastModified, Duration ttl) {
+        if (body.length > maxSizeBytes) {
+            return;
+        }
+        
+        String key = keyFor(url);
+        long generation;
+        synchronized (this) {
+            generation = nextGeneration++;
+        }
+        
+        Path written = null;
+        try {
+            written = writeTemp(key, url, body, etag, lastModified, Instant.now(), ttl);
+            synchronized (this) {
+                Slot previous = index.get(key);
+                if (previous != null && previous.generation() > generation) {
+                    return;
+                }
+                Files.move(written, entryPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                written = null;
+                index.put(key, new Slot(body.length, generation));
+                currentSizeBytes += body.length - (previous != null ? previous.size() : 0);
+                evictIfNeeded();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write cache entry for {}: {}", url, e.getMessage());
+            synchronized (this) {
+                Slot current = index.get(key);
+                if (current != null && current.generation() < generation) {
+                    remove(key);
+                }
+            }
+        } finally {
+            deleteTemp(written);
+        }
+    }
+    
+    /**
+     * Mark an existing entry as fresh again after a 304 Not Modified response.
+     * Nothing is written if the entry has since been replaced with a different one.
+     * Like put, the file is read and rewritten without holding the cache lock.
+     */
+    public void refresh(String url, Entry entry, Duration ttl) {
+        String key = keyFor(url);
+        long generation;
+        long refreshed;
+        synchronized (this) {
+            Slot slot = index.get(key);
+            if (slot == null) {
+                return;
+            }
+            generation = slot.generation();
+            refreshed = nextGeneration++;
+        }
+        
+        Path written = null;
+        try {
+            Entry current = decode(Files.readAllBytes(entryPath(key)));
+            if (!Objects.equals(current.etag(), entry.etag())
+                    || !Objects.equals(current.lastModified(), entry.lastModified())) {
+                return;
+            }
+            written = writeTemp(key, url, current.body(), current.etag(), current.lastModified(), Instant.now(), ttl);
+            synchronized (this) {
+                // Only stamp the version that was read
+                Slot slot = index.get(key);
+                if (slot == null || slot.generation() != generation) {
+                    return;
+                }
+                Files.move(written, entryPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                written = null;
+                index.put(key, new Slot(slot.size(), refreshed));
+            }
+        } catch (NoSuchFileException e) {
+            // Evicted or replaced while it was being read
+        } catch (IOException e) {
+            logger.warn("Failed to refresh cache entry for {}: {}", url, e.getMessage());
+        } finally {
+            deleteTemp(written);
+        }
+    }
+    
+    /**
+     * Remove the cached response for a URL.
+     */
+    public synchronized void invalidate(String url) {
+        remove(keyFor(url));
+    }
+    
+    /**
+     * Current total size of cached bodies in bytes.
+     */
+    public synchronized long sizeBytes() {
+        return currentSizeBytes;
+    }
+    
+    private void loadIndex() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(ENTRY_SUFFIX)) {
+                    entries.add(file);
+                } else if (name.endsWith(TMP_SUFFIX)) {
+                    // Left behind by a write that never reached its rename
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        
+        // Oldest access first so the LinkedHashMap starts out in LRU order
+        entries.sort(Comparator.comparing(HttpResponseCache::lastModifiedTime));
+        for (Path entry : entries) {
+            String name = entry.getFileName().toString();
+            String key = name.substring(0, name.length() - ENTRY_SUFFIX.length());
+            long size = bodySize(entry);
+            if (size < 0) {
+                Files.deleteIfExists(entry);
+                continue;
+            }
+            index.put(key, new Slot(size, nextGeneration++));
+            currentSizeBytes += size;
+        }
+        
+        evictIfNeeded();
+        logger.debug("Loaded {} cached responses ({} bytes) from {}", index.size(), currentSizeBytes, directory);
+    }
+    
+    /**
+     * Size of the body stored in an entry file, from its header length alone,
+     * or -1 if the file is truncated.
+     */
+    private static long bodySize(Path entry) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(entry))) {
+            long size = Files.size(entry) - Integer.BYTES - in.readInt();
+            return size >= 0 ? size : -1;
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+    
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Slot>> it = index.entrySet().iterator();
+        while (currentSizeBytes > maxSizeBytes && it.hasNext()) {
+            Map.Entry<String, Slot> eldest = it.next();
+            it.remove();
+            currentSizeBytes -= eldest.getValue().size();
+            deleteFiles(eldest.getKey());
+        }
+    }
+    
+    private void remove(String key) {
+        Slot slot = index.remove(key);
+        if (slot != null) {
+            currentSizeBytes -= slot.size();
+        }
+        deleteFiles(key);
+    }
+    
+    private void deleteFiles(String key) {
+        try {
+            Files.deleteIfExists(entryPath(key));
+        } catch (IOException e) {
+            logger.debug("Failed to delete cache file for key {}", key, e);
+        }
+    }
+    
+    /**
+     * Write an entry as [header length][JSON header][body] to a temporary file
+     * of its own, ready to be moved into place in one rename.
+     */
+    private Path writeTemp(String key, String url, byte[] body, String etag, String lastModified,
+                           Instant storedAt, Duration ttl) throws IOException {
+        ObjectNode meta = objectMapper.createObjectNode();
+        meta.put("url", url);
+        meta.put("etag", etag);
+        meta.put("lastModified", lastModified);
+        meta.put("storedAt", storedAt.toEpochMilli());
+        meta.put("ttlSeconds", ttl.toSeconds());
+        byte[] header = objectMapper.writeValueAsBytes(meta);
+        
+        // Unique per write, since writes for the same key can now overlap
+        Path tmp = Files.createTempFile(directory, key + ".", TMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(header.length);
+            out.write(header);
+            out.write(body);
+        } catch (IOException e) {
+            deleteTemp(tmp);
+            throw e;
+        }
+        return tmp;
+    }
+    
+    private static void deleteTemp(Path tmp) {
+        if (tmp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            logger.debug("Failed to delete temporary cache file {}", tmp, e);
+        }
+    }
+    
+    private Entry decode(byte[] content) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        int headerLength = buffer.getInt();
+        if (headerLength < 0 || headerLength > buffer.remaining()) {
+            throw new IOException("Corrupt cache entry header");
+        }
+        ObjectNode meta = (ObjectNode) objectMapper.readTree(content, Integer.BYTES, headerLength);
+        byte[] body = Arrays.copyOfRange(content, Integer.BYTES + headerLength, content.length);
+        
+        return new Entry(
+            body,
+            meta.hasNonNull("etag") ? meta.get("etag").asText() : null,
+            meta.hasNonNull("lastModified") ? meta.get("lastModified").asText() : null,
+            Instant.ofEpochMilli(meta.get("storedAt").asLong()),
+            Duration.ofSeconds(meta.get("ttlSeconds").asLong())
+        );
+    }
+    
+    private Path entryPath(String key) {
+        return directory.resolve(key + ENTRY_SUFFIX);
+    }
+    
+    private static FileTime lastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+    
+    private static String keyFor(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
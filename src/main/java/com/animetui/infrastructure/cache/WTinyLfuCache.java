@@ -0,0 +1,266 @@
+package com.animetui.infrastructure.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded, weight-aware in-memory cache using the W-TinyLFU eviction policy.
+ * New entries land in a small LRU admission window; entries leaving the window
+ * only enter the main segmented LRU if the frequency sketch says they are more
+ * popular than the entry they would displace. This keeps one-off lookups (a
+ * single search, a show opened once) from flushing frequently revisited data.
+ */
+public class WTinyLfuCache<K, V> {
+    
+    private static final int WINDOW_PERCENT = 1;
+    
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+    
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        int weight;
+        Segment segment;
+        
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+    
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long mainMaximum;
+    private final long protectedMaximum;
+    private final ToIntFunction<V> weigher;
+    private final FrequencySketch sketch;
+    
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+    
+    // Insertion-ordered: the first entry is the least recently used
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>();
+    
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+    
+    /**
+     * @param maximumWeight total weight the cache may hold
+     * @param typicalWeight weight of a usual entry; the window always fits a couple of them
+     * @param weigher weight of a single value; must be positive
+     */
+    public WTinyLfuCache(long maximumWeight, int typicalWeight, ToIntFunction<V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+        if (typicalWeight <= 0) {
+            throw new IllegalArgumentException("Typical weight must be positive");
+        }
+        this.maximumWeight = maximumWeight;
+        // A window lighter than one entry would push every new entry straight to admission
+        long window = Math.max(maximumWeight * WINDOW_PERCENT / 100, 2L * typicalWeight);
+        this.windowMaximum = Math.max(1, Math.min(window, maximumWeight / 2));
+        this.mainMaximum = maximumWeight - windowMaximum;
+        this.protectedMaximum = (long) (mainMaximum * 0.8);
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(maximumWeight);
+    }
+    
+    /**
+     * Cache whose entries all weigh about the same.
+     */
+    public WTinyLfuCache(long maximumWeight, ToIntFunction<V> weigher) {
+        this(maximumWeight, 1, weigher);
+    }
+    
+    /**
+     * Look up a value, recording the access for the admission policy.
+     * Misses count too, so the put that follows a miss does not count again.
+     *
+     * @return the cached value, or null if absent
+     */
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        onHit(node);
+        return node.value;
+    }
+    
+    /**
+     * Insert or replace a value. This is not an access; {@link #get} records those.
+     */
+    public synchronized void put(K key, V value) {
+        int weight = weigher.applyAsInt(value);
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive");
+        }
+        
+        Node<K, V> existing = data.get(key);
+        if (existing != null) {
+            adjustWeight(existing.segment, weight - existing.weight);
+            existing.value = value;
+            existing.weight = weight;
+            onHit(existing);
+            drainWindow();
+            evictFromMain(null);
+            return;
+        }
+        
+        if (weight > maximumWeight) {
+            return;
+        }
+        
+        Node<K, V> node = new Node<>(key, value, weight);
+        data.put(key, node);
+        addTo(Segment.WINDOW, node);
+        drainWindow();
+    }
+    
+    /**
+     * Remove the value for a key, if present.
+     */
+    public synchronized void invalidate(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node != null) {
+            removeFrom(node);
+        }
+    }
+    
+    /**
+     * Remove every entry. Frequency history is kept.
+     */
+    public synchronized void invalidateAll() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        windowWeight = probationWeight = protectedWeight = 0;
+    }
+    
+    public synchronized int size() {
+        return data.size();
+    }
+    
+    public synchronized long weight() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+    
+    private void onHit(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW, PROTECTED -> {
+                // Re-insert to move to the most recently used position
+                removeFrom(node);
+                addTo(node.segment, node);
+            }
+            case PROBATION -> {
+                removeFrom(node);
+                addTo(Segment.PROTECTED, node);
+                demoteProtectedOverflow();
+            }
+        }
+    }
+    
+    private void drainWindow() {
+        while (windowWeight > windowMaximum && !window.isEmpty()) {
+            Node<K, V> candidate = eldest(window);
+            removeFrom(candidate);
+            addTo(Segment.PROBATION, candidate);
+            evictFromMain(candidate);
+        }
+    }
+    
+    /**
+     * Bring the main space back under its limit. When a candidate just left the
+     * window, it competes with the probation victim on estimated frequency.
+     * The window stays within its own limit, so the whole cache fits as well.
+     */
+    private void evictFromMain(Node<K, V> candidate) {
+        while (probationWeight + protectedWeight > mainMaximum) {
+            Node<K, V> victim = eldestVictim(candidate);
+            if (victim == null || candidate == null) {
+                evict(victim != null ? victim : candidate);
+                if (victim == null) {
+                    return;
+                }
+                continue;
+            }
+            
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+                candidate = null;
+            }
+        }
+    }
+    
+    private Node<K, V> eldestVictim(Node<K, V> exclude) {
+        for (LinkedHashMap<K, Node<K, V>> segment : List.of(probation, protectedSegment)) {
+            for (Node<K, V> node : segment.values()) {
+                if (node != exclude) {
+                    return node;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private void demoteProtectedOverflow() {
+        while (protectedWeight > protectedMaximum && protectedSegment.size() > 1) {
+            Node<K, V> demoted = eldest(protectedSegment);
+            removeFrom(demoted);
+            addTo(Segment.PROBATION, demoted);
+        }
+    }
+    
+    private void evict(Node<K, V> node) {
+        if (node == null) {
+            return;
+        }
+        data.remove(node.key);
+        removeFrom(node);
+    }
+    
+    private Node<K, V> eldest(LinkedHashMap<K, Node<K, V>> segment) {
+        Iterator<Node<K, V>> it = segment.values().iterator();
+        return it.next();
+    }
+    
+    private void addTo(Segment segment, Node<K, V> node) {
+        node.segment = segment;
+        segmentMap(segment).put(node.key, node);
+        adjustWeight(segment, node.weight);
+    }
+    
+    private void removeFrom(Node<K, V> node) {
+        if (segmentMap(node.segment).remove(node.key) != null) {
+            adjustWeight(node.segment, -node.weight);
+        }
+    }
+    
+    private LinkedHashMap<K, Node<K, V>> segmentMap(Segment segment) {
+        return switch (segment) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            case PROTECTED -> protectedSegment;
+        };
+    }
+    
+    private void adjustWeight(Segment segment, long delta) {
+        switch (segment) {
+            case WINDOW -> windowWeight += delta;
+            case PROBATION -> probationWeight += delta;
+            case PROTECTED -> protectedWeight += delta;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.animetui.infrastructure.cache;
+
+import com.animetui.domain.port.ConfigPort;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persistent index from anime (by MAL id and by normalized title) to the watch page
+ * URL a streaming site uses for it, so resolving further episodes of a show does not
+ * repeat the site search. Entries are kept per site, so mirrors sharing one index
+ * do not overwrite each other. Bounded to a maximum number of entries, least
+ * recently used first out, and saved as a small JSON file.
+ */
+public class WatchUrlIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WatchUrlIndex.class);
+    
+    private final Path file;
+    private final int maxEntries;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    // Access-ordered key -> watch URL, oldest first
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(64, 0.75f, true);
+    
+    /**
+     * @param file where the index is persisted, or null to keep it in memory only
+     * @param maxEntries maximum number of keys kept
+     */
+    public WatchUrlIndex(Path file, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Index size must be positive");
+        }
+        this.file = file;
+        this.maxEntries = maxEntries;
+        load();
+    }
+    
+    /**
+     * Create an index stored in cache.directory, or an in-memory one when caching is disabled.
+     */
+    public static WatchUrlIndex fromConfig(ConfigPort config) {
+        int maxEntries = config.getInt("cache.watchUrls.maxEntries", 1000);
+        if (!config.getBoolean("cache.enabled", false)) {
+            return new WatchUrlIndex(null, maxEntries);
+        }
+        Path root = Path.of(config.getString("cache.directory", ".animetui-cache"));
+        return new WatchUrlIndex(root.resolve("watch-urls.json"), maxEntries);
+    }
+    
+    /**
+     * Look up the watch URL for an anime on a site, trying its id before its title.
+     *
+     * @param site host name of the streaming site
+     * @param animeId MAL id of the anime, may be null
+     * @param title anime title, may be null
+     * @return the indexed watch URL, if any
+     */
+    public synchronized Optional<String> find(String site, String animeId, String title) {
+        for (String key : keysFor(site, animeId, title)) {
+            String url = entries.get(key);
+            if (url != null) {
+                return Optional.of(url);
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Remember the watch URL for an anime on a site under both its id and its title.
+     */
+    public synchronized void put(String site, String animeId, String title, String watchUrl) {
+        for (String key : keysFor(site, animeId, title)) {
+            entries.put(key, watchUrl);
+        }
+        
+        Iterator<Map.Entry<String, String>> oldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+        save();
+    }
+    
+    /**
+     * Forget the watch URL of an anime, e.g. after the page turned out to be gone.
+     */
+    public synchronized void invalidate(String site, String animeId, String title) {
+        boolean changed = false;
+        for (String key : keysFor(site, animeId, title)) {
+            changed |= entries.remove(key) != null;
+        }
+        if (changed) {
+            save();
+        }
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Normalize a title for lookups: case, accents, punctuation and spacing are ignored.
+     */
+    static String normalizeTitle(String title) {
+        String decomposed = Normalizer.normalize(title, Normalizer.Form.NFKD);
+        return decomposed.replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+    
+    /**
+     * Keys look like "hianime.to/id:21" and "hianime.to/title:one piece".
+     */
+    private static String[] keysFor(String site, String animeId, String title) {
+        String prefix = site.toLowerCase(Locale.ROOT) + "/";
+        String idKey = animeId != null && !animeId.isBlank() ? prefix + "id:" + animeId.trim() : null;
+        String titleKey = null;
+        if (title != null) {
+            String normalized = normalizeTitle(title);
+            if (!normalized.isEmpty()) {
+                titleKey = prefix + "title:" + normalized;
+            }
+        }
+        
+        if (idKey != null && titleKey != null) {
+            return new String[] { idKey, titleKey };
+        } else if (idKey != null) {
+            return new String[] { idKey };
+        } else if (titleKey != null) {
+            return new String[] { titleKey };
+        }
+        return new String[0];
+    }
+    
+    private void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(file.toFile());
+            root.fields().forEachRemaining(entry -> {
+                // Keys written before entries were kept per site are dropped
+                if (entry.getKey().contains("/")) {
+                    entries.put(entry.getKey(), entry.getValue().asText());
+                }
+            });
+            logger.debug("Loaded {} watch URLs from {}", entries.size(), file);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable watch URL index {}", file, e);
+        }
+    }
+    
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        ObjectNode root = objectMapper.createObjectNode();
+        entries.forEach(root::put);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), root);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to save watch URL index {}", file, e);
+        }
+    }
+}
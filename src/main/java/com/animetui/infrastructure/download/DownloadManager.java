@@ -0,0 +1,575 @@
+package com.animetui.infrastructure.download;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.ConfigPort;
+import com.animetui.domain.port.EpisodeDownloader;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.animetui.infrastructure.scraper.HlsPlaylistParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * EpisodeDownloader that stores episodes under cache.directory/downloads.
+ * MP4 streams are fetched as parallel HTTP range segments written in place; HLS
+ * streams have their segments fetched concurrently and concatenated in order once
+ * all are there. Each episode directory keeps a state file listing the finished
+ * segments, so interrupted downloads resume where they stopped, even from a freshly
+ * resolved URL. Disk usage is kept under a quota by evicting the least recently
+ * played episodes that have been watched; unwatched episodes are never evicted.
+ */
+public class DownloadManager implements EpisodeDownloader {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DownloadManager.class);
+    
+    private static final int SEGMENT_ATTEMPTS = 3;
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes \\d+-\\d+/(\\d+)");
+    
+    private final Path root;
+    private final long quotaBytes;
+    private final HttpTransport transport;
+    private final int parallelism;
+    private final long segmentBytes;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, DownloadState> states = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> active = new ConcurrentHashMap<>();
+    
+    /**
+     * @param root directory holding one subdirectory per episode
+     * @param quotaBytes maximum disk space for downloads
+     * @param transport transport the downloads are fetched with
+     * @param parallelism segments fetched at once per download
+     * @param segmentBytes size of the range segments of MP4 downloads
+     */
+    public DownloadManager(Path root, long quotaBytes, HttpTransport transport, int parallelism, long segmentBytes) {
+        if (parallelism < 1 || segmentBytes < 1) {
+            throw new IllegalArgumentException("Parallelism and segment size must be positive");
+        }
+        this.root = root;
+        this.quotaBytes = quotaBytes;
+        this.transport = transport;
+        this.parallelism = parallelism;
+        this.segmentBytes = segmentBytes;
+        loadStates();
+    }
+    
+    /**
+     * Create a download manager from the download.* settings, storing under cache.directory.
+     */
+    public static DownloadManager fromConfig(ConfigPort config, HttpTransport transport) {
+        Path root = Path.of(config.getString("cache.directory", ".animetui-cache")).resolve("downloads");
+        return new DownloadManager(
+            root,
+            config.getInt("download.quotaMb", 10240) * 1024L * 1024L,
+            transport,
+            config.getInt("download.parallelism", 4),
+            config.getInt("download.segmentSizeMb", 8) * 1024L * 1024L
+        );
+    }
+    
+    @Override
+    public CompletableFuture<Void> download(Episode episode, StreamLink streamLink) {
+        // Asking again for an episode that is already downloading joins that download
+        // One that just finished may not have removed itself yet, so it is replaced rather than joined
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        CompletableFuture<Void> download = active.compute(episode.id(),
+                (id, running) -> running != null && !running.isDone() ? running : started);
+        if (download == started) {
+            // Started outside compute: a download that finishes at once would otherwise
+            // remove itself from inside the map's own update
+            started.whenComplete((ignored, failure) -> active.remove(episode.id(), started));
+            try {
+                CompletableFuture.runAsync(() -> run(episode, streamLink), executor)
+                        .whenComplete((ignored, failure) -> {
+                            if (failure != null) {
+                                started.completeExceptionally(failure);
+                            } else {
+                                started.complete(null);
+                            }
+                        });
+            } catch (RejectedExecutionException e) {
+                started.completeExceptionally(e);
+            }
+        }
+        return download.copy();
+    }
+    
+    @Override
+    public Optional<StreamLink> localCopy(Episode episode) {
+        DownloadState state = states.get(episode.id());
+        if (state == null || !state.complete || !Files.exists(state.file())) {
+            return Optional.empty();
+        }
+        touch(state, false);
+        String format = state.fileName.endsWith(".ts") ? "ts" : "mp4";
+        return Optional.of(new StreamLink(state.file().toAbsolutePath().toString(),
+                state.quality != null ? state.quality : "local", format, "download", true));
+    }
+    
+    @Override
+    public void markWatched(Episode episode) {
+        DownloadState state = states.get(episode.id());
+        if (state != null) {
+            touch(state, true);
+        }
+    }
+    
+    private void touch(DownloadState state, boolean watched) {
+        synchronized (state) {
+            state.lastAccessMillis = System.currentTimeMillis();
+            state.watched |= watched;
+            try {
+                state.save();
+            } catch (IOException e) {
+                logger.warn("Failed to save download state {}", state.directory, e);
+            }
+        }
+    }
+    
+    private void run(Episode episode, StreamLink link) {
+        DownloadState state = states.computeIfAbsent(episode.id(),
+                id -> new DownloadState(root.resolve(directoryName(id)), id));
+        if (state.complete && Files.exists(state.file())) {
+            return;
+        }
+        
+        // A re-resolved URL usually serves the same bytes; the segment check below decides
+        state.title = episode.getDisplayTitle();
+        state.url = link.url();
+        state.quality = link.quality();
+        state.format = link.format();
+        
+        try {
+            logger.info("Downloading episode: {} ({})", episode.getDisplayTitle(), link.getDisplayString());
+            if ("hls".equals(link.format()) || link.url().toLowerCase().contains(".m3u8")) {
+                downloadHls(state, link.bandwidth());
+            } else {
+                downloadRanged(state);
+            }
+            
+            state.complete = true;
+            state.lastAccessMillis = System.currentTimeMillis();
+            state.save();
+            logger.info("Downloaded episode: {} to {}", episode.getDisplayTitle(), state.file());
+            
+            if (!evict(0, episode.id())) {
+                logger.warn("Downloads exceed the quota of {} MB and nothing watched is left to evict",
+                        quotaBytes / (1024 * 1024));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to download episode: " + episode.getDisplayTitle(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Download interrupted: " + episode.getDisplayTitle(), e);
+        }
+    }
+    
+    private void downloadRanged(DownloadState state) throws IOException, InterruptedException {
+        String url = absolute(state.url);
+        
+        // A one-byte range tells both the size and whether the server supports ranges
+        long totalBytes = -1;
+        HttpResponse<InputStream> probe = transport.send(mediaRequest(url).setHeader("Range", "bytes=0-0").build());
+        try {
+            if (probe.statusCode() == 206) {
+                Matcher matcher = CONTENT_RANGE.matcher(probe.headers().firstValue("Content-Range").orElse(""));
+                if (matcher.matches()) {
+                    totalBytes = Long.parseLong(matcher.group(1));
+                }
+            } else if (probe.statusCode() != 200) {
+                throw new IOException("HTTP " + probe.statusCode() + " for " + url);
+            }
+        } finally {
+            probe.body().close();
+        }
+        
+        state.fileName = "episode.mp4";
+        if (totalBytes < 0) {
+            // No range support: one plain stream, restarted from scratch if interrupted
+            state.reset(1, -1);
+            downloadWhole(url, state);
+            return;
+        }
+        
+        int segmentCount = (int) ((totalBytes + segmentBytes - 1) / segmentBytes);
+        if (state.totalBytes != totalBytes || state.segmentCount != segmentCount || !Files.exists(state.file())) {
+            state.reset(segmentCount, totalBytes);
+        }
+        long remaining = totalBytes - (long) state.completedSegments.cardinality() * segmentBytes;
+        requireSpace(Math.max(0, remaining), state.episodeId);
+        state.save();
+        
+        try (FileChannel channel = FileChannel.open(state.file(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            List<Callable<Void>> segments = new ArrayList<>();
+            for (int segment = 0; segment < segmentCount; segment++) {
+                if (state.isSegmentDone(segment)) {
+                    continue;
+                }
+                int index = segment;
+                long from = segment * segmentBytes;
+                long to = Math.min(totalBytes, from + segmentBytes) - 1;
+                segments.add(() -> {
+                    withRetries(() -> downloadRange(channel, url, from, to));
+                    state.markSegmentDone(index);
+                    return null;
+                });
+            }
+            runAll(segments);
+        }
+    }
+    
+    private void downloadRange(FileChannel channel, String url, long from, long to) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = transport.send(
+                mediaRequest(url).setHeader("Range", "bytes=" + from + "-" + to).build());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 206) {
+                throw new IOException("HTTP " + response.statusCode() + " for range " + from + "-" + to);
+            }
+            byte[] buffer = new byte[COPY_BUFFER_BYTES];
+            long position = from;
+            int read;
+            while ((read = body.read(buffer)) > 0) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    position += channel.write(chunk, position);
+                }
+            }
+            if (position != to + 1) {
+                throw new IOException("Range " + from + "-" + to + " ended early at " + position);
+            }
+        }
+    }
+    
+    private void downloadWhole(String url, DownloadState state) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = transport.send(mediaRequest(url).build());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " for " + url);
+            }
+            response.headers().firstValueAsLong("Content-Length")
+                    .ifPresent(length -> requireSpace(length, state.episodeId));
+            Files.createDirectories(state.directory);
+            Files.copy(body, state.file(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        state.markSegmentDone(0);
+    }
+    
+    /**
+     * @param bandwidth bandwidth of the chosen variant, 0 if unknown
+     */
+    private void downloadHls(DownloadState state, long bandwidth) throws IOException, InterruptedException {
+        URI masterUri = URI.create(absolute(state.url));
+        URI playlistUri = masterUri;
+        String playlist = fetchText(playlistUri);
+        if (HlsPlaylistParser.isMasterPlaylist(playlist)) {
+            HlsPlaylistParser.Variant variant = pickVariant(HlsPlaylistParser.parseVariants(playlist, masterUri), bandwidth)
+                    .orElseThrow(() -> new IOException("Master playlist without variants: " + masterUri));
+            if (HlsPlaylistParser.hasSeparateAudio(playlist)) {
+                // The variant's segments would be silent; putting the audio back needs a muxer
+                throw new IOException("HLS streams with separate audio renditions cannot be downloaded");
+            }
+            bandwidth = variant.bandwidth();
+            playlistUri = URI.create(variant.uri());
+            playlist = fetchText(playlistUri);
+        }
+        
+        HlsPlaylistParser.MediaPlaylist media = HlsPlaylistParser.parseMediaPlaylist(playlist, playlistUri);
+        if (media.encrypted()) {
+            throw new IOException("Encrypted HLS streams cannot be downloaded");
+        }
+        if (media.byteRanges()) {
+            throw new IOException("HLS byte-range playlists cannot be downloaded");
+        }
+        if (media.segments().isEmpty()) {
+            throw new IOException("HLS playlist has no segments: " + playlistUri);
+        }
+        
+        List<String> parts = new ArrayList<>();
+        if (media.initSegment() != null) {
+            parts.add(media.initSegment());
+        }
+        parts.addAll(media.segments());
+        
+        // Fragmented MP4 segments concatenate into an MP4, transport stream segments into a TS
+        state.fileName = media.initSegment() != null ? "episode.mp4" : "episode.ts";
+        Path partsDirectory = state.directory.resolve("parts");
+        // Segments of another variant or another stream must not be mixed in, whatever their count
+        String rendition = withoutQuery(playlistUri);
+        if (!rendition.equals(state.rendition) || state.segmentCount != parts.size()) {
+            state.reset(parts.size(), -1);
+            state.rendition = rendition;
+            deleteRecursively(partsDirectory);
+        }
+        state.save();
+        
+        Files.createDirectories(partsDirectory);
+        List<Integer> pending = new ArrayList<>();
+        for (int index = 0; index < parts.size(); index++) {
+            if (!state.isSegmentDone(index) || !Files.exists(partsDirectory.resolve(index + ".part"))) {
+                pending.add(index);
+            }
+        }
+        
+        long remainingBytes;
+        if (bandwidth > 0 && media.durationSeconds() > 0) {
+            remainingBytes = (long) (media.durationSeconds() * bandwidth / 8 * pending.size() / parts.size());
+        } else {
+            // No bandwidth to go by: extrapolate from a media segment already here or fetched now
+            int firstMedia = media.initSegment() != null ? 1 : 0;
+            if (state.completedSegments.cardinality() <= firstMedia && pending.contains(firstMedia)) {
+                fetchPart(state, partsDirectory, parts, firstMedia);
+                pending.remove(Integer.valueOf(firstMedia));
+            }
+            remainingBytes = sizeOf(partsDirectory.resolve(firstMedia + ".part")) * pending.size();
+        }
+        requireSpace(remainingBytes, state.episodeId);
+        
+        List<Callable<Void>> downloads = new ArrayList<>();
+        for (int index : pending) {
+            downloads.add(() -> {
+                fetchPart(state, partsDirectory, parts, index);
+                return null;
+            });
+        }
+        runAll(downloads);
+        
+        // Remux by concatenation: the segments of one rendition form a continuous stream
+        Path output = state.directory.resolve(state.fileName + ".tmp");
+        try (OutputStream out = Files.newOutputStream(output)) {
+            for (int index = 0; index < parts.size(); index++) {
+                Files.copy(partsDirectory.resolve(index + ".part"), out);
+            }
+        }
+        Files.move(output, state.file(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteRecursively(partsDirectory);
+    }
+    
+    /**
+     * The variant with the bandwidth the link was chosen for: the richest one within it,
+     * or the richest one overall when the bandwidth is unknown.
+     */
+    private static Optional<HlsPlaylistParser.Variant> pickVariant(List<HlsPlaylistParser.Variant> variants,
+                                                                   long bandwidth) {
+        Comparator<HlsPlaylistParser.Variant> byBandwidth = Comparator.comparingLong(HlsPlaylistParser.Variant::bandwidth);
+        if (bandwidth <= 0) {
+            return variants.stream().max(byBandwidth);
+        }
+        return variants.stream()
+                .filter(variant -> variant.bandwidth() <= bandwidth)
+                .max(byBandwidth)
+                .or(() -> variants.stream().min(byBandwidth));
+    }
+    
+    private static String withoutQuery(URI uri) {
+        String text = uri.toString();
+        int query = text.indexOf('?');
+        return query >= 0 ? text.substring(0, query) : text;
+    }
+    
+    private void fetchPart(DownloadState state, Path partsDirectory, List<String> parts, int index)
+            throws IOException, InterruptedException {
+        withRetries(() -> downloadPart(parts.get(index), partsDirectory.resolve(index + ".part")));
+        state.markSegmentDone(index);
+    }
+    
+    private void downloadPart(String url, Path part) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = transport.send(mediaRequest(url).build());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " for segment " + url);
+            }
+            Path tmp = part.resolveSibling(part.getFileName() + ".tmp");
+            Files.copy(body, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+    
+    private String fetchText(URI uri) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = transport.send(transport.request(uri.toString()).build());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " for " + uri);
+            }
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Transfer {
+        void run() throws IOException, InterruptedException;
+    }
+    
+    private static void withRetries(Transfer transfer) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transfer.run();
+                return;
+            } catch (IOException e) {
+                if (attempt >= SEGMENT_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Segment transfer failed (attempt {}), retrying: {}", attempt, e.getMessage());
+                Thread.sleep(1000L * attempt);
+            }
+        }
+    }
+    
+    /**
+     * Run segment transfers with bounded parallelism. Every segment gets its chance
+     * even if another fails, so a retry later has less left to fetch.
+     */
+    private void runAll(List<Callable<Void>> tasks) throws IOException, InterruptedException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        try (ExecutorService pool = Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().factory())) {
+            IOException failure = null;
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+    
+    private HttpRequest.Builder mediaRequest(String url) {
+        return transport.mediaRequest(absolute(url));
+    }
+    
+    private static String absolute(String url) {
+        return url.startsWith("//") ? "https:" + url : url;
+    }
+    
+    private void requireSpace(long incomingBytes, String keepEpisodeId) {
+        if (!evict(incomingBytes, keepEpisodeId)) {
+            throw new RuntimeException(String.format("Download quota of %d MB exceeded; play or delete some downloads",
+                    quotaBytes / (1024 * 1024)));
+        }
+    }
+    
+    /**
+     * Evict watched episodes, least recently played first, until the incoming bytes fit.
+     *
+     * @return whether the incoming bytes fit the quota
+     */
+    private synchronized boolean evict(long incomingBytes, String keepEpisodeId) {
+        long used = sizeOf(root);
+        if (used + incomingBytes <= quotaBytes) {
+            return true;
+        }
+        
+        List<DownloadState> candidates = states.values().stream()
+                .filter(state -> state.watched && state.complete && !state.episodeId.equals(keepEpisodeId))
+                .filter(state -> !active.containsKey(state.episodeId))
+                .sorted(Comparator.comparingLong(state -> state.lastAccessMillis))
+                .toList();
+        for (DownloadState state : candidates) {
+            if (used + incomingBytes <= quotaBytes) {
+                break;
+            }
+            long size = sizeOf(state.directory);
+            try {
+                deleteRecursively(state.directory);
+                states.remove(state.episodeId);
+                used -= size;
+                logger.info("Evicted watched download {} ({} MB)", state.title, size / (1024 * 1024));
+            } catch (IOException e) {
+                logger.warn("Failed to evict download {}", state.directory, e);
+            }
+        }
+        return used + incomingBytes <= quotaBytes;
+    }
+    
+    private static long sizeOf(Path directory) {
+        if (!Files.exists(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+    
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+    
+    private static String directoryName(String episodeId) {
+        return episodeId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+    
+    private void loadStates() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path directory : directories) {
+                if (!Files.exists(directory.resolve(DownloadState.FILE_NAME))) {
+                    continue;
+                }
+                try {
+                    DownloadState state = DownloadState.load(directory);
+                    states.put(state.episodeId, state);
+                } catch (IOException e) {
+                    logger.warn("Ignoring unreadable download state in {}", directory, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read downloads in {}", root, e);
+        }
+    }
+}
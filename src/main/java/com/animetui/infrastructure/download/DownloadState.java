@@ -0,0 +1,112 @@
+package com.animetui.infrastructure.download;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+
+/**
+ * Progress of one episode download, persisted next to the downloaded data as
+ * state.json so an interrupted download resumes with the segments it already has.
+ */
+final class DownloadState {
+    
+    static final String FILE_NAME = "state.json";
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    final Path directory;
+    final String episodeId;
+    String title;
+    String url;
+    String format;
+    String quality;
+    String fileName;
+    // Media playlist the HLS segments were numbered from, without its query
+    String rendition;
+    long totalBytes = -1;
+    int segmentCount;
+    final BitSet completedSegments = new BitSet();
+    boolean complete;
+    boolean watched;
+    long lastAccessMillis;
+    
+    DownloadState(Path directory, String episodeId) {
+        this.directory = directory;
+        this.episodeId = episodeId;
+        this.lastAccessMillis = System.currentTimeMillis();
+    }
+    
+    Path file() {
+        return directory.resolve(fileName);
+    }
+    
+    /**
+     * Start over with a different segmentation, keeping the episode's bookkeeping.
+     */
+    synchronized void reset(int segmentCount, long totalBytes) {
+        this.segmentCount = segmentCount;
+        this.totalBytes = totalBytes;
+        this.completedSegments.clear();
+        this.complete = false;
+    }
+    
+    synchronized void markSegmentDone(int segment) throws IOException {
+        completedSegments.set(segment);
+        save();
+    }
+    
+    synchronized boolean isSegmentDone(int segment) {
+        return completedSegments.get(segment);
+    }
+    
+    synchronized void save() throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("episodeId", episodeId);
+        root.put("title", title);
+        root.put("url", url);
+        root.put("format", format);
+        root.put("quality", quality);
+        root.put("fileName", fileName);
+        root.put("rendition", rendition);
+        root.put("totalBytes", totalBytes);
+        root.put("segmentCount", segmentCount);
+        ArrayNode done = root.putArray("completedSegments");
+        completedSegments.stream().forEach(done::add);
+        root.put("complete", complete);
+        root.put("watched", watched);
+        root.put("lastAccessMillis", lastAccessMillis);
+        
+        Files.createDirectories(directory);
+        Path target = directory.resolve(FILE_NAME);
+        Path tmp = directory.resolve(FILE_NAME + ".tmp");
+        objectMapper.writeValue(tmp.toFile(), root);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    static DownloadState load(Path directory) throws IOException {
+        JsonNode root = objectMapper.readTree(directory.resolve(FILE_NAME).toFile());
+        DownloadState state = new DownloadState(directory, root.path("episodeId").asText());
+        state.title = root.path("title").textValue();
+        state.url = root.path("url").textValue();
+        state.format = root.path("format").textValue();
+        state.quality = root.path("quality").textValue();
+        state.fileName = root.path("fileName").textValue();
+        state.rendition = root.path("rendition").textValue();
+        state.totalBytes = root.path("totalBytes").asLong(-1);
+        state.segmentCount = root.path("segmentCount").asInt();
+        for (JsonNode segment : root.path("completedSegments")) {
+            state.completedSegments.set(segment.asInt());
+        }
+        state.complete = root.path("complete").asBoolean();
+        state.watched = root.path("watched").asBoolean();
+        state.lastAccessMillis = root.path("lastAccessMillis").asLong();
+        return state;
+    }
+}
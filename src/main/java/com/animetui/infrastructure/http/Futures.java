@@ -0,0 +1,69 @@
+package com.animetui.infrastructure.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Cancellation helpers for CompletableFuture chains.
+ * Cancelling a CompletableFuture only completes that future; the stages it depends
+ * on, such as an HttpClient exchange, keep running. These helpers pass the
+ * cancellation back up the chain so the work underneath is abandoned too.
+ */
+public final class Futures {
+    
+    private Futures() {
+    }
+    
+    /**
+     * Cancel the upstream futures when the downstream one is cancelled.
+     *
+     * @return the downstream future, for chaining
+     */
+    public static <T> CompletableFuture<T> cancelling(CompletableFuture<T> downstream, Future<?>... upstream) {
+        downstream.whenComplete((value, failure) -> {
+            if (downstream.isCancelled()) {
+                for (Future<?> future : upstream) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return downstream;
+    }
+    
+    /**
+     * Like {@code source.thenCompose(next)}, but cancelling the result also cancels the
+     * source and whichever future {@code next} returned.
+     */
+    public static <T, U> CompletableFuture<U> compose(CompletableFuture<T> source,
+                                                      Function<? super T, ? extends CompletableFuture<U>> next) {
+        AtomicReference<CompletableFuture<U>> inner = new AtomicReference<>();
+        CompletableFuture<U> result = new CompletableFuture<>();
+        source.thenCompose(value -> {
+            CompletableFuture<U> started = next.apply(value);
+            inner.set(started);
+            if (result.isCancelled()) {
+                // Cancelled while the next stage was being started
+                started.cancel(true);
+            }
+            return started;
+        }).whenComplete((value, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        });
+        result.whenComplete((value, failure) -> {
+            if (result.isCancelled()) {
+                source.cancel(true);
+                CompletableFuture<U> started = inner.get();
+                if (started != null) {
+                    started.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+}
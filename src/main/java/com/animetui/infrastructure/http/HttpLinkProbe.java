@@ -0,0 +1,170 @@
+package com.animetui.infrastructure.http;
+
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.ConfigPort;
+import com.animetui.domain.port.LinkProbe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * LinkProbe that checks every candidate with a short ranged GET.
+ * All links are probed at once; each probe measures the time to first byte and
+ * the throughput of a small sample of the stream. Links that answer with an error,
+ * fail to connect or miss the timeout are dropped, and the rest are ordered by the
+ * estimated time to fetch the sample. Ranged GETs are used rather than HEAD because
+ * many CDNs reject HEAD or answer it from a different code path.
+ */
+public class HttpLinkProbe implements LinkProbe {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpLinkProbe.class);
+    
+    private final HttpTransport transport;
+    private final Duration timeout;
+    private final int sampleBytes;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    private record Probe(StreamLink link, Duration timeToFirstByte, double bytesPerSecond) {
+        
+        /**
+         * Expected time to fetch the sample, the figure links are ranked by.
+         */
+        double score(int sampleBytes) {
+            double transfer = bytesPerSecond > 0 ? sampleBytes / bytesPerSecond : 0;
+            return timeToFirstByte.toNanos() / 1e9 + transfer;
+        }
+    }
+    
+    /**
+     * @param transport transport the probes are sent with
+     * @param timeout how long a link may take to answer and deliver its sample
+     * @param sampleBytes size of the throughput sample
+     */
+    public HttpLinkProbe(HttpTransport transport, Duration timeout, int sampleBytes) {
+        if (sampleBytes <= 0) {
+            throw new IllegalArgumentException("Sample size must be positive");
+        }
+        this.transport = transport;
+        this.timeout = timeout;
+        this.sampleBytes = sampleBytes;
+    }
+    
+    /**
+     * Create a probe from the player.probe.* settings.
+     */
+    public static HttpLinkProbe fromConfig(ConfigPort config, HttpTransport transport) {
+        return new HttpLinkProbe(
+            transport,
+            Duration.ofMillis(config.getInt("player.probe.timeoutMs", 3000)),
+            config.getInt("player.probe.sampleBytes", 64 * 1024)
+        );
+    }
+    
+    @Override
+    public List<StreamLink> rank(List<StreamLink> candidates) {
+        // The same URL often comes back from several extraction paths, so each URL is
+        // probed once; variants of it that differ in bandwidth are all kept
+        Map<String, List<StreamLink>> byUrl = new LinkedHashMap<>();
+        for (StreamLink link : candidates) {
+            List<StreamLink> variants = byUrl.computeIfAbsent(link.url(), url -> new ArrayList<>());
+            if (variants.stream().noneMatch(known -> known.bandwidth() == link.bandwidth())) {
+                variants.add(link);
+            }
+        }
+        if (byUrl.size() <= 1) {
+            return flatten(byUrl.values().stream());
+        }
+        
+        List<CompletableFuture<Probe>> probes = byUrl.values().stream()
+                .map(variants -> CompletableFuture.supplyAsync(() -> probe(variants.get(0)), executor))
+                .toList();
+        
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<Probe> live = new ArrayList<>();
+        for (CompletableFuture<Probe> future : probes) {
+            try {
+                Probe probe = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (probe != null) {
+                    live.add(probe);
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+            } catch (ExecutionException e) {
+                // Already logged by the probe
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        
+        if (live.isEmpty()) {
+            // Some CDNs refuse anything but the player; let it try rather than give up here
+            logger.warn("No stream link answered the probe, keeping all {} candidates", byUrl.size());
+            return flatten(byUrl.values().stream());
+        }
+        
+        // Stable sort: equally fast links keep the resolver's order
+        live.sort(Comparator.comparingDouble(probe -> probe.score(sampleBytes)));
+        logger.info("{} of {} stream links are live, fastest: {}", live.size(), byUrl.size(), live.get(0).link().url());
+        return flatten(live.stream().map(probe -> byUrl.get(probe.link().url())));
+    }
+    
+    private static List<StreamLink> flatten(Stream<List<StreamLink>> groups) {
+        return groups.flatMap(List::stream).toList();
+    }
+    
+    /**
+     * Probe one link.
+     *
+     * @return the measurement, or null if the link is dead
+     */
+    private Probe probe(StreamLink link) {
+        String url = link.url().startsWith("//") ? "https:" + link.url() : link.url();
+        long startedAt = System.nanoTime();
+        try {
+            // The sample must be raw bytes, or compression would skew the transfer time
+            HttpRequest request = transport.mediaRequest(url)
+                    .timeout(timeout)
+                    .setHeader("Range", "bytes=0-" + (sampleBytes - 1))
+                    .build();
+            HttpResponse<InputStream> response = transport.send(request);
+            
+            try (InputStream body = response.body()) {
+                int status = response.statusCode();
+                if (status != 200 && status != 206) {
+                    logger.debug("Dropping stream link {}: HTTP {}", link.url(), status);
+                    return null;
+                }
+                
+                long firstByteAt = System.nanoTime();
+                long sampled = body.readNBytes(sampleBytes).length;
+                long transferNanos = System.nanoTime() - firstByteAt;
+                
+                double bytesPerSecond = transferNanos > 0 ? sampled * 1e9 / transferNanos : 0;
+                return new Probe(link, Duration.ofNanos(firstByteAt - startedAt), bytesPerSecond);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logger.debug("Dropping stream link {}: {}", link.url(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.animetui.infrastructure.http;
+
+import com.animetui.domain.port.ConfigPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTP transport shared by every scraper and link resolver.
+ * Owns the single {@link HttpClient} of the application, so pooled connections and
+ * TLS sessions are reused across adapters. Requests negotiate HTTP/2 where the
+ * upstream supports it. API and page requests advertise gzip/deflate and have
+ * compressed bodies decoded transparently; media requests ask for the raw bytes.
+ * Request timeouts can be tuned per host.
+ */
+public class HttpTransport {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpTransport.class);
+    
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Duration requestTimeout;
+    private final Map<String, Duration> hostTimeouts;
+    
+    /**
+     * @param connectTimeout timeout for establishing a connection
+     * @param requestTimeout timeout for a whole request unless its host overrides it
+     * @param hostTimeouts request timeouts keyed by lower-case host name
+     */
+    public HttpTransport(Duration connectTimeout, Duration requestTimeout, Map<String, Duration> hostTimeouts) {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)  // Falls back to HTTP/1.1 if the server does not negotiate h2
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .cookieHandler(new CookieManager())
+                .executor(executor)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.hostTimeouts = Map.copyOf(hostTimeouts);
+    }
+    
+    /**
+     * Transport with default timeouts, for adapters created without configuration.
+     */
+    public static HttpTransport shared() {
+        return DefaultHolder.INSTANCE;
+    }
+    
+    private static final class DefaultHolder {
+        static final HttpTransport INSTANCE = new HttpTransport(DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, Map.of());
+    }
+    
+    /**
+     * Create a transport from the http.* settings. The default request timeout is
+     * scraper.timeout; http.timeout.hosts overrides it per host as a comma-separated
+     * list of host:millis pairs.
+     */
+    public static HttpTransport fromConfig(ConfigPort config) {
+        Duration connectTimeout = Duration.ofMillis(
+                config.getInt("http.connectTimeout", (int) DEFAULT_CONNECT_TIMEOUT.toMillis()));
+        Duration requestTimeout = Duration.ofMillis(
+                config.getInt("scraper.timeout", (int) DEFAULT_REQUEST_TIMEOUT.toMillis()));
+        
+        Map<String, Duration> hostTimeouts = new HashMap<>();
+        for (String entry : config.getString("http.timeout.hosts", "").split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            try {
+                String host = entry.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+                long millis = Long.parseLong(entry.substring(separator + 1).trim());
+                hostTimeouts.put(host, Duration.ofMillis(millis));
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring malformed host timeout '{}'", entry.trim());
+            }
+        }
+        
+        return new HttpTransport(connectTimeout, requestTimeout, hostTimeouts);
+    }
+    
+    /**
+     * Start a GET request for the URL with the host's timeout and compression
+     * already negotiated, for API responses and pages. Callers add their own headers.
+     */
+    public HttpRequest.Builder request(String url) {
+        return get(url).header("Accept-Encoding", "gzip, deflate");
+    }
+    
+    /**
+     * Start a GET request for media: segments, files and byte ranges. These are
+     * already compressed, and ranges and lengths must refer to the raw bytes, so
+     * the body is asked for without transfer compression.
+     */
+    public HttpRequest.Builder mediaRequest(String url) {
+        return get(url).header("Accept-Encoding", "identity");
+    }
+    
+    private HttpRequest.Builder get(String url) {
+        URI uri = URI.create(url);
+        return HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(timeoutFor(uri))
+                .GET();
+    }
+    
+    /**
+     * Send a request without blocking. The body stream is already decompressed.
+     */
+    public CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+        return httpClient.sendAsync(request, decodedBody());
+    }
+    
+    /**
+     * Send a request and wait for the response headers. The body stream is already decompressed.
+     */
+    public HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, decodedBody());
+    }
+    
+    Duration timeoutFor(URI uri) {
+        String host = uri.getHost();
+        if (host == null) {
+            return requestTimeout;
+        }
+        return hostTimeouts.getOrDefault(host.toLowerCase(Locale.ROOT), requestTimeout);
+    }
+    
+    private static HttpResponse.BodyHandler<InputStream> decodedBody() {
+        return info -> {
+            String encoding = info.headers().firstValue("Content-Encoding")
+                    .orElse("identity").trim().toLowerCase(Locale.ROOT);
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofInputStream(), body -> decode(body, encoding));
+        };
+    }
+    
+    private static InputStream decode(InputStream body, String encoding) {
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new LazyGzipInputStream(body);
+            case "deflate" -> new InflaterInputStream(body);
+            default -> body;
+        };
+    }
+    
+    /**
+     * Defers reading the gzip header until the first read. The body subscriber maps
+     * the stream before any data has arrived, so GZIPInputStream cannot be built there.
+     */
+    private static final class LazyGzipInputStream extends InputStream {
+        private final InputStream raw;
+        private InputStream decoded;
+        
+        LazyGzipInputStream(InputStream raw) {
+            this.raw = raw;
+        }
+        
+        private InputStream decoded() throws IOException {
+            if (decoded == null) {
+                decoded = new GZIPInputStream(raw, 8192);
+            }
+            return decoded;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            return decoded().read();
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return decoded().read(buffer, offset, length);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (decoded != null) {
+                decoded.close();
+            } else {
+                raw.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.animetui.infrastructure.http;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Spaces out requests to the same host without blocking any thread.
+ * Each host gets its own minimum gap between requests; the first request to an
+ * idle host goes out immediately and hosts never delay each other. The gap backs
+ * off when a host answers 403 or 429 and slowly recovers on successful responses.
+ */
+public class PolitenessScheduler {
+    
+    private static final double BACKOFF_FACTOR = 2.0;
+    private static final double RECOVERY_FACTOR = 0.9;
+    
+    private static final class HostState {
+        long spacingNanos;
+        long nextSlot;
+    }
+    
+    private final long minSpacingNanos;
+    private final long maxSpacingNanos;
+    private final double jitter;
+    private final LongSupplier clock;
+    private final Map<String, HostState> hosts = new HashMap<>();
+    
+    /**
+     * @param minSpacing gap between requests to a well-behaved host
+     * @param maxSpacing upper bound for the gap after repeated throttling
+     * @param jitter random extra gap as a fraction of the current spacing, e.g. 0.5
+     */
+    public PolitenessScheduler(Duration minSpacing, Duration maxSpacing, double jitter) {
+        this(minSpacing, maxSpacing, jitter, System::nanoTime);
+    }
+    
+    /**
+     * @param clock source of System.nanoTime-style timestamps
+     */
+    PolitenessScheduler(Duration minSpacing, Duration maxSpacing, double jitter, LongSupplier clock) {
+        if (minSpacing.isNegative() || maxSpacing.compareTo(minSpacing) < 0) {
+            throw new IllegalArgumentException("Spacing must satisfy 0 <= min <= max");
+        }
+        if (jitter < 0) {
+            throw new IllegalArgumentException("Jitter must not be negative");
+        }
+        this.minSpacingNanos = minSpacing.toNanos();
+        this.maxSpacingNanos = maxSpacing.toNanos();
+        this.jitter = jitter;
+        this.clock = clock;
+    }
+    
+    /**
+     * Reserve the next slot for a request to the host.
+     *
+     * @return a future that completes when the request may be sent
+     */
+    public CompletableFuture<Void> acquireAsync(String host) {
+        long delay = reserve(host);
+        if (delay <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+    }
+    
+    /**
+     * Adapt the host's spacing to the status of a response it sent.
+     */
+    public synchronized void onResponse(String host, int statusCode) {
+        HostState state = stateFor(host);
+        if (statusCode == 403 || statusCode == 429) {
+            long backedOff = (long) (Math.max(state.spacingNanos, TimeUnit.MILLISECONDS.toNanos(100)) * BACKOFF_FACTOR);
+            state.spacingNanos = Math.min(maxSpacingNanos, backedOff);
+        } else if (statusCode < 400) {
+            state.spacingNanos = Math.max(minSpacingNanos, (long) (state.spacingNanos * RECOVERY_FACTOR));
+        }
+    }
+    
+    /**
+     * Current gap enforced between requests to the host.
+     */
+    public synchronized Duration spacing(String host) {
+        return Duration.ofNanos(stateFor(host).spacingNanos);
+    }
+    
+    /**
+     * Take the host's next free slot.
+     *
+     * @return nanoseconds until the slot starts, zero or less if it already has
+     */
+    synchronized long reserve(String host) {
+        HostState state = stateFor(host);
+        long now = clock.getAsLong();
+        long slot = Math.max(now, state.nextSlot);
+        
+        long gap = state.spacingNanos;
+        if (jitter > 0 && gap > 0) {
+            gap += (long) (ThreadLocalRandom.current().nextDouble(jitter) * gap);
+        }
+        state.nextSlot = slot + gap;
+        return slot - now;
+    }
+    
+    private HostState stateFor(String host) {
+        String key = host != null ? host.toLowerCase(Locale.ROOT) : "";
+        return hosts.computeIfAbsent(key, k -> {
+            HostState state = new HostState();
+            state.spacingNanos = minSpacingNanos;
+            state.nextSlot = Long.MIN_VALUE;
+            return state;
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package com.animetui.infrastructure.http;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side rate limiter built from one or more token buckets.
+ * A request needs a token from every bucket, so limits such as "3 per second and
+ * 60 per minute" can be enforced together. Permits are handed out as reservations:
+ * callers get a future that completes once their slot arrives, without holding a
+ * thread while they wait.
+ */
+public class RateLimiter {
+    
+    /**
+     * A single limit: at most {@code permits} requests per {@code period}.
+     */
+    public record Limit(int permits, Duration period) {
+        public Limit {
+            if (permits <= 0) {
+                throw new IllegalArgumentException("Permits must be positive");
+            }
+            if (period == null || period.isZero() || period.isNegative()) {
+                throw new IllegalArgumentException("Period must be positive");
+            }
+        }
+    }
+    
+    /**
+     * Snapshot of how much the limiter has throttled its callers.
+     *
+     * @param acquisitions permits handed out
+     * @param throttled permits that had to wait
+     * @param totalWait time callers spent waiting for permits
+     */
+    public record Stats(long acquisitions, long throttled, Duration totalWait) {
+    }
+    
+    private static final class Bucket {
+        final double capacity;
+        final double tokensPerNano;
+        double tokens;
+        long updatedAt;
+        
+        Bucket(Limit limit, long now) {
+            this.capacity = limit.permits();
+            this.tokensPerNano = limit.permits() / (double) limit.period().toNanos();
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+        
+        /**
+         * Take one token at the given time, going into debt if none is left.
+         *
+         * @return nanoseconds after {@code at} until the debt is repaid
+         */
+        long reserve(long at) {
+            if (at > updatedAt) {
+                tokens = Math.min(capacity, tokens + (at - updatedAt) * tokensPerNano);
+                updatedAt = at;
+            }
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        }
+    }
+    
+    private final List<Bucket> buckets = new ArrayList<>();
+    private long pausedUntil;
+    
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    
+    public RateLimiter(List<Limit> limits) {
+        if (limits == null || limits.isEmpty()) {
+            throw new IllegalArgumentException("At least one limit is required");
+        }
+        long now = System.nanoTime();
+        for (Limit limit : limits) {
+            buckets.add(new Bucket(limit, now));
+        }
+        this.pausedUntil = now;
+    }
+    
+    /**
+     * Create a limiter allowing the given number of requests per second and per minute.
+     */
+    public static RateLimiter perSecondAndMinute(int perSecond, int perMinute) {
+        return new RateLimiter(List.of(
+            new Limit(perSecond, Duration.ofSeconds(1)),
+            new Limit(perMinute, Duration.ofMinutes(1))
+        ));
+    }
+    
+    /**
+     * Reserve a permit.
+     *
+     * @return a future that completes when the caller may send its request
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long delay = reserve();
+        if (delay == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+    }
+    
+    /**
+     * Reserve a permit and block until it is available.
+     */
+    public void acquire() throws InterruptedException {
+        long delay = reserve();
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+    }
+    
+    /**
+     * Hold back every permit for the given time, e.g. after the server answered
+     * 429 with a Retry-After header.
+     */
+    public synchronized void pause(Duration duration) {
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + duration.toNanos());
+    }
+    
+    public Stats stats() {
+        return new Stats(acquisitions.sum(), throttled.sum(), Duration.ofNanos(waitNanos.sum()));
+    }
+    
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        
+        // While paused, reservations queue up behind the end of the pause
+        long start = Math.max(now, pausedUntil);
+        long bucketDelay = 0;
+        for (Bucket bucket : buckets) {
+            bucketDelay = Math.max(bucketDelay, bucket.reserve(start));
+        }
+        long delay = (start - now) + bucketDelay;
+        
+        acquisitions.increment();
+        if (delay > 0) {
+            throttled.increment();
+            waitNanos.add(delay);
+        }
+        return delay;
+    }
+}
@@ -0,0 +1,127 @@
+package com.animetui.infrastructure.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single in-flight call.
+ * The first caller starts the work; everyone who asks for the same key before it
+ * finishes shares its result. Once the call completes the key is forgotten, so
+ * later callers start a fresh call (caching is left to other layers).
+ */
+public class SingleFlight<K, V> {
+    
+    private final ConcurrentMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+    
+    /**
+     * One shared call and the number of callers still waiting for it.
+     */
+    private final class Flight {
+        final K key;
+        final CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> work;
+        // The caller that starts the call counts from the beginning
+        int waiters = 1;
+        boolean abandoned;
+        
+        Flight(K key) {
+            this.key = key;
+        }
+        
+        /**
+         * @return the shared result for one more caller, or null if every caller
+         *         cancelled and the call was given up
+         */
+        synchronized CompletableFuture<V> join() {
+            if (abandoned) {
+                return null;
+            }
+            waiters++;
+            return subscribe();
+        }
+        
+        CompletableFuture<V> subscribe() {
+            CompletableFuture<V> result = promise.copy();
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled()) {
+                    leave();
+                }
+            });
+            return result;
+        }
+        
+        void complete(V value, Throwable error) {
+            inFlight.remove(key, this);
+            if (error != null) {
+                promise.completeExceptionally(error);
+            } else {
+                promise.complete(value);
+            }
+        }
+        
+        private void leave() {
+            CompletableFuture<V> cancelled;
+            synchronized (this) {
+                if (--waiters > 0 || promise.isDone()) {
+                    return;
+                }
+                abandoned = true;
+                cancelled = work;
+            }
+            // Nobody wants the result any more
+            inFlight.remove(key, this);
+            promise.cancel(true);
+            if (cancelled != null) {
+                cancelled.cancel(true);
+            }
+        }
+    }
+    
+    /**
+     * Run the call for the key, or join the one already running.
+     * Each caller gets its own dependent future, so cancelling one caller's
+     * future does not cancel the shared call for the others. Once every caller
+     * has cancelled, the shared call is cancelled as well.
+     *
+     * @param key identity of the call, e.g. the request URL
+     * @param call starts the work when no identical call is in flight
+     * @return future result of the shared call
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        while (true) {
+            Flight flight = new Flight(key);
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                start(flight, call);
+                return flight.subscribe();
+            }
+            CompletableFuture<V> joined = existing.join();
+            if (joined != null) {
+                return joined;
+            }
+            // Given up by its callers a moment ago; start a fresh call
+            inFlight.remove(key, existing);
+        }
+    }
+    
+    private void start(Flight flight, Supplier<CompletableFuture<V>> call) {
+        try {
+            CompletableFuture<V> work = call.get();
+            synchronized (flight) {
+                flight.work = work;
+            }
+            work.whenComplete(flight::complete);
+        } catch (RuntimeException e) {
+            flight.complete(null, e);
+        }
+    }
+    
+    /**
+     * Number of distinct calls currently in flight.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,199 @@
+package com.animetui.infrastructure.player;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Client for mpv's JSON IPC protocol over a Unix domain socket.
+ * Commands are written as one JSON object per line tagged with a request id; a
+ * reader thread matches replies to their pending futures and hands property-change
+ * and other events to the registered observers and listeners.
+ */
+final class MpvIpcClient implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MpvIpcClient.class);
+    
+    private final SocketChannel channel;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong nextRequestId = new AtomicLong(1);
+    private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<JsonNode>> observers = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<JsonNode>> eventListeners = new ConcurrentHashMap<>();
+    private volatile boolean open = true;
+    
+    private MpvIpcClient(SocketChannel channel) {
+        this.channel = channel;
+        Thread.ofVirtual().name("mpv-ipc-reader").start(this::readLoop);
+    }
+    
+    /**
+     * Connect to the IPC socket of a running mpv.
+     */
+    static MpvIpcClient connect(Path socket) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new MpvIpcClient(channel);
+    }
+    
+    /**
+     * Send a command, e.g. {@code command("loadfile", url, "replace")}.
+     *
+     * @return future completed with the reply's data, or exceptionally if mpv reports an error
+     */
+    CompletableFuture<JsonNode> command(Object... args) {
+        ArrayNode command = objectMapper.createArrayNode();
+        for (Object arg : args) {
+            command.add(objectMapper.valueToTree(arg));
+        }
+        return send(command);
+    }
+    
+    /**
+     * Send a command with named arguments, e.g. {@code command("loadfile", Map.of("url", url))}.
+     * mpv inserts new positional arguments between old ones, so optional arguments
+     * are safer passed by name.
+     */
+    CompletableFuture<JsonNode> command(String name, Map<String, ?> args) {
+        ObjectNode command = objectMapper.createObjectNode();
+        command.put("name", name);
+        args.forEach((key, value) -> command.set(key, objectMapper.valueToTree(value)));
+        return send(command);
+    }
+    
+    private CompletableFuture<JsonNode> send(JsonNode command) {
+        long requestId = nextRequestId.getAndIncrement();
+        ObjectNode message = objectMapper.createObjectNode();
+        message.set("command", command);
+        message.put("request_id", requestId);
+        
+        CompletableFuture<JsonNode> reply = new CompletableFuture<>();
+        pending.put(requestId, reply);
+        try {
+            byte[] line = (objectMapper.writeValueAsString(message) + "\n").getBytes(StandardCharsets.UTF_8);
+            synchronized (channel) {
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            pending.remove(requestId);
+            reply.completeExceptionally(e);
+        }
+        return reply;
+    }
+    
+    /**
+     * Observe a property; the listener gets its current value and every change.
+     */
+    void observe(String property, Consumer<JsonNode> listener) {
+        observers.put(property, listener);
+        command("observe_property", observers.size(), property);
+    }
+    
+    /**
+     * Listen for an event such as "end-file"; the listener gets the whole event message.
+     */
+    void onEvent(String event, Consumer<JsonNode> listener) {
+        eventListeners.put(event, listener);
+    }
+    
+    boolean isOpen() {
+        return open;
+    }
+    
+    @Override
+    public void close() {
+        open = false;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Error closing mpv IPC socket: {}", e.getMessage());
+        }
+    }
+    
+    private void readLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n') {
+                        dispatch(line.toString(StandardCharsets.UTF_8));
+                        line.reset();
+                    } else {
+                        line.write(b);
+                    }
+                }
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            if (open) {
+                logger.debug("mpv IPC connection lost: {}", e.getMessage());
+            }
+        } finally {
+            open = false;
+            IOException closed = new IOException("mpv IPC connection closed");
+            pending.values().forEach(reply -> reply.completeExceptionally(closed));
+            pending.clear();
+        }
+    }
+    
+    private void dispatch(String line) {
+        JsonNode message;
+        try {
+            message = objectMapper.readTree(line);
+        } catch (IOException e) {
+            logger.debug("Ignoring malformed mpv IPC message: {}", line);
+            return;
+        }
+        
+        if (message.has("request_id") && message.has("error")) {
+            CompletableFuture<JsonNode> reply = pending.remove(message.get("request_id").asLong());
+            if (reply == null) {
+                return;
+            }
+            String error = message.get("error").asText();
+            if ("success".equals(error)) {
+                reply.complete(message.path("data"));
+            } else {
+                reply.completeExceptionally(new RuntimeException("mpv command failed: " + error));
+            }
+        } else if ("property-change".equals(message.path("event").asText())) {
+            Consumer<JsonNode> observer = observers.get(message.path("name").asText());
+            if (observer != null) {
+                observer.accept(message.path("data"));
+            }
+        } else if (message.has("event")) {
+            Consumer<JsonNode> listener = eventListeners.get(message.get("event").asText());
+            if (listener != null) {
+                listener.accept(message);
+            }
+        }
+    }
+}
@@ -2,28 +2,76 @@ package com.animetui.infrastructure.player;
 
 import com.animetui.domain.model.StreamLink;
 import com.animetui.domain.port.MediaPlayerPort;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 /**
  * Infrastructure implementation of MediaPlayerPort using MPV player.
- * Spawns MPV process to play video content.
+ * With an IPC socket configured, one idle mpv is kept running and driven over its
+ * JSON IPC protocol: episodes are switched with loadfile, and pause, resume and
+ * seek act on the running player. Without a socket, or if mpv cannot be reached
+ * over it, a new mpv process is spawned for each episode. Playback listeners are
+ * told when a stream ends, from mpv's end-file events or the spawned process's
+ * exit code.
  */
 public class MpvPlayerAdapter implements MediaPlayerPort {
     
     private static final Logger logger = LoggerFactory.getLogger(MpvPlayerAdapter.class);
     
+    private static final Duration IPC_TIMEOUT = Duration.ofSeconds(5);
+    // mpv's exit codes for "error initializing or terminating playback" and "file couldn't be played"
+    private static final int EXIT_INIT_ERROR = 1;
+    private static final int EXIT_FILE_ERROR = 2;
+    
     private final String playerCommand;
     private final List<String> defaultArgs;
+    private final Path ipcSocket;
     private Process currentProcess;
     
-    public MpvPlayerAdapter(String playerCommand, List<String> args) {
+    // Long-lived player driven over IPC
+    private Process idleProcess;
+    private MpvIpcClient ipc;
+    private boolean ipcFailed;
+    private boolean shutdownHookRegistered;
+    private volatile boolean idle = true;
+    private volatile boolean paused;
+    private volatile int playlistPos = -1;
+    
+    // URL of each playlist entry mpv has not finished yet, by playlist_entry_id
+    private final Map<Long, String> entries = new ConcurrentHashMap<>();
+    private long lastEntryId;
+    private final List<PlaybackListener> listeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * @param playerCommand mpv executable
+     * @param args extra mpv arguments
+     * @param ipcSocket Unix socket to drive a long-lived mpv over, or null to spawn mpv per episode
+     */
+    public MpvPlayerAdapter(String playerCommand, List<String> args, Path ipcSocket) {
         this.playerCommand = playerCommand != null ? playerCommand : "mpv";
         this.defaultArgs = args != null ? List.copyOf(args) : List.of("--no-terminal");
+        this.ipcSocket = ipcSocket;
+    }
+    
+    public MpvPlayerAdapter(String playerCommand, List<String> args) {
+        this(playerCommand, args, null);
     }
     
     public MpvPlayerAdapter(String playerCommand) {
@@ -36,23 +84,44 @@ public class MpvPlayerAdapter implements MediaPlayerPort {
     
     @Override
     public void play(String url) {
+        play(url, null);
+    }
+    
+    /**
+     * @param options mpv options for this file only, e.g. "hls-bitrate=800000", or null
+     */
+    private void play(String url, String options) {
         if (url == null || url.isBlank()) {
             throw new IllegalArgumentException("URL cannot be null or blank");
         }
         
-        stop(); // Stop any currently playing video
+        if (ensureIpc()) {
+            logger.info("Loading into running media player: {}", url);
+            loadFile(url, "replace", options);
+            idle = false;
+            playlistPos = 0;
+            ipcCommand("set_property", "pause", false);
+            return;
+        }
+        
+        stopProcess(); // Stop any currently playing video
         
         try {
             List<String> command = new ArrayList<>();
             command.add(playerCommand);
             command.addAll(defaultArgs);
+            if (options != null) {
+                command.add("--" + options);
+            }
             command.add(url);
             
             logger.info("Starting media player: {}", String.join(" ", command));
             
             ProcessBuilder pb = new ProcessBuilder(command);
             pb.inheritIO(); // Allow player output to show in console
-            currentProcess = pb.start();
+            Process process = pb.start();
+            currentProcess = process;
+            process.onExit().thenAccept(exited -> processExited(url, exited.exitValue()));
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to start media player: " + playerCommand, e);
@@ -66,24 +135,84 @@ public class MpvPlayerAdapter implements MediaPlayerPort {
         }
         
         logger.info("Playing stream: {} ({})", streamLink.getDisplayString(), streamLink.url());
-        play(streamLink.url());
+        // Per file, like queued streams, so it does not stick to whatever plays next
+        play(streamLink.url(), "hls-bitrate=" + hlsBitrate(streamLink));
+    }
+    
+    @Override
+    public void enqueue(StreamLink streamLink) {
+        if (streamLink == null) {
+            throw new IllegalArgumentException("StreamLink cannot be null");
+        }
+        if (!ensureIpc()) {
+            throw new UnsupportedOperationException("Queueing streams requires the mpv IPC socket (player.ipc.enabled)");
+        }
+        
+        logger.info("Queueing stream: {} ({})", streamLink.getDisplayString(), streamLink.url());
+        // Appended entries start without a gap when the one before ends. The bitrate is
+        // a per-file option: set globally it would switch the episode still playing
+        loadFile(streamLink.url(), "append-play", "hls-bitrate=" + hlsBitrate(streamLink));
+    }
+    
+    /**
+     * Queueing needs the IPC socket; this does not start mpv to find out whether it
+     * can be reached, so a first {@link #enqueue} may still fail.
+     */
+    @Override
+    public synchronized boolean canQueue() {
+        return ipcSocket != null && !ipcFailed;
+    }
+    
+    @Override
+    public void addPlaybackListener(PlaybackListener listener) {
+        listeners.add(listener);
+    }
+    
+    @Override
+    public int playlistPosition() {
+        return isIpcConnected() ? playlistPos : -1;
     }
     
     @Override
     public void pause() {
-        // MPV doesn't support external pause/resume via simple process control
-        // This would require IPC or input pipe communication
-        logger.warn("Pause functionality requires MPV IPC setup");
+        if (!isIpcConnected()) {
+            logger.warn("Pause requires the mpv IPC socket (player.ipc.enabled)");
+            return;
+        }
+        ipcCommand("set_property", "pause", true);
     }
     
     @Override
     public void resume() {
-        // MPV doesn't support external pause/resume via simple process control
-        logger.warn("Resume functionality requires MPV IPC setup");
+        if (!isIpcConnected()) {
+            logger.warn("Resume requires the mpv IPC socket (player.ipc.enabled)");
+            return;
+        }
+        ipcCommand("set_property", "pause", false);
+    }
+    
+    @Override
+    public void seek(double offsetSeconds) {
+        if (!isIpcConnected()) {
+            logger.warn("Seek requires the mpv IPC socket (player.ipc.enabled)");
+            return;
+        }
+        ipcCommand("seek", offsetSeconds, "relative");
     }
     
     @Override
     public void stop() {
+        if (isIpcConnected()) {
+            // Back to idle: the window closes but mpv stays ready for the next episode
+            ipcCommand("stop");
+            idle = true;
+            playlistPos = -1;
+            return;
+        }
+        stopProcess();
+    }
+    
+    private void stopProcess() {
         if (currentProcess != null && currentProcess.isAlive()) {
             logger.info("Stopping media player");
             currentProcess.destroy();
@@ -102,6 +231,9 @@ public class MpvPlayerAdapter implements MediaPlayerPort {
     
     @Override
     public boolean isPlaying() {
+        if (isIpcConnected()) {
+            return !idle && !paused;
+        }
         return currentProcess != null && currentProcess.isAlive();
     }
     
@@ -119,4 +251,206 @@ public class MpvPlayerAdapter implements MediaPlayerPort {
             return false;
         }
     }
+    
+    private synchronized boolean isIpcConnected() {
+        return ipc != null && ipc.isOpen() && idleProcess != null && idleProcess.isAlive();
+    }
+    
+    /**
+     * Make sure the long-lived mpv is running and connected.
+     *
+     * @return false if IPC is not configured or mpv could not be reached over it
+     */
+    private synchronized boolean ensureIpc() {
+        if (ipcSocket == null || ipcFailed) {
+            return false;
+        }
+        if (isIpcConnected()) {
+            return true;
+        }
+        
+        shutdownIdleProcess();
+        try {
+            Files.deleteIfExists(ipcSocket);
+            
+            List<String> command = new ArrayList<>();
+            command.add(playerCommand);
+            // Our own socket and idle mode replace whatever the configured arguments say
+            defaultArgs.stream()
+                    .filter(arg -> !arg.startsWith("--input-ipc-server") && !arg.startsWith("--idle"))
+                    .forEach(command::add);
+            command.add("--idle=yes");
+            command.add("--input-ipc-server=" + ipcSocket);
+            
+            logger.info("Starting long-lived media player: {}", String.join(" ", command));
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.inheritIO();
+            idleProcess = pb.start();
+            if (!shutdownHookRegistered) {
+                // mpv outlives the JVM otherwise
+                Runtime.getRuntime().addShutdownHook(new Thread(this::shutdownIdleProcess));
+                shutdownHookRegistered = true;
+            }
+            
+            ipc = connectWhenReady();
+            idle = true;
+            paused = false;
+            playlistPos = -1;
+            entries.clear();
+            lastEntryId = 0;
+            ipc.onEvent("end-file", this::fileEnded);
+            ipc.observe("idle-active", value -> idle = value.asBoolean(true));
+            ipc.observe("pause", value -> paused = value.asBoolean(false));
+            ipc.observe("playlist-pos", value -> playlistPos = value.asInt(-1));
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not drive mpv over IPC, spawning it per episode instead: {}", e.getMessage());
+            shutdownIdleProcess();
+            ipcFailed = true;
+            return false;
+        }
+    }
+    
+    private MpvIpcClient connectWhenReady() throws IOException {
+        long deadline = System.nanoTime() + IPC_TIMEOUT.toNanos();
+        while (true) {
+            if (!idleProcess.isAlive()) {
+                throw new IOException("mpv exited with code " + idleProcess.exitValue());
+            }
+            if (Files.exists(ipcSocket)) {
+                try {
+                    return MpvIpcClient.connect(ipcSocket);
+                } catch (IOException e) {
+                    // Socket file is there but mpv is not listening yet
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IOException("mpv IPC socket did not come up: " + ipcSocket);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for mpv", e);
+            }
+        }
+    }
+    
+    /**
+     * Bitrate mpv should pick from an HLS master playlist for this link.
+     * Variant links of a master with alternate renditions all point at the master,
+     * so the bandwidth is what tells them apart; everything else gets mpv's default.
+     */
+    private static String hlsBitrate(StreamLink streamLink) {
+        return "hls".equals(streamLink.format()) && streamLink.bandwidth() > 0
+                ? String.valueOf(streamLink.bandwidth())
+                : "max";
+    }
+    
+    /**
+     * Load a URL and remember which playlist entry it became.
+     *
+     * @param options mpv options for this entry only, e.g. "hls-bitrate=800000", or null
+     */
+    private void loadFile(String url, String mode, String options) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("url", url);
+        args.put("flags", mode);
+        if (options != null) {
+            args.put("options", options);
+        }
+        JsonNode reply = ipcCommand("loadfile", args);
+        synchronized (this) {
+            if ("replace".equals(mode)) {
+                // The rest of the playlist is dropped without end-file events
+                entries.clear();
+            }
+            // mpv numbers entries one after another; newer versions also say which one it was
+            long entryId = reply.path("playlist_entry_id").asLong(lastEntryId + 1);
+            lastEntryId = Math.max(lastEntryId, entryId);
+            entries.put(entryId, url);
+        }
+    }
+    
+    private void fileEnded(JsonNode event) {
+        String url = entries.remove(event.path("playlist_entry_id").asLong());
+        if (url == null) {
+            return;
+        }
+        PlaybackEnd end = switch (event.path("reason").asText()) {
+            case "eof" -> PlaybackEnd.FINISHED;
+            case "error" -> PlaybackEnd.FAILED;
+            default -> PlaybackEnd.STOPPED;
+        };
+        if (end == PlaybackEnd.FAILED) {
+            logger.warn("Media player could not play {}: {}", url,
+                    event.hasNonNull("file_error") ? event.get("file_error").asText() : "unknown error");
+        }
+        notifyEnded(url, end);
+    }
+    
+    private void processExited(String url, int exitCode) {
+        if (exitCode == EXIT_INIT_ERROR || exitCode == EXIT_FILE_ERROR) {
+            logger.warn("Media player could not play {} (exit code {})", url, exitCode);
+            notifyEnded(url, PlaybackEnd.FAILED);
+        } else {
+            // 0 is mpv's "playback finished"; anything else was a signal, e.g. from stop()
+            notifyEnded(url, exitCode == 0 ? PlaybackEnd.FINISHED : PlaybackEnd.STOPPED);
+        }
+    }
+    
+    private void notifyEnded(String url, PlaybackEnd end) {
+        for (PlaybackListener listener : listeners) {
+            try {
+                listener.ended(url, end);
+            } catch (RuntimeException e) {
+                logger.warn("Playback listener failed for {}", url, e);
+            }
+        }
+    }
+    
+    private JsonNode ipcCommand(Object... args) {
+        return awaitReply(String.valueOf(args[0]), client -> client.command(args));
+    }
+    
+    private JsonNode ipcCommand(String name, Map<String, ?> args) {
+        return awaitReply(name, client -> client.command(name, args));
+    }
+    
+    private JsonNode awaitReply(String name, Function<MpvIpcClient, CompletableFuture<JsonNode>> send) {
+        MpvIpcClient client;
+        synchronized (this) {
+            client = ipc;
+        }
+        try {
+            return send.apply(client).get(IPC_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while controlling media player", e);
+        } catch (ExecutionException | TimeoutException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new RuntimeException("Media player command failed: " + name, cause);
+        }
+    }
+    
+    private synchronized void shutdownIdleProcess() {
+        if (ipc != null) {
+            if (ipc.isOpen()) {
+                ipc.command("quit");
+            }
+            ipc.close();
+            ipc = null;
+        }
+        if (idleProcess != null) {
+            try {
+                if (!idleProcess.waitFor(1, TimeUnit.SECONDS)) {
+                    idleProcess.destroy();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                idleProcess.destroyForcibly();
+            }
+            idleProcess = null;
+        }
+    }
 }
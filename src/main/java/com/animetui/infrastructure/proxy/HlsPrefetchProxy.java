@@ -0,0 +1,632 @@
+package com.animetui.infrastructure.proxy;
+
+import com.animetui.domain.port.ConfigPort;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.animetui.infrastructure.scraper.HlsPlaylistParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Loopback HTTP server that sits between mpv and an HLS CDN.
+ * Playlists are fetched on every request and rewritten so their variant playlists
+ * and segments point back at the proxy. Whenever mpv asks for a segment, the next
+ * few of the same media playlist are fetched in parallel into a bounded
+ * {@link SegmentBuffer}, and segments are served from there with
+ * {@link FileChannel#transferTo}, so a slow or stalling CDN response is absorbed by
+ * the buffer instead of showing up as rebuffering. A video variant and its audio
+ * rendition each keep a playhead of their own.
+ * Only 127.0.0.1 is listened on; the server starts with the first proxied stream.
+ */
+public class HlsPrefetchProxy implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HlsPrefetchProxy.class);
+    
+    // Streams kept addressable at once: the one playing plus those queued behind it
+    private static final int MAX_SESSIONS = 4;
+    private static final int FETCH_ATTEMPTS = 2;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final Pattern URI_ATTRIBUTE = Pattern.compile("URI=\"([^\"]*)\"");
+    private static final Pattern RESOURCE_PATH = Pattern.compile("/(\\d+)/([ps])(\\d+)(\\.[A-Za-z0-9]{1,5})?");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[A-Za-z0-9]{1,5}$");
+    
+    private final HttpTransport transport;
+    private final int prefetchSegments;
+    private final long bufferBytes;
+    private final Semaphore connections;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Integer, Session> sessions = new LinkedHashMap<>();
+    private int nextSessionId;
+    private ServerSocketChannel server;
+    private Path scratch;
+    private String baseUrl;
+    private boolean shutdownHookRegistered;
+    
+    /**
+     * @param transport transport the CDN is fetched with
+     * @param parallelism segments fetched from the CDN at once
+     * @param prefetchSegments segments fetched ahead of the one mpv asked for
+     * @param bufferBytes disk space for buffered segments of each stream
+     */
+    public HlsPrefetchProxy(HttpTransport transport, int parallelism, int prefetchSegments, long bufferBytes) {
+        if (parallelism < 1 || prefetchSegments < 0 || bufferBytes < 1) {
+            throw new IllegalArgumentException("Parallelism and buffer size must be positive");
+        }
+        this.transport = transport;
+        this.prefetchSegments = prefetchSegments;
+        this.bufferBytes = bufferBytes;
+        this.connections = new Semaphore(parallelism);
+    }
+    
+    /**
+     * Create a proxy from the player.proxy.* settings.
+     */
+    public static HlsPrefetchProxy fromConfig(ConfigPort config, HttpTransport transport) {
+        return new HlsPrefetchProxy(transport,
+                config.getInt("player.proxy.parallelism", 4),
+                config.getInt("player.proxy.prefetchSegments", 6),
+                config.getInt("player.proxy.bufferMb", 256) * 1024L * 1024L);
+    }
+    
+    /**
+     * Local URL serving the given HLS playlist through the proxy. Starts the proxy
+     * on first use; the oldest proxied stream is dropped once too many are open.
+     *
+     * @param playlistUrl remote master or media playlist
+     * @return playlist URL on the loopback interface
+     */
+    public synchronized String proxy(String playlistUrl) {
+        if (playlistUrl == null || playlistUrl.isBlank()) {
+            throw new IllegalArgumentException("Playlist URL cannot be null or blank");
+        }
+        ensureStarted();
+        
+        int id = nextSessionId++;
+        Session session = new Session(id, new SegmentBuffer(scratch.resolve(Integer.toString(id)), bufferBytes));
+        sessions.put(id, session);
+        if (sessions.size() > MAX_SESSIONS) {
+            Integer eldest = sessions.keySet().iterator().next();
+            sessions.remove(eldest).buffer.clear();
+        }
+        
+        String url = session.playlistUrl(URI.create(playlistUrl));
+        logger.debug("Proxying {} as {}", playlistUrl, url);
+        return url;
+    }
+    
+    /**
+     * Stop serving and delete every buffered segment.
+     */
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close proxy socket: {}", e.getMessage());
+        }
+        server = null;
+        sessions.values().forEach(session -> session.buffer.clear());
+        sessions.clear();
+        deleteRecursively(scratch);
+    }
+    
+    private void ensureStarted() {
+        if (server != null) {
+            return;
+        }
+        try {
+            scratch = Files.createTempDirectory("animetui-hls");
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start HLS proxy", e);
+        }
+        InetSocketAddress address = (InetSocketAddress) server.socket().getLocalSocketAddress();
+        baseUrl = "http://127.0.0.1:" + address.getPort();
+        
+        ServerSocketChannel listening = server;
+        Thread.ofVirtual().name("hls-proxy").start(() -> accept(listening));
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "hls-proxy-cleanup"));
+            shutdownHookRegistered = true;
+        }
+        logger.info("HLS prefetch proxy listening on {}", baseUrl);
+    }
+    
+    private void accept(ServerSocketChannel listening) {
+        while (listening.isOpen()) {
+            try {
+                SocketChannel client = listening.accept();
+                executor.submit(() -> serve(client));
+            } catch (IOException e) {
+                if (listening.isOpen()) {
+                    logger.warn("HLS proxy failed to accept a connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private void serve(SocketChannel client) {
+        try (client) {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(client));
+            while (true) {
+                Request request = readRequest(in);
+                if (request == null || !respond(client, request)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // mpv closes connections it no longer needs, e.g. after a seek
+            logger.debug("HLS proxy connection ended: {}", e.getMessage());
+        }
+    }
+    
+    private record Request(String method, String path, Map<String, String> headers, boolean keepAlive) {
+    }
+    
+    /**
+     * @return whether the connection stays open for another request
+     */
+    private boolean respond(SocketChannel client, Request request) throws IOException {
+        if (!"GET".equals(request.method())) {
+            writeHead(client, 405, "Method Not Allowed", null, 0, request.keepAlive(), null);
+            return request.keepAlive();
+        }
+        
+        Matcher path = RESOURCE_PATH.matcher(request.path());
+        Session session = null;
+        if (path.matches()) {
+            synchronized (this) {
+                session = sessions.get(Integer.parseInt(path.group(1)));
+            }
+        }
+        if (session == null) {
+            writeHead(client, 404, "Not Found", null, 0, request.keepAlive(), null);
+            return request.keepAlive();
+        }
+        
+        int index = Integer.parseInt(path.group(3));
+        if ("p".equals(path.group(2))) {
+            servePlaylist(client, request, session, index);
+        } else {
+            serveSegment(client, request, session, index);
+        }
+        return request.keepAlive();
+    }
+    
+    private void servePlaylist(SocketChannel client, Request request, Session session, int index) throws IOException {
+        URI source = session.playlist(index);
+        if (source == null) {
+            writeHead(client, 404, "Not Found", null, 0, request.keepAlive(), null);
+            return;
+        }
+        String playlist;
+        try {
+            playlist = fetchPlaylist(source);
+        } catch (IOException e) {
+            logger.warn("Failed to fetch playlist {}: {}", source, e.getMessage());
+            writeHead(client, 502, "Bad Gateway", null, 0, request.keepAlive(), null);
+            return;
+        }
+        
+        List<Integer> segments = new ArrayList<>();
+        byte[] body = rewrite(session, playlist, source, segments).getBytes(StandardCharsets.UTF_8);
+        session.listed(index, segments);
+        writeHead(client, 200, "OK", "application/vnd.apple.mpegurl", body.length, request.keepAlive(), null);
+        writeFully(client, ByteBuffer.wrap(body));
+        
+        // Get the first segments in before mpv asks for them
+        if (!segments.isEmpty() && session.playhead(index) < 0) {
+            prefetch(session, segments.subList(0, Math.min(segments.size(), prefetchSegments)));
+        }
+    }
+    
+    private void serveSegment(SocketChannel client, Request request, Session session, int index) throws IOException {
+        if (session.segment(index) == null) {
+            writeHead(client, 404, "Not Found", null, 0, request.keepAlive(), null);
+            return;
+        }
+        session.played(index);
+        prefetch(session, session.following(index, prefetchSegments));
+        
+        for (int attempt = 1; ; attempt++) {
+            CompletableFuture<SegmentBuffer.Segment> pending = load(session, index);
+            SegmentBuffer.Segment segment;
+            try {
+                segment = pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for segment " + index, e);
+            } catch (ExecutionException e) {
+                logger.warn("Failed to fetch segment {}: {}", session.segment(index), e.getCause().getMessage());
+                writeHead(client, 502, "Bad Gateway", null, 0, request.keepAlive(), null);
+                return;
+            }
+            
+            try (FileChannel file = FileChannel.open(segment.file(), StandardOpenOption.READ)) {
+                transferSegment(client, request, file, segment);
+                return;
+            } catch (NoSuchFileException e) {
+                // Evicted after a seek back; fetch it again once
+                session.buffer.forget(index, pending);
+                if (attempt == FETCH_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private void transferSegment(SocketChannel client, Request request, FileChannel file, SegmentBuffer.Segment segment)
+            throws IOException {
+        long size = segment.size();
+        long start = 0;
+        long end = size - 1;
+        String contentRange = null;
+        Matcher range = RANGE.matcher(request.headers().getOrDefault("range", ""));
+        if (range.matches() && !(range.group(1).isEmpty() && range.group(2).isEmpty())) {
+            if (range.group(1).isEmpty()) {
+                start = Math.max(0, size - Long.parseLong(range.group(2)));
+            } else {
+                start = Long.parseLong(range.group(1));
+                if (!range.group(2).isEmpty()) {
+                    end = Math.min(end, Long.parseLong(range.group(2)));
+                }
+            }
+            if (start > end) {
+                writeHead(client, 416, "Range Not Satisfiable", null, 0, request.keepAlive(), "bytes */" + size);
+                return;
+            }
+            contentRange = "bytes " + start + "-" + end + "/" + size;
+        }
+        
+        long length = end - start + 1;
+        if (contentRange != null) {
+            writeHead(client, 206, "Partial Content", segment.contentType(), length, request.keepAlive(), contentRange);
+        } else {
+            writeHead(client, 200, "OK", segment.contentType(), length, request.keepAlive(), null);
+        }
+        
+        // Zero-copy from the page cache to the socket where the platform supports it
+        long position = start;
+        while (position <= end) {
+            position += file.transferTo(position, end - position + 1, client);
+        }
+    }
+    
+    private void prefetch(Session session, List<Integer> upcoming) {
+        for (int index : upcoming) {
+            if (!session.buffer.contains(index)) {
+                if (!session.buffer.hasRoom()) {
+                    return;
+                }
+                load(session, index);
+            }
+        }
+    }
+    
+    private CompletableFuture<SegmentBuffer.Segment> load(Session session, int index) {
+        return session.buffer.get(index, () -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return fetchSegment(session, index);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, executor));
+    }
+    
+    private SegmentBuffer.Segment fetchSegment(Session session, int index) throws IOException, InterruptedException {
+        URI uri = session.segment(index);
+        Path target = session.buffer.fileFor(index);
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        
+        for (int attempt = 1; ; attempt++) {
+            connections.acquire();
+            try {
+                HttpResponse<InputStream> response = transport.send(transport.mediaRequest(uri.toString()).build());
+                try (InputStream body = response.body()) {
+                    if (response.statusCode() != 200) {
+                        throw new IOException("HTTP " + response.statusCode());
+                    }
+                    long size = Files.copy(body, partial, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    // fMP4 segments and EXT-X-MAP init sections are not transport streams
+                    String contentType = response.headers().firstValue("Content-Type").orElse("video/mp2t");
+                    SegmentBuffer.Segment segment = new SegmentBuffer.Segment(target, size, contentType);
+                    session.buffer.stored(segment, session::isPlayed);
+                    return segment;
+                }
+            } catch (IOException e) {
+                if (attempt == FETCH_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Retrying segment {} after: {}", uri, e.getMessage());
+            } finally {
+                connections.release();
+            }
+        }
+    }
+    
+    private String fetchPlaylist(URI uri) throws IOException {
+        try {
+            HttpResponse<InputStream> response = transport.send(transport.request(uri.toString()).build());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new IOException("HTTP " + response.statusCode());
+                }
+                return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching playlist", e);
+        }
+    }
+    
+    /**
+     * Point a playlist's variant playlists and segments at the proxy. Other URIs, such
+     * as encryption keys, are made absolute so mpv fetches them from the CDN.
+     *
+     * @param segments receives the indexes of the playlist's segments, in order
+     */
+    String rewrite(Session session, String playlist, URI base, List<Integer> segments) {
+        boolean master = HlsPlaylistParser.isMasterPlaylist(playlist);
+        StringBuilder out = new StringBuilder(playlist.length() * 2);
+        
+        for (String rawLine : playlist.split("\\R")) {
+            String line = rawLine.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            
+            if (!line.startsWith("#")) {
+                URI target = base.resolve(line);
+                out.append(master ? session.playlistUrl(target) : segmentUrl(session, target, segments));
+            } else if (line.startsWith("#EXT-X-MEDIA:")) {
+                out.append(replaceUri(line, uri -> session.playlistUrl(base.resolve(uri))));
+            } else if (line.startsWith("#EXT-X-MAP:")) {
+                out.append(replaceUri(line, uri -> segmentUrl(session, base.resolve(uri), segments)));
+            } else {
+                out.append(replaceUri(line, uri -> base.resolve(uri).toString()));
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+    
+    private static String segmentUrl(Session session, URI target, List<Integer> segments) {
+        String url = session.segmentUrl(target);
+        Matcher path = RESOURCE_PATH.matcher(URI.create(url).getPath());
+        if (path.matches()) {
+            segments.add(Integer.parseInt(path.group(3)));
+        }
+        return url;
+    }
+    
+    private static String replaceUri(String line, UnaryOperator<String> mapping) {
+        return URI_ATTRIBUTE.matcher(line).replaceAll(match ->
+                Matcher.quoteReplacement("URI=\"" + mapping.apply(match.group(1)) + "\""));
+    }
+    
+    private static Request readRequest(InputStream in) throws IOException {
+        String requestLine = readLine(in);
+        if (requestLine == null || requestLine.isEmpty()) {
+            return null;
+        }
+        String[] parts = requestLine.split(" ");
+        if (parts.length != 3) {
+            throw new IOException("Malformed request line: " + requestLine);
+        }
+        
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+        
+        String connection = headers.getOrDefault("connection", "").toLowerCase(Locale.ROOT);
+        boolean keepAlive = "HTTP/1.1".equals(parts[2]) ? !connection.contains("close") : connection.contains("keep-alive");
+        return new Request(parts[0], URI.create(parts[1]).getPath(), headers, keepAlive);
+    }
+    
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+            if (line.size() > MAX_HEADER_BYTES) {
+                throw new IOException("Request header too large");
+            }
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        return line.toString(StandardCharsets.ISO_8859_1);
+    }
+    
+    private static void writeHead(SocketChannel client, int status, String reason, String contentType,
+                                  long contentLength, boolean keepAlive, String contentRange) throws IOException {
+        StringBuilder head = new StringBuilder()
+                .append("HTTP/1.1 ").append(status).append(' ').append(reason).append("\r\n")
+                .append("Content-Length: ").append(contentLength).append("\r\n")
+                .append("Accept-Ranges: bytes\r\n")
+                .append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n");
+        if (contentType != null) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        if (contentRange != null) {
+            head.append("Content-Range: ").append(contentRange).append("\r\n");
+        }
+        head.append("\r\n");
+        writeFully(client, ByteBuffer.wrap(head.toString().getBytes(StandardCharsets.ISO_8859_1)));
+    }
+    
+    private static void writeFully(SocketChannel client, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+    }
+    
+    private static void deleteRecursively(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    logger.debug("Failed to delete {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            logger.debug("Failed to clean up {}: {}", directory, e.getMessage());
+        }
+    }
+    
+    /**
+     * One proxied stream: the remote playlists and segments it has handed out local
+     * URLs for, and its segment buffer. Segment indexes are shared by all of the
+     * stream's media playlists, so the order of segments and the playhead are kept
+     * per media playlist.
+     */
+    final class Session {
+        final int id;
+        final SegmentBuffer buffer;
+        private final List<URI> playlists = new ArrayList<>();
+        private final Map<URI, Integer> playlistIndexes = new HashMap<>();
+        private final List<URI> segments = new ArrayList<>();
+        private final Map<URI, Integer> segmentIndexes = new HashMap<>();
+        // Media playlist each segment was first listed in, and the segments each one lists now
+        private final Map<Integer, Integer> segmentPlaylists = new HashMap<>();
+        private final Map<Integer, List<Integer>> playlistSegments = new HashMap<>();
+        // Segment mpv asked for last from each media playlist
+        private final Map<Integer, Integer> playheads = new HashMap<>();
+        
+        Session(int id, SegmentBuffer buffer) {
+            this.id = id;
+            this.buffer = buffer;
+        }
+        
+        synchronized String playlistUrl(URI target) {
+            int index = indexOf(target, playlists, playlistIndexes);
+            return baseUrl + "/" + id + "/p" + index + ".m3u8";
+        }
+        
+        synchronized String segmentUrl(URI target) {
+            int index = indexOf(target, segments, segmentIndexes);
+            Matcher extension = EXTENSION.matcher(target.getPath() != null ? target.getPath() : "");
+            return baseUrl + "/" + id + "/s" + index + (extension.find() ? extension.group() : "");
+        }
+        
+        synchronized URI playlist(int index) {
+            return index < playlists.size() ? playlists.get(index) : null;
+        }
+        
+        synchronized URI segment(int index) {
+            return index >= 0 && index < segments.size() ? segments.get(index) : null;
+        }
+        
+        /**
+         * Record the segments a media playlist lists, in order.
+         */
+        synchronized void listed(int playlist, List<Integer> segmentIndexes) {
+            playlistSegments.put(playlist, List.copyOf(segmentIndexes));
+            for (int segment : segmentIndexes) {
+                segmentPlaylists.putIfAbsent(segment, playlist);
+            }
+        }
+        
+        /**
+         * Move the playhead of the segment's media playlist to it.
+         */
+        synchronized void played(int segment) {
+            playheads.put(segmentPlaylists.getOrDefault(segment, -1), segment);
+        }
+        
+        /**
+         * @return the segment mpv asked for last from a media playlist, -1 until it asks for one
+         */
+        synchronized int playhead(int playlist) {
+            return playheads.getOrDefault(playlist, -1);
+        }
+        
+        /**
+         * Whether a segment is behind the playhead of its own media playlist.
+         */
+        synchronized boolean isPlayed(int segment) {
+            Integer playhead = playheads.get(segmentPlaylists.getOrDefault(segment, -1));
+            return playhead != null && segment < playhead;
+        }
+        
+        /**
+         * Up to count segments that come after one in its media playlist.
+         */
+        synchronized List<Integer> following(int segment, int count) {
+            List<Integer> listed = playlistSegments.getOrDefault(segmentPlaylists.getOrDefault(segment, -1), List.of());
+            int position = listed.indexOf(segment);
+            if (position < 0) {
+                return List.of();
+            }
+            return listed.subList(position + 1, Math.min(listed.size(), position + 1 + count));
+        }
+        
+        private static int indexOf(URI target, List<URI> uris, Map<URI, Integer> indexes) {
+            // Live playlists are reloaded; a URI keeps the index it got the first time
+            return indexes.computeIfAbsent(target, uri -> {
+                uris.add(uri);
+                return uris.size() - 1;
+            });
+        }
+    }
+}
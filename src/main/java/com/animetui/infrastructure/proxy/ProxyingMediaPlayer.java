@@ -0,0 +1,133 @@
+package com.animetui.infrastructure.proxy;
+
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.MediaPlayerPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * MediaPlayerPort decorator that routes remote HLS streams through an
+ * {@link HlsPrefetchProxy}, so the player reads segments that are already buffered
+ * locally. Other streams, and HLS streams the proxy cannot take, are passed on
+ * unchanged. Playback listeners are told the original URL, not the proxy's.
+ */
+public class ProxyingMediaPlayer implements MediaPlayerPort {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProxyingMediaPlayer.class);
+    
+    private static final int MAX_REMEMBERED_URLS = 64;
+    
+    private final MediaPlayerPort delegate;
+    private final HlsPrefetchProxy proxy;
+    // Original URL of each proxied stream handed to the player, oldest first
+    private final Map<String, String> originalUrls = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_REMEMBERED_URLS;
+                }
+            });
+    
+    private final List<PlaybackListener> listeners = new CopyOnWriteArrayList<>();
+    
+    public ProxyingMediaPlayer(MediaPlayerPort delegate, HlsPrefetchProxy proxy) {
+        this.delegate = delegate;
+        this.proxy = proxy;
+        // One listener on the delegate, so the URL is translated once for all of ours
+        delegate.addPlaybackListener(this::ended);
+    }
+    
+    @Override
+    public void play(String url) {
+        delegate.play(url);
+    }
+    
+    @Override
+    public void play(StreamLink streamLink) {
+        delegate.play(proxied(streamLink));
+    }
+    
+    @Override
+    public void enqueue(StreamLink streamLink) {
+        delegate.enqueue(proxied(streamLink));
+    }
+    
+    @Override
+    public boolean canQueue() {
+        return delegate.canQueue();
+    }
+    
+    @Override
+    public void addPlaybackListener(PlaybackListener listener) {
+        listeners.add(listener);
+    }
+    
+    private void ended(String url, PlaybackEnd end) {
+        String original = originalUrls.remove(url);
+        for (PlaybackListener listener : listeners) {
+            listener.ended(original != null ? original : url, end);
+        }
+    }
+    
+    @Override
+    public int playlistPosition() {
+        return delegate.playlistPosition();
+    }
+    
+    @Override
+    public void pause() {
+        delegate.pause();
+    }
+    
+    @Override
+    public void resume() {
+        delegate.resume();
+    }
+    
+    @Override
+    public void seek(double offsetSeconds) {
+        delegate.seek(offsetSeconds);
+    }
+    
+    @Override
+    public void stop() {
+        delegate.stop();
+    }
+    
+    @Override
+    public boolean isPlaying() {
+        return delegate.isPlaying();
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+    
+    private StreamLink proxied(StreamLink link) {
+        if (link == null || !isRemoteHls(link)) {
+            return link;
+        }
+        try {
+            String local = proxy.proxy(link.url());
+            originalUrls.put(local, link.url());
+            return new StreamLink(local, link.quality(), link.format(), link.source(),
+                    link.isDirectLink(), link.bandwidth(), link.width(), link.height(), link.codecs());
+        } catch (RuntimeException e) {
+            logger.warn("Playing without the prefetch proxy: {}", e.getMessage());
+            return link;
+        }
+    }
+    
+    private static boolean isRemoteHls(StreamLink link) {
+        String url = link.url().toLowerCase(Locale.ROOT);
+        return url.startsWith("http") && ("hls".equals(link.format()) || url.contains(".m3u8"));
+    }
+}
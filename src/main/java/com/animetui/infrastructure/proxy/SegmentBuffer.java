@@ -0,0 +1,143 @@
+package com.animetui.infrastructure.proxy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded ring of HLS segments held as files in a scratch directory.
+ * Segments are stored on disk so they can be served with zero-copy transfers; the
+ * OS page cache keeps recently written ones in memory. When the buffer is over its
+ * capacity, segments already played are dropped oldest first.
+ */
+final class SegmentBuffer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SegmentBuffer.class);
+    
+    /**
+     * A buffered segment file.
+     *
+     * @param contentType media type the CDN served the segment as
+     */
+    record Segment(Path file, long size, String contentType) {
+    }
+    
+    private final Path directory;
+    private final long capacityBytes;
+    private final ConcurrentSkipListMap<Integer, CompletableFuture<Segment>> segments = new ConcurrentSkipListMap<>();
+    private long usedBytes;
+    
+    SegmentBuffer(Path directory, long capacityBytes) {
+        this.directory = directory;
+        this.capacityBytes = capacityBytes;
+    }
+    
+    Path fileFor(int index) {
+        return directory.resolve(index + ".seg");
+    }
+    
+    /**
+     * The segment at an index, fetched with the given loader if it is not buffered or
+     * being fetched already.
+     */
+    CompletableFuture<Segment> get(int index, Supplier<CompletableFuture<Segment>> loader) {
+        // computeIfAbsent on a skip list may run the loader more than once; claiming the
+        // slot first makes sure only one request starts the fetch
+        CompletableFuture<Segment> segment = new CompletableFuture<>();
+        CompletableFuture<Segment> existing = segments.putIfAbsent(index, segment);
+        if (existing != null) {
+            return existing;
+        }
+        
+        // A failed fetch is not kept, so the next request tries again
+        segment.whenComplete((result, failure) -> {
+            if (failure != null) {
+                segments.remove(index, segment);
+            }
+        });
+        try {
+            loader.get().whenComplete((result, failure) -> {
+                if (failure != null) {
+                    segment.completeExceptionally(failure);
+                } else {
+                    segment.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            segment.completeExceptionally(e);
+        }
+        return segment;
+    }
+    
+    /**
+     * Drop a segment whose file has gone missing, so the next request fetches it again.
+     */
+    synchronized void forget(int index, CompletableFuture<Segment> segment) {
+        if (segments.remove(index, segment) && segment.isDone() && !segment.isCompletedExceptionally()) {
+            usedBytes -= segment.join().size();
+        }
+    }
+    
+    boolean contains(int index) {
+        return segments.containsKey(index);
+    }
+    
+    /**
+     * Whether there is room to prefetch another segment.
+     */
+    synchronized boolean hasRoom() {
+        return usedBytes < capacityBytes;
+    }
+    
+    /**
+     * Account for a stored segment and drop played segments while over capacity.
+     *
+     * @param played whether the segment at an index is behind the playhead of its media playlist
+     */
+    synchronized void stored(Segment segment, IntPredicate played) {
+        usedBytes += segment.size();
+        for (Map.Entry<Integer, CompletableFuture<Segment>> entry : segments.entrySet()) {
+            if (usedBytes <= capacityBytes) {
+                break;
+            }
+            CompletableFuture<Segment> candidate = entry.getValue();
+            if (!candidate.isDone() || candidate.isCompletedExceptionally() || !played.test(entry.getKey())) {
+                continue;
+            }
+            segments.remove(entry.getKey(), candidate);
+            Segment evicted = candidate.join();
+            usedBytes -= evicted.size();
+            delete(evicted.file());
+        }
+    }
+    
+    /**
+     * Drop every segment and the scratch directory.
+     */
+    synchronized void clear() {
+        segments.values().forEach(segment -> segment.thenAccept(stored -> delete(stored.file())));
+        segments.clear();
+        usedBytes = 0;
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            // Files still being written; deleted with the proxy's scratch directory
+        }
+    }
+    
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Failed to delete buffered segment {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -2,15 +2,18 @@ package com.animetui.infrastructure.scraper;
 
 import com.animetui.domain.model.Episode;
 import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
 import com.animetui.domain.port.LinkResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 /**
  * LinkResolver that tries a primary resolver first, then falls back to a secondary resolver.
  * Useful for graceful degradation when real streaming sources are unavailable.
+ * Cancellation is not a failure: if the caller is interrupted, the fallback is skipped.
  */
 public class FallbackLinkResolver implements LinkResolver {
     
@@ -18,10 +21,19 @@ public class FallbackLinkResolver implements LinkResolver {
     
     private final LinkResolver primary;
     private final LinkResolver fallback;
+    private final StreamLinkSelector selector;
     
-    public FallbackLinkResolver(LinkResolver primary, LinkResolver fallback) {
+    /**
+     * @param selector picks the link returned by resolveBest
+     */
+    public FallbackLinkResolver(LinkResolver primary, LinkResolver fallback, StreamLinkSelector selector) {
         this.primary = primary;
         this.fallback = fallback;
+        this.selector = selector;
+    }
+    
+    public FallbackLinkResolver(LinkResolver primary, LinkResolver fallback) {
+        this(primary, fallback, StreamLinkSelector.unlimited());
     }
     
     @Override
@@ -36,11 +48,18 @@ public class FallbackLinkResolver implements LinkResolver {
                            links.size(), episode.getDisplayTitle());
                 return links;
             }
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             logger.warn("Primary resolver failed for episode: {} - {}", 
                        episode.getDisplayTitle(), e.getMessage());
         }
         
+        // A cancelled lookup must not turn into the fallback's links
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Resolving " + episode.getDisplayTitle() + " was cancelled");
+        }
+        
         logger.info("Falling back to secondary resolver: {}", 
                    fallback.getClass().getSimpleName());
         
@@ -58,23 +77,19 @@ public class FallbackLinkResolver implements LinkResolver {
     
     @Override
     public StreamLink resolveBest(Episode episode) {
-        List<StreamLink> links = resolve(episode);
-        if (links.isEmpty()) {
-            throw new RuntimeException("No stream links available for episode: " + episode.getDisplayTitle());
-        }
-        
-        // Use the same quality preference logic as individual resolvers
-        return links.stream()
-                .filter(link -> "720p".equals(link.quality()))
-                .findFirst()
-                .orElse(links.stream()
-                        .filter(link -> "480p".equals(link.quality()))
-                        .findFirst()
-                        .orElse(links.get(0)));
+        return selector.select(resolve(episode))
+                .orElseThrow(() -> new RuntimeException(
+                        "No stream links available for episode: " + episode.getDisplayTitle()));
     }
     
     @Override
     public boolean canResolve(Episode episode) {
         return primary.canResolve(episode) || fallback.canResolve(episode);
     }
+    
+    @Override
+    public void invalidate(Episode episode) {
+        primary.invalidate(episode);
+        fallback.invalidate(episode);
+    }
 }
@@ -2,26 +2,42 @@ package com.animetui.infrastructure.scraper;
 
 import com.animetui.domain.model.Episode;
 import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
 import com.animetui.domain.port.LinkResolver;
+import com.animetui.infrastructure.cache.WatchUrlIndex;
+import com.animetui.infrastructure.http.Futures;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.animetui.infrastructure.http.PolitenessScheduler;
+import com.animetui.infrastructure.http.SingleFlight;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * LinkResolver implementation for HiAnime.to streaming site.
@@ -32,80 +48,134 @@ public class HiAnimeLinkResolver implements LinkResolver {
     private static final Logger logger = LoggerFactory.getLogger(HiAnimeLinkResolver.class);
     
     private final String baseUrl;
-    private final HttpClient httpClient;
+    private final HttpTransport transport;
+    private final WatchUrlIndex watchUrlIndex;
+    private final PolitenessScheduler politeness;
+    private final StreamLinkSelector selector;
     private final ObjectMapper objectMapper;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SingleFlight<String, Object> pageRequests = new SingleFlight<>();
     private boolean sessionInitialized = false;
     
-    // Pattern to match JSON data embedded in script tags
-    private static final Pattern JSON_PATTERN = Pattern.compile(
-        "(?:window\\.__NUXT__|__NUXT__\\s*=)\\s*(.+?)(?:;\\s*</script>|$)", 
-        Pattern.DOTALL
-    );
-    
-    // Pattern to extract stream URLs from various formats
-    private static final Pattern STREAM_URL_PATTERN = Pattern.compile(
-        "(?:\"url\"|'url')\\s*:\\s*(?:\"|')([^\"']+\\.(?:mp4|m3u8|ts))(?:\"|')",
-        Pattern.CASE_INSENSITIVE
-    );
+    /**
+     * Pulls what it needs out of a page while it is still being parsed.
+     */
+    @FunctionalInterface
+    private interface PageReader<T> {
+        T read(StreamParser parser) throws IOException;
+    }
     
-    public HiAnimeLinkResolver(String baseUrl) {
+    /**
+     * @param baseUrl HiAnime site URL
+     * @param transport HTTP transport shared with the other adapters
+     * @param watchUrlIndex remembers each show's watch page so its search runs once
+     * @param politeness spaces out requests per host to avoid bot detection
+     * @param selector picks the link returned by resolveBest
+     */
+    public HiAnimeLinkResolver(String baseUrl, HttpTransport transport, WatchUrlIndex watchUrlIndex,
+                               PolitenessScheduler politeness, StreamLinkSelector selector) {
         this.baseUrl = baseUrl != null ? baseUrl : "https://hianime.to";
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(20))
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .version(HttpClient.Version.HTTP_1_1)  // Some sites prefer HTTP/1.1
-                .cookieHandler(new java.net.CookieManager())
-                .build();
+        this.transport = transport;
+        this.watchUrlIndex = watchUrlIndex;
+        this.politeness = politeness;
+        this.selector = selector;
         this.objectMapper = new ObjectMapper();
     }
     
+    public HiAnimeLinkResolver(String baseUrl, HttpTransport transport, WatchUrlIndex watchUrlIndex,
+                               PolitenessScheduler politeness) {
+        this(baseUrl, transport, watchUrlIndex, politeness, StreamLinkSelector.unlimited());
+    }
+    
+    public HiAnimeLinkResolver(String baseUrl) {
+        this(baseUrl, HttpTransport.shared(), new WatchUrlIndex(null, 1000),
+                new PolitenessScheduler(Duration.ofSeconds(1), Duration.ofSeconds(30), 1.0));
+    }
+    
     public HiAnimeLinkResolver() {
         this("https://hianime.to");
     }
     
+    /**
+     * @return the episode's links, or an empty list if the site does not have it
+     * @throws UncheckedIOException if the site could not be reached or read
+     * @throws CancellationException if the calling thread was interrupted
+     */
     @Override
     public List<StreamLink> resolve(Episode episode) {
         logger.info("Resolving HiAnime links for episode: {}", episode.getDisplayTitle());
         
         try {
-            // First, search for the anime to get the correct URL structure
-            String animeUrl = findAnimeUrl(episode);
+            String animeTitle = extractAnimeTitle(episode);
+            
+            // Shows resolved before on this site skip the search round trip
+            Optional<String> indexedUrl = watchUrlIndex.find(site(), episode.animeId(), animeTitle);
+            if (indexedUrl.isPresent()) {
+                try {
+                    List<StreamLink> links = resolveFrom(indexedUrl.get(), episode);
+                    if (!links.isEmpty()) {
+                        return links;
+                    }
+                } catch (IOException e) {
+                    logger.debug("Indexed watch URL failed for: {}", episode.getDisplayTitle(), e);
+                }
+                
+                // The page moved or no longer has streams; search again below
+                logger.info("Indexed watch URL is stale, searching again: {}", indexedUrl.get());
+                watchUrlIndex.invalidate(site(), episode.animeId(), animeTitle);
+            }
+            
+            String animeUrl = findAnimeUrl(animeTitle);
             if (animeUrl == null) {
                 logger.warn("Could not find anime URL for: {}", episode.getDisplayTitle());
                 return List.of();
             }
             
-            // Get the episode page
-            String episodeUrl = buildEpisodeUrl(animeUrl, episode.number());
-            Document episodePage = fetchPage(episodeUrl);
-            
-            // Extract stream links from the page
-            List<StreamLink> links = extractStreamLinks(episodePage, episode);
-            
-            logger.info("Found {} stream links for episode: {}", links.size(), episode.getDisplayTitle());
+            List<StreamLink> links = resolveFrom(animeUrl, episode);
+            if (!links.isEmpty()) {
+                watchUrlIndex.put(site(), episode.animeId(), animeTitle, animeUrl);
+            }
             return links;
             
-        } catch (Exception e) {
-            logger.error("Failed to resolve links for episode: {}", episode.getDisplayTitle(), e);
-            return List.of();
+        } catch (InterruptedException e) {
+            // Lost a race or the user gave up; neither says anything about the site
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Resolving " + episode.getDisplayTitle() + " was cancelled");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to resolve links for episode: " + episode.getDisplayTitle(), e);
         }
     }
     
+    private List<StreamLink> resolveFrom(String animeUrl, Episode episode) throws IOException, InterruptedException {
+        // Extract stream links from the episode page as it downloads
+        String episodeUrl = buildEpisodeUrl(animeUrl, episode.number());
+        List<StreamLink> links = fetchPage(episodeUrl, this::readStreamLinks);
+        
+        logger.info("Found {} stream links for episode: {}", links.size(), episode.getDisplayTitle());
+        return links;
+    }
+    
     @Override
     public StreamLink resolveBest(Episode episode) {
-        List<StreamLink> links = resolve(episode);
-        if (links.isEmpty()) {
-            throw new RuntimeException("No stream links available for episode: " + episode.getDisplayTitle());
-        }
-        
-        // Prefer higher quality links (720p > 480p > 360p)
-        return links.stream()
-                .filter(link -> "720p".equals(link.quality()))
-                .findFirst()
-                .orElse(links.stream()
-                        .filter(link -> "480p".equals(link.quality()))
-                        .findFirst()
-                        .orElse(links.get(0)));
+        return selector.select(resolve(episode))
+                .orElseThrow(() -> new RuntimeException(
+                        "No stream links available for episode: " + episode.getDisplayTitle()));
+    }
+    
+    /**
+     * Name under which this site's track record is kept, e.g. "HiAnime(hianime.to)".
+     */
+    @Override
+    public String toString() {
+        return "HiAnime(" + site() + ")";
+    }
+    
+    /**
+     * Host of this mirror, which keeps its watch URLs apart from the other mirrors'.
+     */
+    private String site() {
+        String host = URI.create(baseUrl).getHost();
+        return host != null ? host : baseUrl;
     }
     
     @Override
@@ -114,9 +184,7 @@ public class HiAnimeLinkResolver implements LinkResolver {
         return episode != null && episode.animeId() != null;
     }
     
-    private String findAnimeUrl(Episode episode) throws IOException, InterruptedException {
-        // Extract anime title from episode for search
-        String searchQuery = extractAnimeTitle(episode);
+    private String findAnimeUrl(String searchQuery) throws IOException, InterruptedException {
         if (searchQuery == null) {
             return null;
         }
@@ -125,11 +193,13 @@ public class HiAnimeLinkResolver implements LinkResolver {
         String searchUrl = baseUrl + "/search?keyword=" + 
                 java.net.URLEncoder.encode(searchQuery, "UTF-8");
         
-        Document searchPage = fetchPage(searchUrl);
-        Elements animeLinks = searchPage.select("a[href*='/watch/']");
+        // Only the first result matters, so stop reading the page once it is parsed
+        String href = fetchPage(searchUrl, parser -> {
+            Element animeLink = parser.selectFirst("a[href*='/watch/']");
+            return animeLink != null ? animeLink.attr("href") : "";
+        });
         
-        if (!animeLinks.isEmpty()) {
-            String href = animeLinks.first().attr("href");
+        if (!href.isEmpty()) {
             return href.startsWith("http") ? href : baseUrl + href;
         }
         
@@ -182,15 +252,57 @@ public class HiAnimeLinkResolver implements LinkResolver {
         }
     }
     
-    private Document fetchPage(String url) throws IOException, InterruptedException {
-        logger.debug("Fetching page: {}", url);
+    /**
+     * Fetch a page and read it incrementally. Concurrent requests for the same URL
+     * share one download and one result; a given URL is always read the same way.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T fetchPage(String url, PageReader<T> reader) throws IOException, InterruptedException {
+        CompletableFuture<T> page = (CompletableFuture<T>) pageRequests.execute(url,
+                () -> {
+                    CompletableFuture<T> load = loadPageAsync(url, reader);
+                    return Futures.cancelling(load.thenApply(Object.class::cast), load);
+                });
         
-        // Add a small delay to avoid being detected as a bot
-        Thread.sleep(1000 + (long)(Math.random() * 2000)); // 1-3 second delay
-        
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .timeout(Duration.ofSeconds(30))
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            page.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            } else if (cause instanceof IOException io) {
+                throw io;
+            } else if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Failed to fetch page: " + url, cause);
+        }
+    }
+    
+    private <T> CompletableFuture<T> loadPageAsync(String url, PageReader<T> reader) {
+        String host = URI.create(url).getHost();
+        
+        // Wait for this host's next polite slot without holding a thread
+        CompletableFuture<HttpResponse<InputStream>> exchange = Futures.compose(politeness.acquireAsync(host), permit -> {
+            logger.debug("Fetching page: {}", url);
+            return transport.sendAsync(buildPageRequest(url));
+        });
+        // Cancelling the page aborts the exchange instead of letting it run to the end
+        return Futures.cancelling(exchange.thenApplyAsync(response -> {
+            politeness.onResponse(host, response.statusCode());
+            try {
+                return readPage(url, response, reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor), exchange);
+    }
+    
+    private HttpRequest buildPageRequest(String url) {
+        return transport.request(url)
                 .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
                 .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,image/apng,*/*;q=0.8,application/signed-exchange;v=b3;q=0.7")
                 .header("Accept-Language", "en-US,en;q=0.9")
@@ -202,98 +314,110 @@ public class HiAnimeLinkResolver implements LinkResolver {
                 .header("Sec-Fetch-User", "?1")
                 .header("Cache-Control", "max-age=0")
                 .header("Referer", baseUrl)
-                .GET()
                 .build();
-        
-        HttpResponse<String> response = httpClient.send(request, 
-                HttpResponse.BodyHandlers.ofString());
-        
+    }
+    
+    private <T> T readPage(String url, HttpResponse<InputStream> response, PageReader<T> reader) throws IOException {
         logger.debug("Response status: {} for URL: {}", response.statusCode(), url);
         
-        if (response.statusCode() == 403) {
-            throw new IOException("Access forbidden (403) - likely blocked by anti-bot protection: " + url);
-        } else if (response.statusCode() == 429) {
-            throw new IOException("Rate limited (429) - too many requests: " + url);
-        } else if (response.statusCode() != 200) {
-            throw new IOException("HTTP " + response.statusCode() + " for URL: " + url);
+        try (InputStream body = response.body()) {
+            if (response.statusCode() == 403) {
+                throw new IOException("Access forbidden (403) - likely blocked by anti-bot protection: " + url);
+            } else if (response.statusCode() == 429) {
+                throw new IOException("Rate limited (429) - too many requests: " + url);
+            } else if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " for URL: " + url);
+            }
+            
+            // Closing the parser early also closes the body, abandoning the rest of the download.
+            // jsoup needs a reader that supports mark()
+            Charset charset = charsetOf(response);
+            try (StreamParser parser = new StreamParser(Parser.htmlParser())
+                    .parse(new BufferedReader(new InputStreamReader(body, charset)), url)) {
+                return reader.read(parser);
+            }
         }
-        
-        return Jsoup.parse(response.body());
     }
     
-    private List<StreamLink> extractStreamLinks(Document page, Episode episode) {
-        List<StreamLink> links = new ArrayList<>();
-        
-        // Method 1: Look for JSON data in script tags
-        links.addAll(extractFromScriptTags(page));
-        
-        // Method 2: Look for iframe sources
-        links.addAll(extractFromIframes(page));
-        
-        // Method 3: Look for direct video sources
-        links.addAll(extractFromVideoTags(page));
-        
-        return links;
+    private static Charset charsetOf(HttpResponse<?> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (index >= 0) {
+            String name = contentType.substring(index + "charset=".length()).split(";")[0].trim().replace("\"", "");
+            try {
+                return Charset.forName(name);
+            } catch (IllegalArgumentException e) {
+                logger.debug("Unknown charset '{}', using UTF-8", name);
+            }
+        }
+        return StandardCharsets.UTF_8;
     }
     
-    private List<StreamLink> extractFromScriptTags(Document page) {
+    /**
+     * Collect stream links from scripts, iframes and video sources as each element
+     * finishes parsing. Handled elements are dropped so the page is never held as a
+     * full DOM, and reading stops once the embedded player state has produced links,
+     * since it lists every stream the page offers.
+     */
+    private List<StreamLink> readStreamLinks(StreamParser parser) {
         List<StreamLink> links = new ArrayList<>();
         
-        Elements scripts = page.select("script");
-        for (Element script : scripts) {
-            String content = script.html();
-            
-            // Look for JSON data patterns
-            Matcher jsonMatcher = JSON_PATTERN.matcher(content);
-            if (jsonMatcher.find()) {
-                try {
-                    String jsonStr = jsonMatcher.group(1);
-                    JsonNode json = objectMapper.readTree(jsonStr);
-                    links.addAll(parseJsonForStreams(json));
-                } catch (Exception e) {
-                    logger.debug("Failed to parse JSON from script tag", e);
+        Iterator<Element> elements = parser.iterator();
+        while (elements.hasNext()) {
+            Element element = elements.next();
+            switch (element.normalName()) {
+                case "script" -> {
+                    if (extractFromScript(element.data(), links)) {
+                        parser.stop();
+                    }
                 }
-            }
-            
-            // Look for direct stream URL patterns
-            Matcher urlMatcher = STREAM_URL_PATTERN.matcher(content);
-            while (urlMatcher.find()) {
-                String url = urlMatcher.group(1);
-                if (isValidStreamUrl(url)) {
-                    links.add(createStreamLink(url));
+                case "iframe" -> addIfStream(element.attr("src"), links);
+                case "video" -> addIfStream(element.attr("src"), links);
+                case "source" -> {
+                    if (element.parent() != null && "video".equals(element.parent().normalName())) {
+                        addIfStream(element.attr("src"), links);
+                    }
                 }
+                default -> { }
             }
+            element.remove();
         }
         
         return links;
     }
     
-    private List<StreamLink> extractFromIframes(Document page) {
-        List<StreamLink> links = new ArrayList<>();
+    /**
+     * @return true if the script carried embedded state with stream links
+     */
+    private boolean extractFromScript(String script, List<StreamLink> links) {
+        // One pass finds both direct URLs and the embedded state object
+        StreamUrlScanner.Result found = StreamUrlScanner.scan(script);
+        
+        boolean fromState = false;
+        for (String jsonRegion : found.jsonRegions()) {
+            try {
+                List<StreamLink> stateLinks = parseJsonForStreams(objectMapper.readTree(jsonRegion));
+                links.addAll(stateLinks);
+                fromState |= !stateLinks.isEmpty();
+            } catch (Exception e) {
+                logger.debug("Failed to parse JSON from script tag", e);
+            }
+        }
         
-        Elements iframes = page.select("iframe[src]");
-        for (Element iframe : iframes) {
-            String src = iframe.attr("src");
-            if (isValidStreamUrl(src)) {
-                links.add(createStreamLink(src));
+        // URLs already taken from the JSON keep its quality hints
+        for (String url : found.urls()) {
+            if (links.stream().noneMatch(link -> link.url().equals(url))) {
+                links.add(createStreamLink(url));
             }
         }
         
-        return links;
+        return fromState;
     }
     
-    private List<StreamLink> extractFromVideoTags(Document page) {
-        List<StreamLink> links = new ArrayList<>();
-        
-        Elements videos = page.select("video source[src], video[src]");
-        for (Element video : videos) {
-            String src = video.attr("src");
-            if (isValidStreamUrl(src)) {
-                links.add(createStreamLink(src));
-            }
+    private void addIfStream(String src, List<StreamLink> links) {
+        if (isValidStreamUrl(src)) {
+            links.add(createStreamLink(src));
         }
-        
-        return links;
     }
     
     private List<StreamLink> parseJsonForStreams(JsonNode json) {
@@ -331,14 +455,7 @@ public class HiAnimeLinkResolver implements LinkResolver {
     }
     
     private boolean isValidStreamUrl(String url) {
-        if (url == null || url.trim().isEmpty()) {
-            return false;
-        }
-        
-        url = url.toLowerCase();
-        return (url.startsWith("http") || url.startsWith("//")) &&
-               (url.contains(".mp4") || url.contains(".m3u8") || 
-                url.contains(".ts") || url.contains("stream"));
+        return url != null && StreamUrlScanner.isStreamUrl(url);
     }
     
     private StreamLink createStreamLink(String url) {
@@ -0,0 +1,230 @@
+package com.animetui.infrastructure.scraper;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal parser for HLS playlists (RFC 8216).
+ * Reads the variant streams of master playlists with their BANDWIDTH, RESOLUTION
+ * and CODECS attributes, and the segments of media playlists; everything else in
+ * the playlist is ignored.
+ */
+public final class HlsPlaylistParser {
+    
+    /**
+     * One variant stream of a master playlist.
+     *
+     * @param uri absolute URI of the variant's media playlist
+     * @param bandwidth peak bits per second
+     * @param width horizontal resolution, 0 if not given
+     * @param height vertical resolution, 0 if not given
+     * @param codecs RFC 6381 codec list, null if not given
+     */
+    public record Variant(String uri, long bandwidth, int width, int height, String codecs) {
+    }
+    
+    /**
+     * Segments of a media playlist.
+     *
+     * @param initSegment absolute URI of the EXT-X-MAP initialization segment, null if none
+     * @param segments absolute segment URIs in playback order
+     * @param encrypted whether segments are encrypted (EXT-X-KEY other than NONE)
+     * @param byteRanges whether segments are sub-ranges of a resource (EXT-X-BYTERANGE)
+     * @param durationSeconds sum of the segment durations (EXTINF)
+     */
+    public record MediaPlaylist(String initSegment, List<String> segments, boolean encrypted, boolean byteRanges,
+                                double durationSeconds) {
+        public MediaPlaylist {
+            segments = List.copyOf(segments);
+        }
+    }
+    
+    private HlsPlaylistParser() {
+    }
+    
+    /**
+     * Check if a playlist is a master playlist rather than a media playlist.
+     */
+    public static boolean isMasterPlaylist(String playlist) {
+        return playlist.startsWith("#EXTM3U") && playlist.contains("#EXT-X-STREAM-INF:");
+    }
+    
+    /**
+     * Check if a master playlist carries separate audio or subtitle renditions.
+     * Those are listed in EXT-X-MEDIA tags of the master and are lost when a
+     * variant playlist is played on its own.
+     */
+    public static boolean hasAlternateRenditions(String playlist) {
+        return hasRenditions(playlist, null);
+    }
+    
+    /**
+     * Check if a master playlist carries a separate audio rendition, in which case
+     * its variant playlists may have no sound of their own.
+     */
+    public static boolean hasSeparateAudio(String playlist) {
+        return hasRenditions(playlist, "AUDIO");
+    }
+    
+    /**
+     * @param type EXT-X-MEDIA TYPE to look for, or null for any
+     */
+    private static boolean hasRenditions(String playlist, String type) {
+        for (String rawLine : playlist.split("\\R")) {
+            String line = rawLine.trim();
+            if (!line.startsWith("#EXT-X-MEDIA:")) {
+                continue;
+            }
+            Map<String, String> attributes = parseAttributes(line.substring("#EXT-X-MEDIA:".length()));
+            if (attributes.containsKey("URI") && (type == null || type.equals(attributes.get("TYPE")))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Read the variant streams of a master playlist.
+     *
+     * @param playlist playlist text
+     * @param base URI the playlist was loaded from, for resolving relative variant URIs
+     */
+    public static List<Variant> parseVariants(String playlist, URI base) {
+        List<Variant> variants = new ArrayList<>();
+        Map<String, String> pending = null;
+        
+        for (String rawLine : playlist.split("\\R")) {
+            String line = rawLine.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            
+            if (line.startsWith("#EXT-X-STREAM-INF:")) {
+                pending = parseAttributes(line.substring("#EXT-X-STREAM-INF:".length()));
+            } else if (line.startsWith("#")) {
+                continue;
+            } else if (pending != null) {
+                // The URI line that follows a STREAM-INF tag belongs to it
+                variants.add(toVariant(pending, base.resolve(line).toString()));
+                pending = null;
+            }
+        }
+        
+        return variants;
+    }
+    
+    /**
+     * Read the segments of a media playlist.
+     *
+     * @param playlist playlist text
+     * @param base URI the playlist was loaded from, for resolving relative segment URIs
+     */
+    public static MediaPlaylist parseMediaPlaylist(String playlist, URI base) {
+        String initSegment = null;
+        List<String> segments = new ArrayList<>();
+        boolean encrypted = false;
+        boolean byteRanges = false;
+        double durationSeconds = 0;
+        
+        for (String rawLine : playlist.split("\\R")) {
+            String line = rawLine.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            
+            if (line.startsWith("#EXT-X-KEY:")) {
+                String method = parseAttributes(line.substring("#EXT-X-KEY:".length())).get("METHOD");
+                encrypted |= method != null && !"NONE".equals(method);
+            } else if (line.startsWith("#EXT-X-MAP:")) {
+                Map<String, String> attributes = parseAttributes(line.substring("#EXT-X-MAP:".length()));
+                byteRanges |= attributes.containsKey("BYTERANGE");
+                if (attributes.get("URI") != null) {
+                    initSegment = base.resolve(attributes.get("URI")).toString();
+                }
+            } else if (line.startsWith("#EXT-X-BYTERANGE:")) {
+                byteRanges = true;
+            } else if (line.startsWith("#EXTINF:")) {
+                durationSeconds += parseDuration(line.substring("#EXTINF:".length()));
+            } else if (!line.startsWith("#")) {
+                segments.add(base.resolve(line).toString());
+            }
+        }
+        
+        return new MediaPlaylist(initSegment, segments, encrypted, byteRanges, durationSeconds);
+    }
+    
+    /**
+     * Duration part of an EXTINF value such as "10.0," or "9.97,title".
+     */
+    private static double parseDuration(String value) {
+        int comma = value.indexOf(',');
+        try {
+            return Double.parseDouble((comma >= 0 ? value.substring(0, comma) : value).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    private static Variant toVariant(Map<String, String> attributes, String uri) {
+        long bandwidth = parseLong(attributes.get("BANDWIDTH"));
+        int width = 0;
+        int height = 0;
+        String resolution = attributes.get("RESOLUTION");
+        if (resolution != null) {
+            int x = resolution.toLowerCase().indexOf('x');
+            if (x > 0) {
+                width = (int) parseLong(resolution.substring(0, x));
+                height = (int) parseLong(resolution.substring(x + 1));
+            }
+        }
+        return new Variant(uri, bandwidth, width, height, attributes.get("CODECS"));
+    }
+    
+    /**
+     * Split an attribute list; quoted values may contain commas.
+     */
+    static Map<String, String> parseAttributes(String list) {
+        Map<String, String> attributes = new HashMap<>();
+        int i = 0;
+        while (i < list.length()) {
+            int eq = list.indexOf('=', i);
+            if (eq < 0) {
+                break;
+            }
+            String name = list.substring(i, eq).trim();
+            
+            int end;
+            String value;
+            if (eq + 1 < list.length() && list.charAt(eq + 1) == '"') {
+                int close = list.indexOf('"', eq + 2);
+                close = close < 0 ? list.length() : close;
+                value = list.substring(eq + 2, close);
+                end = list.indexOf(',', close);
+            } else {
+                end = list.indexOf(',', eq + 1);
+                value = list.substring(eq + 1, end < 0 ? list.length() : end).trim();
+            }
+            
+            attributes.put(name, value);
+            if (end < 0) {
+                break;
+            }
+            i = end + 1;
+        }
+        return attributes;
+    }
+    
+    private static long parseLong(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
+import com.animetui.domain.port.LinkResolver;
+import com.animetui.infrastructure.http.Futures;
+import com.animetui.infrastructure.http.HttpTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * LinkResolver decorator that expands HLS master playlists into one link per variant.
+ * Every HLS link the delegate returns is fetched; if it turns out to be a master
+ * playlist, it is replaced by its variants carrying the real resolution, bandwidth
+ * and codecs, so the best stream can be picked by numbers rather than URL guesses.
+ * Links that cannot be fetched or are plain media playlists are kept unchanged.
+ * <p>
+ * When the master lists separate audio or subtitle renditions, every variant link
+ * keeps the master URL so the player still sees them; the player picks the variant
+ * by its bandwidth instead.
+ */
+public class HlsVariantLinkResolver implements LinkResolver {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HlsVariantLinkResolver.class);
+    
+    // Master playlists are a few KB; anything bigger is not one
+    private static final int MAX_PLAYLIST_BYTES = 256 * 1024;
+    
+    private final LinkResolver delegate;
+    private final HttpTransport transport;
+    private final StreamLinkSelector selector;
+    
+    /**
+     * @param selector picks the link returned by resolveBest
+     */
+    public HlsVariantLinkResolver(LinkResolver delegate, HttpTransport transport, StreamLinkSelector selector) {
+        this.delegate = delegate;
+        this.transport = transport;
+        this.selector = selector;
+    }
+    
+    public HlsVariantLinkResolver(LinkResolver delegate, HttpTransport transport) {
+        this(delegate, transport, StreamLinkSelector.unlimited());
+    }
+    
+    /**
+     * @throws CancellationException if the calling thread was interrupted
+     */
+    @Override
+    public List<StreamLink> resolve(Episode episode) {
+        List<StreamLink> links = delegate.resolve(episode);
+        
+        // Fetch every playlist at once; each one only costs a round trip
+        List<CompletableFuture<List<StreamLink>>> expanded = links.stream()
+                .map(link -> "hls".equals(link.format())
+                        ? expandAsync(link)
+                        : CompletableFuture.completedFuture(List.of(link)))
+                .toList();
+        
+        List<StreamLink> result = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<StreamLink>> variants : expanded) {
+                result.addAll(variants.get());
+            }
+        } catch (InterruptedException e) {
+            expanded.forEach(variants -> variants.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Resolving " + episode.getDisplayTitle() + " was cancelled");
+        } catch (ExecutionException e) {
+            // Failed expansions already fall back to the original link
+            throw new IllegalStateException("Expanding HLS playlists failed", e.getCause());
+        }
+        return result;
+    }
+    
+    @Override
+    public StreamLink resolveBest(Episode episode) {
+        return selector.select(resolve(episode))
+                .orElseThrow(() -> new RuntimeException(
+                        "No stream links available for episode: " + episode.getDisplayTitle()));
+    }
+    
+    @Override
+    public boolean canResolve(Episode episode) {
+        return delegate.canResolve(episode);
+    }
+    
+    @Override
+    public void invalidate(Episode episode) {
+        delegate.invalidate(episode);
+    }
+    
+    private CompletableFuture<List<StreamLink>> expandAsync(StreamLink link) {
+        URI playlistUri;
+        try {
+            playlistUri = URI.create(link.url().startsWith("//") ? "https:" + link.url() : link.url());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(List.of(link));
+        }
+        
+        CompletableFuture<HttpResponse<InputStream>> fetch =
+                transport.sendAsync(transport.request(playlistUri.toString()).build());
+        CompletableFuture<List<StreamLink>> expanded = fetch
+                .thenApply(response -> {
+                    String playlist = readPlaylist(response);
+                    if (playlist == null || !HlsPlaylistParser.isMasterPlaylist(playlist)) {
+                        return List.of(link);
+                    }
+                    
+                    // Renditions only exist in the master, so variants must not replace it
+                    String url = HlsPlaylistParser.hasAlternateRenditions(playlist) ? link.url() : null;
+                    List<StreamLink> variants = HlsPlaylistParser.parseVariants(playlist, response.uri()).stream()
+                            .sorted(Comparator.comparingLong(HlsPlaylistParser.Variant::bandwidth).reversed())
+                            .map(variant -> toStreamLink(variant, link, url))
+                            .toList();
+                    logger.debug("Expanded master playlist {} into {} variants", link.url(), variants.size());
+                    return variants.isEmpty() ? List.of(link) : variants;
+                })
+                .exceptionally(e -> {
+                    logger.debug("Could not expand HLS playlist {}: {}", link.url(), e.getMessage());
+                    return List.of(link);
+                });
+        return Futures.cancelling(expanded, fetch);
+    }
+    
+    private static String readPlaylist(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            byte[] bytes = body.readNBytes(MAX_PLAYLIST_BYTES + 1);
+            if (bytes.length > MAX_PLAYLIST_BYTES) {
+                return null;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * @param url URL to play the variant from, or null for the variant's own playlist
+     */
+    private static StreamLink toStreamLink(HlsPlaylistParser.Variant variant, StreamLink master, String url) {
+        String quality;
+        if (variant.height() > 0) {
+            quality = variant.height() + "p";
+        } else if (variant.bandwidth() > 0) {
+            quality = variant.bandwidth() / 1000 + "kbps";
+        } else {
+            quality = master.quality();
+        }
+        return new StreamLink(url != null ? url : variant.uri(), quality, "hls", master.source(), master.isDirectLink(),
+                variant.bandwidth(), variant.width(), variant.height(), variant.codecs());
+    }
+}
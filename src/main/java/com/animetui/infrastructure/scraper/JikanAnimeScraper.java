@@ -3,42 +3,108 @@ package com.animetui.infrastructure.scraper;
 import com.animetui.domain.model.Anime;
 import com.animetui.domain.model.Episode;
 import com.animetui.domain.port.AnimeRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.animetui.domain.port.AsyncAnimeRepository;
+import com.animetui.infrastructure.cache.HttpResponseCache;
+import com.animetui.infrastructure.http.Futures;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.animetui.infrastructure.http.RateLimiter;
+import com.animetui.infrastructure.http.SingleFlight;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 /**
  * Infrastructure implementation of AnimeRepository using Jikan API.
  * Fetches anime data from MyAnimeList via the Jikan REST API.
+ * Requests are issued with HttpClient.sendAsync and post-processed on virtual threads;
+ * the blocking AnimeRepository methods simply wait on the async ones. Responses are
+ * decoded with a streaming parser that only keeps the fields the domain needs.
  */
-public class JikanAnimeScraper implements AnimeRepository {
+public class JikanAnimeScraper implements AnimeRepository, AsyncAnimeRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(JikanAnimeScraper.class);
     
+    private static final Set<String> FINISHED_STATUSES = Set.of("Finished Airing", "Completed");
+    private static final int MAX_ANIME_PAGE_SIZE = 25;
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    
     private final String baseUrl;
-    private final HttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final HttpTransport transport;
+    private final ExecutorService executor;
+    private final JsonFactory jsonFactory;
+    private final JikanJsonReader jsonReader;
+    private final HttpResponseCache responseCache;
+    private final RateLimiter rateLimiter;
+    private final int maxRetries;
     
-    public JikanAnimeScraper(String baseUrl) {
+    // Identical requests already on the wire; results are shared between callers
+    private final SingleFlight<String, Object> inFlight = new SingleFlight<>();
+    
+    // Airing status of anime seen in earlier responses, used to pick episode list TTLs
+    private final Map<String, String> knownStatus = new ConcurrentHashMap<>();
+    
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+    
+    /**
+     * @param baseUrl Jikan API base URL
+     * @param transport HTTP transport shared with the other adapters
+     * @param responseCache on-disk response cache, or null to always hit the network
+     * @param rateLimiter limiter shared by every request to the Jikan API
+     * @param maxRetries how often a rate-limited (429) request is retried
+     */
+    public JikanAnimeScraper(String baseUrl, HttpTransport transport, HttpResponseCache responseCache,
+                             RateLimiter rateLimiter, int maxRetries) {
         this.baseUrl = baseUrl != null ? baseUrl : "https://api.jikan.moe/v4";
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
-        this.objectMapper = new ObjectMapper();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.transport = transport;
+        this.jsonFactory = new JsonFactory();
+        this.jsonReader = new JikanJsonReader();
+        this.responseCache = responseCache;
+        this.rateLimiter = rateLimiter;
+        this.maxRetries = maxRetries;
+    }
+    
+    public JikanAnimeScraper(String baseUrl, HttpResponseCache responseCache) {
+        // Jikan's documented limits: 3 requests per second, 60 per minute
+        this(baseUrl, HttpTransport.shared(), responseCache, RateLimiter.perSecondAndMinute(3, 60), DEFAULT_MAX_RETRIES);
+    }
+    
+    public JikanAnimeScraper(String baseUrl) {
+        this(baseUrl, null);
     }
     
     public JikanAnimeScraper() {
@@ -47,39 +113,17 @@ public class JikanAnimeScraper implements AnimeRepository {
     
     @Override
     public List<Anime> listPopular(int limit) {
-        try {
-            String url = baseUrl + "/top/anime?limit=" + limit;
-            JsonNode response = makeRequest(url);
-            return parseAnimeList(response.get("data"));
-        } catch (Exception e) {
-            logger.error("Failed to fetch popular anime", e);
-            throw new RuntimeException("Failed to fetch popular anime", e);
-        }
+        return await(listPopularAsync(limit));
     }
     
     @Override
     public List<Anime> search(String query, int limit) {
-        try {
-            String encodedQuery = java.net.URLEncoder.encode(query, "UTF-8");
-            String url = baseUrl + "/anime?q=" + encodedQuery + "&limit=" + limit;
-            JsonNode response = makeRequest(url);
-            return parseAnimeList(response.get("data"));
-        } catch (Exception e) {
-            logger.error("Failed to search anime with query: {}", query, e);
-            throw new RuntimeException("Failed to search anime", e);
-        }
+        return await(searchAsync(query, limit));
     }
     
     @Override
     public Optional<Anime> findById(String animeId) {
-        try {
-            String url = baseUrl + "/anime/" + animeId;
-            JsonNode response = makeRequest(url);
-            return Optional.of(parseAnime(response.get("data")));
-        } catch (Exception e) {
-            logger.error("Failed to find anime by ID: {}", animeId, e);
-            return Optional.empty();
-        }
+        return await(findByIdAsync(animeId));
     }
     
     @Override
@@ -89,141 +133,385 @@ public class JikanAnimeScraper implements AnimeRepository {
     
     @Override
     public List<Episode> episodesById(String animeId) {
-        try {
-            String url = baseUrl + "/anime/" + animeId + "/episodes";
-            JsonNode response = makeRequest(url);
-            return parseEpisodeList(response.get("data"), animeId);
-        } catch (Exception e) {
-            logger.error("Failed to fetch episodes for anime ID: {}", animeId, e);
-            throw new RuntimeException("Failed to fetch episodes", e);
-        }
+        return await(episodesByIdAsync(animeId));
     }
     
     @Override
     public List<Anime> getCurrentSeason(int limit) {
+        return await(getCurrentSeasonAsync(limit));
+    }
+    
+    @Override
+    public CompletableFuture<List<Anime>> listPopularAsync(int limit) {
+        CompletableFuture<List<Anime>> pages = fetchAnimePagesAsync(baseUrl + "/top/anime", limit);
+        return Futures.cancelling(
+                pages.exceptionally(failure("Failed to fetch popular anime", "Failed to fetch popular anime")), pages);
+    }
+    
+    @Override
+    public CompletableFuture<List<Anime>> searchAsync(String query, int limit) {
+        String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
+        CompletableFuture<List<Anime>> pages = fetchAnimePagesAsync(baseUrl + "/anime?q=" + encodedQuery, limit);
+        return Futures.cancelling(pages.exceptionally(
+                failure("Failed to search anime with query: " + query, "Failed to search anime")), pages);
+    }
+    
+    @Override
+    public CompletableFuture<Optional<Anime>> findByIdAsync(String animeId) {
+        String url = baseUrl + "/anime/" + animeId;
+        CompletableFuture<Anime> details = fetchAsync(url, jsonReader::readAnimeDetails);
+        return Futures.cancelling(details
+                .thenApply(anime -> {
+                    if (anime != null) {
+                        knownStatus.put(anime.id(), anime.status());
+                    }
+                    return Optional.ofNullable(anime);
+                })
+                .exceptionally(e -> {
+                    logger.error("Failed to find anime by ID: {}", animeId, unwrap(e));
+                    return Optional.empty();
+                }), details);
+    }
+    
+    @Override
+    public CompletableFuture<List<Episode>> episodesByIdAsync(String animeId) {
+        String url = baseUrl + "/anime/" + animeId + "/episodes";
+        CompletableFuture<List<Episode>> pages = fetchPagesAsync(page -> page == 1 ? url : url + "?page=" + page,
+                parser -> jsonReader.readEpisodeList(parser, animeId), Integer.MAX_VALUE);
+        return Futures.cancelling(pages.exceptionally(
+                failure("Failed to fetch episodes for anime ID: " + animeId, "Failed to fetch episodes")), pages);
+    }
+    
+    @Override
+    public CompletableFuture<List<Anime>> getCurrentSeasonAsync(int limit) {
+        CompletableFuture<List<Anime>> pages = fetchAnimePagesAsync(baseUrl + "/seasons/now", limit);
+        return Futures.cancelling(pages.exceptionally(
+                failure("Failed to fetch current season anime", "Failed to fetch current season anime")), pages);
+    }
+    
+    /**
+     * Fetch enough pages of an anime list endpoint to satisfy the limit.
+     * Jikan caps list pages at 25 entries.
+     */
+    private CompletableFuture<List<Anime>> fetchAnimePagesAsync(String endpoint, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int perPage = Math.min(limit, MAX_ANIME_PAGE_SIZE);
+        int pages = (limit + perPage - 1) / perPage;
+        String separator = endpoint.contains("?") ? "&" : "?";
+        
+        CompletableFuture<List<Anime>> anime = fetchPagesAsync(
+                page -> endpoint + separator + "limit=" + perPage + (page > 1 ? "&page=" + page : ""),
+                jsonReader::readAnimeList, pages);
+        return Futures.cancelling(anime
+                .thenApply(items -> items.size() > limit ? items.subList(0, limit) : items)
+                .thenApply(this::rememberStatus), anime);
+    }
+    
+    /**
+     * Fetch the first page, then all remaining pages (up to maxPages) concurrently,
+     * and concatenate their items in page order.
+     */
+    private <T> CompletableFuture<List<T>> fetchPagesAsync(IntFunction<String> pageUrl,
+                                                          ResponseReader<JikanPage<T>> reader, int maxPages) {
+        return Futures.compose(fetchAsync(pageUrl.apply(1), reader), first -> {
+            int lastPage = Math.min(first.lastVisiblePage(), maxPages);
+            if (lastPage > 1) {
+                logger.debug("Fetching {} more pages from {}", lastPage - 1, pageUrl.apply(1));
+            }
+            
+            List<CompletableFuture<JikanPage<T>>> remaining = new ArrayList<>();
+            for (int page = 2; page <= lastPage; page++) {
+                remaining.add(fetchAsync(pageUrl.apply(page), reader));
+            }
+            
+            CompletableFuture<?>[] requests = remaining.toArray(CompletableFuture[]::new);
+            return Futures.cancelling(CompletableFuture.allOf(requests)
+                    .thenApply(ignored -> {
+                        List<T> items = new ArrayList<>(first.items());
+                        for (CompletableFuture<JikanPage<T>> page : remaining) {
+                            items.addAll(page.join().items());
+                        }
+                        return items;
+                    }), requests);
+        });
+    }
+    
+    /**
+     * Fetch and decode a URL. Concurrent calls for the same URL share one request
+     * and one parse; a given URL is always decoded by the same reader.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> fetchAsync(String url, ResponseReader<T> reader) {
+        return (CompletableFuture<T>) inFlight.execute(url, () -> {
+            CompletableFuture<T> fetch = fetchUncoalescedAsync(url, reader);
+            return Futures.cancelling(fetch.thenApply(Object.class::cast), fetch);
+        });
+    }
+    
+    private <T> CompletableFuture<T> fetchUncoalescedAsync(String url, ResponseReader<T> reader) {
+        // Cache lookups touch the disk, so keep them off the caller's thread too
+        return Futures.compose(CompletableFuture.supplyAsync(() -> lookupCache(url), executor), cached -> {
+            if (cached != null && cached.isFresh()) {
+                logger.debug("Serving cached response for: {}", url);
+                return CompletableFuture.completedFuture(parse(cached.body(), reader));
+            }
+            
+            return sendAsync(url, cached, reader, 0);
+        });
+    }
+    
+    /**
+     * Send a request once a rate-limit permit is available, retrying on 429.
+     * Cancelling the result cancels the HttpClient exchange underneath.
+     */
+    private <T> CompletableFuture<T> sendAsync(String url, HttpResponseCache.Entry cached,
+                                               ResponseReader<T> reader, int attempt) {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> exchange = Futures.compose(rateLimiter.acquireAsync(), permit -> {
+            long waitedMillis = (System.nanoTime() - queuedAt) / 1_000_000;
+            if (waitedMillis > 0) {
+                logger.debug("Waited {} ms for a rate limit permit: {}", waitedMillis, url);
+            }
+            logger.debug("Making request to: {}", url);
+            return transport.sendAsync(buildRequest(url, cached));
+        });
+        return Futures.compose(exchange, response -> {
+            if (response.statusCode() == 429 && attempt < maxRetries) {
+                closeQuietly(response.body());
+                Duration delay = retryDelay(response, attempt);
+                logger.warn("Rate limited by Jikan, retrying in {} ms: {}", delay.toMillis(), url);
+                
+                // Hold back every queued request, not just this one
+                rateLimiter.pause(delay);
+                return sendAsync(url, cached, reader, attempt + 1);
+            }
+            return CompletableFuture.supplyAsync(() -> handleResponse(url, cached, response, reader), executor);
+        });
+    }
+    
+    /**
+     * Delay before retrying a 429: the server's Retry-After if present, otherwise
+     * exponential backoff, plus random jitter so queued clients do not retry in lockstep.
+     */
+    private Duration retryDelay(HttpResponse<?> response, int attempt) {
+        Duration backoff = Duration.ofMillis(1000L << Math.min(attempt, 5));
+        Duration retryAfter = response.headers().firstValue("Retry-After")
+                .map(JikanAnimeScraper::parseRetryAfter)
+                .orElse(backoff);
+        long jitterMillis = ThreadLocalRandom.current().nextLong(250, 1000);
+        return retryAfter.plusMillis(jitterMillis);
+    }
+    
+    private static Duration parseRetryAfter(String value) {
         try {
-            String url = baseUrl + "/seasons/now?limit=" + limit;
-            JsonNode response = makeRequest(url);
-            return parseAnimeList(response.get("data"));
-        } catch (Exception e) {
-            logger.error("Failed to fetch current season anime", e);
-            throw new RuntimeException("Failed to fetch current season anime", e);
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration untilRetry = Duration.between(ZonedDateTime.now(), retryAt);
+                return untilRetry.isNegative() ? Duration.ZERO : untilRetry;
+            } catch (DateTimeParseException ignored) {
+                return Duration.ofSeconds(1);
+            }
         }
     }
     
-    private JsonNode makeRequest(String url) throws IOException, InterruptedException {
-        logger.debug("Making request to: {}", url);
-        
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .timeout(Duration.ofSeconds(30))
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // Nothing useful to do with a failed close of a discarded body
+        }
+    }
+    
+    /**
+     * Log how long callers have spent waiting for rate-limit permits, separate from
+     * upstream latency. Called on exit.
+     */
+    public void logRateLimitStats() {
+        RateLimiter.Stats stats = rateLimiter.stats();
+        if (stats.acquisitions() > 0) {
+            logger.info("Jikan rate limit: {} requests, {} throttled, {} ms spent waiting for permits",
+                    stats.acquisitions(), stats.throttled(), stats.totalWait().toMillis());
+        }
+    }
+    
+    private HttpResponseCache.Entry lookupCache(String url) {
+        return responseCache != null ? responseCache.get(url).orElse(null) : null;
+    }
+    
+    private HttpRequest buildRequest(String url, HttpResponseCache.Entry cached) {
+        HttpRequest.Builder requestBuilder = transport.request(url)
                 .header("Accept", "application/json")
-                .header("User-Agent", "Anime-TUI/0.1.0")
-                .GET()
-                .build();
+                .header("User-Agent", "Anime-TUI/0.1.0");
         
-        HttpResponse<String> response = httpClient.send(request, 
-                HttpResponse.BodyHandlers.ofString());
-        
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("HTTP " + response.statusCode() + ": " + response.body());
+        // Revalidate stale entries instead of downloading the body again
+        if (cached != null && cached.canRevalidate()) {
+            if (cached.etag() != null) {
+                requestBuilder.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                requestBuilder.header("If-Modified-Since", cached.lastModified());
+            }
         }
         
-        return objectMapper.readTree(response.body());
+        return requestBuilder.build();
     }
     
-    private List<Anime> parseAnimeList(JsonNode dataNode) {
-        List<Anime> animeList = new ArrayList<>();
-        
-        if (dataNode != null && dataNode.isArray()) {
-            for (JsonNode animeNode : dataNode) {
-                try {
-                    animeList.add(parseAnime(animeNode));
-                } catch (Exception e) {
-                    logger.warn("Failed to parse anime entry", e);
+    private <T> T handleResponse(String url, HttpResponseCache.Entry cached,
+                                 HttpResponse<InputStream> response, ResponseReader<T> reader) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() == 304 && cached != null) {
+                logger.debug("Cached response still valid for: {}", url);
+                responseCache.refresh(url, cached, ttlFor(url));
+                return parse(cached.body(), reader);
+            }
+            
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("HTTP " + response.statusCode() + ": " + 
+                        new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            
+            if (responseCache == null) {
+                // Nothing to keep, so decode straight off the wire
+                try (JsonParser parser = jsonFactory.createParser(body)) {
+                    return reader.read(parser);
                 }
             }
+            
+            // Decode off the wire as well, keeping a copy of the bytes for the cache
+            TeeInputStream tee = new TeeInputStream(body);
+            T result;
+            try (JsonParser parser = jsonFactory.createParser(tee)) {
+                result = reader.read(parser);
+                tee.transferTo(OutputStream.nullOutputStream());
+            }
+            responseCache.put(url, tee.copy(),
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    ttlFor(url));
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        
-        return animeList;
     }
     
-    private Anime parseAnime(JsonNode animeNode) {
-        String id = animeNode.get("mal_id").asText();
-        String title = animeNode.get("title").asText();
-        String synopsis = animeNode.has("synopsis") ? animeNode.get("synopsis").asText() : "";
-        
-        String imageUrl = null;
-        if (animeNode.has("images") && animeNode.get("images").has("jpg")) {
-            imageUrl = animeNode.get("images").get("jpg").get("image_url").asText();
-        }
+    /**
+     * Input stream that keeps a copy of every byte read through it.
+     */
+    private static final class TeeInputStream extends FilterInputStream {
         
-        int episodeCount = animeNode.has("episodes") && !animeNode.get("episodes").isNull() ? 
-                animeNode.get("episodes").asInt() : 0;
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
         
-        String status = animeNode.has("status") ? animeNode.get("status").asText() : "Unknown";
+        TeeInputStream(InputStream in) {
+            super(in);
+        }
         
-        LocalDate airingDate = null;
-        if (animeNode.has("aired") && animeNode.get("aired").has("from") && 
-            !animeNode.get("aired").get("from").isNull()) {
-            String dateStr = animeNode.get("aired").get("from").asText();
-            try {
-                airingDate = LocalDate.parse(dateStr.substring(0, 10));
-            } catch (Exception e) {
-                logger.debug("Failed to parse airing date: {}", dateStr);
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                copy.write(b);
             }
+            return b;
         }
         
-        List<String> genres = new ArrayList<>();
-        if (animeNode.has("genres") && animeNode.get("genres").isArray()) {
-            for (JsonNode genreNode : animeNode.get("genres")) {
-                genres.add(genreNode.get("name").asText());
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                copy.write(buffer, offset, n);
             }
+            return n;
         }
         
-        return new Anime(id, title, synopsis, imageUrl, episodeCount, status, airingDate, genres);
+        @Override
+        public long skip(long n) throws IOException {
+            // Route skips through read so the copy has no gaps
+            return Math.max(0, read(new byte[(int) Math.min(n, 8192)]));
+        }
+        
+        byte[] copy() {
+            return copy.toByteArray();
+        }
     }
     
-    private List<Episode> parseEpisodeList(JsonNode dataNode, String animeId) {
-        List<Episode> episodes = new ArrayList<>();
-        
-        if (dataNode != null && dataNode.isArray()) {
-            for (JsonNode episodeNode : dataNode) {
-                try {
-                    episodes.add(parseEpisode(episodeNode, animeId));
-                } catch (Exception e) {
-                    logger.warn("Failed to parse episode entry", e);
-                }
-            }
+    private <T> T parse(byte[] body, ResponseReader<T> reader) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return reader.read(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        
-        return episodes;
     }
     
-    private Episode parseEpisode(JsonNode episodeNode, String animeId) {
-        String id = animeId + "_ep_" + episodeNode.get("mal_id").asText();
-        int number = episodeNode.get("mal_id").asInt();
-        String title = episodeNode.has("title") ? episodeNode.get("title").asText() : "Episode " + number;
-        String description = episodeNode.has("synopsis") ? episodeNode.get("synopsis").asText() : "";
-        
-        int duration = 24; // Default anime episode duration
-        
-        LocalDateTime airDate = null;
-        if (episodeNode.has("aired") && !episodeNode.get("aired").isNull()) {
-            String dateStr = episodeNode.get("aired").asText();
-            try {
-                airDate = LocalDateTime.parse(dateStr, DateTimeFormatter.ISO_DATE_TIME);
-            } catch (Exception e) {
-                logger.debug("Failed to parse episode air date: {}", dateStr);
+    private List<Anime> rememberStatus(List<Anime> animeList) {
+        for (Anime anime : animeList) {
+            knownStatus.put(anime.id(), anime.status());
+        }
+        return animeList;
+    }
+    
+    /**
+     * Log a failed lookup and rethrow it with a caller-facing message.
+     */
+    private <T> Function<Throwable, T> failure(String logMessage, String message) {
+        return e -> {
+            Throwable cause = unwrap(e);
+            logger.error(logMessage, cause);
+            throw new RuntimeException(message, cause);
+        };
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+    
+    /**
+     * Block on an async lookup for the synchronous API. Interrupting the caller
+     * cancels the lookup, down to the HTTP exchange if no other caller shares it.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for Jikan response", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            throw new RuntimeException(e.getCause());
         }
+    }
+    
+    /**
+     * Pick a cache lifetime for a Jikan endpoint based on how often its data changes.
+     */
+    private Duration ttlFor(String url) {
+        String path = URI.create(url).getPath();
         
-        String thumbnailUrl = null;
-        // Jikan API doesn't provide episode thumbnails in the basic endpoint
-        
-        // We need to get the anime title - this will require a separate call or caching
-        String animeTitle = "Unknown"; // Placeholder for now
+        if (path.endsWith("/episodes")) {
+            // Episode lists of finished shows never change; airing shows gain one a week
+            String animeId = path.substring(0, path.length() - "/episodes".length());
+            animeId = animeId.substring(animeId.lastIndexOf('/') + 1);
+            String status = knownStatus.get(animeId);
+            return status != null && FINISHED_STATUSES.contains(status) ? 
+                    Duration.ofDays(7) : Duration.ofHours(6);
+        }
+        if (path.endsWith("/top/anime")) {
+            return Duration.ofHours(12);
+        }
+        if (path.endsWith("/seasons/now")) {
+            return Duration.ofHours(3);
+        }
+        if (path.matches(".*/anime/\\d+")) {
+            return Duration.ofDays(1);
+        }
         
-        return new Episode(id, animeId, animeTitle, number, title, description, duration, airDate, thumbnailUrl);
+        // Search results and anything else
+        return Duration.ofHours(1);
     }
 }
@@ -0,0 +1,277 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Anime;
+import com.animetui.domain.model.Episode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for Jikan API responses.
+ * Reads tokens straight from the response and keeps only the fields the domain
+ * records need; every other subtree (trailers, broadcast, producers, ...) is skipped
+ * without being materialised.
+ */
+class JikanJsonReader {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JikanJsonReader.class);
+    
+    /**
+     * Read one page of a list response as anime.
+     */
+    JikanPage<Anime> readAnimeList(JsonParser parser) throws IOException {
+        List<Anime> animeList = new ArrayList<>();
+        int lastVisiblePage = readData(parser, () -> {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                try {
+                    animeList.add(readAnime(parser));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Failed to parse anime entry", e);
+                }
+            }
+        });
+        return new JikanPage<>(animeList, lastVisiblePage);
+    }
+    
+    /**
+     * Read the "data" object of a single-anime response.
+     *
+     * @return the anime, or null if the response has no data object
+     */
+    Anime readAnimeDetails(JsonParser parser) throws IOException {
+        Anime[] result = new Anime[1];
+        readData(parser, () -> {
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                result[0] = readAnime(parser);
+            } else {
+                parser.skipChildren();
+            }
+        });
+        return result[0];
+    }
+    
+    /**
+     * Read one page of an episode list response.
+     */
+    JikanPage<Episode> readEpisodeList(JsonParser parser, String animeId) throws IOException {
+        List<Episode> episodes = new ArrayList<>();
+        int lastVisiblePage = readData(parser, () -> {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                try {
+                    episodes.add(readEpisode(parser, animeId));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Failed to parse episode entry", e);
+                }
+            }
+        });
+        return new JikanPage<>(episodes, lastVisiblePage);
+    }
+    
+    private interface FieldHandler {
+        void read() throws IOException;
+    }
+    
+    /**
+     * Walk the top-level envelope, handing the value of "data" to the handler.
+     *
+     * @return pagination.last_visible_page, or 1 if the response is not paginated
+     */
+    private int readData(JsonParser parser, FieldHandler dataHandler) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected JSON object at start of response");
+        }
+        
+        int lastVisiblePage = 1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("data".equals(field)) {
+                dataHandler.read();
+            } else if ("pagination".equals(field)) {
+                lastVisiblePage = readLastVisiblePage(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return lastVisiblePage;
+    }
+    
+    private int readLastVisiblePage(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return 1;
+        }
+        
+        int lastVisiblePage = 1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("last_visible_page".equals(field)) {
+                lastVisiblePage = Math.max(1, parser.getValueAsInt(1));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return lastVisiblePage;
+    }
+    
+    private Anime readAnime(JsonParser parser) throws IOException {
+        String id = null;
+        String title = null;
+        String synopsis = "";
+        String imageUrl = null;
+        int episodeCount = 0;
+        String status = "Unknown";
+        LocalDate airingDate = null;
+        List<String> genres = new ArrayList<>();
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            
+            switch (field) {
+                case "mal_id" -> id = parser.getValueAsString();
+                case "title" -> title = parser.getValueAsString();
+                case "synopsis" -> synopsis = value == JsonToken.VALUE_NULL ? "" : parser.getValueAsString();
+                case "images" -> imageUrl = readImageUrl(parser);
+                case "episodes" -> episodeCount = value == JsonToken.VALUE_NULL ? 0 : parser.getValueAsInt();
+                case "status" -> status = parser.getValueAsString("Unknown");
+                case "aired" -> airingDate = readAiredFrom(parser);
+                case "genres" -> readGenres(parser, genres);
+                default -> parser.skipChildren();
+            }
+        }
+        
+        return new Anime(id, title, synopsis, imageUrl, episodeCount, status, airingDate, genres);
+    }
+    
+    private String readImageUrl(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        
+        String imageUrl = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String format = parser.currentName();
+            parser.nextToken();
+            if ("jpg".equals(format) && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("image_url".equals(field)) {
+                        imageUrl = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return imageUrl;
+    }
+    
+    private LocalDate readAiredFrom(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        
+        LocalDate airingDate = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("from".equals(field) && value == JsonToken.VALUE_STRING) {
+                String dateStr = parser.getText();
+                try {
+                    airingDate = LocalDate.parse(dateStr.substring(0, 10));
+                } catch (Exception e) {
+                    logger.debug("Failed to parse airing date: {}", dateStr);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return airingDate;
+    }
+    
+    private void readGenres(JsonParser parser, List<String> genres) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("name".equals(field)) {
+                    genres.add(parser.getValueAsString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+    
+    private Episode readEpisode(JsonParser parser, String animeId) throws IOException {
+        int number = 0;
+        String title = null;
+        String description = "";
+        LocalDateTime airDate = null;
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            
+            switch (field) {
+                case "mal_id" -> number = parser.getValueAsInt();
+                case "title" -> title = parser.getValueAsString();
+                case "synopsis" -> description = value == JsonToken.VALUE_NULL ? "" : parser.getValueAsString();
+                case "aired" -> {
+                    if (value == JsonToken.VALUE_STRING) {
+                        String dateStr = parser.getText();
+                        try {
+                            airDate = LocalDateTime.parse(dateStr, DateTimeFormatter.ISO_DATE_TIME);
+                        } catch (Exception e) {
+                            logger.debug("Failed to parse episode air date: {}", dateStr);
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        
+        String id = animeId + "_ep_" + number;
+        if (title == null) {
+            title = "Episode " + number;
+        }
+        
+        int duration = 24; // Default anime episode duration
+        
+        // Jikan API doesn't provide episode thumbnails in the basic endpoint
+        String thumbnailUrl = null;
+        
+        // We need to get the anime title - this will require a separate call or caching
+        String animeTitle = "Unknown"; // Placeholder for now
+        
+        return new Episode(id, animeId, animeTitle, number, title, description, duration, airDate, thumbnailUrl);
+    }
+}
@@ -0,0 +1,17 @@
+package com.animetui.infrastructure.scraper;
+
+import java.util.List;
+
+/**
+ * One page of a paginated Jikan list response.
+ *
+ * @param items entries decoded from the page's "data" array
+ * @param lastVisiblePage value of pagination.last_visible_page, 1 when absent
+ */
+record JikanPage<T>(List<T> items, int lastVisiblePage) {
+    
+    JikanPage {
+        // Pages can be shared between coalesced callers, so keep them read-only
+        items = List.copyOf(items);
+    }
+}
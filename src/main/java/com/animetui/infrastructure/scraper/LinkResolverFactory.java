@@ -1,10 +1,20 @@
 package com.animetui.infrastructure.scraper;
 
+import com.animetui.domain.model.StreamLinkSelector;
 import com.animetui.domain.port.ConfigPort;
 import com.animetui.domain.port.LinkResolver;
+import com.animetui.infrastructure.cache.CachingLinkResolver;
+import com.animetui.infrastructure.cache.WatchUrlIndex;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.animetui.infrastructure.http.PolitenessScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Factory for creating LinkResolver implementations based on configuration.
  * Allows switching between different streaming sources via configuration.
@@ -14,33 +24,89 @@ public class LinkResolverFactory {
     private static final Logger logger = LoggerFactory.getLogger(LinkResolverFactory.class);
     
     public static LinkResolver create(ConfigPort config) {
+        return create(config, HttpTransport.fromConfig(config));
+    }
+    
+    public static LinkResolver create(ConfigPort config, HttpTransport transport) {
         String resolverType = config.getString("linkresolver.type", "stub");
         boolean useFallback = config.getBoolean("linkresolver.fallback.enabled", true);
+        Duration hedgeDelay = Duration.ofMillis(config.getInt("linkresolver.hedgeDelayMs", 8000));
+        // resolveBest keeps to the same bandwidth budget as playback
+        StreamLinkSelector selector = new StreamLinkSelector(config.getInt("player.maxBandwidthKbps", 0) * 1000L);
         
         logger.info("Creating LinkResolver of type: {} (fallback: {})", resolverType, useFallback);
         
-        LinkResolver primary = switch (resolverType.toLowerCase()) {
-            case "hianime" -> createHiAnimeResolver(config);
-            case "stub" -> createStubResolver();
-            default -> {
-                logger.warn("Unknown LinkResolver type '{}', falling back to stub", resolverType);
-                yield createStubResolver();
+        // Several sources may be listed; their order is only the initial preference
+        List<String> types = Arrays.stream(resolverType.toLowerCase().split(","))
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .distinct()
+                .toList();
+        
+        List<LinkResolver> sources = new ArrayList<>();
+        for (String type : types) {
+            switch (type) {
+                case "hianime" -> sources.addAll(createHiAnimeResolvers(config, transport, selector));
+                case "stub" -> { }
+                default -> logger.warn("Unknown LinkResolver type '{}', ignoring it", type);
             }
-        };
+        }
+        
+        if (sources.isEmpty()) {
+            return createStubResolver();
+        }
+        
+        // Real sources race in the order of their track record
+        LinkResolver resolver = sources.size() == 1
+                ? sources.get(0)
+                : new RacingLinkResolver(sources, hedgeDelay, ResolverScoreboard.fromConfig(config), selector);
         
-        // If fallback is enabled and we're not already using stub, wrap with fallback
-        if (useFallback && !"stub".equals(resolverType.toLowerCase())) {
-            LinkResolver fallback = createStubResolver();
-            return new FallbackLinkResolver(primary, fallback);
+        // Master playlists become one link per variant, so selection sees real bandwidths
+        if (config.getBoolean("linkresolver.hls.expandVariants", true)) {
+            resolver = new HlsVariantLinkResolver(resolver, transport, selector);
         }
         
-        return primary;
+        // Only real links are cached; a cached stub answer would hide the source once it recovers
+        resolver = withCache(resolver, config);
+        
+        // The stub always answers, so it must not race the real sources: it runs only
+        // once they have failed or found nothing
+        if (useFallback) {
+            resolver = new FallbackLinkResolver(resolver, createStubResolver(), selector);
+        }
+        
+        return resolver;
+    }
+    
+    private static LinkResolver withCache(LinkResolver resolver, ConfigPort config) {
+        if (config.getBoolean("linkresolver.cache.enabled", true)) {
+            return CachingLinkResolver.fromConfig(resolver, config);
+        }
+        return resolver;
     }
     
-    private static LinkResolver createHiAnimeResolver(ConfigPort config) {
-        String baseUrl = config.getString("linkresolver.hianime.baseUrl", "https://hianime.to");
-        logger.info("Creating HiAnime LinkResolver with base URL: {}", baseUrl);
-        return new HiAnimeLinkResolver(baseUrl);
+    /**
+     * One resolver per configured HiAnime mirror; the mirrors race each other.
+     */
+    private static List<LinkResolver> createHiAnimeResolvers(ConfigPort config, HttpTransport transport,
+                                                             StreamLinkSelector selector) {
+        List<String> baseUrls = Arrays.stream(config.getString("linkresolver.hianime.baseUrl", "https://hianime.to").split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .distinct()
+                .toList();
+        PolitenessScheduler politeness = new PolitenessScheduler(
+                Duration.ofMillis(config.getInt("linkresolver.hianime.minSpacingMs", 1000)),
+                Duration.ofMillis(config.getInt("linkresolver.hianime.maxSpacingMs", 30000)),
+                1.0);
+        WatchUrlIndex watchUrlIndex = WatchUrlIndex.fromConfig(config);
+        
+        List<LinkResolver> resolvers = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            logger.info("Creating HiAnime LinkResolver with base URL: {}", baseUrl);
+            resolvers.add(new HiAnimeLinkResolver(baseUrl, transport, watchUrlIndex, politeness, selector));
+        }
+        return resolvers;
     }
     
     private static LinkResolver createStubResolver() {
@@ -0,0 +1,214 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
+import com.animetui.domain.port.LinkResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * LinkResolver that races several resolvers instead of trying them one after another.
+ * The first resolver starts immediately; the next one is launched when the hedge
+ * delay passes without a result, or at once when a running resolver fails or comes
+ * back empty. The first non-empty result wins and every other resolver still running
+ * is cancelled, so a slow source costs at most the hedge delay. With a scoreboard,
+ * resolvers are started in order of their track record rather than configuration;
+ * the scoreboard tells them apart by {@code toString()}.
+ */
+public class RacingLinkResolver implements LinkResolver {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RacingLinkResolver.class);
+    
+    private final List<LinkResolver> resolvers;
+    private final Duration hedgeDelay;
+    private final ResolverScoreboard scoreboard;
+    private final StreamLinkSelector selector;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    /**
+     * @param resolvers resolvers in order of preference
+     * @param hedgeDelay how long a resolver may run before the next one is started too
+     * @param scoreboard records outcomes and picks the start order, or null to keep the given order
+     * @param selector picks the link returned by resolveBest
+     */
+    public RacingLinkResolver(List<LinkResolver> resolvers, Duration hedgeDelay, ResolverScoreboard scoreboard,
+                              StreamLinkSelector selector) {
+        if (resolvers == null || resolvers.isEmpty()) {
+            throw new IllegalArgumentException("At least one resolver is required");
+        }
+        this.resolvers = List.copyOf(resolvers);
+        this.hedgeDelay = hedgeDelay;
+        this.scoreboard = scoreboard;
+        this.selector = selector;
+    }
+    
+    public RacingLinkResolver(List<LinkResolver> resolvers, Duration hedgeDelay, ResolverScoreboard scoreboard) {
+        this(resolvers, hedgeDelay, scoreboard, StreamLinkSelector.unlimited());
+    }
+    
+    public RacingLinkResolver(List<LinkResolver> resolvers, Duration hedgeDelay) {
+        this(resolvers, hedgeDelay, null);
+    }
+    
+    @Override
+    public List<StreamLink> resolve(Episode episode) {
+        List<LinkResolver> candidates = resolvers.stream()
+                .filter(resolver -> resolver.canResolve(episode))
+                .toList();
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        if (scoreboard != null) {
+            candidates = scoreboard.rank(candidates, RacingLinkResolver::nameOf);
+        }
+        
+        Race race = new Race(episode, candidates);
+        race.launchNext();
+        
+        try {
+            return race.winner.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Resolving " + episode.getDisplayTitle() + " was cancelled");
+        } catch (ExecutionException e) {
+            logger.error("All link resolvers failed for episode: {}", episode.getDisplayTitle(), e.getCause());
+            throw new RuntimeException("All link resolvers failed", e.getCause());
+        } finally {
+            race.cancelRunning();
+        }
+    }
+    
+    @Override
+    public StreamLink resolveBest(Episode episode) {
+        return selector.select(resolve(episode))
+                .orElseThrow(() -> new RuntimeException(
+                        "No stream links available for episode: " + episode.getDisplayTitle()));
+    }
+    
+    @Override
+    public boolean canResolve(Episode episode) {
+        return resolvers.stream().anyMatch(resolver -> resolver.canResolve(episode));
+    }
+    
+    @Override
+    public void invalidate(Episode episode) {
+        resolvers.forEach(resolver -> resolver.invalidate(episode));
+    }
+    
+    private static String nameOf(LinkResolver resolver) {
+        return resolver.toString();
+    }
+    
+    /**
+     * State of one resolve call: which resolvers were started and how they ended.
+     */
+    private final class Race {
+        final CompletableFuture<List<StreamLink>> winner = new CompletableFuture<>();
+        final AtomicBoolean claimed = new AtomicBoolean();
+        final Episode episode;
+        final List<LinkResolver> candidates;
+        final List<Future<?>> running = new ArrayList<>();
+        int launched;
+        int finished;
+        int failed;
+        RuntimeException lastFailure;
+        
+        Race(Episode episode, List<LinkResolver> candidates) {
+            this.episode = episode;
+            this.candidates = candidates;
+        }
+        
+        synchronized void launchNext() {
+            if (winner.isDone() || launched >= candidates.size()) {
+                return;
+            }
+            
+            LinkResolver resolver = candidates.get(launched++);
+            if (launched > 1) {
+                logger.info("Hedging with resolver: {}", nameOf(resolver));
+            }
+            running.add(executor.submit(() -> run(resolver)));
+            
+            if (launched < candidates.size()) {
+                CompletableFuture.delayedExecutor(hedgeDelay.toMillis(), TimeUnit.MILLISECONDS)
+                        .execute(this::launchNext);
+            }
+        }
+        
+        private void run(LinkResolver resolver) {
+            long startedAt = System.nanoTime();
+            List<StreamLink> links = List.of();
+            RuntimeException failure = null;
+            try {
+                links = resolver.resolve(episode);
+            } catch (CancellationException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = e;
+                logger.warn("Resolver {} failed for episode: {} - {}",
+                        nameOf(resolver), episode.getDisplayTitle(), e.getMessage());
+            }
+            Duration latency = Duration.ofNanos(System.nanoTime() - startedAt);
+            
+            if (!links.isEmpty()) {
+                // Claim the win before completing, so the score is in by the time the caller has the links
+                boolean won = !winner.isDone() && claimed.compareAndSet(false, true);
+                record(resolver, won ? ResolverScoreboard.Outcome.SUCCESS : ResolverScoreboard.Outcome.CANCELLED, latency);
+                if (won) {
+                    logger.info("Resolver {} won with {} links for episode: {}",
+                            nameOf(resolver), links.size(), episode.getDisplayTitle());
+                    winner.complete(links);
+                }
+                return;
+            }
+            
+            if (winner.isDone() || failure instanceof CancellationException) {
+                // Cancelled or outrun; its empty answer says nothing about the source
+                record(resolver, ResolverScoreboard.Outcome.CANCELLED, latency);
+            } else {
+                record(resolver, failure != null ? ResolverScoreboard.Outcome.FAILURE : ResolverScoreboard.Outcome.EMPTY, latency);
+            }
+            finishedWithoutLinks(failure);
+        }
+        
+        private void record(LinkResolver resolver, ResolverScoreboard.Outcome outcome, Duration latency) {
+            if (scoreboard != null) {
+                scoreboard.record(nameOf(resolver), outcome, latency);
+            }
+        }
+        
+        private synchronized void finishedWithoutLinks(RuntimeException failure) {
+            finished++;
+            if (failure != null) {
+                failed++;
+                lastFailure = failure;
+            }
+            
+            if (finished < candidates.size()) {
+                // Nothing to wait for on this one, so don't sit out the hedge delay
+                launchNext();
+            } else if (failed == finished) {
+                winner.completeExceptionally(lastFailure);
+            } else {
+                winner.complete(List.of());
+            }
+        }
+        
+        synchronized void cancelRunning() {
+            running.forEach(future -> future.cancel(true));
+        }
+    }
+}
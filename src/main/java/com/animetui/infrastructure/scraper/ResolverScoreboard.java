@@ -0,0 +1,271 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.port.ConfigPort;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Track record of each link resolver: how often it produced links, came back empty
+ * or failed, and how long it took. Used to decide which source to try first with a
+ * discounted UCB1 bandit: older outcomes fade, so a source that starts failing loses
+ * its place quickly, while rarely tried sources still get an occasional chance.
+ * Persisted as JSON so the ranking survives restarts; writes are batched off the
+ * resolve path and flushed on exit.
+ */
+public class ResolverScoreboard {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ResolverScoreboard.class);
+    
+    // Weight kept by past outcomes each time a new one is recorded for the same resolver
+    private static final double DISCOUNT = 0.95;
+    private static final int LATENCY_SAMPLES = 50;
+    // Outcomes recorded within this window are written to disk together
+    private static final long SAVE_DELAY_MS = 5000;
+    
+    /**
+     * How a resolve attempt ended.
+     */
+    public enum Outcome {
+        SUCCESS,
+        EMPTY,
+        FAILURE,
+        /** Still running when another resolver won. */
+        CANCELLED
+    }
+    
+    /**
+     * Summary of a resolver's recent behaviour.
+     */
+    public record Stats(double attempts, double successRate, double emptyRate, double failureRate,
+                        Duration p50Latency, Duration p95Latency) {
+    }
+    
+    private static final class Score {
+        double attempts;
+        double successes;
+        double empties;
+        double failures;
+        double reward;
+        final long[] latencies = new long[LATENCY_SAMPLES];
+        int latencyCount;
+        int latencyNext;
+        
+        void addLatency(long millis) {
+            latencies[latencyNext] = millis;
+            latencyNext = (latencyNext + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+        }
+        
+        Duration percentile(double p) {
+            if (latencyCount == 0) {
+                return Duration.ZERO;
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(p * latencyCount) - 1;
+            return Duration.ofMillis(sorted[Math.max(0, index)]);
+        }
+    }
+    
+    private final Path file;
+    private final Duration latencyScale;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Score> scores = new HashMap<>();
+    private final Object writeLock = new Object();
+    private boolean saveScheduled;
+    
+    /**
+     * @param file where the scores are persisted, or null to keep them in memory only
+     * @param latencyScale latency at which a successful resolve earns half the reward
+     */
+    public ResolverScoreboard(Path file, Duration latencyScale) {
+        this.file = file;
+        this.latencyScale = latencyScale;
+        load();
+    }
+    
+    /**
+     * Create a scoreboard stored in cache.directory, or an in-memory one when caching is disabled.
+     */
+    public static ResolverScoreboard fromConfig(ConfigPort config) {
+        Duration latencyScale = Duration.ofMillis(config.getInt("linkresolver.hedgeDelayMs", 8000));
+        if (!config.getBoolean("cache.enabled", false)) {
+            return new ResolverScoreboard(null, latencyScale);
+        }
+        Path root = Path.of(config.getString("cache.directory", ".animetui-cache"));
+        ResolverScoreboard scoreboard = new ResolverScoreboard(root.resolve("resolver-scores.json"), latencyScale);
+        // Saves are batched, so the last few outcomes are still pending at exit
+        Runtime.getRuntime().addShutdownHook(new Thread(scoreboard::save, "resolver-scores-save"));
+        return scoreboard;
+    }
+    
+    /**
+     * Record the outcome of one resolve attempt.
+     */
+    public synchronized void record(String resolver, Outcome outcome, Duration latency) {
+        if (outcome == Outcome.CANCELLED) {
+            // Lost the race: says nothing about the source, so it neither counts nor fades the record
+            return;
+        }
+        Score score = scores.computeIfAbsent(resolver, name -> new Score());
+        score.attempts = score.attempts * DISCOUNT + 1;
+        score.successes *= DISCOUNT;
+        score.empties *= DISCOUNT;
+        score.failures *= DISCOUNT;
+        score.reward *= DISCOUNT;
+        
+        switch (outcome) {
+            case SUCCESS -> {
+                score.successes += 1;
+                // Fast answers are worth more than slow ones, but any answer beats none
+                score.reward += 1.0 / (1.0 + (double) latency.toMillis() / Math.max(1, latencyScale.toMillis()));
+                score.addLatency(latency.toMillis());
+            }
+            case EMPTY -> {
+                score.empties += 1;
+                score.addLatency(latency.toMillis());
+            }
+            case FAILURE -> score.failures += 1;
+            case CANCELLED -> { }
+        }
+        scheduleSave();
+    }
+    
+    /**
+     * Order items so the most promising resolver comes first. Resolvers never tried
+     * come before all others so every source gets measured.
+     */
+    public synchronized <T> List<T> rank(List<T> items, Function<T, String> nameOf) {
+        double totalAttempts = 0;
+        for (T item : items) {
+            Score score = scores.get(nameOf.apply(item));
+            totalAttempts += score != null ? score.attempts : 0;
+        }
+        
+        Map<T, Double> priority = new HashMap<>();
+        for (T item : items) {
+            priority.put(item, ucb(scores.get(nameOf.apply(item)), totalAttempts));
+        }
+        
+        List<T> ranked = new ArrayList<>(items);
+        // Stable sort: ties keep the configured order
+        ranked.sort(Comparator.comparingDouble((T item) -> priority.get(item)).reversed());
+        return ranked;
+    }
+    
+    public synchronized Stats stats(String resolver) {
+        Score score = scores.get(resolver);
+        if (score == null || score.attempts == 0) {
+            return new Stats(0, 0, 0, 0, Duration.ZERO, Duration.ZERO);
+        }
+        return new Stats(score.attempts,
+                score.successes / score.attempts,
+                score.empties / score.attempts,
+                score.failures / score.attempts,
+                score.percentile(0.50),
+                score.percentile(0.95));
+    }
+    
+    private static double ucb(Score score, double totalAttempts) {
+        if (score == null || score.attempts < 1e-9) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double meanReward = score.reward / score.attempts;
+        double exploration = Math.sqrt(2 * Math.log(Math.max(1, totalAttempts)) / score.attempts);
+        return meanReward + exploration;
+    }
+    
+    private void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(file.toFile());
+            root.fields().forEachRemaining(entry -> {
+                JsonNode node = entry.getValue();
+                Score score = new Score();
+                score.attempts = node.path("attempts").asDouble();
+                score.successes = node.path("successes").asDouble();
+                score.empties = node.path("empties").asDouble();
+                score.failures = node.path("failures").asDouble();
+                score.reward = node.path("reward").asDouble();
+                for (JsonNode latency : node.path("latenciesMs")) {
+                    score.addLatency(latency.asLong());
+                }
+                scores.put(entry.getKey(), score);
+            });
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable resolver scores {}", file, e);
+        }
+    }
+    
+    private void scheduleSave() {
+        if (file == null || saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        CompletableFuture.delayedExecutor(SAVE_DELAY_MS, TimeUnit.MILLISECONDS).execute(this::save);
+    }
+    
+    /**
+     * Write the scores to disk now.
+     */
+    public void save() {
+        if (file == null) {
+            return;
+        }
+        ObjectNode root;
+        synchronized (this) {
+            saveScheduled = false;
+            root = snapshot();
+        }
+        synchronized (writeLock) {
+            try {
+                Files.createDirectories(file.getParent());
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                objectMapper.writeValue(tmp.toFile(), root);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.warn("Failed to save resolver scores {}", file, e);
+            }
+        }
+    }
+    
+    private ObjectNode snapshot() {
+        ObjectNode root = objectMapper.createObjectNode();
+        scores.forEach((name, score) -> {
+            ObjectNode node = root.putObject(name);
+            node.put("attempts", score.attempts);
+            node.put("successes", score.successes);
+            node.put("empties", score.empties);
+            node.put("failures", score.failures);
+            node.put("reward", score.reward);
+            ArrayNode latencies = node.putArray("latenciesMs");
+            // Oldest first, so reloading keeps the ring buffer order
+            for (int i = 0; i < score.latencyCount; i++) {
+                int index = (score.latencyNext - score.latencyCount + i + LATENCY_SAMPLES) % LATENCY_SAMPLES;
+                latencies.add(score.latencies[index]);
+            }
+        });
+        return root;
+    }
+}
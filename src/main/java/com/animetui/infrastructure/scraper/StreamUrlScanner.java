@@ -0,0 +1,257 @@
+package com.animetui.infrastructure.scraper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Single-pass scanner for stream URLs and embedded state in page scripts.
+ * An Aho-Corasick automaton over the anchors ".m3u8", ".mp4", ".ts" and "__NUXT__"
+ * walks the text once, case-insensitively and without copying it. Each extension
+ * hit is widened to the quoted URL around it. A "__NUXT__" hit is followed to the
+ * exact object or array literal assigned to it, so only that region is handed to
+ * a JSON parser. The same automaton, with a "stream" anchor added, vets single
+ * candidate URLs from attributes and JSON values without lowercasing them.
+ */
+final class StreamUrlScanner {
+    
+    /**
+     * Everything found in one scan.
+     *
+     * @param urls stream URL candidates in document order, without duplicates
+     * @param jsonRegions object or array literals assigned to __NUXT__
+     */
+    record Result(List<String> urls, List<String> jsonRegions) {
+    }
+    
+    private static final String NUXT = "__nuxt__";
+    // Only counts when vetting a single candidate, not when scanning scripts
+    private static final String STREAM = "stream";
+    private static final String[] ANCHORS = { ".m3u8", ".mp4", ".ts", NUXT, STREAM };
+    private static final int ALPHABET = 128;
+    
+    // Full DFA: next state for every (state, ASCII char), failure links folded in
+    private static final int[][] TRANSITIONS;
+    // Index into ANCHORS of the anchor ending at a state, or -1
+    private static final int[] MATCHES;
+    
+    static {
+        List<int[]> gotos = new ArrayList<>();
+        List<Integer> matches = new ArrayList<>();
+        gotos.add(newRow());
+        matches.add(-1);
+        
+        for (int anchor = 0; anchor < ANCHORS.length; anchor++) {
+            int state = 0;
+            for (char c : ANCHORS[anchor].toCharArray()) {
+                if (gotos.get(state)[c] < 0) {
+                    gotos.get(state)[c] = gotos.size();
+                    gotos.add(newRow());
+                    matches.add(-1);
+                }
+                state = gotos.get(state)[c];
+            }
+            matches.set(state, anchor);
+        }
+        
+        int[][] transitions = gotos.toArray(int[][]::new);
+        int[] found = matches.stream().mapToInt(Integer::intValue).toArray();
+        int[] fail = new int[transitions.length];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            if (transitions[0][c] < 0) {
+                transitions[0][c] = 0;
+            } else {
+                queue.add(transitions[0][c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            if (found[state] < 0) {
+                found[state] = found[fail[state]];
+            }
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[fail[state]][c];
+                } else {
+                    fail[next] = transitions[fail[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+        
+        TRANSITIONS = transitions;
+        MATCHES = found;
+    }
+    
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+    
+    private StreamUrlScanner() {
+    }
+    
+    /**
+     * Scan text for stream URLs and __NUXT__ state in one linear pass.
+     */
+    static Result scan(CharSequence text) {
+        List<String> urls = new ArrayList<>();
+        List<String> jsonRegions = new ArrayList<>();
+        int lastUrlEnd = -1;
+        int state = 0;
+        
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= ALPHABET) {
+                state = 0;
+                continue;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            state = TRANSITIONS[state][c];
+            
+            int anchor = MATCHES[state];
+            if (anchor < 0 || ANCHORS[anchor] == STREAM) {
+                continue;
+            }
+            
+            if (ANCHORS[anchor] == NUXT) {
+                int[] region = jsonRegionAfter(text, i + 1);
+                if (region != null) {
+                    jsonRegions.add(text.subSequence(region[0], region[1]).toString());
+                }
+            } else if (i >= lastUrlEnd && (i + 1 == length || !isWordChar(text.charAt(i + 1)))) {
+                int start = urlStart(text, i - ANCHORS[anchor].length());
+                int end = urlEnd(text, i + 1);
+                if (isUrlStart(text, start)) {
+                    // Script literals often escape slashes as \/
+                    String url = text.subSequence(start, end).toString().replace("\\/", "/");
+                    if (!urls.contains(url)) {
+                        urls.add(url);
+                    }
+                    lastUrlEnd = end;
+                }
+            }
+        }
+        
+        return new Result(urls, jsonRegions);
+    }
+    
+    /**
+     * Check whether a single candidate looks like a stream URL: absolute or
+     * protocol-relative, and mentioning a stream extension or "stream" anywhere.
+     * Case is ignored without copying the candidate.
+     */
+    static boolean isStreamUrl(CharSequence candidate) {
+        if (!isUrlStart(candidate, 0)) {
+            return false;
+        }
+        
+        int state = 0;
+        int length = candidate.length();
+        for (int i = 0; i < length; i++) {
+            char c = candidate.charAt(i);
+            if (c >= ALPHABET) {
+                state = 0;
+                continue;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            state = TRANSITIONS[state][c];
+            
+            int anchor = MATCHES[state];
+            if (anchor >= 0 && ANCHORS[anchor] != NUXT) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+    
+    private static boolean isDelimiter(char c) {
+        return c == '"' || c == '\'' || c == '`' || c == '(' || c == ')' || c == '<' || c == '>'
+                || c == ',' || c == ';' || Character.isWhitespace(c);
+    }
+    
+    private static int urlStart(CharSequence text, int from) {
+        int start = from;
+        while (start >= 0 && !isDelimiter(text.charAt(start))) {
+            start--;
+        }
+        return start + 1;
+    }
+    
+    private static int urlEnd(CharSequence text, int from) {
+        int end = from;
+        while (end < text.length() && !isDelimiter(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+    
+    private static boolean isUrlStart(CharSequence text, int start) {
+        return startsWithIgnoreCase(text, start, "http") || startsWithIgnoreCase(text, start, "//");
+    }
+    
+    private static boolean startsWithIgnoreCase(CharSequence text, int start, String prefix) {
+        if (start + prefix.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Find the object or array literal assigned right after a __NUXT__ anchor.
+     *
+     * @return start and end (exclusive) of the literal, or null if none follows
+     */
+    private static int[] jsonRegionAfter(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && (Character.isWhitespace(text.charAt(i)) || text.charAt(i) == '=')) {
+            i++;
+        }
+        if (i >= text.length() || (text.charAt(i) != '{' && text.charAt(i) != '[')) {
+            return null;
+        }
+        
+        int start = i;
+        int depth = 0;
+        boolean inString = false;
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return new int[] { start, i + 1 };
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.animetui.adapter.tui;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLoopTest {
+    
+    @Test
+    void shouldInterruptBlockingTaskWhenUserCancels() throws IOException, InterruptedException {
+        // Given
+        PipedOutputStream keyboard = new PipedOutputStream();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        
+        try (EventLoop loop = new EventLoop(Terminal.reading(new PipedInputStream(keyboard)))) {
+            Thread typist = new Thread(() -> {
+                try {
+                    started.await();
+                    keyboard.write(0x03);  // Ctrl-C
+                    keyboard.flush();
+                } catch (InterruptedException | IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            typist.start();
+            
+            // When: a call that only ends when its thread is interrupted, like a blocked lookup
+            Optional<String> result = loop.await(null, "Loading", () -> {
+                started.countDown();
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "too late";
+            });
+            
+            // Then
+            assertTrue(result.isEmpty());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            typist.join();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.animetui.adapter.tui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameTest {
+    
+    private static Frame frame(String... rows) {
+        Frame frame = new Frame(3, 10);
+        for (int row = 0; row < rows.length; row++) {
+            frame.draw(row, List.of(Span.plain(rows[row])));
+        }
+        return frame;
+    }
+    
+    @Test
+    void shouldWriteNothingWhenFramesAreEqual() {
+        // Given
+        Frame previous = frame("Episode 1", "Episode 2");
+        Frame next = frame("Episode 1", "Episode 2");
+        
+        // When
+        String diff = next.diff(previous);
+        
+        // Then
+        assertFalse(diff.contains("Episode"));
+        assertFalse(diff.contains("\u001B[2J"));
+    }
+    
+    @Test
+    void shouldWriteOnlyChangedCells() {
+        // Given
+        Frame previous = frame("Episode 1", "Episode 2");
+        Frame next = frame("Episode 1", "Episode 3");
+        
+        // When
+        String diff = next.diff(previous);
+        
+        // Then
+        assertTrue(diff.contains("\u001B[2;9H" + Span.Style.RESET + "3"));
+        assertFalse(diff.contains("Episode"));
+    }
+    
+    @Test
+    void shouldRepaintWhenSizeChanges() {
+        // Given
+        Frame previous = new Frame(2, 10);
+        Frame next = frame("Episode 1");
+        
+        // When
+        String diff = next.diff(previous);
+        
+        // Then
+        assertTrue(diff.startsWith("\u001B[H\u001B[2J"));
+        assertTrue(diff.contains("Episode"));
+    }
+    
+    @Test
+    void shouldCutOffAtTheRightEdgeAndCountWideCharacters() {
+        // Given
+        Frame frame = new Frame(1, 5);
+        
+        // When
+        int end = frame.draw(0, List.of(Span.plain("進撃の巨人")));
+        
+        // Then
+        assertEquals(4, end);
+        assertEquals(2, Frame.width('進'));
+    }
+    
+    @Test
+    void shouldSoftWrapLongLinesKeepingStylesAndWideCharacters() {
+        // Given
+        List<Span> line = List.of(Span.of("Title: ", Span.Style.BOLD), Span.plain("進撃の巨人 Season 2"));
+        
+        // When
+        List<List<Span>> rows = Frame.wrap(line, 10);
+        
+        // Then: a wide character that would straddle the edge starts the next row
+        assertEquals(List.of(
+                List.of(Span.of("Title: ", Span.Style.BOLD), Span.plain("進")),
+                List.of(Span.plain("撃の巨人 S")),
+                List.of(Span.plain("eason 2"))), rows);
+        assertEquals(List.of(List.of()), Frame.wrap(List.of(), 10));
+    }
+}
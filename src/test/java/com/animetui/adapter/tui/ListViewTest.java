@@ -0,0 +1,75 @@
+package com.animetui.adapter.tui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListViewTest {
+    
+    private static List<Integer> numbers(int from, int count) {
+        return IntStream.range(from, from + count).boxed().toList();
+    }
+    
+    @Test
+    void shouldFormatOnlyVisibleRows() {
+        // Given
+        AtomicInteger formatted = new AtomicInteger();
+        ListView<Integer> list = new ListView<>(numbers(1, 100_000), item -> {
+            formatted.incrementAndGet();
+            return "Episode " + item;
+        }, null);
+        list.resize(20);
+        
+        // When
+        List<List<Span>> rows = list.render();
+        
+        // Then
+        assertEquals(20, rows.size());
+        assertEquals(20, formatted.get());
+        assertEquals("1-20 of 100000", list.position());
+    }
+    
+    @Test
+    void shouldPageAndKeepSelectionInView() {
+        // Given
+        ListView<Integer> list = new ListView<>(numbers(1, 50), String::valueOf, null);
+        list.resize(10);
+        
+        // When
+        list.pageDown();
+        list.pageDown();
+        
+        // Then
+        assertEquals(20, list.selected());
+        assertEquals(20, list.top());
+        
+        // When
+        list.end();
+        list.pageUp();
+        
+        // Then
+        assertEquals(39, list.selected());
+        assertEquals(30, list.top());
+    }
+    
+    @Test
+    void shouldJumpToItemByItsOwnNumber() {
+        // Given: episodes numbered from 101
+        ListView<Integer> list = new ListView<>(numbers(101, 500), String::valueOf, Integer::intValue);
+        list.resize(10);
+        
+        // When
+        boolean found = list.jumpTo(350);
+        boolean missing = list.jumpTo(7);
+        
+        // Then
+        assertTrue(found);
+        assertFalse(missing);
+        assertEquals(249, list.selected());
+        assertTrue(list.top() <= 249 && 249 < list.top() + 10);
+    }
+}
@@ -0,0 +1,71 @@
+package com.animetui.application;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.LinkProbe;
+import com.animetui.domain.port.LinkResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NextEpisodePreResolverTest {
+    
+    @Mock
+    private LinkResolver linkResolver;
+    
+    private NextEpisodePreResolver preResolver;
+    
+    @BeforeEach
+    void setUp() {
+        preResolver = new NextEpisodePreResolver(linkResolver, LinkProbe.none(), 1, Duration.ZERO);
+    }
+    
+    private static Episode episode(String animeId, int number) {
+        return new Episode(animeId + "-" + number, animeId, "Show " + animeId, number, "Episode " + number,
+                null, 24, null, null);
+    }
+    
+    @Test
+    void shouldServeNextEpisodeFromBackgroundResolution() {
+        // Given
+        Episode next = episode("1", 2);
+        List<StreamLink> links = List.of(new StreamLink("https://cdn.example.com/2.m3u8", "720p", "hls", "test", true));
+        when(linkResolver.resolve(next)).thenReturn(links);
+        
+        // When
+        preResolver.preResolve(List.of(next, episode("1", 3)));
+        verify(linkResolver, timeout(1000)).resolve(next);
+        Optional<List<StreamLink>> taken = preResolver.take(next);
+        
+        // Then
+        assertEquals(Optional.of(links), taken);
+        verify(linkResolver, never()).resolve(episode("1", 3));
+        assertTrue(preResolver.take(next).isEmpty());
+    }
+    
+    @Test
+    void shouldDropPreparedLinksWhenLeavingTheShow() {
+        // Given
+        Episode next = episode("1", 2);
+        when(linkResolver.resolve(next)).thenReturn(
+                List.of(new StreamLink("https://cdn.example.com/2.m3u8", "720p", "hls", "test", true)));
+        preResolver.preResolve(List.of(next));
+        verify(linkResolver, timeout(1000)).resolve(next);
+        
+        // When
+        preResolver.cancel();
+        
+        // Then
+        assertTrue(preResolver.take(next).isEmpty());
+    }
+}
@@ -0,0 +1,105 @@
+package com.animetui.application;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
+import com.animetui.domain.port.EpisodeDownloader;
+import com.animetui.domain.port.LinkProbe;
+import com.animetui.domain.port.LinkResolver;
+import com.animetui.domain.port.MediaPlayerPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlayEpisodeUseCaseTest {
+    
+    @Mock
+    private LinkResolver linkResolver;
+    
+    @Mock
+    private MediaPlayerPort mediaPlayer;
+    
+    private PlayEpisodeUseCase useCase;
+    private MediaPlayerPort.PlaybackListener listener;
+    
+    private final Episode episode = new Episode("ep-1", "1", "Show", 1, "Episode 1", null, 24, null, null);
+    private final StreamLink link = new StreamLink("https://cdn.example.com/1.m3u8?expires=1", "720p", "hls", "test", true);
+    
+    @BeforeEach
+    void setUp() {
+        useCase = new PlayEpisodeUseCase(linkResolver, mediaPlayer);
+        ArgumentCaptor<MediaPlayerPort.PlaybackListener> captor = ArgumentCaptor.forClass(MediaPlayerPort.PlaybackListener.class);
+        verify(mediaPlayer).addPlaybackListener(captor.capture());
+        listener = captor.getValue();
+        
+        lenient().when(mediaPlayer.isAvailable()).thenReturn(true);
+        lenient().when(linkResolver.resolve(any())).thenReturn(List.of(link));
+    }
+    
+    @Test
+    void shouldInvalidateLinksWhenPlayerCannotOpenStream() {
+        // Given
+        useCase.execute(episode);
+        
+        // When
+        listener.ended(link.url(), MediaPlayerPort.PlaybackEnd.FAILED);
+        
+        // Then
+        verify(mediaPlayer).play(link);
+        verify(linkResolver).invalidate(episode);
+    }
+    
+    @Test
+    void shouldKeepLinksWhenStreamPlayedOrWasStopped() {
+        // Given
+        useCase.execute(episode);
+        
+        // When
+        listener.ended(link.url(), MediaPlayerPort.PlaybackEnd.STOPPED);
+        listener.ended("https://other.example/2.m3u8", MediaPlayerPort.PlaybackEnd.FAILED);
+        
+        // Then
+        verify(linkResolver, never()).invalidate(any());
+    }
+    
+    @Test
+    void shouldMarkDownloadedEpisodeWatchedOnlyOnceItPlayedToTheEnd() {
+        // Given
+        MediaPlayerPort player = mock(MediaPlayerPort.class);
+        EpisodeDownloader downloader = mock(EpisodeDownloader.class);
+        StreamLink local = new StreamLink("/downloads/ep-1/episode.mp4", "720p", "mp4", "download", true);
+        when(player.isAvailable()).thenReturn(true);
+        when(downloader.localCopy(episode)).thenReturn(Optional.of(local));
+        PlayEpisodeUseCase offline = new PlayEpisodeUseCase(linkResolver, player, StreamLinkSelector.unlimited(),
+                LinkProbe.none(), new NextEpisodePreResolver(linkResolver, LinkProbe.none(), 0, Duration.ZERO), downloader);
+        ArgumentCaptor<MediaPlayerPort.PlaybackListener> captor = ArgumentCaptor.forClass(MediaPlayerPort.PlaybackListener.class);
+        verify(player).addPlaybackListener(captor.capture());
+        
+        // When: started, then stopped halfway
+        offline.execute(episode);
+        
+        // Then
+        verify(player).play(local);
+        verify(downloader, never()).markWatched(any());
+        
+        // When: watched to the end the second time
+        captor.getValue().ended(local.url(), MediaPlayerPort.PlaybackEnd.STOPPED);
+        verify(downloader, never()).markWatched(any());
+        offline.execute(episode);
+        captor.getValue().ended(local.url(), MediaPlayerPort.PlaybackEnd.FINISHED);
+        
+        // Then
+        verify(downloader).markWatched(episode);
+    }
+}
@@ -0,0 +1,109 @@
+package com.animetui.application;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
+import com.animetui.domain.port.LinkProbe;
+import com.animetui.domain.port.LinkResolver;
+import com.animetui.domain.port.MediaPlayerPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlayPlaylistUseCaseTest {
+    
+    @Mock
+    private LinkResolver linkResolver;
+    
+    @Mock
+    private MediaPlayerPort mediaPlayer;
+    
+    private PlayPlaylistUseCase useCase;
+    
+    @BeforeEach
+    void setUp() {
+        useCase = new PlayPlaylistUseCase(linkResolver, mediaPlayer, StreamLinkSelector.unlimited(), LinkProbe.none(), 1);
+    }
+    
+    private static Episode episode(int number) {
+        return new Episode("ep-" + number, "1", "Show", number, "Episode " + number, null, 24, null, null);
+    }
+    
+    @Test
+    void shouldQueueEpisodesOnlyWithinLookaheadOfPlayhead() {
+        // Given
+        List<Episode> episodes = IntStream.rangeClosed(1, 4).mapToObj(PlayPlaylistUseCaseTest::episode).toList();
+        when(mediaPlayer.isAvailable()).thenReturn(true);
+        when(linkResolver.resolve(any())).thenAnswer(invocation -> {
+            Episode episode = invocation.getArgument(0);
+            return List.of(new StreamLink("https://cdn.example.com/" + episode.number() + ".mp4", "720p", "mp4", "test", true));
+        });
+        when(mediaPlayer.playlistPosition()).thenReturn(0);
+        ArgumentCaptor<MediaPlayerPort.PlaybackListener> listener = ArgumentCaptor.forClass(MediaPlayerPort.PlaybackListener.class);
+        verify(mediaPlayer).addPlaybackListener(listener.capture());
+        
+        // When
+        useCase.execute(episodes);
+        
+        // Then
+        verify(mediaPlayer).play(any(StreamLink.class));
+        verify(mediaPlayer, timeout(1000)).enqueue(any());
+        verify(linkResolver, after(300).times(2)).resolve(any());
+        
+        // When the first episode ends, the second starts and the third may be queued
+        listener.getValue().ended("https://cdn.example.com/1.mp4", MediaPlayerPort.PlaybackEnd.FINISHED);
+        
+        // Then
+        verify(mediaPlayer, timeout(3000).times(2)).enqueue(any());
+        useCase.cancel();
+    }
+    
+    @Test
+    void shouldStopQueueingWhenPlaybackStops() {
+        // Given
+        List<Episode> episodes = IntStream.rangeClosed(1, 4).mapToObj(PlayPlaylistUseCaseTest::episode).toList();
+        when(mediaPlayer.isAvailable()).thenReturn(true);
+        when(linkResolver.resolve(any())).thenAnswer(invocation -> {
+            Episode episode = invocation.getArgument(0);
+            return List.of(new StreamLink("https://cdn.example.com/" + episode.number() + ".mp4", "720p", "mp4", "test", true));
+        });
+        AtomicInteger position = new AtomicInteger(0);
+        when(mediaPlayer.playlistPosition()).thenAnswer(invocation -> position.get());
+        ArgumentCaptor<MediaPlayerPort.PlaybackListener> listener = ArgumentCaptor.forClass(MediaPlayerPort.PlaybackListener.class);
+        verify(mediaPlayer).addPlaybackListener(listener.capture());
+        useCase.execute(episodes);
+        verify(mediaPlayer, timeout(1000)).enqueue(any());
+        
+        // When
+        position.set(-1);
+        listener.getValue().ended("https://cdn.example.com/1.mp4", MediaPlayerPort.PlaybackEnd.STOPPED);
+        
+        // Then
+        verify(mediaPlayer, after(300).times(1)).enqueue(any());
+        verify(linkResolver, times(2)).resolve(any());
+    }
+    
+    @Test
+    void shouldFailWhenFirstEpisodeCannotBeResolved() {
+        // Given
+        when(mediaPlayer.isAvailable()).thenReturn(true);
+        when(linkResolver.resolve(any())).thenReturn(List.of());
+        
+        // When / Then
+        assertThrows(RuntimeException.class, () -> useCase.execute(List.of(episode(1), episode(2))));
+        verify(mediaPlayer, never()).play(any(StreamLink.class));
+        verify(linkResolver).invalidate(episode(1));
+    }
+}
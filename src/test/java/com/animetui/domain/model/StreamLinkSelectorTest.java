@@ -0,0 +1,53 @@
+package com.animetui.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamLinkSelectorTest {
+    
+    private static StreamLink variant(int height, long bandwidth) {
+        return new StreamLink("https://cdn.example.com/" + height + ".m3u8", height + "p", "hls", "test", true,
+                bandwidth, height * 16 / 9, height, null);
+    }
+    
+    @Test
+    void shouldPickRichestVariantWithinBudget() {
+        // Given
+        List<StreamLink> links = List.of(variant(1080, 5_000_000), variant(720, 2_800_000), variant(360, 800_000));
+        
+        // When
+        StreamLink selected = new StreamLinkSelector(3_000_000).select(links).orElseThrow();
+        
+        // Then
+        assertEquals(720, selected.height());
+    }
+    
+    @Test
+    void shouldPickLeanestVariantWhenNoneFits() {
+        // Given
+        List<StreamLink> links = List.of(variant(1080, 5_000_000), variant(720, 2_800_000));
+        
+        // When
+        StreamLink selected = new StreamLinkSelector(1_000_000).select(links).orElseThrow();
+        
+        // Then
+        assertEquals(720, selected.height());
+    }
+    
+    @Test
+    void shouldFallBackToQualityLabelsWithoutBandwidth() {
+        // Given
+        List<StreamLink> links = List.of(
+                new StreamLink("https://a.example.com/a.mp4", "480p", "mp4", "test", true),
+                new StreamLink("https://a.example.com/b.mp4", "720p", "mp4", "test", true));
+        
+        // When
+        StreamLink selected = StreamLinkSelector.unlimited().select(links).orElseThrow();
+        
+        // Then
+        assertEquals("720p", selected.quality());
+    }
+}
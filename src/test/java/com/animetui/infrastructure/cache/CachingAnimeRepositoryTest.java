@@ -0,0 +1,40 @@
+package com.animetui.infrastructure.cache;
+
+import com.animetui.domain.model.Anime;
+import com.animetui.domain.port.AnimeRepository;
+import com.animetui.domain.port.AsyncAnimeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingAnimeRepositoryTest {
+    
+    private interface Repository extends AnimeRepository, AsyncAnimeRepository {
+    }
+    
+    @Test
+    void shouldCancelLoadWhenCallerCancels() {
+        // Given: a lookup still waiting on the source
+        Repository source = mock(Repository.class);
+        CompletableFuture<List<Anime>> search = new CompletableFuture<>();
+        CompletableFuture<Optional<Anime>> details = new CompletableFuture<>();
+        when(source.searchAsync("naruto", 10)).thenReturn(search);
+        when(source.findByIdAsync("20")).thenReturn(details);
+        CachingAnimeRepository repository = new CachingAnimeRepository(source, 100,
+                Duration.ofMinutes(5), Duration.ofHours(1));
+        
+        // When
+        repository.searchAsync("naruto", 10).cancel(true);
+        repository.findByIdAsync("20").cancel(true);
+        
+        // Then
+        assertTrue(search.isCancelled());
+        assertTrue(details.isCancelled());
+    }
+}
@@ -0,0 +1,94 @@
+package com.animetui.infrastructure.cache;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.LinkResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingLinkResolverTest {
+    
+    private final Episode episode = new Episode("ep-1", "1", "Show", 1, "Episode 1", null, 24, null, null);
+    
+    private static StreamLink link(String url) {
+        return new StreamLink(url, "720p", "hls", "test", true);
+    }
+    
+    @Test
+    void shouldReadExpiryFromCommonSignedUrlSchemes() {
+        // Given
+        Instant at = Instant.parse("2030-01-02T03:04:05Z");
+        String amzDate = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC).format(at);
+        
+        // When / Then
+        assertEquals(Optional.of(at), CachingLinkResolver.linkExpiry("https://cdn.example/a.m3u8?expires=" + at.getEpochSecond()));
+        assertEquals(Optional.of(at), CachingLinkResolver.linkExpiry("https://cdn.example/a.m3u8?token=x&Exp=" + at.toEpochMilli()));
+        assertEquals(Optional.of(at.plusSeconds(3600)), CachingLinkResolver.linkExpiry(
+                "https://bucket.s3.example/a.mp4?X-Amz-Date=" + amzDate + "&X-Amz-Expires=3600&X-Amz-Signature=abc"));
+        assertEquals(Optional.empty(), CachingLinkResolver.linkExpiry("https://cdn.example/a.m3u8?expires=soon"));
+        assertEquals(Optional.empty(), CachingLinkResolver.linkExpiry("https://cdn.example/a.m3u8"));
+    }
+    
+    @Test
+    void shouldServeCachedLinksUntilInvalidated() {
+        // Given
+        LinkResolver delegate = mock(LinkResolver.class);
+        when(delegate.resolve(any())).thenReturn(List.of(link("https://cdn.example/a.m3u8")));
+        CachingLinkResolver resolver = new CachingLinkResolver(delegate, 10, Duration.ofMinutes(10));
+        
+        // When
+        resolver.resolve(episode);
+        resolver.resolve(episode);
+        resolver.invalidate(episode);
+        resolver.resolve(episode);
+        
+        // Then
+        verify(delegate, times(2)).resolve(episode);
+    }
+    
+    @Test
+    void shouldNotCacheLinksAboutToExpire() {
+        // Given: expires within the safety margin
+        long soon = Instant.now().plusSeconds(10).getEpochSecond();
+        LinkResolver delegate = mock(LinkResolver.class);
+        when(delegate.resolve(any())).thenReturn(List.of(link("https://cdn.example/a.m3u8?expires=" + soon)));
+        CachingLinkResolver resolver = new CachingLinkResolver(delegate, 10, Duration.ofMinutes(10));
+        
+        // When
+        resolver.resolve(episode);
+        resolver.resolve(episode);
+        
+        // Then
+        verify(delegate, times(2)).resolve(episode);
+    }
+    
+    @Test
+    void shouldExpireWithEarliestLink() throws InterruptedException {
+        // Given: one link carries an expiry just past the safety margin
+        LinkResolver delegate = mock(LinkResolver.class);
+        long expires = Instant.now().plusSeconds(32).getEpochSecond();
+        when(delegate.resolve(any())).thenReturn(List.of(
+                link("https://cdn.example/a.m3u8"),
+                link("https://cdn.example/b.m3u8?expires=" + expires)));
+        CachingLinkResolver resolver = new CachingLinkResolver(delegate, 10, Duration.ofMinutes(10));
+        resolver.resolve(episode);
+        
+        // When
+        resolver.resolve(episode);
+        Thread.sleep(Math.max(0, (expires - 30) * 1000 - System.currentTimeMillis()) + 50);
+        resolver.resolve(episode);
+        
+        // Then
+        verify(delegate, times(2)).resolve(episode);
+    }
+}
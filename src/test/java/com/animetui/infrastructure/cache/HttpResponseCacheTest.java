@@ -0,0 +1,153 @@
+package com.animetui.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpResponseCacheTest {
+    
+    @TempDir
+    Path directory;
+    
+    private static byte[] body(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    void shouldReturnStoredEntryWithValidatorsAndFreshness() throws IOException {
+        // Given
+        HttpResponseCache cache = new HttpResponseCache(directory, 1024);
+        cache.put("https://api.example/fresh", body("fresh"), "\"v1\"", null, Duration.ofHours(1));
+        cache.put("https://api.example/stale", body("stale"), null, null, Duration.ZERO);
+        
+        // When
+        HttpResponseCache.Entry fresh = cache.get("https://api.example/fresh").orElseThrow();
+        HttpResponseCache.Entry stale = cache.get("https://api.example/stale").orElseThrow();
+        
+        // Then
+        assertArrayEquals(body("fresh"), fresh.body());
+        assertEquals("\"v1\"", fresh.etag());
+        assertTrue(fresh.isFresh());
+        assertTrue(fresh.canRevalidate());
+        assertFalse(stale.isFresh());
+        assertFalse(stale.canRevalidate());
+        assertTrue(cache.get("https://api.example/missing").isEmpty());
+    }
+    
+    @Test
+    void shouldEvictLeastRecentlyUsedEntryWhenFull() throws IOException {
+        // Given: room for two 10-byte bodies
+        HttpResponseCache cache = new HttpResponseCache(directory, 20);
+        cache.put("https://api.example/a", body("aaaaaaaaaa"), null, null, Duration.ofHours(1));
+        cache.put("https://api.example/b", body("bbbbbbbbbb"), null, null, Duration.ofHours(1));
+        cache.get("https://api.example/a");
+        
+        // When
+        cache.put("https://api.example/c", body("cccccccccc"), null, null, Duration.ofHours(1));
+        
+        // Then
+        assertTrue(cache.get("https://api.example/a").isPresent());
+        assertTrue(cache.get("https://api.example/b").isEmpty());
+        assertTrue(cache.get("https://api.example/c").isPresent());
+        assertEquals(20, cache.sizeBytes());
+    }
+    
+    @Test
+    void shouldReloadEntriesWithoutLeavingTemporaryFiles() throws IOException {
+        // Given
+        HttpResponseCache cache = new HttpResponseCache(directory, 1024);
+        cache.put("https://api.example/a", body("first"), null, "Mon, 01 Jan 2024 00:00:00 GMT", Duration.ofHours(1));
+        cache.put("https://api.example/a", body("second"), null, null, Duration.ofHours(1));
+        
+        // When
+        HttpResponseCache reloaded = new HttpResponseCache(directory, 1024);
+        
+        // Then
+        assertArrayEquals(body("second"), reloaded.get("https://api.example/a").orElseThrow().body());
+        assertEquals(6, reloaded.sizeBytes());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+    
+    @Test
+    void shouldDropEntryWithCorruptMetadata() throws IOException {
+        // Given
+        HttpResponseCache cache = new HttpResponseCache(directory, 1024);
+        cache.put("https://api.example/a", body("body"), null, null, Duration.ofHours(1));
+        try (Stream<Path> files = Files.list(directory)) {
+            Path entry = files.filter(file -> file.toString().endsWith(".entry")).findFirst().orElseThrow();
+            Files.write(entry, new byte[] {0, 0, 0, 9, '{', 'n', 'o', 't'});
+        }
+        
+        // When / Then
+        assertTrue(cache.get("https://api.example/a").isEmpty());
+        assertEquals(0, cache.sizeBytes());
+    }
+    
+    @Test
+    void shouldNeverPairBodyWithAnotherWritesValidators() throws Exception {
+        // Given: one writer flipping between two versions whose ETag names the body
+        HttpResponseCache cache = new HttpResponseCache(directory, 1024);
+        String url = "https://api.example/a";
+        cache.put(url, body("v0"), "v0", null, Duration.ofHours(1));
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 500; i++) {
+                cache.put(url, body("v" + i), "v" + i, null, Duration.ofHours(1));
+            }
+            done.set(true);
+        });
+        
+        // When
+        writer.start();
+        do {
+            Optional<HttpResponseCache.Entry> entry = cache.get(url);
+            
+            // Then
+            assertTrue(entry.isPresent());
+            assertEquals(entry.get().etag(), new String(entry.get().body(), StandardCharsets.UTF_8));
+        } while (!done.get());
+        writer.join();
+        assertEquals("v500", cache.get(url).orElseThrow().etag());
+    }
+    
+    @Test
+    void shouldKeepSizeInStepWithBodyWhenWritesOverlap() throws Exception {
+        // Given: two writers racing on one URL with bodies of different sizes
+        HttpResponseCache cache = new HttpResponseCache(directory, 1024);
+        String url = "https://api.example/a";
+        Thread shortWriter = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                cache.put(url, body("short"), null, null, Duration.ofHours(1));
+            }
+        });
+        Thread longWriter = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                cache.put(url, body("a much longer body"), null, null, Duration.ofHours(1));
+            }
+        });
+        
+        // When
+        shortWriter.start();
+        longWriter.start();
+        shortWriter.join();
+        longWriter.join();
+        
+        // Then: the index describes the file that won
+        assertEquals(cache.get(url).orElseThrow().body().length, cache.sizeBytes());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.animetui.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WTinyLfuCacheTest {
+    
+    @Test
+    void shouldReturnStoredValue() {
+        // Given
+        WTinyLfuCache<String, String> cache = new WTinyLfuCache<>(100, v -> 1);
+        
+        // When
+        cache.put("a", "alpha");
+        
+        // Then
+        assertEquals("alpha", cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+    
+    @Test
+    void shouldStayWithinMaximumWeight() {
+        // Given
+        WTinyLfuCache<Integer, List<Integer>> cache = new WTinyLfuCache<>(50, List::size);
+        
+        // When
+        for (int i = 0; i < 200; i++) {
+            cache.put(i, List.of(i, i, i));
+        }
+        
+        // Then
+        assertTrue(cache.weight() <= 50);
+        assertTrue(cache.size() > 0);
+    }
+    
+    @Test
+    void shouldKeepFrequentlyUsedEntriesOverOneOffEntries() {
+        // Given
+        WTinyLfuCache<String, String> cache = new WTinyLfuCache<>(100, v -> 1);
+        for (int i = 0; i < 10; i++) {
+            cache.put("hot" + i, "value");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.get("hot" + i);
+            }
+        }
+        
+        // When - a scan of keys that are each seen only once
+        for (int i = 0; i < 1000; i++) {
+            cache.put("scan" + i, "value");
+        }
+        
+        // Then
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(cache.get("hot" + i), "hot" + i + " should survive the scan");
+        }
+    }
+    
+    @Test
+    void shouldHoldNewHeavyEntryInWindow() {
+        // Given: a full cache of revisited lists
+        WTinyLfuCache<String, List<Integer>> cache = new WTinyLfuCache<>(1000, 100, List::size);
+        List<Integer> list = Collections.nCopies(100, 0);
+        for (int i = 0; i < 10; i++) {
+            cache.get("hot" + i);
+            cache.put("hot" + i, list);
+            cache.get("hot" + i);
+        }
+        
+        // When - a new list is loaded after a miss
+        cache.get("new");
+        cache.put("new", list);
+        
+        // Then: it gets its time in the window instead of losing admission at once
+        assertNotNull(cache.get("new"));
+        assertTrue(cache.weight() <= 1000);
+    }
+    
+    @Test
+    void shouldNotStoreEntryHeavierThanCache() {
+        // Given
+        WTinyLfuCache<String, List<Integer>> cache = new WTinyLfuCache<>(2, List::size);
+        
+        // When
+        cache.put("big", List.of(1, 2, 3));
+        
+        // Then
+        assertNull(cache.get("big"));
+        assertEquals(0, cache.weight());
+    }
+    
+    @Test
+    void shouldInvalidateEntry() {
+        // Given
+        WTinyLfuCache<String, String> cache = new WTinyLfuCache<>(100, v -> 1);
+        cache.put("a", "alpha");
+        
+        // When
+        cache.invalidate("a");
+        
+        // Then
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,51 @@
+package com.animetui.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchUrlIndexTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void shouldKeepMirrorsApart() {
+        // Given
+        WatchUrlIndex index = new WatchUrlIndex(null, 100);
+        index.put("hianime.to", "21", "One Piece", "https://hianime.to/watch/one-piece-100");
+        index.put("hianime.sx", "21", "One Piece", "https://hianime.sx/watch/one-piece-100");
+        
+        // When / Then: neither mirror overwrote the other
+        assertEquals(Optional.of("https://hianime.to/watch/one-piece-100"), index.find("hianime.to", "21", null));
+        assertEquals(Optional.of("https://hianime.sx/watch/one-piece-100"), index.find("HiAnime.sx", null, "ONE PIECE!"));
+        assertTrue(index.find("hianime.nz", "21", "One Piece").isEmpty());
+        
+        index.invalidate("hianime.to", "21", "One Piece");
+        assertTrue(index.find("hianime.to", "21", "One Piece").isEmpty());
+        assertTrue(index.find("hianime.sx", "21", "One Piece").isPresent());
+    }
+    
+    @Test
+    void shouldReloadSiteKeysAndDropLegacyOnes() throws IOException {
+        // Given: an index file with one key from before entries were kept per site
+        Path file = directory.resolve("watch-urls.json");
+        Files.writeString(file, "{\"id:5\":\"https://hianime.to/watch/old-5\"}");
+        WatchUrlIndex index = new WatchUrlIndex(file, 100);
+        index.put("hianime.to", "21", "One Piece", "https://hianime.to/watch/one-piece-100");
+        
+        // When
+        WatchUrlIndex reloaded = new WatchUrlIndex(file, 100);
+        
+        // Then
+        assertEquals(2, reloaded.size());
+        assertTrue(reloaded.find("hianime.to", "5", null).isEmpty());
+        assertEquals(Optional.of("https://hianime.to/watch/one-piece-100"), reloaded.find("hianime.to", null, "one piece"));
+    }
+}
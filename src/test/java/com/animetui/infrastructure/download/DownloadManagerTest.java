@@ -0,0 +1,203 @@
+package com.animetui.infrastructure.download;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownloadManagerTest {
+    
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+    
+    @TempDir
+    Path root;
+    
+    private HttpServer server;
+    private String baseUrl;
+    private final byte[] video = new byte[100_000];
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private final AtomicInteger abrSegmentRequests = new AtomicInteger();
+    private volatile boolean highVariantBroken;
+    private final HttpTransport transport = new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of());
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        new Random(42).nextBytes(video);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/video.mp4", this::serveRanges);
+        server.createContext("/hls/index.m3u8", exchange -> send(exchange, 200,
+                "#EXTM3U\n#EXT-X-TARGETDURATION:4\n#EXTINF:4,\nseg0.ts\n#EXTINF:4,\nseg1.ts\n#EXTINF:4,\nseg2.ts\n#EXT-X-ENDLIST\n"
+                        .getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/hls/seg", exchange -> {
+            String name = exchange.getRequestURI().getPath();
+            send(exchange, 200, ("<" + name.substring(name.lastIndexOf('/') + 1) + ">").getBytes(StandardCharsets.UTF_8));
+        });
+        // A master with two variants whose playlists number their segments alike
+        server.createContext("/abr/", exchange -> {
+            String path = exchange.getRequestURI().getPath().substring("/abr/".length());
+            if (path.equals("master.m3u8")) {
+                send(exchange, 200, ("#EXTM3U\n#EXT-X-STREAM-INF:BANDWIDTH=800000\nlow/index.m3u8\n"
+                        + "#EXT-X-STREAM-INF:BANDWIDTH=2800000\nhigh/index.m3u8\n").getBytes(StandardCharsets.UTF_8));
+            } else if (path.endsWith("index.m3u8")) {
+                send(exchange, 200, "#EXTM3U\n#EXTINF:4,\nseg0.ts\n#EXTINF:4,\nseg1.ts\n#EXTINF:4,\nseg2.ts\n#EXT-X-ENDLIST\n"
+                        .getBytes(StandardCharsets.UTF_8));
+            } else if (highVariantBroken && path.equals("high/seg2.ts")) {
+                send(exchange, 404, new byte[0]);
+            } else {
+                abrSegmentRequests.incrementAndGet();
+                send(exchange, 200, ("<" + path + ">").getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/dub/master.m3u8", exchange -> send(exchange, 200, ("#EXTM3U\n"
+                + "#EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID=\"aud\",NAME=\"English\",DEFAULT=YES,URI=\"audio/en.m3u8\"\n"
+                + "#EXT-X-STREAM-INF:BANDWIDTH=800000,AUDIO=\"aud\"\nvideo/index.m3u8\n").getBytes(StandardCharsets.UTF_8)));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    private void serveRanges(HttpExchange exchange) throws IOException {
+        Matcher range = RANGE.matcher(exchange.getRequestHeaders().getFirst("Range"));
+        assertTrue(range.matches());
+        int from = Integer.parseInt(range.group(1));
+        int to = Integer.parseInt(range.group(2));
+        rangeRequests.incrementAndGet();
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + to + "/" + video.length);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(video, from, to - from + 1);
+        send(exchange, 206, body.toByteArray());
+    }
+    
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+    
+    private static Episode episode(int number) {
+        return new Episode("ep-" + number, "1", "Show", number, "Episode " + number, null, 24, null, null);
+    }
+    
+    @Test
+    void shouldDownloadRangedFileInSegmentsAndResume() throws IOException {
+        // Given
+        DownloadManager manager = new DownloadManager(root, 10_000_000, transport, 3, 16 * 1024);
+        StreamLink link = new StreamLink(baseUrl + "/video.mp4", "720p", "mp4", "test", true);
+        
+        // When
+        manager.download(episode(1), link).join();
+        
+        // Then
+        StreamLink local = manager.localCopy(episode(1)).orElseThrow();
+        assertArrayEquals(video, Files.readAllBytes(Path.of(local.url())));
+        assertEquals(1 + 7, rangeRequests.get());  // size probe plus 7 segments of 16 KiB
+        
+        // When the state is reloaded, nothing is fetched again
+        rangeRequests.set(0);
+        DownloadManager reloaded = new DownloadManager(root, 10_000_000, transport, 3, 16 * 1024);
+        
+        // Then
+        assertTrue(reloaded.localCopy(episode(1)).isPresent());
+        reloaded.download(episode(1), link).join();
+        assertEquals(0, rangeRequests.get());
+    }
+    
+    @Test
+    void shouldConcatenateHlsSegmentsInOrder() throws IOException {
+        // Given
+        DownloadManager manager = new DownloadManager(root, 10_000_000, transport, 2, 1024);
+        
+        // When
+        manager.download(episode(1), new StreamLink(baseUrl + "/hls/index.m3u8", "720p", "hls", "test", true)).join();
+        
+        // Then
+        StreamLink local = manager.localCopy(episode(1)).orElseThrow();
+        assertEquals("ts", local.format());
+        assertEquals("<seg0.ts><seg1.ts><seg2.ts>", Files.readString(Path.of(local.url())));
+        assertFalse(Files.exists(Path.of(local.url()).resolveSibling("parts")));
+    }
+    
+    @Test
+    void shouldEvictWatchedEpisodesToStayWithinQuota() {
+        // Given
+        DownloadManager manager = new DownloadManager(root, 150_000, transport, 2, 32 * 1024);
+        StreamLink link = new StreamLink(baseUrl + "/video.mp4", "720p", "mp4", "test", true);
+        manager.download(episode(1), link).join();
+        manager.markWatched(episode(1));
+        
+        // When
+        manager.download(episode(2), link).join();
+        
+        // Then
+        assertTrue(manager.localCopy(episode(1)).isEmpty());
+        assertTrue(manager.localCopy(episode(2)).isPresent());
+    }
+    
+    @Test
+    void shouldRestartHlsDownloadWhenAnotherVariantIsChosen() throws IOException {
+        // Given: the high variant breaks off after two of its three segments
+        DownloadManager manager = new DownloadManager(root, 10_000_000, transport, 1, 1024);
+        String master = baseUrl + "/abr/master.m3u8";
+        highVariantBroken = true;
+        assertThrows(CompletionException.class, () -> manager.download(episode(1),
+                new StreamLink(master, "720p", "hls", "test", true, 2_800_000, 1280, 720, null)).join());
+        
+        // When: the episode is downloaded again within a lower bandwidth
+        manager.download(episode(1), new StreamLink(master, "360p", "hls", "test", true, 1_000_000, 640, 360, null)).join();
+        
+        // Then: none of the high variant's segments are mixed in
+        StreamLink local = manager.localCopy(episode(1)).orElseThrow();
+        assertEquals("<low/seg0.ts><low/seg1.ts><low/seg2.ts>", Files.readString(Path.of(local.url())));
+    }
+    
+    @Test
+    void shouldCheckQuotaAgainstEstimatedHlsSize() {
+        // Given: 12 seconds at 800 kbit/s come to about 1.2 MB
+        DownloadManager manager = new DownloadManager(root, 1_000_000, transport, 2, 1024);
+        StreamLink link = new StreamLink(baseUrl + "/abr/master.m3u8", "360p", "hls", "test", true, 800_000, 640, 360, null);
+        
+        // When / Then
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> manager.download(episode(1), link).join());
+        assertTrue(failure.getCause().getMessage().contains("quota"));
+        assertEquals(0, abrSegmentRequests.get());
+    }
+    
+    @Test
+    void shouldRefuseHlsWithSeparateAudio() {
+        // Given
+        DownloadManager manager = new DownloadManager(root, 10_000_000, transport, 2, 1024);
+        StreamLink link = new StreamLink(baseUrl + "/dub/master.m3u8", "360p", "hls", "test", true);
+        
+        // When / Then: a silent copy would be worse than none
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> manager.download(episode(1), link).join());
+        assertTrue(failure.getCause().getCause().getMessage().contains("separate audio"));
+        assertTrue(manager.localCopy(episode(1)).isEmpty());
+    }
+}
@@ -0,0 +1,142 @@
+package com.animetui.infrastructure.http;
+
+import com.animetui.domain.model.StreamLink;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpLinkProbeTest {
+    
+    private static final int SAMPLE_BYTES = 4096;
+    
+    private HttpServer server;
+    private ExecutorService executor;
+    private String baseUrl;
+    private HttpLinkProbe probe;
+    private final AtomicInteger fastProbes = new AtomicInteger();
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // Probes run at once; a single server thread would make them queue up
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        
+        server.createContext("/fast", exchange -> {
+            fastProbes.incrementAndGet();
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            exchange.sendResponseHeaders(206, SAMPLE_BYTES);
+            exchange.getResponseBody().write(new byte[SAMPLE_BYTES]);
+            exchange.close();
+        });
+        // Slow to answer, quick to deliver
+        server.createContext("/late", exchange -> {
+            pause(150);
+            exchange.sendResponseHeaders(206, SAMPLE_BYTES);
+            exchange.getResponseBody().write(new byte[SAMPLE_BYTES]);
+            exchange.close();
+        });
+        // Quick to answer, slow to deliver
+        server.createContext("/trickle", exchange -> {
+            exchange.sendResponseHeaders(206, SAMPLE_BYTES);
+            OutputStream body = exchange.getResponseBody();
+            for (int i = 0; i < 4; i++) {
+                pause(100);
+                body.write(new byte[SAMPLE_BYTES / 4]);
+                body.flush();
+            }
+            exchange.close();
+        });
+        server.createContext("/dead", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        probe = new HttpLinkProbe(new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of()),
+                Duration.ofSeconds(3), SAMPLE_BYTES);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private StreamLink link(String path) {
+        return new StreamLink(baseUrl + path, "720p", "mp4", "test", true);
+    }
+    
+    @Test
+    void shouldRankByTimeToFirstBytePlusTransferAndDropDeadLinks() {
+        // Given
+        List<StreamLink> candidates = List.of(
+                link("/trickle"), link("/dead"), link("/late"), link("/fast"), link("/fast"));
+        
+        // When
+        List<StreamLink> ranked = probe.rank(candidates);
+        
+        // Then: a slow body costs as much as a slow answer
+        assertEquals(List.of(link("/fast"), link("/late"), link("/trickle")), ranked);
+    }
+    
+    @Test
+    void shouldKeepAllCandidatesWhenNoneAnswer() {
+        // Given
+        List<StreamLink> candidates = List.of(link("/dead"), link("/missing"), link("/dead"));
+        
+        // When
+        List<StreamLink> ranked = probe.rank(candidates);
+        
+        // Then: duplicates go, the resolver's order stays
+        assertEquals(List.of(link("/dead"), link("/missing")), ranked);
+    }
+    
+    @Test
+    void shouldProbeSharedUrlOnceButKeepEveryVariant() {
+        // Given: two variants served from the same URL
+        StreamLink low = new StreamLink(baseUrl + "/fast", "480p", "hls", "test", true, 800_000, 854, 480, null);
+        StreamLink high = new StreamLink(baseUrl + "/fast", "1080p", "hls", "test", true, 5_000_000, 1920, 1080, null);
+        List<StreamLink> candidates = List.of(link("/late"), low, high, low);
+        
+        // When
+        List<StreamLink> ranked = probe.rank(candidates);
+        
+        // Then
+        assertEquals(List.of(low, high, link("/late")), ranked);
+        assertEquals(1, fastProbes.get());
+    }
+    
+    @Test
+    void shouldSampleRawBytes() {
+        // When
+        probe.rank(List.of(link("/fast"), link("/late")));
+        
+        // Then
+        assertEquals("identity", acceptEncoding.get());
+    }
+}
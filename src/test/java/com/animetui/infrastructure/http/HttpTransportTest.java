@@ -0,0 +1,142 @@
+package com.animetui.infrastructure.http;
+
+import com.animetui.domain.port.ConfigPort;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HttpTransportTest {
+    
+    private static final String TEXT = "{\"data\":\"" + "compressible ".repeat(200) + "\"}";
+    
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/gzip", exchange -> {
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(TEXT.getBytes(StandardCharsets.UTF_8));
+            }
+            send(exchange, "gzip", compressed.toByteArray());
+        });
+        server.createContext("/deflate", exchange -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream out = new DeflaterOutputStream(compressed)) {
+                out.write(TEXT.getBytes(StandardCharsets.UTF_8));
+            }
+            send(exchange, "deflate", compressed.toByteArray());
+        });
+        server.createContext("/plain", exchange -> send(exchange, null, TEXT.getBytes(StandardCharsets.UTF_8)));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    private static void send(HttpExchange exchange, String encoding, byte[] body)
+            throws IOException {
+        if (encoding != null) {
+            exchange.getResponseHeaders().add("Content-Encoding", encoding);
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    private static String read(HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = response.body()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    @Test
+    void shouldAdvertiseAndDecodeCompressedBodies() throws Exception {
+        // Given
+        HttpTransport transport = new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of());
+        
+        // When
+        String gzip = read(transport.send(transport.request(baseUrl + "/gzip").build()));
+        String deflate = read(transport.sendAsync(transport.request(baseUrl + "/deflate").build()).get());
+        String plain = read(transport.send(transport.request(baseUrl + "/plain").build()));
+        
+        // Then
+        assertEquals("gzip, deflate", acceptEncoding.get());
+        assertEquals(TEXT, gzip);
+        assertEquals(TEXT, deflate);
+        assertEquals(TEXT, plain);
+    }
+    
+    @Test
+    void shouldAskForMediaWithoutCompression() throws Exception {
+        // Given
+        HttpTransport transport = new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of());
+        
+        // When
+        transport.send(transport.mediaRequest(baseUrl + "/gzip").build()).body().close();
+        
+        // Then
+        assertEquals("identity", acceptEncoding.get());
+    }
+    
+    @Test
+    void shouldCloseUnreadGzipBodyWithoutDecoding() throws Exception {
+        // Given
+        HttpTransport transport = new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of());
+        HttpResponse<InputStream> response = transport.send(transport.request(baseUrl + "/gzip").build());
+        
+        // When / Then: a discarded body must not need a valid gzip header to be closed
+        assertDoesNotThrow(() -> response.body().close());
+    }
+    
+    @Test
+    void shouldResolveRequestTimeoutPerHost() {
+        // Given
+        ConfigPort config = mock(ConfigPort.class);
+        when(config.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(config.getInt(eq("scraper.timeout"), anyInt())).thenReturn(7000);
+        when(config.getString(eq("http.timeout.hosts"), anyString()))
+                .thenReturn("api.jikan.moe:15000, CDN.Example.com:2500,broken,bad:host:x,");
+        
+        // When
+        HttpTransport transport = HttpTransport.fromConfig(config);
+        
+        // Then
+        assertEquals(Duration.ofMillis(15000), transport.timeoutFor(URI.create("https://api.jikan.moe/v4/anime")));
+        assertEquals(Duration.ofMillis(2500), transport.timeoutFor(URI.create("https://cdn.example.com/a.m3u8")));
+        assertEquals(Duration.ofMillis(7000), transport.timeoutFor(URI.create("https://hianime.to/search")));
+        assertEquals(Duration.ofMillis(7000), transport.timeoutFor(URI.create("file:/tmp/local")));
+        assertEquals(Duration.ofMillis(2500),
+                transport.request("https://cdn.example.com/seg1.ts").build().timeout().orElseThrow());
+    }
+}
@@ -0,0 +1,76 @@
+package com.animetui.infrastructure.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolitenessSchedulerTest {
+    
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+    
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+    private final PolitenessScheduler scheduler =
+            new PolitenessScheduler(Duration.ofSeconds(1), Duration.ofSeconds(5), 0, now::get);
+    
+    @Test
+    void shouldSpaceRequestsPerHostWithoutDelayingOtherHosts() {
+        // When / Then: an idle host goes first, later requests queue one gap apart
+        assertEquals(0, scheduler.reserve("hianime.to"));
+        assertEquals(SECOND, scheduler.reserve("hianime.to"));
+        assertEquals(2 * SECOND, scheduler.reserve("HiAnime.to"));
+        assertEquals(0, scheduler.reserve("cdn.example.com"));
+        
+        // Time passing shortens the wait for the next slot
+        now.addAndGet(2 * SECOND + SECOND / 2);
+        assertEquals(SECOND / 2, scheduler.reserve("hianime.to"));
+        
+        // A host left idle longer than its gap is free again
+        now.addAndGet(10 * SECOND);
+        assertEquals(0, scheduler.reserve("hianime.to"));
+        assertTrue(scheduler.acquireAsync("other.example").isDone());
+    }
+    
+    @Test
+    void shouldBackOffOnThrottlingUpToMaximum() {
+        // When
+        scheduler.onResponse("hianime.to", 429);
+        Duration once = scheduler.spacing("hianime.to");
+        scheduler.onResponse("hianime.to", 403);
+        Duration twice = scheduler.spacing("hianime.to");
+        scheduler.onResponse("hianime.to", 429);
+        scheduler.onResponse("hianime.to", 429);
+        
+        // Then
+        assertEquals(Duration.ofSeconds(2), once);
+        assertEquals(Duration.ofSeconds(4), twice);
+        assertEquals(Duration.ofSeconds(5), scheduler.spacing("hianime.to"));
+        assertEquals(Duration.ofSeconds(1), scheduler.spacing("cdn.example.com"));
+        
+        // The wider gap applies to the following reservations
+        assertEquals(0, scheduler.reserve("hianime.to"));
+        assertEquals(5 * SECOND, scheduler.reserve("hianime.to"));
+    }
+    
+    @Test
+    void shouldRecoverGraduallyOnSuccessButNotOnOtherErrors() {
+        // Given
+        scheduler.onResponse("hianime.to", 429);
+        scheduler.onResponse("hianime.to", 429);
+        
+        // When / Then: other errors leave the spacing alone
+        scheduler.onResponse("hianime.to", 500);
+        scheduler.onResponse("hianime.to", 404);
+        assertEquals(Duration.ofSeconds(4), scheduler.spacing("hianime.to"));
+        
+        // Each success takes off a tenth, never going below the minimum
+        scheduler.onResponse("hianime.to", 200);
+        assertEquals(Duration.ofMillis(3600), scheduler.spacing("hianime.to"));
+        for (int i = 0; i < 50; i++) {
+            scheduler.onResponse("hianime.to", 200);
+        }
+        assertEquals(Duration.ofSeconds(1), scheduler.spacing("hianime.to"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.animetui.infrastructure.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    
+    @Test
+    void shouldHandOutBurstThenSpaceRequests() {
+        // Given: 2 per 200 ms
+        RateLimiter limiter = new RateLimiter(List.of(new RateLimiter.Limit(2, Duration.ofMillis(200))));
+        
+        // When
+        CompletableFuture<Void> first = limiter.acquireAsync();
+        CompletableFuture<Void> second = limiter.acquireAsync();
+        CompletableFuture<Void> third = limiter.acquireAsync();
+        
+        // Then
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertFalse(third.isDone());
+        third.join();
+        RateLimiter.Stats stats = limiter.stats();
+        assertEquals(3, stats.acquisitions());
+        assertEquals(1, stats.throttled());
+        assertTrue(stats.totalWait().toMillis() >= 90, "waited " + stats.totalWait());
+    }
+    
+    @Test
+    void shouldEnforceEveryBucket() throws InterruptedException {
+        // Given: plenty per second but only 1 per 300 ms
+        RateLimiter limiter = new RateLimiter(List.of(
+                new RateLimiter.Limit(100, Duration.ofSeconds(1)),
+                new RateLimiter.Limit(1, Duration.ofMillis(300))));
+        
+        // When
+        long start = System.nanoTime();
+        limiter.acquire();
+        limiter.acquire();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        // Then
+        assertTrue(elapsedMillis >= 250, "took " + elapsedMillis + " ms");
+    }
+    
+    @Test
+    void shouldHoldBackPermitsWhilePaused() throws InterruptedException {
+        // Given
+        RateLimiter limiter = RateLimiter.perSecondAndMinute(10, 600);
+        limiter.pause(Duration.ofMillis(300));
+        
+        // When
+        long start = System.nanoTime();
+        limiter.acquire();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        // Then
+        assertTrue(elapsedMillis >= 250, "took " + elapsedMillis + " ms");
+        assertEquals(1, limiter.stats().throttled());
+    }
+}
@@ -0,0 +1,86 @@
+package com.animetui.infrastructure.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+    
+    @Test
+    void shouldShareInFlightCallForSameKey() {
+        // Given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        
+        // When
+        CompletableFuture<String> first = singleFlight.execute("url", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.execute("url", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        upstream.complete("body");
+        
+        // Then
+        assertEquals(1, calls.get());
+        assertEquals("body", first.join());
+        assertEquals("body", second.join());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+    
+    @Test
+    void shouldNotCancelSharedCallWhenOneCallerCancels() {
+        // Given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("url", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("url", () -> upstream);
+        
+        // When
+        first.cancel(true);
+        upstream.complete("body");
+        
+        // Then
+        assertFalse(upstream.isCancelled());
+        assertEquals("body", second.join());
+    }
+    
+    @Test
+    void shouldCancelSharedCallOnceEveryCallerCancels() {
+        // Given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("url", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("url", () -> upstream);
+        
+        // When
+        first.cancel(true);
+        second.cancel(true);
+        CompletableFuture<String> third = singleFlight.execute("url", () -> CompletableFuture.completedFuture("fresh"));
+        
+        // Then: the abandoned call is gone and a new caller starts over
+        assertTrue(upstream.isCancelled());
+        assertEquals("fresh", third.join());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+    
+    @Test
+    void shouldStartNewCallAfterPreviousCompleted() {
+        // Given
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        
+        // When
+        singleFlight.execute("url", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join();
+        int result = singleFlight.execute("url", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join();
+        
+        // Then
+        assertEquals(2, result);
+    }
+}
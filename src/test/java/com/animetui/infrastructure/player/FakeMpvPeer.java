@@ -0,0 +1,101 @@
+package com.animetui.infrastructure.player;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mpv end of an IPC socket: records the commands it receives and lets a test
+ * write replies and events back.
+ */
+final class FakeMpvPeer implements AutoCloseable {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ServerSocketChannel server;
+    private final BlockingQueue<JsonNode> commands = new LinkedBlockingQueue<>();
+    private volatile SocketChannel client;
+    
+    FakeMpvPeer(Path socket) throws IOException {
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        Thread.ofVirtual().start(this::serve);
+    }
+    
+    /**
+     * Next command the client sent, e.g. {"command":["set_property",...],"request_id":1}
+     * or {"command":{"name":"loadfile",...},"request_id":2}.
+     */
+    JsonNode nextCommand() throws InterruptedException {
+        JsonNode command = commands.poll(5, TimeUnit.SECONDS);
+        if (command == null) {
+            throw new AssertionError("No command received");
+        }
+        return command;
+    }
+    
+    /**
+     * Next command with the given name, skipping others such as observe_property.
+     */
+    JsonNode nextCommand(String name) throws InterruptedException {
+        while (true) {
+            JsonNode command = nextCommand();
+            // Positional commands are arrays, named ones are objects with a "name"
+            JsonNode args = command.path("command");
+            if (name.equals(args.isArray() ? args.path(0).asText() : args.path("name").asText())) {
+                return command;
+            }
+        }
+    }
+    
+    void reply(JsonNode command, String data) throws IOException {
+        send("{\"request_id\":" + command.get("request_id").asLong() + ",\"error\":\"success\",\"data\":" + data + "}");
+    }
+    
+    void send(String json) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((json + "\n").getBytes(StandardCharsets.UTF_8));
+        synchronized (this) {
+            while (buffer.hasRemaining()) {
+                client.write(buffer);
+            }
+        }
+    }
+    
+    private void serve() {
+        try {
+            client = server.accept();
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                commands.add(objectMapper.readTree(line));
+            }
+        } catch (IOException e) {
+            if (server.isOpen()) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        server.close();
+        if (client != null) {
+            client.close();
+        }
+    }
+}
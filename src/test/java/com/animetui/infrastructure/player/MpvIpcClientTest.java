@@ -0,0 +1,106 @@
+package com.animetui.infrastructure.player;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpvIpcClientTest {
+    
+    @TempDir
+    Path directory;
+    
+    private FakeMpvPeer mpv;
+    private MpvIpcClient client;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        Path socket = directory.resolve("mpv.sock");
+        mpv = new FakeMpvPeer(socket);
+        client = MpvIpcClient.connect(socket);
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        mpv.close();
+    }
+    
+    @Test
+    void shouldMatchRepliesToTheirRequests() throws Exception {
+        // Given
+        CompletableFuture<JsonNode> first = client.command("get_property", "volume");
+        CompletableFuture<JsonNode> second = client.command("get_property", "speed");
+        JsonNode firstCommand = mpv.nextCommand();
+        JsonNode secondCommand = mpv.nextCommand();
+        
+        // When: answered out of order
+        mpv.reply(secondCommand, "1.5");
+        mpv.reply(firstCommand, "80");
+        
+        // Then
+        assertNotEquals(firstCommand.get("request_id"), secondCommand.get("request_id"));
+        assertEquals(80, first.get(5, TimeUnit.SECONDS).asInt());
+        assertEquals(1.5, second.get(5, TimeUnit.SECONDS).asDouble());
+    }
+    
+    @Test
+    void shouldFailCommandThatMpvRejects() throws Exception {
+        // Given
+        CompletableFuture<JsonNode> reply = client.command("loadfile", "missing.mkv");
+        JsonNode command = mpv.nextCommand();
+        
+        // When
+        mpv.send("{\"request_id\":" + command.get("request_id") + ",\"error\":\"invalid parameter\"}");
+        
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> reply.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause().getMessage().contains("invalid parameter"));
+    }
+    
+    @Test
+    void shouldDeliverEventsInterleavedWithReplies() throws Exception {
+        // Given
+        BlockingQueue<Integer> positions = new LinkedBlockingQueue<>();
+        BlockingQueue<String> endReasons = new LinkedBlockingQueue<>();
+        client.observe("playlist-pos", value -> positions.add(value.asInt()));
+        client.onEvent("end-file", event -> endReasons.add(event.path("reason").asText()));
+        mpv.nextCommand("observe_property");
+        CompletableFuture<JsonNode> reply = client.command("get_property", "pause");
+        JsonNode command = mpv.nextCommand("get_property");
+        
+        // When
+        mpv.send("{\"event\":\"property-change\",\"id\":1,\"name\":\"playlist-pos\",\"data\":2}");
+        mpv.send("{\"event\":\"end-file\",\"reason\":\"eof\",\"playlist_entry_id\":3}");
+        mpv.reply(command, "false");
+        
+        // Then
+        assertFalse(reply.get(5, TimeUnit.SECONDS).asBoolean());
+        assertEquals(2, positions.poll(5, TimeUnit.SECONDS));
+        assertEquals("eof", endReasons.poll(5, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void shouldFailPendingCommandsWhenMpvGoesAway() throws Exception {
+        // Given
+        CompletableFuture<JsonNode> reply = client.command("get_property", "volume");
+        mpv.nextCommand();
+        
+        // When
+        mpv.close();
+        
+        // Then
+        assertThrows(ExecutionException.class, () -> reply.get(5, TimeUnit.SECONDS));
+        assertFalse(client.isOpen());
+    }
+}
@@ -0,0 +1,106 @@
+package com.animetui.infrastructure.player;
+
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.MediaPlayerPort.PlaybackEnd;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnabledOnOs({ OS.LINUX, OS.MAC })
+class MpvPlayerAdapterTest {
+    
+    @TempDir
+    Path directory;
+    
+    private FakeMpvPeer mpv;
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mpv != null) {
+            mpv.close();
+        }
+        ProcessHandle.current().children().forEach(ProcessHandle::destroy);
+    }
+    
+    private static StreamLink link(String url, long bandwidth) {
+        return new StreamLink(url, "720p", "hls", "test", true, bandwidth, 1280, 720, null);
+    }
+    
+    @Test
+    void shouldTrackPlaylistAndReportHowEachStreamEnded() throws Exception {
+        // Given: a stand-in for mpv that stays alive while the test plays its part on the socket
+        Path started = directory.resolve("started");
+        Path command = directory.resolve("fake-mpv");
+        Files.writeString(command, "#!/bin/sh\ntouch '" + started + "'\nexec sleep 30\n");
+        Files.setPosixFilePermissions(command, PosixFilePermissions.fromString("rwx------"));
+        Path socket = directory.resolve("mpv.sock");
+        MpvPlayerAdapter player = new MpvPlayerAdapter(command.toString(), List.of(), socket);
+        BlockingQueue<Map.Entry<String, PlaybackEnd>> ended = new LinkedBlockingQueue<>();
+        player.addPlaybackListener((url, end) -> ended.add(Map.entry(url, end)));
+        
+        // When: the first episode is played and the second queued behind it
+        CompletableFuture<Void> playing = CompletableFuture.runAsync(() -> player.play(link("https://a.example/ep1.m3u8", 0)));
+        while (!Files.exists(started)) {
+            Thread.sleep(10);
+        }
+        mpv = new FakeMpvPeer(socket);
+        JsonNode load = mpv.nextCommand("loadfile");
+        mpv.reply(load, "{\"playlist_entry_id\":7}");
+        mpv.reply(mpv.nextCommand("set_property"), "null");
+        playing.get(5, TimeUnit.SECONDS);
+        
+        CompletableFuture<Void> queueing = CompletableFuture.runAsync(() -> player.enqueue(link("https://a.example/ep2.m3u8", 2_800_000)));
+        JsonNode append = mpv.nextCommand();
+        // Older mpv versions do not say which entry was added
+        mpv.reply(append, "null");
+        queueing.get(5, TimeUnit.SECONDS);
+        
+        mpv.send("{\"event\":\"end-file\",\"reason\":\"eof\",\"playlist_entry_id\":7}");
+        mpv.send("{\"event\":\"property-change\",\"id\":3,\"name\":\"playlist-pos\",\"data\":1}");
+        mpv.send("{\"event\":\"end-file\",\"reason\":\"error\",\"file_error\":\"loading failed\",\"playlist_entry_id\":8}");
+        
+        // Then: the bandwidth picks the variant when mpv is handed a master playlist; each
+        // entry carries its own, so the episode still playing keeps its bitrate
+        assertEquals("https://a.example/ep1.m3u8", load.path("command").path("url").asText());
+        assertEquals("replace", load.path("command").path("flags").asText());
+        assertEquals("hls-bitrate=max", load.path("command").path("options").asText());
+        assertEquals("loadfile", append.path("command").path("name").asText());
+        assertEquals("append-play", append.path("command").path("flags").asText());
+        assertEquals("hls-bitrate=2800000", append.path("command").path("options").asText());
+        assertEquals(Map.entry("https://a.example/ep1.m3u8", PlaybackEnd.FINISHED), ended.poll(5, TimeUnit.SECONDS));
+        assertEquals(Map.entry("https://a.example/ep2.m3u8", PlaybackEnd.FAILED), ended.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, player.playlistPosition());
+    }
+    
+    @Test
+    void shouldOnlyOfferQueueingWhileIpcIsUsable() {
+        // Given
+        MpvPlayerAdapter withoutSocket = new MpvPlayerAdapter("mpv", List.of(), null);
+        MpvPlayerAdapter unreachable = new MpvPlayerAdapter(directory.resolve("missing-mpv").toString(), List.of(),
+                directory.resolve("mpv.sock"));
+        
+        // When
+        boolean before = unreachable.canQueue();
+        assertThrows(UnsupportedOperationException.class, () -> unreachable.enqueue(link("https://a.example/ep2.m3u8", 0)));
+        
+        // Then
+        assertFalse(withoutSocket.canQueue());
+        assertTrue(before);
+        assertFalse(unreachable.canQueue());
+    }
+}
@@ -0,0 +1,214 @@
+package com.animetui.infrastructure.proxy;
+
+import com.animetui.infrastructure.http.HttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HlsPrefetchProxyTest {
+    
+    private HttpServer server;
+    private String baseUrl;
+    private final Set<String> fetchedSegments = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> renditionFetches = new ConcurrentHashMap<>();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HlsPrefetchProxy proxy;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hls/master.m3u8", exchange -> send(exchange,
+                "#EXTM3U\n#EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=1280x720\n720/index.m3u8\n"));
+        server.createContext("/hls/720/index.m3u8", exchange -> send(exchange,
+                "#EXTM3U\n#EXT-X-TARGETDURATION:4\n#EXT-X-KEY:METHOD=AES-128,URI=\"key.bin\"\n"
+                        + "#EXTINF:4,\nseg0.ts\n#EXTINF:4,\nseg1.ts\n#EXTINF:4,\nseg2.ts\n#EXT-X-ENDLIST\n"));
+        server.createContext("/hls/720/seg", exchange -> {
+            String name = exchange.getRequestURI().getPath();
+            fetchedSegments.add(name.substring(name.lastIndexOf('/') + 1));
+            send(exchange, "<" + name.substring(name.lastIndexOf('/') + 1) + ">");
+        });
+        // Fragmented MP4: an init section plus .m4s segments
+        server.createContext("/fmp4/index.m3u8", exchange -> send(exchange,
+                "#EXTM3U\n#EXT-X-TARGETDURATION:4\n#EXT-X-MAP:URI=\"init.mp4\"\n#EXTINF:4,\nseg0.m4s\n#EXT-X-ENDLIST\n"));
+        server.createContext("/fmp4/init.mp4", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "video/mp4");
+            send(exchange, "<init>");
+        });
+        server.createContext("/fmp4/seg0.m4s", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "video/iso.segment");
+            send(exchange, "<seg0.m4s>");
+        });
+        // A video variant with a separate audio rendition, 100 bytes per segment
+        server.createContext("/alt/master.m3u8", exchange -> send(exchange, "#EXTM3U\n"
+                + "#EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID=\"aud\",NAME=\"English\",DEFAULT=YES,URI=\"audio/index.m3u8\"\n"
+                + "#EXT-X-STREAM-INF:BANDWIDTH=800000,AUDIO=\"aud\"\nvideo/index.m3u8\n"));
+        server.createContext("/alt/video/index.m3u8", exchange -> send(exchange, mediaPlaylist("ts")));
+        server.createContext("/alt/audio/index.m3u8", exchange -> send(exchange, mediaPlaylist("aac")));
+        server.createContext("/alt/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            renditionFetches.merge(path.substring("/alt/".length()), 1, Integer::sum);
+            send(exchange, "x".repeat(100));
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        proxy = new HlsPrefetchProxy(new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of()),
+                2, 2, 1024 * 1024);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        proxy.close();
+        server.stop(0);
+    }
+    
+    private static void send(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+    
+    private static String mediaPlaylist(String extension) {
+        StringBuilder playlist = new StringBuilder("#EXTM3U\n#EXT-X-TARGETDURATION:4\n");
+        for (int i = 0; i < 4; i++) {
+            playlist.append("#EXTINF:4,\nseg").append(i).append('.').append(extension).append('\n');
+        }
+        return playlist.append("#EXT-X-ENDLIST\n").toString();
+    }
+    
+    private static List<String> uris(String playlist) {
+        return playlist.lines().filter(line -> !line.startsWith("#")).toList();
+    }
+    
+    private HttpResponse<String> get(String url, String range) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url));
+        if (range != null) {
+            request.header("Range", range);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    @Test
+    void shouldRewritePlaylistsToPointAtTheProxy() throws Exception {
+        // Given
+        String local = proxy.proxy(baseUrl + "/hls/master.m3u8");
+        
+        // When
+        String master = get(local, null).body();
+        String variantUrl = master.lines().filter(line -> !line.startsWith("#")).findFirst().orElseThrow();
+        String media = get(variantUrl, null).body();
+        
+        // Then
+        assertTrue(local.startsWith("http://127.0.0.1:"));
+        assertTrue(variantUrl.startsWith("http://127.0.0.1:"));
+        assertTrue(media.contains("URI=\"" + baseUrl + "/hls/720/key.bin\""));
+        List<String> segments = media.lines().filter(line -> !line.startsWith("#")).toList();
+        assertEquals(3, segments.size());
+        assertTrue(segments.stream().allMatch(url -> url.startsWith("http://127.0.0.1:") && url.endsWith(".ts")));
+    }
+    
+    @Test
+    void shouldServeSegmentsAndPrefetchTheNextOnes() throws Exception {
+        // Given
+        String media = get(get(proxy.proxy(baseUrl + "/hls/master.m3u8"), null).body().lines()
+                .filter(line -> !line.startsWith("#")).findFirst().orElseThrow(), null).body();
+        List<String> segments = media.lines().filter(line -> !line.startsWith("#")).toList();
+        
+        // When
+        HttpResponse<String> first = get(segments.get(0), null);
+        HttpResponse<String> partial = get(segments.get(1), "bytes=1-3");
+        
+        // Then
+        assertEquals(200, first.statusCode());
+        assertEquals("<seg0.ts>", first.body());
+        assertEquals(206, partial.statusCode());
+        assertEquals("seg", partial.body());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!fetchedSegments.contains("seg2.ts") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(fetchedSegments.contains("seg2.ts"));
+    }
+    
+    @Test
+    void shouldRejectUnknownStreams() throws Exception {
+        // Given
+        String local = proxy.proxy(baseUrl + "/hls/master.m3u8");
+        String unknown = local.replaceFirst("/\\d+/p0", "/999/p0");
+        
+        // When
+        HttpResponse<String> response = get(unknown, null);
+        
+        // Then
+        assertEquals(404, response.statusCode());
+    }
+    
+    @Test
+    void shouldServeSegmentsWithTheirUpstreamContentType() throws Exception {
+        // Given
+        String media = get(proxy.proxy(baseUrl + "/fmp4/index.m3u8"), null).body();
+        Matcher map = Pattern.compile("URI=\"([^\"]*)\"").matcher(media);
+        assertTrue(map.find());
+        String segment = media.lines().filter(line -> !line.startsWith("#")).findFirst().orElseThrow();
+        
+        // When
+        HttpResponse<String> init = get(map.group(1), null);
+        HttpResponse<String> first = get(segment, null);
+        
+        // Then
+        assertEquals("<init>", init.body());
+        assertEquals("video/mp4", init.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("<seg0.m4s>", first.body());
+        assertEquals("video/iso.segment", first.headers().firstValue("Content-Type").orElseThrow());
+    }
+    
+    @Test
+    void shouldKeepUpcomingVideoWhileAudioRenditionPlaysAhead() throws Exception {
+        // Given: room for two and a half segments, both playlists loaded and their
+        // first two segments prefetched
+        proxy.close();
+        proxy = new HlsPrefetchProxy(new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of()),
+                2, 2, 250);
+        String master = get(proxy.proxy(baseUrl + "/alt/master.m3u8"), null).body();
+        Matcher audioUri = Pattern.compile("URI=\"([^\"]*)\"").matcher(master);
+        assertTrue(audioUri.find());
+        List<String> video = uris(get(uris(master).get(0), null).body());
+        List<String> audio = uris(get(audioUri.group(1), null).body());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (renditionFetches.size() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(200);
+        
+        // When: audio is requested ahead, past what the buffer holds
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, get(audio.get(i), null).statusCode());
+        }
+        get(video.get(0), null);
+        get(video.get(1), null);
+        
+        // Then: only played audio made way; the video segments were fetched once
+        assertEquals(1, renditionFetches.get("video/seg0.ts"));
+        assertEquals(1, renditionFetches.get("video/seg1.ts"));
+        assertEquals(1, renditionFetches.get("audio/seg0.aac"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.animetui.infrastructure.proxy;
+
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.MediaPlayerPort;
+import com.animetui.domain.port.MediaPlayerPort.PlaybackEnd;
+import com.animetui.infrastructure.http.HttpTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProxyingMediaPlayerTest {
+    
+    private final HlsPrefetchProxy proxy = new HlsPrefetchProxy(
+            new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of()), 2, 2, 1024 * 1024);
+    
+    @AfterEach
+    void tearDown() {
+        proxy.close();
+    }
+    
+    @Test
+    void shouldTellEveryListenerTheOriginalUrl() {
+        // Given: two listeners, as the single-episode and playlist use cases register
+        MediaPlayerPort delegate = mock(MediaPlayerPort.class);
+        ProxyingMediaPlayer player = new ProxyingMediaPlayer(delegate, proxy);
+        ArgumentCaptor<MediaPlayerPort.PlaybackListener> registered = ArgumentCaptor.forClass(MediaPlayerPort.PlaybackListener.class);
+        verify(delegate).addPlaybackListener(registered.capture());
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        player.addPlaybackListener((url, end) -> first.add(url));
+        player.addPlaybackListener((url, end) -> second.add(url));
+        
+        String original = "https://cdn.example.com/ep1/master.m3u8";
+        player.play(new StreamLink(original, "720p", "hls", "test", true));
+        ArgumentCaptor<StreamLink> played = ArgumentCaptor.forClass(StreamLink.class);
+        verify(delegate).play(played.capture());
+        
+        // When
+        registered.getValue().ended(played.getValue().url(), PlaybackEnd.FINISHED);
+        
+        // Then
+        assertNotEquals(original, played.getValue().url());
+        assertEquals(List.of(original), first);
+        assertEquals(List.of(original), second);
+    }
+}
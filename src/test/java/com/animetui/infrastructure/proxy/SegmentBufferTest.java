@@ -0,0 +1,71 @@
+package com.animetui.infrastructure.proxy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentBufferTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void shouldFetchSegmentOnceForConcurrentRequests() throws Exception {
+        // Given
+        SegmentBuffer buffer = new SegmentBuffer(directory, 1024 * 1024);
+        CompletableFuture<SegmentBuffer.Segment> fetch = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        
+        // When
+        List<Future<CompletableFuture<SegmentBuffer.Segment>>> requests = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                requests.add(executor.submit(() -> {
+                    start.await();
+                    return buffer.get(0, () -> {
+                        loads.incrementAndGet();
+                        return fetch;
+                    });
+                }));
+            }
+            start.countDown();
+            fetch.complete(new SegmentBuffer.Segment(buffer.fileFor(0), 10, "video/mp2t"));
+            
+            // Then
+            for (Future<CompletableFuture<SegmentBuffer.Segment>> request : requests) {
+                assertEquals(10, request.get().get().size());
+            }
+        }
+        assertEquals(1, loads.get());
+    }
+    
+    @Test
+    void shouldFetchAgainAfterFailure() {
+        // Given
+        SegmentBuffer buffer = new SegmentBuffer(directory, 1024 * 1024);
+        CompletableFuture<SegmentBuffer.Segment> failed = buffer.get(0,
+                () -> CompletableFuture.failedFuture(new UncheckedIOException(new IOException("HTTP 503"))));
+        
+        // When
+        CompletableFuture<SegmentBuffer.Segment> retried = buffer.get(0,
+                () -> CompletableFuture.completedFuture(new SegmentBuffer.Segment(buffer.fileFor(0), 10, "video/mp2t")));
+        
+        // Then
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(10, retried.join().size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.LinkResolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FallbackLinkResolverTest {
+    
+    private final Episode episode = new Episode("1_ep_1", "1", "Anime", 1, "Episode 1", "", 24, null, null);
+    private final StreamLink stubLink = new StreamLink("https://stub.example/ep1.mp4", "720p", "mp4", "stub", true);
+    private final LinkResolver primary = mock(LinkResolver.class);
+    private final LinkResolver fallback = mock(LinkResolver.class);
+    private final FallbackLinkResolver resolver = new FallbackLinkResolver(primary, fallback);
+    
+    @Test
+    void shouldFallBackWhenPrimaryFails() {
+        // Given
+        when(primary.resolve(episode)).thenThrow(new RuntimeException("blocked"));
+        when(fallback.resolve(episode)).thenReturn(List.of(stubLink));
+        
+        // When / Then
+        assertEquals(List.of(stubLink), resolver.resolve(episode));
+    }
+    
+    @Test
+    void shouldNotFallBackWhenPrimaryIsCancelled() {
+        // Given
+        when(primary.resolve(episode)).thenThrow(new CancellationException("cancelled"));
+        
+        // When / Then
+        assertThrows(CancellationException.class, () -> resolver.resolve(episode));
+        verifyNoInteractions(fallback);
+    }
+    
+    @Test
+    void shouldNotFallBackWhenCallerIsInterrupted() {
+        // Given: the primary gave up early because the caller was interrupted
+        when(primary.resolve(episode)).thenAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            return List.of();
+        });
+        
+        // When / Then
+        try {
+            assertThrows(CancellationException.class, () -> resolver.resolve(episode));
+            verifyNoInteractions(fallback);
+            assertTrue(Thread.currentThread().isInterrupted(), "interrupt flag should be kept");
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
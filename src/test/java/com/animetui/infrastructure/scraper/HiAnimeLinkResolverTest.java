@@ -0,0 +1,170 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.infrastructure.cache.WatchUrlIndex;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.animetui.infrastructure.http.PolitenessScheduler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HiAnimeLinkResolverTest {
+    
+    private static final String SEARCH_PAGE = """
+            <!DOCTYPE html>
+            <html><head><title>Search</title></head>
+            <body>
+              <div class="film_list-wrap">
+                <div class="flw-item">
+                  <a class="film-poster-ahref" href="/watch/one-piece-100" title="One Piece">One Piece</a>
+                </div>
+                <div class="flw-item">
+                  <a href="/watch/one-piece-film-red-18236" title="One Piece Film: Red">Film: Red</a>
+                </div>
+            """;
+    
+    private static final String EPISODE_PAGE = """
+            <!DOCTYPE html>
+            <html><head>
+              <script>var config = {theme: 'dark'};</script>
+            </head>
+            <body>
+              <iframe src="https://player.example.com/embed/stream-1001"></iframe>
+              <video><source src="https://cdn.example.com/ep1/480.mp4"></video>
+              <script>window.__NUXT__ = {"sources": {"hd": "https:\\/\\/cdn.example.com\\/ep1\\/master.m3u8"}};</script>
+            """;
+    
+    // Enough markup after the interesting part for the parser to emit it
+    private static final String FILLER = "<div class=\"block_area\"><p>More below the fold</p></div>\n".repeat(1024);
+    
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger searches = new AtomicInteger();
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/search", exchange -> {
+            searches.incrementAndGet();
+            serveWithoutEnd(exchange, SEARCH_PAGE);
+        });
+        server.createContext("/watch/", exchange -> serveWithoutEnd(exchange, EPISODE_PAGE));
+        server.createContext("/down/", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    /**
+     * Send the start of a page, then hold the rest back until the test ends, so the
+     * resolver can only finish by stopping early.
+     */
+    private void serveWithoutEnd(HttpExchange exchange, String head) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write((head + FILLER).getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            release.await(30, TimeUnit.SECONDS);
+            body.write("</body></html>".getBytes(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The resolver hung up once it had what it needed
+        }
+    }
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+    
+    private HiAnimeLinkResolver resolver() {
+        return resolver(baseUrl);
+    }
+    
+    private HiAnimeLinkResolver resolver(String siteUrl) {
+        return new HiAnimeLinkResolver(siteUrl,
+                new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(20), Map.of()),
+                new WatchUrlIndex(null, 100),
+                new PolitenessScheduler(Duration.ZERO, Duration.ZERO, 0));
+    }
+    
+    private static Episode episode(int number) {
+        return new Episode("21_ep_" + number, "21", "One Piece", number, "Episode " + number, "", 24, null, null);
+    }
+    
+    @Test
+    void shouldStopReadingPagesOnceLinksAreFound() {
+        // Given
+        HiAnimeLinkResolver resolver = resolver();
+        
+        // When: neither page ever finishes downloading
+        long start = System.nanoTime();
+        List<StreamLink> links = resolver.resolve(episode(1));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        // Then: the first search result and every stream selector matched
+        assertTrue(elapsedMillis < 5000, "took " + elapsedMillis + " ms");
+        assertEquals(List.of(
+                "https://player.example.com/embed/stream-1001",
+                "https://cdn.example.com/ep1/480.mp4",
+                "https://cdn.example.com/ep1/master.m3u8"), links.stream().map(StreamLink::url).toList());
+        StreamLink master = links.get(2);
+        assertEquals("hls", master.format());
+        assertEquals("720p", master.quality());
+    }
+    
+    @Test
+    void shouldReuseIndexedWatchPageForLaterEpisodes() {
+        // Given
+        HiAnimeLinkResolver resolver = resolver();
+        resolver.resolve(episode(1));
+        
+        // When
+        List<StreamLink> links = resolver.resolve(episode(2));
+        
+        // Then
+        assertFalse(links.isEmpty());
+        assertEquals(1, searches.get());
+    }
+    
+    @Test
+    void shouldReportUnreachableSiteInsteadOfNoLinks() {
+        // Given
+        HiAnimeLinkResolver resolver = resolver(baseUrl + "/down");
+        
+        // When
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> resolver.resolve(episode(1)));
+        
+        // Then
+        assertTrue(e.getCause().getMessage().startsWith("HTTP 500"), e.getCause().getMessage());
+    }
+}
@@ -0,0 +1,67 @@
+package com.animetui.infrastructure.scraper;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HlsPlaylistParserTest {
+    
+    @Test
+    void shouldParseVariantsWithQuotedCodecs() {
+        // Given
+        String playlist = """
+                #EXTM3U
+                #EXT-X-VERSION:3
+                #EXT-X-STREAM-INF:BANDWIDTH=2800000,RESOLUTION=1280x720,CODECS="avc1.4d401f,mp4a.40.2"
+                720/index.m3u8
+                #EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360
+                https://cdn2.example.com/360/index.m3u8
+                """;
+        
+        // When
+        List<HlsPlaylistParser.Variant> variants =
+                HlsPlaylistParser.parseVariants(playlist, URI.create("https://cdn.example.com/ep1/master.m3u8?t=1"));
+        
+        // Then
+        assertTrue(HlsPlaylistParser.isMasterPlaylist(playlist));
+        assertEquals(List.of(
+                new HlsPlaylistParser.Variant("https://cdn.example.com/ep1/720/index.m3u8", 2_800_000, 1280, 720,
+                        "avc1.4d401f,mp4a.40.2"),
+                new HlsPlaylistParser.Variant("https://cdn2.example.com/360/index.m3u8", 800_000, 640, 360, null)),
+                variants);
+    }
+    
+    @Test
+    void shouldNotTreatMediaPlaylistAsMaster() {
+        // Given
+        String playlist = "#EXTM3U\n#EXT-X-TARGETDURATION:10\n#EXTINF:10.0,\nsegment0.ts\n#EXT-X-ENDLIST\n";
+        
+        // When / Then
+        assertFalse(HlsPlaylistParser.isMasterPlaylist(playlist));
+        assertTrue(HlsPlaylistParser.parseVariants(playlist, URI.create("https://cdn.example.com/a.m3u8")).isEmpty());
+    }
+    
+    @Test
+    void shouldDetectAlternateRenditionsOnlyWhenTheyHaveTheirOwnPlaylist() {
+        // Given
+        String withAudio = """
+                #EXTM3U
+                #EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID="aud",NAME="Japanese",URI="audio/jpn.m3u8"
+                #EXT-X-STREAM-INF:BANDWIDTH=2800000,AUDIO="aud"
+                720/index.m3u8
+                """;
+        String muxedAudio = """
+                #EXTM3U
+                #EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID="aud",NAME="Japanese",DEFAULT=YES
+                #EXT-X-STREAM-INF:BANDWIDTH=2800000,AUDIO="aud"
+                720/index.m3u8
+                """;
+        
+        // When / Then
+        assertTrue(HlsPlaylistParser.hasAlternateRenditions(withAudio));
+        assertFalse(HlsPlaylistParser.hasAlternateRenditions(muxedAudio));
+    }
+}
@@ -0,0 +1,149 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.model.StreamLinkSelector;
+import com.animetui.domain.port.LinkResolver;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HlsVariantLinkResolverTest {
+    
+    private static final String PLAIN_MASTER = """
+            #EXTM3U
+            #EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360
+            360/index.m3u8
+            #EXT-X-STREAM-INF:BANDWIDTH=2800000,RESOLUTION=1280x720
+            720/index.m3u8
+            """;
+    
+    private static final String MASTER_WITH_AUDIO = """
+            #EXTM3U
+            #EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID="aud",NAME="Japanese",URI="audio/jpn.m3u8"
+            #EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360,AUDIO="aud"
+            360/index.m3u8
+            #EXT-X-STREAM-INF:BANDWIDTH=2800000,RESOLUTION=1280x720,AUDIO="aud"
+            720/index.m3u8
+            """;
+    
+    private final Episode episode = new Episode("ep-1", "1", "Show", 1, "Episode 1", null, 24, null, null);
+    private final HttpTransport transport = new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of());
+    
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    private HttpServer server;
+    private String baseUrl;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serve("/plain/master.m3u8", PLAIN_MASTER);
+        serve("/audio/master.m3u8", MASTER_WITH_AUDIO);
+        server.createContext("/slow/master.m3u8", exchange -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+    
+    private void serve(String path, String playlist) {
+        server.createContext(path, exchange -> {
+            byte[] body = playlist.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+    }
+    
+    private LinkResolver source(String url) {
+        LinkResolver source = mock(LinkResolver.class);
+        when(source.resolve(episode)).thenReturn(List.of(new StreamLink(url, "auto", "hls", "test", true)));
+        return source;
+    }
+    
+    @Test
+    void shouldReplacePlainMasterWithVariantPlaylists() {
+        // Given
+        HlsVariantLinkResolver resolver = new HlsVariantLinkResolver(source(baseUrl + "/plain/master.m3u8"), transport);
+        
+        // When
+        List<StreamLink> links = resolver.resolve(episode);
+        
+        // Then
+        assertEquals(List.of(baseUrl + "/plain/720/index.m3u8", baseUrl + "/plain/360/index.m3u8"),
+                links.stream().map(StreamLink::url).toList());
+        assertEquals(List.of(2_800_000L, 800_000L), links.stream().map(StreamLink::bandwidth).toList());
+    }
+    
+    @Test
+    void shouldKeepMasterUrlWhenItHasAlternateRenditions() {
+        // Given
+        String master = baseUrl + "/audio/master.m3u8";
+        HlsVariantLinkResolver resolver = new HlsVariantLinkResolver(source(master), transport);
+        
+        // When
+        List<StreamLink> links = resolver.resolve(episode);
+        
+        // Then: the audio playlist is only reachable through the master
+        assertEquals(List.of(master, master), links.stream().map(StreamLink::url).toList());
+        assertEquals(List.of(720, 360), links.stream().map(StreamLink::height).toList());
+    }
+    
+    @Test
+    void shouldPickBestLinkWithinConfiguredBandwidth() {
+        // Given
+        HlsVariantLinkResolver resolver = new HlsVariantLinkResolver(source(baseUrl + "/plain/master.m3u8"),
+                transport, new StreamLinkSelector(1_000_000));
+        
+        // When
+        StreamLink best = resolver.resolveBest(episode);
+        
+        // Then
+        assertEquals(800_000L, best.bandwidth());
+    }
+    
+    @Test
+    void shouldStopWaitingWhenInterrupted() {
+        // Given: the caller is interrupted while the playlist never arrives
+        LinkResolver source = mock(LinkResolver.class);
+        when(source.resolve(episode)).thenAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            return List.of(new StreamLink(baseUrl + "/slow/master.m3u8", "auto", "hls", "test", true));
+        });
+        HlsVariantLinkResolver resolver = new HlsVariantLinkResolver(source, transport);
+        
+        // When / Then: runs on its own thread, so the interrupt does not leak into other tests
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            assertThrows(CancellationException.class, () -> resolver.resolve(episode));
+            assertTrue(Thread.currentThread().isInterrupted(), "interrupt flag should be kept");
+        });
+    }
+}
@@ -0,0 +1,274 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Anime;
+import com.animetui.domain.model.Episode;
+import com.animetui.infrastructure.cache.HttpResponseCache;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.animetui.infrastructure.http.RateLimiter;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JikanAnimeScraperTest {
+    
+    private static final String ANIME = "{\"data\":{\"mal_id\":1,\"title\":\"Cowboy Bebop\",\"episodes\":26}}";
+    
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private final AtomicInteger requests = new AtomicInteger();
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // Answer concurrent page requests concurrently
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        // Rate-limited once, then served
+        server.createContext("/anime/1", exchange -> {
+            if (requests.incrementAndGet() == 1) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                exchange.sendResponseHeaders(429, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ANIME.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/anime/2", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = ("  " + ANIME + "\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+    
+    @Test
+    void shouldRetryAfterServerRequestedPause() {
+        // Given
+        RateLimiter limiter = RateLimiter.perSecondAndMinute(10, 600);
+        JikanAnimeScraper scraper = new JikanAnimeScraper(baseUrl,
+                new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of()), null, limiter, 3);
+        
+        // When
+        long start = System.nanoTime();
+        Optional<Anime> anime = scraper.findById("1");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        // Then
+        assertEquals("Cowboy Bebop", anime.orElseThrow().title());
+        assertEquals(2, requests.get());
+        assertTrue(elapsedMillis >= 1000, "retried after " + elapsedMillis + " ms");
+        // The retry waited out the pause behind the limiter
+        assertEquals(1, limiter.stats().throttled());
+    }
+    
+    @Test
+    void shouldCacheStreamedResponseBodyVerbatim(@TempDir Path cacheDirectory) throws IOException {
+        // Given
+        HttpResponseCache cache = new HttpResponseCache(cacheDirectory, 1024 * 1024);
+        JikanAnimeScraper scraper = new JikanAnimeScraper(baseUrl,
+                new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of()), cache,
+                RateLimiter.perSecondAndMinute(10, 600), 3);
+        
+        // When
+        Optional<Anime> fetched = scraper.findById("2");
+        Optional<Anime> cached = scraper.findById("2");
+        
+        // Then: the whole body, trailing bytes included, was kept while it was decoded
+        assertEquals("Cowboy Bebop", fetched.orElseThrow().title());
+        assertEquals(fetched, cached);
+        assertEquals(1, requests.get());
+        HttpResponseCache.Entry entry = cache.get(baseUrl + "/anime/2").orElseThrow();
+        assertEquals("  " + ANIME + "\n", new String(entry.body(), StandardCharsets.UTF_8));
+        assertEquals("\"v1\"", entry.etag());
+    }
+    
+    /**
+     * Serve a paginated list whose entries are numbered across pages. Earlier
+     * pages answer more slowly so follow-up pages complete out of order.
+     */
+    private void servePages(String path, int lastVisiblePage, int failingPage, List<String> seenQueries) {
+        server.createContext(path, exchange -> {
+            String query = Optional.ofNullable(exchange.getRequestURI().getQuery()).orElse("");
+            seenQueries.add(query);
+            Map<String, Integer> params = new HashMap<>();
+            for (String param : query.split("&")) {
+                String[] pair = param.split("=");
+                if (pair.length == 2 && pair[1].matches("\\d+")) {
+                    params.put(pair[0], Integer.parseInt(pair[1]));
+                }
+            }
+            int page = params.getOrDefault("page", 1);
+            int perPage = params.getOrDefault("limit", 25);
+            try {
+                Thread.sleep(Math.max(0, 400 - 100L * page));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            
+            if (page == failingPage) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            StringBuilder json = new StringBuilder("{\"data\":[");
+            for (int i = 1; i <= perPage; i++) {
+                int number = (page - 1) * perPage + i;
+                json.append(i > 1 ? "," : "")
+                        .append("{\"mal_id\":").append(number).append(",\"title\":\"Entry ").append(number).append("\"}");
+            }
+            json.append("],\"pagination\":{\"last_visible_page\":").append(lastVisiblePage)
+                    .append(",\"has_next_page\":").append(page < lastVisiblePage).append("}}");
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+    }
+    
+    private JikanAnimeScraper pagingScraper() {
+        return new JikanAnimeScraper(baseUrl, new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of()),
+                null, RateLimiter.perSecondAndMinute(100, 6000), 3);
+    }
+    
+    @Test
+    void shouldMergePagesInPageOrderAndTruncateAtLimit() {
+        // Given: five pages upstream, of which a limit of 60 needs three
+        List<String> queries = new CopyOnWriteArrayList<>();
+        servePages("/top/anime", 5, -1, queries);
+        
+        // When
+        List<Anime> anime = pagingScraper().listPopular(60);
+        
+        // Then
+        assertEquals(60, anime.size());
+        for (int i = 0; i < anime.size(); i++) {
+            assertEquals(String.valueOf(i + 1), anime.get(i).id());
+        }
+        assertEquals(Set.of("limit=25", "limit=25&page=2", "limit=25&page=3"), Set.copyOf(queries));
+    }
+    
+    @Test
+    void shouldStopAtLastVisiblePage() {
+        // Given: fewer pages upstream than the limit would allow
+        List<String> queries = new CopyOnWriteArrayList<>();
+        servePages("/anime/7/episodes", 3, -1, queries);
+        
+        // When
+        List<Episode> episodes = pagingScraper().episodesById("7");
+        
+        // Then
+        assertEquals(75, episodes.size());
+        assertEquals(List.of(1, 26, 51, 75), List.of(episodes.get(0).number(), episodes.get(25).number(),
+                episodes.get(50).number(), episodes.get(74).number()));
+        assertEquals(Set.of("", "page=2", "page=3"), Set.copyOf(queries));
+        
+        // A limit that fits in one page never asks for a second
+        queries.clear();
+        servePages("/seasons/now", 4, -1, queries);
+        assertEquals(10, pagingScraper().getCurrentSeason(10).size());
+        assertEquals(List.of("limit=10"), queries);
+    }
+    
+    @Test
+    void shouldFailWholeListWhenAPageInTheMiddleFails() {
+        // Given: page 2 of 3 is an upstream error
+        servePages("/top/anime", 3, 2, new CopyOnWriteArrayList<>());
+        
+        // When
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> pagingScraper().listPopular(75));
+        
+        // Then: no partial, silently shifted list
+        assertEquals("Failed to fetch popular anime", failure.getMessage());
+        assertTrue(failure.getCause().getMessage().startsWith("HTTP 500"), failure.getCause().getMessage());
+    }
+    
+    @Test
+    void shouldRejectNonPositiveLimit() {
+        // Given
+        JikanAnimeScraper scraper = new JikanAnimeScraper(baseUrl);
+        
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> scraper.listPopular(0));
+    }
+    
+    @Test
+    void shouldCancelHttpExchangeWhenBlockedCallerIsInterrupted() throws InterruptedException {
+        // Given: an exchange that never answers
+        CompletableFuture<HttpResponse<InputStream>> exchange = new CompletableFuture<>();
+        CountDownLatch sent = new CountDownLatch(1);
+        HttpTransport transport = new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of()) {
+            @Override
+            public CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+                sent.countDown();
+                return exchange;
+            }
+        };
+        JikanAnimeScraper scraper = new JikanAnimeScraper(baseUrl, transport, null,
+                RateLimiter.perSecondAndMinute(10, 600), 3);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        AtomicReference<Optional<Anime>> returned = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                returned.set(scraper.findById("1"));
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+        caller.start();
+        
+        // When
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(5000);
+        
+        // Then: the caller gave up with an error instead of hanging or returning
+        assertFalse(caller.isAlive());
+        assertNull(returned.get());
+        assertInstanceOf(RuntimeException.class, thrown.get());
+        assertInstanceOf(InterruptedException.class, thrown.get().getCause());
+        // Cancelled by the stage that started it, which may finish just after the caller left
+        assertThrows(CancellationException.class, () -> exchange.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,127 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Anime;
+import com.animetui.domain.model.Episode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JikanJsonReaderTest {
+    
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final JikanJsonReader reader = new JikanJsonReader();
+    
+    private JsonParser parser(String json) throws IOException {
+        return jsonFactory.createParser(json.replace('\'', '"'));
+    }
+    
+    @Test
+    void shouldReadAnimeListSkippingUnknownAndNestedFields() throws IOException {
+        // Given: unknown fields at every level, before and after the ones that are kept
+        String json = """
+            {'links': {'next': {'href': 'x'}},
+             'data': [
+               {'mal_id': 1, 'trailer': {'images': {'jpg': {'image_url': 'trailer.jpg'}}},
+                'title': 'Cowboy Bebop', 'episodes': 26, 'status': 'Finished Airing',
+                'images': {'webp': {'image_url': 'a.webp'}, 'jpg': {'small_image_url': 's.jpg', 'image_url': 'a.jpg'}},
+                'aired': {'prop': {'from': {'day': 3}}, 'from': '1998-04-03T00:00:00+00:00'},
+                'genres': [{'mal_id': 1, 'name': 'Action'}, {'name': 'Sci-Fi', 'url': 'u'}],
+                'producers': [[1, 2], {'a': [3]}]},
+               {'mal_id': 5, 'title': 'Cowboy Bebop: The Movie'}
+             ],
+             'pagination': {'has_next_page': true, 'items': {'count': 2}, 'last_visible_page': 4}}
+            """;
+        
+        // When
+        JikanPage<Anime> page = reader.readAnimeList(parser(json));
+        
+        // Then
+        assertEquals(4, page.lastVisiblePage());
+        assertEquals(2, page.items().size());
+        Anime first = page.items().get(0);
+        assertEquals("1", first.id());
+        assertEquals("Cowboy Bebop", first.title());
+        assertEquals(26, first.episodeCount());
+        assertEquals("Finished Airing", first.status());
+        assertEquals("a.jpg", first.imageUrl());
+        assertEquals(LocalDate.of(1998, 4, 3), first.airingDate());
+        assertEquals(List.of("Action", "Sci-Fi"), first.genres());
+        assertEquals("Cowboy Bebop: The Movie", page.items().get(1).title());
+    }
+    
+    @Test
+    void shouldDefaultNullFieldsAndSkipInvalidEntries() throws IOException {
+        // Given
+        String json = """
+            {'data': [
+               {'mal_id': 1, 'title': 'Monster', 'synopsis': null, 'episodes': null,
+                'status': null, 'images': null, 'aired': {'from': null}, 'genres': null},
+               {'mal_id': 2, 'title': null},
+               {'mal_id': 3, 'title': 'Pluto'}
+             ]}
+            """;
+        
+        // When
+        JikanPage<Anime> page = reader.readAnimeList(parser(json));
+        
+        // Then
+        assertEquals(1, page.lastVisiblePage());
+        assertEquals(List.of("1", "3"), page.items().stream().map(Anime::id).toList());
+        Anime monster = page.items().get(0);
+        assertEquals("", monster.synopsis());
+        assertEquals(0, monster.episodeCount());
+        assertEquals("Unknown", monster.status());
+        assertNull(monster.imageUrl());
+        assertNull(monster.airingDate());
+        assertTrue(monster.genres().isEmpty());
+    }
+    
+    @Test
+    void shouldTreatMissingOrNullDataAsEmpty() throws IOException {
+        // When / Then
+        assertTrue(reader.readAnimeList(parser("{'pagination': {'last_visible_page': 2}}")).items().isEmpty());
+        assertTrue(reader.readAnimeList(parser("{'data': null}")).items().isEmpty());
+        assertTrue(reader.readEpisodeList(parser("{'data': {}}"), "1").items().isEmpty());
+        assertNull(reader.readAnimeDetails(parser("{'status': 404, 'message': 'Not Found'}")));
+        assertNull(reader.readAnimeDetails(parser("{'data': []}")));
+        assertThrows(IOException.class, () -> reader.readAnimeList(parser("[]")));
+    }
+    
+    @Test
+    void shouldReadAnimeDetailsAndEpisodes() throws IOException {
+        // Given
+        String details = "{'data': {'mal_id': 30, 'title': 'Neon Genesis Evangelion', 'relations': [{'entry': []}]}}";
+        String episodes = """
+            {'pagination': {'last_visible_page': 2},
+             'data': [
+               {'mal_id': 1, 'title': 'Angel Attack', 'aired': '1995-10-04T00:00:00+09:00', 'filler': false},
+               {'mal_id': 2, 'title': null, 'aired': null, 'synopsis': null},
+               {'mal_id': 0, 'title': 'Recap'}
+             ]}
+            """;
+        
+        // When
+        Anime anime = reader.readAnimeDetails(parser(details));
+        JikanPage<Episode> page = reader.readEpisodeList(parser(episodes), "30");
+        
+        // Then
+        assertEquals("Neon Genesis Evangelion", anime.title());
+        assertEquals(2, page.lastVisiblePage());
+        assertEquals(2, page.items().size());
+        Episode first = page.items().get(0);
+        assertEquals("30_ep_1", first.id());
+        assertEquals("Angel Attack", first.title());
+        assertEquals(LocalDateTime.of(1995, 10, 4, 0, 0), first.airDate());
+        Episode second = page.items().get(1);
+        assertEquals("Episode 2", second.title());
+        assertEquals("", second.description());
+        assertNull(second.airDate());
+    }
+}
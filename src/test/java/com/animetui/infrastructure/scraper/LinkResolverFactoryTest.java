@@ -0,0 +1,105 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.ConfigPort;
+import com.animetui.domain.port.LinkResolver;
+import com.animetui.infrastructure.http.HttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LinkResolverFactoryTest {
+    
+    private static final String SEARCH_PAGE = """
+            <html><body>
+              <div class="flw-item">
+                <a class="film-poster-ahref" href="/watch/one-piece-100" title="One Piece">One Piece</a>
+              </div>
+            </body></html>
+            """;
+    
+    private static final String EPISODE_PAGE = """
+            <html><body>
+              <video><source src="https://cdn.example.com/ep1/480.mp4"></video>
+            </body></html>
+            """;
+    
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicBoolean siteDown = new AtomicBoolean(true);
+    private final AtomicInteger episodePages = new AtomicInteger();
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/search", exchange -> send(exchange, siteDown.get() ? 500 : 200, SEARCH_PAGE));
+        server.createContext("/watch/", exchange -> {
+            episodePages.incrementAndGet();
+            send(exchange, 200, EPISODE_PAGE);
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    void shouldNotCacheFallbackLinks() {
+        // Given
+        ConfigPort config = mock(ConfigPort.class);
+        when(config.getString(anyString(), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(config.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(config.getBoolean(anyString(), anyBoolean())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(config.getString(eq("linkresolver.type"), anyString())).thenReturn("hianime");
+        when(config.getString(eq("linkresolver.hianime.baseUrl"), anyString())).thenReturn(baseUrl);
+        when(config.getInt(eq("linkresolver.hianime.minSpacingMs"), anyInt())).thenReturn(0);
+        when(config.getBoolean(eq("linkresolver.hls.expandVariants"), anyBoolean())).thenReturn(false);
+        LinkResolver resolver = LinkResolverFactory.create(config,
+                new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), Map.of()));
+        Episode episode = new Episode("21_ep_1", "21", "One Piece", 1, "Episode 1", "", 24, null, null);
+        
+        // When: the site is down, then recovers
+        List<StreamLink> whileDown = resolver.resolve(episode);
+        siteDown.set(false);
+        List<StreamLink> afterRecovery = resolver.resolve(episode);
+        List<StreamLink> again = resolver.resolve(episode);
+        
+        // Then: the stub answered once, but the real links are what got cached
+        assertFalse(whileDown.isEmpty());
+        assertNotEquals("https://cdn.example.com/ep1/480.mp4", whileDown.get(0).url());
+        assertEquals(List.of("https://cdn.example.com/ep1/480.mp4"), afterRecovery.stream().map(StreamLink::url).toList());
+        assertEquals(afterRecovery, again);
+        assertEquals(1, episodePages.get());
+    }
+}
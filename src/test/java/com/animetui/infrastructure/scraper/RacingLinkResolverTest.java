@@ -0,0 +1,106 @@
+package com.animetui.infrastructure.scraper;
+
+import com.animetui.domain.model.Episode;
+import com.animetui.domain.model.StreamLink;
+import com.animetui.domain.port.LinkResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RacingLinkResolverTest {
+    
+    private final Episode episode = new Episode("1_ep_1", "1", "Anime", 1, "Episode 1", "", 24, null, null);
+    private final StreamLink fastLink = new StreamLink("https://b.example/ep1.mp4", "720p", "mp4", "b", true);
+    
+    @Test
+    void shouldReturnHedgedResultWhenPrimaryIsSlow() {
+        // Given
+        CountDownLatch interrupted = new CountDownLatch(1);
+        LinkResolver slow = resolver(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        });
+        LinkResolver fast = resolver(() -> List.of(fastLink));
+        RacingLinkResolver racing = new RacingLinkResolver(List.of(slow, fast), Duration.ofMillis(50));
+        
+        // When
+        long start = System.nanoTime();
+        List<StreamLink> links = racing.resolve(episode);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        // Then
+        assertEquals(List.of(fastLink), links);
+        assertTrue(elapsedMillis < 5_000, "took " + elapsedMillis + " ms");
+        assertDoesNotThrow(() -> assertTrue(interrupted.await(5, TimeUnit.SECONDS), "slow resolver should be cancelled"));
+    }
+    
+    @Test
+    void shouldStartNextResolverImmediatelyWhenPrimaryFails() {
+        // Given
+        LinkResolver failing = resolver(() -> {
+            throw new RuntimeException("blocked");
+        });
+        LinkResolver fast = resolver(() -> List.of(fastLink));
+        RacingLinkResolver racing = new RacingLinkResolver(List.of(failing, fast), Duration.ofSeconds(30));
+        
+        // When
+        List<StreamLink> links = racing.resolve(episode);
+        
+        // Then
+        assertEquals(List.of(fastLink), links);
+    }
+    
+    @Test
+    void shouldFailWhenEveryResolverFails() {
+        // Given
+        LinkResolver failing = resolver(() -> {
+            throw new RuntimeException("blocked");
+        });
+        RacingLinkResolver racing = new RacingLinkResolver(List.of(failing, failing), Duration.ofMillis(10));
+        
+        // When / Then
+        assertThrows(RuntimeException.class, () -> racing.resolve(episode));
+    }
+    
+    @Test
+    void shouldNotCountCancelledResolverAsFailure() {
+        // Given
+        ResolverScoreboard scoreboard = new ResolverScoreboard(null, Duration.ofSeconds(8));
+        LinkResolver cancelled = resolver("cancelled", () -> {
+            throw new CancellationException("cancelled");
+        });
+        LinkResolver fast = resolver("fast", () -> List.of(fastLink));
+        RacingLinkResolver racing = new RacingLinkResolver(List.of(cancelled, fast), Duration.ofSeconds(30), scoreboard);
+        
+        // When
+        List<StreamLink> links = racing.resolve(episode);
+        
+        // Then
+        assertEquals(List.of(fastLink), links);
+        assertEquals(0, scoreboard.stats("cancelled").attempts());
+        assertEquals(1, scoreboard.stats("fast").successRate());
+    }
+    
+    private LinkResolver resolver(Supplier<List<StreamLink>> behaviour) {
+        return resolver("resolver", behaviour);
+    }
+    
+    private LinkResolver resolver(String name, Supplier<List<StreamLink>> behaviour) {
+        LinkResolver resolver = mock(LinkResolver.class, name);
+        when(resolver.canResolve(any())).thenReturn(true);
+        when(resolver.resolve(any())).thenAnswer(invocation -> behaviour.get());
+        return resolver;
+    }
+}
@@ -0,0 +1,85 @@
+package com.animetui.infrastructure.scraper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolverScoreboardTest {
+    
+    private static final Duration FAST = Duration.ofMillis(200);
+    
+    private final ResolverScoreboard scoreboard = new ResolverScoreboard(null, Duration.ofSeconds(8));
+    
+    @Test
+    void shouldRankUntriedSourcesFirstThenByReward() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            scoreboard.record("good", ResolverScoreboard.Outcome.SUCCESS, FAST);
+            scoreboard.record("bad", ResolverScoreboard.Outcome.FAILURE, FAST);
+        }
+        
+        // When
+        List<String> ranked = scoreboard.rank(List.of("bad", "good", "new"), Function.identity());
+        
+        // Then
+        assertEquals(List.of("new", "good", "bad"), ranked);
+    }
+    
+    @Test
+    void shouldDropSourceThatStartsFailing() {
+        // Given: a long good record for "a", a short one for "b"
+        for (int i = 0; i < 50; i++) {
+            scoreboard.record("a", ResolverScoreboard.Outcome.SUCCESS, FAST);
+        }
+        for (int i = 0; i < 5; i++) {
+            scoreboard.record("b", ResolverScoreboard.Outcome.SUCCESS, FAST);
+        }
+        
+        // When: "a" fails a handful of times in a row
+        for (int i = 0; i < 10; i++) {
+            scoreboard.record("a", ResolverScoreboard.Outcome.FAILURE, FAST);
+        }
+        
+        // Then: recent failures outweigh the old successes
+        assertEquals(List.of("b", "a"), scoreboard.rank(List.of("a", "b"), Function.identity()));
+        assertTrue(scoreboard.stats("a").failureRate() > 0.3);
+    }
+    
+    @Test
+    void shouldIgnoreLostRaces() {
+        // Given
+        scoreboard.record("a", ResolverScoreboard.Outcome.SUCCESS, FAST);
+        ResolverScoreboard.Stats before = scoreboard.stats("a");
+        
+        // When
+        for (int i = 0; i < 20; i++) {
+            scoreboard.record("a", ResolverScoreboard.Outcome.CANCELLED, Duration.ofSeconds(8));
+        }
+        
+        // Then
+        assertEquals(before, scoreboard.stats("a"));
+    }
+    
+    @Test
+    void shouldReloadSavedScores(@TempDir Path dir) {
+        // Given
+        Path file = dir.resolve("scores.json");
+        ResolverScoreboard saved = new ResolverScoreboard(file, Duration.ofSeconds(8));
+        saved.record("a", ResolverScoreboard.Outcome.SUCCESS, FAST);
+        saved.record("b", ResolverScoreboard.Outcome.EMPTY, FAST);
+        
+        // When
+        saved.save();
+        ResolverScoreboard loaded = new ResolverScoreboard(file, Duration.ofSeconds(8));
+        
+        // Then
+        assertEquals(saved.stats("a"), loaded.stats("a"));
+        assertEquals(saved.stats("b"), loaded.stats("b"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.animetui.infrastructure.scraper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamUrlScannerTest {
+    
+    @Test
+    void shouldFindQuotedStreamUrls() {
+        // Given
+        String script = "var player = {sources: [{'file': 'https://cdn.example.com/ep1/master.M3U8?token=abc'}],"
+                + " backup: \"https://cdn.example.com/ep1/720.mp4\"};";
+        
+        // When
+        StreamUrlScanner.Result result = StreamUrlScanner.scan(script);
+        
+        // Then
+        assertEquals(List.of(
+                "https://cdn.example.com/ep1/master.M3U8?token=abc",
+                "https://cdn.example.com/ep1/720.mp4"), result.urls());
+        assertTrue(result.jsonRegions().isEmpty());
+    }
+    
+    @Test
+    void shouldIgnoreRelativePathsAndNonExtensionMatches() {
+        // Given
+        String script = "import x from './player.ts'; load('https://example.com/app.tsx'); go('/local/video.mp4');";
+        
+        // When
+        StreamUrlScanner.Result result = StreamUrlScanner.scan(script);
+        
+        // Then
+        assertTrue(result.urls().isEmpty());
+    }
+    
+    @Test
+    void shouldExtractExactNuxtJsonRegion() {
+        // Given
+        String script = "window.__NUXT__ = {\"stream\": {\"hd\": \"https:\\/\\/cdn.example.com\\/a.m3u8\", \"note\": \"}\"}};"
+                + " console.log('done');";
+        
+        // When
+        StreamUrlScanner.Result result = StreamUrlScanner.scan(script);
+        
+        // Then
+        assertEquals(List.of("{\"stream\": {\"hd\": \"https:\\/\\/cdn.example.com\\/a.m3u8\", \"note\": \"}\"}}"),
+                result.jsonRegions());
+        assertEquals(List.of("https://cdn.example.com/a.m3u8"), result.urls());
+    }
+    
+    @Test
+    void shouldSkipNuxtStateThatIsNotALiteral() {
+        // When
+        StreamUrlScanner.Result result = StreamUrlScanner.scan("window.__NUXT__=(function(a){return {a:a}}(1));");
+        
+        // Then
+        assertTrue(result.jsonRegions().isEmpty());
+    }
+    
+    @Test
+    void shouldVetSingleCandidatesIgnoringCase() {
+        // When / Then
+        assertTrue(StreamUrlScanner.isStreamUrl("HTTPS://CDN.EXAMPLE.COM/EP1/MASTER.M3U8"));
+        assertTrue(StreamUrlScanner.isStreamUrl("//cdn.example.com/seg-001.TS"));
+        assertTrue(StreamUrlScanner.isStreamUrl("https://player.example.com/embed/LiveStream?id=1"));
+        assertTrue(StreamUrlScanner.isStreamUrl("http://cdn.example.com/\u00e9p/720.Mp4"));
+        assertFalse(StreamUrlScanner.isStreamUrl("/local/video.mp4"));
+        assertFalse(StreamUrlScanner.isStreamUrl("https://example.com/watch/one-piece-100"));
+        assertFalse(StreamUrlScanner.isStreamUrl("https://example.com/__NUXT__"));
+        assertFalse(StreamUrlScanner.isStreamUrl(""));
+        assertFalse(StreamUrlScanner.isStreamUrl("   "));
+    }
+    
+    @Test
+    void shouldNotTreatStreamAnchorAsUrlInScripts() {
+        // When
+        StreamUrlScanner.Result result = StreamUrlScanner.scan("var src = 'https://player.example.com/stream?id=1';");
+        
+        // Then
+        assertTrue(result.urls().isEmpty());
+    }
+}